@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.StanfordDependencies;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRulesProcessor;
+import edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules.TestCases;
+import edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules.TestingRulesGenerator;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * The inputs of the benchmarks: the natural language rules of {@link TestCases}, followed by those of the
+ * {@link TestingRulesGenerator} grammar, always generated with the same seed so that runs can be compared.
+ *
+ * @author pingz
+ *
+ */
+final class BenchmarkInputs {
+
+	private static final long SEED = 1;
+
+	static {
+		if (System.getProperty(Constants.Config.LOCAL_BASE) == null) {
+			Constants.LOCAL_BASE = Constants.FilePath.LOCAL_BASE_JAVA;
+		}
+	}
+
+	private BenchmarkInputs() {
+	}
+
+	static List<String> naturalLanguageRules() {
+		final List<String> naturalLanguageRules = new ArrayList<>();
+		for (final Map<String, Map<String, Integer>> testCase : TestCases.cases) {
+			naturalLanguageRules.addAll(testCase.keySet());
+		}
+		naturalLanguageRules.addAll(TestingRulesGenerator.generateRules(new Random(SEED)));
+		return Collections.unmodifiableList(naturalLanguageRules);
+	}
+
+	/**
+	 * The same as the rule service does, i.e. "The" at the beginning and "." at the end.
+	 */
+	static String preprocess(final String naturalLanguageRule) {
+		return (naturalLanguageRule.toLowerCase().startsWith("the") ? "" : "The ") + naturalLanguageRule
+				+ (naturalLanguageRule.endsWith(".") ? "" : ".");
+	}
+
+	/**
+	 * @return the dependencies of the rules the Jena rules can be assembled from
+	 */
+	static List<DependencyGraph> assemblableGraphs() {
+		final OntologySnapshot ontologySnapshot = OntologySnapshot.getInstance();
+		final List<DependencyGraph> graphs = new ArrayList<>();
+		for (final String naturalLanguageRule : naturalLanguageRules()) {
+			final DependencyGraph graph = StanfordDependencies.getInstance().parseNaturalLanguage(preprocess(naturalLanguageRule));
+			try {
+				new JenaRulesProcessor(graph, ontologySnapshot).assembleRule();
+				graphs.add(graph);
+			} catch (final RuntimeException e) {
+				// e.g. a rule without action
+			}
+		}
+		return graphs;
+	}
+
+	/**
+	 * @return the Jena rules of each rule they can be assembled for
+	 */
+	static List<String[]> jenaRules() {
+		final OntologySnapshot ontologySnapshot = OntologySnapshot.getInstance();
+		final List<String[]> jenaRules = new ArrayList<>();
+		for (final DependencyGraph graph : assemblableGraphs()) {
+			jenaRules.add(new JenaRulesProcessor(graph, ontologySnapshot).assembleRule());
+		}
+		return jenaRules;
+	}
+}
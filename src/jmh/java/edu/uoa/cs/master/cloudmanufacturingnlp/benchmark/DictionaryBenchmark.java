@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.JwnlWordNet;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.Term;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+
+/**
+ * {@link DictionaryService#isSynonym(Term, Term)} of the words of the rules against the ontology properties and classes, as the
+ * ontology lookups compare them, with the decision cached, and without: either made again from the cached WordNet synonym sets
+ * ("miss"), or with the synonym sets read from WordNet too ("wordnet"). The caches are cleared before each invocation of the latter,
+ * out of the timing.
+ *
+ * @author pingz
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DictionaryBenchmark {
+
+	private final DictionaryService dictionaryService = new DictionaryService();
+	private Term[] originalTerms;
+	private Term[] ontologyTerms;
+	private int next = 0;
+
+	@Setup
+	public void setUp() {
+		final Set<String> words = new LinkedHashSet<>();
+		for (final String naturalLanguageRule : BenchmarkInputs.naturalLanguageRules()) {
+			for (final String word : naturalLanguageRule.split("[\\s,;()]+")) {
+				if (word.length() > 2 && !Character.isDigit(word.charAt(0))) {
+					words.add(word);
+				}
+			}
+		}
+
+		final List<Term> ontologyNames = new ArrayList<>(OntologySnapshot.getInstance().getOntPropertyTerms());
+		ontologyNames.addAll(OntologySnapshot.getInstance().getOntClassTerms());
+
+		// every pair of a word and an ontology name
+		final List<Term> originals = new ArrayList<>();
+		final List<Term> ontologies = new ArrayList<>();
+		for (final String word : words) {
+			for (final Term ontologyName : ontologyNames) {
+				originals.add(Term.of(word));
+				ontologies.add(ontologyName);
+			}
+		}
+		this.originalTerms = originals.toArray(new Term[originals.size()]);
+		this.ontologyTerms = ontologies.toArray(new Term[ontologies.size()]);
+
+		for (int i = 0; i < this.originalTerms.length; i++) {
+			this.dictionaryService.isSynonym(this.originalTerms[i], this.ontologyTerms[i]);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ClearedCaches {
+		@Param({ "miss", "wordnet" })
+		public String cache;
+
+		@Setup(Level.Invocation)
+		public void clear() {
+			DictionaryService.getSynonymDecisionCache().clear();
+			if ("wordnet".equals(this.cache)) {
+				JwnlWordNet.getInstance().getSynonymSetCache().clear();
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean isSynonymCached() {
+		return isSynonym();
+	}
+
+	@Benchmark
+	public boolean isSynonymUncached(final ClearedCaches clearedCaches) {
+		return isSynonym();
+	}
+
+	private boolean isSynonym() {
+		final int i = this.next;
+		this.next = (this.next + 1) % this.originalTerms.length;
+		return this.dictionaryService.isSynonym(this.originalTerms[i], this.ontologyTerms[i]);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hp.hpl.jena.rdf.model.InfModel;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+
+/**
+ * {@link JenaInfModelManager#createInfModelByRules(String[])} of the Jena rules generated for the rules of the benchmarks, including
+ * the inference itself, which the model only runs once prepared. With a "cold" reasoner cache, the rules are parsed and the reasoner
+ * created every time; the caches are cleared before each invocation, out of the timing.
+ *
+ * @author pingz
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InferenceBenchmark {
+
+	@Param({ "warm", "cold" })
+	public String reasonerCache;
+
+	private String[][] jenaRules;
+	private int next = 0;
+
+	@Setup
+	public void setUp() {
+		final List<String[]> generatedRules = BenchmarkInputs.jenaRules();
+		this.jenaRules = generatedRules.toArray(new String[generatedRules.size()][]);
+	}
+
+	@Setup(Level.Invocation)
+	public void clearCaches() {
+		if ("cold".equals(this.reasonerCache)) {
+			JenaInfModelManager.getInstance().getReasonerCache().clear();
+			JenaInfModelManager.getInstance().getParsedRuleCache().clear();
+		}
+	}
+
+	@Benchmark
+	public InfModel createInfModelByRules() {
+		final String[] rules = this.jenaRules[this.next];
+		this.next = (this.next + 1) % this.jenaRules.length;
+
+		final InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRules(rules);
+		infModel.prepare();
+		return infModel;
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hp.hpl.jena.rdf.model.InfModel;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRulesProcessor;
+import edu.uoa.cs.master.cloudmanufacturingnlp.ontology.OntologyGenerator;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * The stages which depend on the size of the ontology, over ontologies generated by {@link OntologyGenerator} with the given number of
+ * business entities: building the {@link OntologySnapshot} and its indexes, generating the Jena rules from the dependencies of the
+ * rules of the benchmarks, and listing every statement the Jena rules infer. The heap the snapshot takes is reported by
+ * OntologyScalingReport.
+ *
+ * @author pingz
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OntologyScalingBenchmark {
+
+	@Param({ "0", "100", "1000", "5000" })
+	public int entities;
+
+	private File ontology;
+	private OntologySnapshot ontologySnapshot;
+	private DependencyGraph[] graphs;
+	private String[][] jenaRules;
+	private int nextGraph = 0;
+	private int nextRules = 0;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.ontology = File.createTempFile("ontology-" + this.entities + "-", ".owl");
+		try (OutputStream out = new FileOutputStream(this.ontology)) {
+			new OntologyGenerator(1).withBusinessEntities(this.entities).generate().write(out, "RDF/XML");
+		}
+		System.setProperty(Constants.Config.ONTOLOGY_PATH, this.ontology.getAbsolutePath());
+		this.ontologySnapshot = OntologySnapshot.reload();
+
+		final List<DependencyGraph> assemblableGraphs = BenchmarkInputs.assemblableGraphs();
+		this.graphs = assemblableGraphs.toArray(new DependencyGraph[assemblableGraphs.size()]);
+		final List<String[]> generatedRules = BenchmarkInputs.jenaRules();
+		this.jenaRules = generatedRules.toArray(new String[generatedRules.size()][]);
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.clearProperty(Constants.Config.ONTOLOGY_PATH);
+		this.ontology.delete();
+	}
+
+	@Benchmark
+	public OntologySnapshot reloadOntologySnapshot() {
+		return OntologySnapshot.reload();
+	}
+
+	@Benchmark
+	public String[] assembleRule() {
+		final DependencyGraph graph = this.graphs[this.nextGraph];
+		this.nextGraph = (this.nextGraph + 1) % this.graphs.length;
+		return new JenaRulesProcessor(graph, this.ontologySnapshot).assembleRule();
+	}
+
+	@Benchmark
+	public int listInferredStatements() {
+		final String[] rules = this.jenaRules[this.nextRules];
+		this.nextRules = (this.nextRules + 1) % this.jenaRules.length;
+
+		final InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRules(rules);
+		int statements = 0;
+		for (final StmtIterator it = infModel.listStatements(); it.hasNext();) {
+			it.next();
+			statements++;
+		}
+		return statements;
+	}
+}
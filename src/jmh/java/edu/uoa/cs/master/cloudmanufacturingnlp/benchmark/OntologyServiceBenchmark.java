@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologyService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * The construction of {@link OntologyService} and of the {@link OntologySnapshot} it reads, and each of its lookups, with the
+ * arguments the rule assembly passes for the rules of the benchmarks. The lookups of objects memoize their results in the snapshot, so
+ * these are the figures of the steady state.
+ *
+ * @author pingz
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OntologyServiceBenchmark {
+
+	private static final String[] PROPERTIES = { "shares", Constants.Ontology.NAME, Constants.Ontology.HAS_RESOURCE, "rating",
+			"operation" };
+	private static final String[] CLASSES = { Constants.Ontology.RESOURCE, "machining resources", "hard resources",
+			Constants.Ontology.BUSINESS_ENTITY };
+	private static final String[] OBJECTS = { "New Zealand", "NZ", "private limited company", "OKUMA MP-46V" };
+	private static final String[] PREDICATES = { Constants.Ontology.RDF_TYPE_USING_PREFIX, "manuservice:country",
+			"manuservice:name" };
+	private static final String[][] OBJECTS_AND_REFERENCES = { { "A", "CompanyB" }, { "C", "CompanyB" }, { "E", "CompanyA" } };
+	private static final String[][] OBJECTS_AND_SUBJECTS = { { "New Zealand", "CompanyB" }, { "private limited company", "CompanyC" } };
+
+	private final DictionaryService dictionaryService = new DictionaryService();
+	private OntologySnapshot ontologySnapshot;
+	private OntologyService ontologyService;
+
+	@Setup
+	public void setUp() {
+		this.ontologySnapshot = OntologySnapshot.getInstance();
+		this.ontologyService = new OntologyService(this.dictionaryService, this.ontologySnapshot);
+	}
+
+	@Benchmark
+	public OntologyService newOntologyService() {
+		return new OntologyService(this.dictionaryService, this.ontologySnapshot);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public OntologySnapshot reloadOntologySnapshot() {
+		return OntologySnapshot.reload();
+	}
+
+	@Benchmark
+	public void lookupOntProperty(final Blackhole blackhole) {
+		for (final String property : PROPERTIES) {
+			blackhole.consume(this.ontologyService.lookupOntProperty(property));
+		}
+	}
+
+	@Benchmark
+	public void lookupOntClass(final Blackhole blackhole) {
+		for (final String ontClass : CLASSES) {
+			blackhole.consume(this.ontologyService.lookupOntClass(ontClass));
+		}
+	}
+
+	@Benchmark
+	public void lookupObjectByNlObject(final Blackhole blackhole) {
+		for (final String object : OBJECTS) {
+			blackhole.consume(this.ontologyService.lookupObjectByNlObject(object));
+		}
+	}
+
+	@Benchmark
+	public void lookupPredicateSubjectListByObject(final Blackhole blackhole) {
+		for (final String object : OBJECTS) {
+			blackhole.consume(this.ontologyService.lookupPredicateSubjectListByObject(object));
+		}
+	}
+
+	@Benchmark
+	public void lookupObjectSubjectListByPredicate(final Blackhole blackhole) {
+		for (final String predicate : PREDICATES) {
+			blackhole.consume(this.ontologyService.lookupObjectSubjectListByPredicate(predicate));
+		}
+	}
+
+	@Benchmark
+	public void lookupObjectByNlObjectAndReferenceObject(final Blackhole blackhole) {
+		for (final String[] objectAndReference : OBJECTS_AND_REFERENCES) {
+			blackhole.consume(this.ontologyService.lookupObjectByNlObjectAndReferenceObject(objectAndReference[0], objectAndReference[1]));
+		}
+	}
+
+	@Benchmark
+	public void lookupPredicateSubjectByObject(final Blackhole blackhole) {
+		for (final String[] objectAndSubject : OBJECTS_AND_SUBJECTS) {
+			blackhole.consume(this.ontologyService.lookupPredicateSubjectByObject(objectAndSubject[0], objectAndSubject[1]));
+		}
+	}
+}
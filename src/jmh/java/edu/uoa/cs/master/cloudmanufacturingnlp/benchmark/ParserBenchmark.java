@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.PcfgDependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.StanfordDependencies;
+
+/**
+ * {@link StanfordDependencies#parseNaturalLanguage(String)}, i.e. the parser as configured (the template fast path over the PCFG
+ * parser by default), and each backend on its own.
+ *
+ * @author pingz
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParserBenchmark {
+
+	@Param({ "default", "pcfg", "pcfg-pretagged", "nndep" })
+	public String parser;
+
+	private DependencyParserBackend backend;
+	private String[] sentences;
+	private int next = 0;
+
+	@Setup
+	public void setUp() {
+		final List<String> naturalLanguageRules = BenchmarkInputs.naturalLanguageRules();
+		this.sentences = new String[naturalLanguageRules.size()];
+		for (int i = 0; i < this.sentences.length; i++) {
+			this.sentences[i] = BenchmarkInputs.preprocess(naturalLanguageRules.get(i));
+		}
+
+		if ("default".equals(this.parser)) {
+			this.backend = StanfordDependencies.getInstance();
+		} else if ("pcfg-pretagged".equals(this.parser)) {
+			this.backend = new PcfgDependencyParserBackend(true);
+		} else {
+			this.backend = StanfordDependencies.createBackend(this.parser);
+		}
+	}
+
+	@Benchmark
+	public DependencyGraph parseNaturalLanguage() {
+		final String sentence = this.sentences[this.next];
+		this.next = (this.next + 1) % this.sentences.length;
+		return this.backend.parseNaturalLanguage(sentence);
+	}
+}
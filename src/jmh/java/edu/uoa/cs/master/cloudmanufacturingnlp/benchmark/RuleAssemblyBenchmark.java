@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRulesProcessor;
+
+/**
+ * {@link JenaRulesProcessor#assembleRule()} of the rules of the benchmarks, from the dependencies parsed beforehand.
+ *
+ * @author pingz
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleAssemblyBenchmark {
+
+	private OntologySnapshot ontologySnapshot;
+	private DependencyGraph[] graphs;
+	private int next = 0;
+
+	@Setup
+	public void setUp() {
+		this.ontologySnapshot = OntologySnapshot.getInstance();
+		final List<DependencyGraph> assemblableGraphs = BenchmarkInputs.assemblableGraphs();
+		this.graphs = assemblableGraphs.toArray(new DependencyGraph[assemblableGraphs.size()]);
+	}
+
+	@Benchmark
+	public String[] assembleRule() {
+		final DependencyGraph graph = this.graphs[this.next];
+		this.next = (this.next + 1) % this.graphs.length;
+		return new JenaRulesProcessor(graph, this.ontologySnapshot).assembleRule();
+	}
+}
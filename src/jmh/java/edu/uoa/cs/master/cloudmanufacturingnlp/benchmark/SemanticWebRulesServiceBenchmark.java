@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.RuleResultCache;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRulesService;
+
+/**
+ * {@link SemanticWebRulesService#process(String)} of the rules of the benchmarks, end to end. With a "cold" rule cache, every rule
+ * goes through the whole pipeline; the cache is invalidated before each invocation, out of the timing.
+ *
+ * @author pingz
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SemanticWebRulesServiceBenchmark {
+
+	@Param({ "warm", "cold" })
+	public String ruleCache;
+
+	private OntologySnapshot ontologySnapshot;
+	private String[] naturalLanguageRules;
+	private int next = 0;
+
+	@Setup
+	public void setUp() {
+		this.ontologySnapshot = OntologySnapshot.getInstance();
+
+		// the rules which fail, e.g. for lack of an action, are not cached
+		final List<String> processableRules = new ArrayList<>();
+		for (final String naturalLanguageRule : BenchmarkInputs.naturalLanguageRules()) {
+			try {
+				if (new SemanticWebRulesService(this.ontologySnapshot).process(naturalLanguageRule) != null) {
+					processableRules.add(naturalLanguageRule);
+				}
+			} catch (final RuntimeException e) {
+				// skipped
+			}
+		}
+		this.naturalLanguageRules = processableRules.toArray(new String[processableRules.size()]);
+	}
+
+	@Setup(Level.Invocation)
+	public void invalidateCache() {
+		if ("cold".equals(this.ruleCache)) {
+			RuleResultCache.getInstance().invalidate();
+		}
+	}
+
+	@Benchmark
+	public String[] process() {
+		final String naturalLanguageRule = this.naturalLanguageRules[this.next];
+		this.next = (this.next + 1) % this.naturalLanguageRules.length;
+		return new SemanticWebRulesService(this.ontologySnapshot).process(naturalLanguageRule);
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.access;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Statement;
+
+/**
+ * A derived manuservice:hasAccessTo statement, e.g. CompanyF hasAccessTo R_AutoCAD1_B, by the local names of the partner and the
+ * resource.
+ */
+public class AccessGrant {
+
+	private final String partner;
+	private final String resource;
+
+	public AccessGrant(final String partner, final String resource) {
+		this.partner = partner;
+		this.resource = resource;
+	}
+
+	/**
+	 * @param statement
+	 *            e.g. manuservice:CompanyF manuservice:hasAccessTo manuservice:R_AutoCAD1_B
+	 * @return
+	 */
+	static AccessGrant of(final Statement statement) {
+		return new AccessGrant(toLocalName(statement.getSubject()), toLocalName(statement.getObject()));
+	}
+
+	/**
+	 * @param triple
+	 * @return
+	 */
+	static AccessGrant of(final Triple triple) {
+		return new AccessGrant(toLocalName(triple.getSubject()), toLocalName(triple.getObject()));
+	}
+
+	private static String toLocalName(final RDFNode node) {
+		return toLocalName(node.asNode());
+	}
+
+	private static String toLocalName(final Node node) {
+		if (node.isURI()) {
+			return node.getLocalName();
+		}
+		return node.isLiteral() ? node.getLiteralLexicalForm() : node.toString();
+	}
+
+	public String getPartner() {
+		return this.partner;
+	}
+
+	public String getResource() {
+		return this.resource;
+	}
+
+	@Override
+	public boolean equals(final Object object) {
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof AccessGrant)) {
+			return false;
+		}
+		final AccessGrant other = (AccessGrant) object;
+		return this.partner.equals(other.partner) && this.resource.equals(other.resource);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.partner.hashCode() + this.resource.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.partner + " hasAccessTo " + this.resource;
+	}
+}
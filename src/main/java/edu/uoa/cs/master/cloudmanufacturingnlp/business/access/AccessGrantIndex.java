@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.access;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Read-only index of the access grants, by resource and by partner, keyed on local names.
+ *
+ * <pre>
+ * 	R_AutoCAD1_B => [CompanyA, CompanyF]
+ * 	CompanyF => [R_AutoCAD1_B, R_NXCNC1_C]
+ * </pre>
+ */
+public class AccessGrantIndex {
+
+	private final Map<String, Set<String>> partnersByResource;
+	private final Map<String, Set<String>> resourcesByPartner;
+	private final int grantCount;
+
+	public AccessGrantIndex(final Collection<AccessGrant> grants) {
+		final Map<String, Set<String>> partners = new HashMap<>();
+		final Map<String, Set<String>> resources = new HashMap<>();
+		for (final AccessGrant grant : grants) {
+			addToIndex(partners, grant.getResource(), grant.getPartner());
+			addToIndex(resources, grant.getPartner(), grant.getResource());
+		}
+
+		this.partnersByResource = freeze(partners);
+		this.resourcesByPartner = freeze(resources);
+		this.grantCount = grants.size();
+	}
+
+	private static void addToIndex(final Map<String, Set<String>> index, final String key, final String value) {
+		Set<String> values = index.get(key);
+		if (values == null) {
+			values = new LinkedHashSet<>();
+			index.put(key, values);
+		}
+		values.add(value);
+	}
+
+	private static Map<String, Set<String>> freeze(final Map<String, Set<String>> index) {
+		for (final Entry<String, Set<String>> entry : index.entrySet()) {
+			entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(index);
+	}
+
+	/**
+	 * @param partner
+	 *            e.g. CompanyF
+	 * @param resource
+	 *            e.g. R_AutoCAD1_B
+	 * @return
+	 */
+	public boolean canAccess(final String partner, final String resource) {
+		final Set<String> partners = this.partnersByResource.get(resource);
+		return partners != null && partners.contains(partner);
+	}
+
+	/**
+	 * @param resource
+	 * @return the partners which have access to the resource
+	 */
+	public Set<String> getPartners(final String resource) {
+		final Set<String> partners = this.partnersByResource.get(resource);
+		return (partners == null) ? Collections.<String> emptySet() : partners;
+	}
+
+	/**
+	 * @param partner
+	 * @return the resources the partner has access to
+	 */
+	public Set<String> getResources(final String partner) {
+		final Set<String> resources = this.resourcesByPartner.get(partner);
+		return (resources == null) ? Collections.<String> emptySet() : resources;
+	}
+
+	public int getGrantCount() {
+		return this.grantCount;
+	}
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.access;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.hp.hpl.jena.datatypes.RDFDatatype;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.ResourceFactory;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.shared.PrefixMapping;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dao.JenaRuleRecord;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dao.JenaRulesDAO;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
+
+/**
+ * Answer access checks from an {@link AccessGrantIndex} of the grants derived by all the stored rules over the ontology, instead of a
+ * reasoning run per query.
+ *
+ * The grants are maintained by an {@link IncrementalGrantReasoner}: the first check after rules have been stored or deleted applies
+ * just those rules, and ontology statements added or removed through this service re-derive just the rules they affect. Such
+ * statements change a private copy of the ontology only; they are dropped, with everything else, when a new ontology snapshot is
+ * published.
+ */
+public class AccessService {
+
+	private volatile AccessGrantIndex index;
+	private volatile long ruleVersion = -1;
+	private volatile OntologySnapshot ontologySnapshot;
+
+	private IncrementalGrantReasoner grantReasoner;
+
+	/** singleton */
+	private static AccessService instance = new AccessService();
+
+	private AccessService() {
+	}
+
+	public static AccessService getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @param partner
+	 *            local or prefixed name, e.g. CompanyF or manuservice:CompanyF
+	 * @param resource
+	 *            local or prefixed name, e.g. R_AutoCAD1_B
+	 * @return whether the partner may access the resource
+	 */
+	public boolean canAccess(final String partner, final String resource) {
+		return getIndex().canAccess(toLocalName(partner), toLocalName(resource));
+	}
+
+	/**
+	 * @param resource
+	 * @return the partners which may access the resource
+	 */
+	public Set<String> listPartners(final String resource) {
+		return getIndex().getPartners(toLocalName(resource));
+	}
+
+	/**
+	 * @param partner
+	 * @return the resources the partner may access
+	 */
+	public Set<String> listResources(final String partner) {
+		return getIndex().getResources(toLocalName(partner));
+	}
+
+	/**
+	 * e.g. manuservice:CompanyF => CompanyF
+	 */
+	private static String toLocalName(final String name) {
+		return StringUtils.isBlank(name) ? "" : Tools.removePrefix(name.trim());
+	}
+
+	/**
+	 * @return the index, brought up to date first if it is out of date
+	 */
+	public AccessGrantIndex getIndex() {
+		final AccessGrantIndex currentIndex = this.index;
+		if (currentIndex != null && !isStale()) {
+			return currentIndex;
+		}
+
+		synchronized (this) {
+			refresh();
+			return this.index;
+		}
+	}
+
+	private boolean isStale() {
+		return this.ruleVersion != JenaRulesDAO.getInstance().getVersion() || this.ontologySnapshot != OntologySnapshot.getInstance();
+	}
+
+	/**
+	 * Apply the rules stored or deleted since the last refresh; start over if a new ontology snapshot has been published.
+	 *
+	 * @return the grants added and revoked
+	 */
+	public synchronized GrantDelta refresh() {
+		final Set<AccessGrant> oldGrants = (this.grantReasoner == null) ? new HashSet<AccessGrant>() : this.grantReasoner.getGrants();
+
+		final OntologySnapshot snapshot = OntologySnapshot.getInstance();
+		final boolean restart = this.grantReasoner == null || snapshot != this.ontologySnapshot;
+		if (restart) {
+			this.grantReasoner = new IncrementalGrantReasoner(JenaInfModelManager.getInstance().copyBaseModel());
+			this.ontologySnapshot = snapshot;
+		}
+
+		// read the version first, so that a rule stored meanwhile makes the index stale again
+		final long version = JenaRulesDAO.getInstance().getVersion();
+		if (!restart && version == this.ruleVersion) {
+			// the store doesn't change when rules already stored are stored again
+			return new GrantDelta(Collections.<AccessGrant> emptyList(), Collections.<AccessGrant> emptyList());
+		}
+
+		final Set<Long> removedIds = this.grantReasoner.getRuleIds();
+		final Map<Long, String> addedRules = new HashMap<>();
+		for (final JenaRuleRecord record : JenaRulesDAO.getInstance().queryAllRecords()) {
+			if (!removedIds.remove(record.getId())) {
+				addedRules.put(record.getId(), record.getRule());
+			}
+		}
+
+		GrantDelta delta = this.grantReasoner.applyRuleChanges(addedRules, removedIds);
+		if (restart) {
+			delta = GrantDelta.between(oldGrants, this.grantReasoner.getGrants());
+		}
+		publish(version);
+		return delta;
+	}
+
+	/**
+	 * Store the Jena rules and apply them.
+	 *
+	 * @param rules
+	 * @return the grants added
+	 */
+	public synchronized GrantDelta insertRules(final String[] rules) {
+		JenaRulesDAO.getInstance().insertRule(rules);
+		return refresh();
+	}
+
+	/**
+	 * Delete the stored Jena rule and apply the deletion.
+	 *
+	 * @param id
+	 * @return the grants revoked, or null if there is no rule with the id
+	 */
+	public synchronized GrantDelta deleteRule(final long id) {
+		if (!JenaRulesDAO.getInstance().deleteRule(id)) {
+			return null;
+		}
+		return refresh();
+	}
+
+	/**
+	 * Add a statement to the ontology the grants are derived from, e.g. CompanyG manuservice:hasAddress CompanyGAdd.
+	 *
+	 * @param subject
+	 *            local, prefixed or full name
+	 * @param property
+	 *            local, prefixed or full name, e.g. hasAddress or rdf:type
+	 * @param object
+	 *            name of a resource, or a quoted literal, e.g. 'New Zealand'
+	 * @return the grants added and revoked
+	 */
+	public synchronized GrantDelta addStatement(final String subject, final String property, final String object) {
+		final GrantDelta delta = refresh();
+		final GrantDelta statementDelta = this.grantReasoner.addStatement(createStatement(subject, property, object));
+		publish(this.ruleVersion);
+		return merge(delta, statementDelta);
+	}
+
+	/**
+	 * Remove a statement from the ontology the grants are derived from.
+	 *
+	 * @see #addStatement(String, String, String)
+	 * @return the grants added and revoked
+	 */
+	public synchronized GrantDelta removeStatement(final String subject, final String property, final String object) {
+		final GrantDelta delta = refresh();
+		final GrantDelta statementDelta = this.grantReasoner.removeStatement(createStatement(subject, property, object));
+		publish(this.ruleVersion);
+		return merge(delta, statementDelta);
+	}
+
+	private void publish(final long version) {
+		this.index = new AccessGrantIndex(this.grantReasoner.getGrants());
+		this.ruleVersion = version;
+	}
+
+	/**
+	 * @return the net change of the first change followed by the second
+	 */
+	private static GrantDelta merge(final GrantDelta first, final GrantDelta second) {
+		if (first.isEmpty()) {
+			return second;
+		}
+
+		final Set<AccessGrant> addedGrants = new LinkedHashSet<>(first.getAddedGrants());
+		addedGrants.removeAll(second.getRevokedGrants());
+		final Set<AccessGrant> revokedGrants = new LinkedHashSet<>(first.getRevokedGrants());
+		revokedGrants.removeAll(second.getAddedGrants());
+
+		for (final AccessGrant grant : second.getAddedGrants()) {
+			if (!first.getRevokedGrants().contains(grant)) {
+				addedGrants.add(grant);
+			}
+		}
+		for (final AccessGrant grant : second.getRevokedGrants()) {
+			if (!first.getAddedGrants().contains(grant)) {
+				revokedGrants.add(grant);
+			}
+		}
+		return new GrantDelta(addedGrants, revokedGrants);
+	}
+
+	private Statement createStatement(final String subject, final String property, final String object) {
+		if (StringUtils.isBlank(subject) || StringUtils.isBlank(property) || StringUtils.isBlank(object)) {
+			throw new IllegalArgumentException("Error: a statement needs a subject, a property and an object");
+		}
+
+		final Property predicate = ResourceFactory.createProperty(toUri(property));
+		return ResourceFactory.createStatement(ResourceFactory.createResource(toUri(subject)), predicate,
+				createObject(predicate, object.trim()));
+	}
+
+	/**
+	 * A quoted object is a literal of the datatype the ontology uses for the property, e.g. 'New Zealand' => "New Zealand"^^xsd:string;
+	 * otherwise it names a resource.
+	 */
+	private RDFNode createObject(final Property predicate, final String object) {
+		final boolean quoted = object.length() >= 2 && (object.charAt(0) == '\'' || object.charAt(0) == '"')
+				&& object.charAt(object.length() - 1) == object.charAt(0);
+		if (!quoted) {
+			return ResourceFactory.createResource(toUri(object));
+		}
+
+		final String lexicalForm = object.substring(1, object.length() - 1);
+		final RDFDatatype datatype = this.grantReasoner.lookupDatatype(predicate);
+		return (datatype == null) ? ResourceFactory.createPlainLiteral(lexicalForm) : ResourceFactory.createTypedLiteral(lexicalForm,
+				datatype);
+	}
+
+	/**
+	 * e.g. CompanyG or manuservice:CompanyG => http://www.semanticweb.org/yuqianlu/ontologies/2013/10/manuservice#CompanyG, rdf:type =>
+	 * http://www.w3.org/1999/02/22-rdf-syntax-ns#type
+	 */
+	private static String toUri(final String name) {
+		final String trimmedName = name.trim();
+		if (trimmedName.contains("://")) {
+			return trimmedName;
+		}
+
+		final String expandedName = PrefixMapping.Standard.expandPrefix(trimmedName);
+		return expandedName.equals(trimmedName) ? Constants.Ontology.NS_MC + Tools.removePrefix(trimmedName) : expandedName;
+	}
+}
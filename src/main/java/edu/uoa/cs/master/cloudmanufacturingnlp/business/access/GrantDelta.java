@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.access;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The access grants a change of the rules or of the ontology added and revoked.
+ */
+public class GrantDelta {
+
+	private final List<AccessGrant> addedGrants;
+	private final List<AccessGrant> revokedGrants;
+
+	public GrantDelta(final Collection<AccessGrant> addedGrants, final Collection<AccessGrant> revokedGrants) {
+		this.addedGrants = Collections.unmodifiableList(new ArrayList<>(addedGrants));
+		this.revokedGrants = Collections.unmodifiableList(new ArrayList<>(revokedGrants));
+	}
+
+	/**
+	 * @param oldGrants
+	 * @param newGrants
+	 * @return the grants in newGrants only, and in oldGrants only
+	 */
+	public static GrantDelta between(final Collection<AccessGrant> oldGrants, final Collection<AccessGrant> newGrants) {
+		final List<AccessGrant> addedGrants = new ArrayList<>(newGrants);
+		addedGrants.removeAll(new HashSet<>(oldGrants));
+		final List<AccessGrant> revokedGrants = new ArrayList<>(oldGrants);
+		revokedGrants.removeAll(new HashSet<>(newGrants));
+		return new GrantDelta(addedGrants, revokedGrants);
+	}
+
+	public List<AccessGrant> getAddedGrants() {
+		return this.addedGrants;
+	}
+
+	public List<AccessGrant> getRevokedGrants() {
+		return this.revokedGrants;
+	}
+
+	public boolean isEmpty() {
+		return this.addedGrants.isEmpty() && this.revokedGrants.isEmpty();
+	}
+
+	/**
+	 * @return one line per grant, e.g. "+ CompanyF hasAccessTo R_AutoCAD1_B" or "- CompanyA hasAccessTo R_AutoCAD1_B"
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder lines = new StringBuilder(64 * (this.addedGrants.size() + this.revokedGrants.size()));
+		for (final AccessGrant grant : this.addedGrants) {
+			lines.append("+ ").append(grant).append('\n');
+		}
+		for (final AccessGrant grant : this.revokedGrants) {
+			lines.append("- ").append(grant).append('\n');
+		}
+		return lines.toString();
+	}
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.access;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.hp.hpl.jena.datatypes.RDFDatatype;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.InfModel;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.NodeIterator;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.reasoner.TriplePattern;
+import com.hp.hpl.jena.reasoner.rulesys.ClauseEntry;
+import com.hp.hpl.jena.reasoner.rulesys.Functor;
+import com.hp.hpl.jena.reasoner.rulesys.Rule;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.InferenceMode;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.TripleIndex;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.CompiledRule;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleCompiler;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Keep the hasAccessTo statements derived by a set of rules over a data model up to date as rules are added or removed and statements
+ * are added to or removed from the data, re-deriving only the grants of the rules a change affects.
+ *
+ * The grants of each rule are derived on their own, together with the rules which derive the predicates its body reads, and every
+ * grant counts the rules deriving it. A grant is added when its first rule derives it, and revoked when its last rule no longer does.
+ * A statement change affects the rules with a body term matching the statement, and the rules depending on those.
+ *
+ * Rules compiled by {@link JenaRuleCompiler} are derived over a {@link TripleIndex} of the data; other rules, and rules which depend on
+ * other rules, by the Jena reasoner.
+ */
+public class IncrementalGrantReasoner {
+
+	static final String HAS_ACCESS_TO = Constants.Ontology.NS_MC + "hasAccessTo";
+
+	/** the only builtin of the generated rules which reads the data rather than the bound variables */
+	private static final String NO_VALUE = "noValue";
+
+	private final Model dataModel;
+	private final TripleIndex dataIndex;
+	private final Node hasAccessTo;
+
+	private final Map<Long, RuleEntry> rulesById = new LinkedHashMap<>();
+	/** the rules deriving each predicate; null keys the rules with a variable head predicate */
+	private final Map<Node, Set<Long>> rulesByHeadPredicate = new HashMap<>();
+	private final Map<AccessGrant, Integer> supportCounts = new HashMap<>();
+
+	/**
+	 * @param dataModel
+	 *            the data, which is modified through {@link #addStatement(Statement)} and {@link #removeStatement(Statement)} only
+	 */
+	public IncrementalGrantReasoner(final Model dataModel) {
+		this.dataModel = dataModel;
+		this.dataIndex = new TripleIndex(dataModel);
+		this.hasAccessTo = dataModel.getProperty(HAS_ACCESS_TO).asNode();
+	}
+
+	public synchronized GrantDelta addRule(final long id, final String rule) {
+		return applyRuleChanges(Collections.singletonMap(id, rule), Collections.<Long> emptySet());
+	}
+
+	public synchronized GrantDelta removeRule(final long id) {
+		return applyRuleChanges(Collections.<Long, String> emptyMap(), Collections.singleton(id));
+	}
+
+	/**
+	 * Add and remove rules in one go, deriving each affected rule once.
+	 *
+	 * @param addedRules
+	 *            the rule texts by rule id
+	 * @param removedIds
+	 * @return
+	 */
+	public synchronized GrantDelta applyRuleChanges(final Map<Long, String> addedRules, final Collection<Long> removedIds) {
+		// the dependents of a removed rule lose what it derived for them
+		final Set<Long> affectedIds = findDependents(removedIds);
+
+		// a removed rule derives nothing; it is forgotten once its grants are counted down
+		final Map<Long, Set<AccessGrant>> newGrants = new HashMap<>();
+		for (final Long id : removedIds) {
+			final RuleEntry entry = this.rulesById.get(id);
+			if (entry != null) {
+				removeFromIndex(entry);
+				newGrants.put(id, Collections.<AccessGrant> emptySet());
+			}
+		}
+
+		for (final Entry<Long, String> addedRule : addedRules.entrySet()) {
+			if (this.rulesById.containsKey(addedRule.getKey())) {
+				continue;
+			}
+			final RuleEntry entry = new RuleEntry(addedRule.getKey(), addedRule.getValue());
+			this.rulesById.put(entry.id, entry);
+			addToIndex(entry);
+			affectedIds.add(entry.id);
+		}
+		affectedIds.addAll(findDependents(addedRules.keySet()));
+		affectedIds.removeAll(removedIds);
+
+		for (final Long id : affectedIds) {
+			newGrants.put(id, deriveGrants(this.rulesById.get(id)));
+		}
+		final GrantDelta delta = applyGrants(newGrants);
+
+		this.rulesById.keySet().removeAll(removedIds);
+		return delta;
+	}
+
+	/**
+	 * @param statement
+	 * @return the grants the new statement adds or revokes
+	 */
+	public synchronized GrantDelta addStatement(final Statement statement) {
+		if (this.dataModel.contains(statement)) {
+			return new GrantDelta(Collections.<AccessGrant> emptyList(), Collections.<AccessGrant> emptyList());
+		}
+		this.dataModel.add(statement);
+		this.dataIndex.add(statement.asTriple());
+		return rederive(statement.asTriple());
+	}
+
+	/**
+	 * @param statement
+	 * @return the grants the removal of the statement adds or revokes
+	 */
+	public synchronized GrantDelta removeStatement(final Statement statement) {
+		if (!this.dataModel.contains(statement)) {
+			return new GrantDelta(Collections.<AccessGrant> emptyList(), Collections.<AccessGrant> emptyList());
+		}
+		this.dataModel.remove(statement);
+		this.dataIndex.remove(statement.asTriple());
+		return rederive(statement.asTriple());
+	}
+
+	private GrantDelta rederive(final Triple triple) {
+		final Set<Long> matchingIds = new TreeSet<>();
+		for (final RuleEntry entry : this.rulesById.values()) {
+			if (entry.bodyMatches(triple)) {
+				matchingIds.add(entry.id);
+			}
+		}
+
+		final Set<Long> affectedIds = findDependents(matchingIds);
+		affectedIds.addAll(matchingIds);
+
+		final Map<Long, Set<AccessGrant>> newGrants = new HashMap<>();
+		for (final Long id : affectedIds) {
+			newGrants.put(id, deriveGrants(this.rulesById.get(id)));
+		}
+		return applyGrants(newGrants);
+	}
+
+	/**
+	 * @param newGrants
+	 *            the grants each affected rule derives now
+	 * @return
+	 */
+	private GrantDelta applyGrants(final Map<Long, Set<AccessGrant>> newGrants) {
+		final Set<AccessGrant> addedGrants = new LinkedHashSet<>();
+		final Set<AccessGrant> revokedGrants = new LinkedHashSet<>();
+
+		// count up first, so that a grant moving from one rule to another is neither added nor revoked
+		for (final Entry<Long, Set<AccessGrant>> entry : newGrants.entrySet()) {
+			final Set<AccessGrant> oldGrants = this.rulesById.get(entry.getKey()).grants;
+			for (final AccessGrant grant : entry.getValue()) {
+				if (!oldGrants.contains(grant) && changeSupportCount(grant, 1) == 1) {
+					addedGrants.add(grant);
+				}
+			}
+		}
+		for (final Entry<Long, Set<AccessGrant>> entry : newGrants.entrySet()) {
+			final RuleEntry ruleEntry = this.rulesById.get(entry.getKey());
+			for (final AccessGrant grant : ruleEntry.grants) {
+				if (!entry.getValue().contains(grant) && changeSupportCount(grant, -1) == 0) {
+					revokedGrants.add(grant);
+				}
+			}
+			ruleEntry.grants = entry.getValue();
+		}
+
+		// a grant re-derived by another rule within the same change
+		final Set<AccessGrant> readdedGrants = new HashSet<>(addedGrants);
+		readdedGrants.retainAll(revokedGrants);
+		addedGrants.removeAll(readdedGrants);
+		revokedGrants.removeAll(readdedGrants);
+		return new GrantDelta(addedGrants, revokedGrants);
+	}
+
+	private int changeSupportCount(final AccessGrant grant, final int change) {
+		final Integer count = this.supportCounts.get(grant);
+		final int newCount = ((count == null) ? 0 : count) + change;
+		if (newCount <= 0) {
+			this.supportCounts.remove(grant);
+		} else {
+			this.supportCounts.put(grant, newCount);
+		}
+		return newCount;
+	}
+
+	private Set<AccessGrant> deriveGrants(final RuleEntry entry) {
+		if (!entry.derivesGrants(this.hasAccessTo)) {
+			return Collections.emptySet();
+		}
+
+		final Set<Long> supportIds = findSupports(entry);
+		if (entry.compiledRule != null && supportIds.isEmpty()) {
+			final Set<AccessGrant> grants = new HashSet<>();
+			for (final Triple triple : entry.compiledRule.derive(this.dataIndex)) {
+				if (!this.dataModel.getGraph().contains(triple)) {
+					grants.add(AccessGrant.of(triple));
+				}
+			}
+			return grants;
+		}
+
+		final List<String> ruleSet = new ArrayList<>();
+		ruleSet.add(entry.rule);
+		for (final Long supportId : supportIds) {
+			ruleSet.add(this.rulesById.get(supportId).rule);
+		}
+
+		final JenaInfModelManager infModelManager = JenaInfModelManager.getInstance();
+		final InfModel infModel = infModelManager.createInfModelByRules(ruleSet.toArray(new String[ruleSet.size()]), InferenceMode.FAST,
+				this.dataModel);
+
+		final Set<AccessGrant> grants = new HashSet<>();
+		for (final StmtIterator it = infModelManager.listStatements(infModel, "", HAS_ACCESS_TO, ""); it.hasNext();) {
+			final Statement statement = it.nextStatement();
+			// asserted, not derived
+			if (!this.dataModel.contains(statement)) {
+				grants.add(AccessGrant.of(statement));
+			}
+		}
+		return grants;
+	}
+
+	/**
+	 * @param entry
+	 * @return the ids of the rules deriving the predicates the body of the rule reads, transitively
+	 */
+	private Set<Long> findSupports(final RuleEntry entry) {
+		final Set<Long> supportIds = new TreeSet<>();
+		final Deque<RuleEntry> pending = new ArrayDeque<>();
+		pending.add(entry);
+
+		while (!pending.isEmpty()) {
+			final RuleEntry current = pending.poll();
+			final Set<Long> candidateIds = new HashSet<>();
+			addAll(candidateIds, this.rulesByHeadPredicate.get(null));
+			if (current.hasVariableBodyPredicate) {
+				for (final Set<Long> ids : this.rulesByHeadPredicate.values()) {
+					candidateIds.addAll(ids);
+				}
+			} else {
+				for (final Node predicate : current.bodyPredicates) {
+					addAll(candidateIds, this.rulesByHeadPredicate.get(predicate));
+				}
+			}
+
+			for (final Long candidateId : candidateIds) {
+				if (candidateId != entry.id && supportIds.add(candidateId)) {
+					pending.add(this.rulesById.get(candidateId));
+				}
+			}
+		}
+		return supportIds;
+	}
+
+	/**
+	 * @param ids
+	 * @return the ids of the other rules which have any of the rules among their supports
+	 */
+	private Set<Long> findDependents(final Collection<Long> ids) {
+		final Set<Long> dependentIds = new TreeSet<>();
+		if (ids.isEmpty() || this.rulesByHeadPredicate.isEmpty()) {
+			return dependentIds;
+		}
+
+		for (final RuleEntry entry : this.rulesById.values()) {
+			if (ids.contains(entry.id)) {
+				continue;
+			}
+			for (final Long supportId : findSupports(entry)) {
+				if (ids.contains(supportId)) {
+					dependentIds.add(entry.id);
+					break;
+				}
+			}
+		}
+		return dependentIds;
+	}
+
+	private static void addAll(final Set<Long> ids, final Set<Long> moreIds) {
+		if (moreIds != null) {
+			ids.addAll(moreIds);
+		}
+	}
+
+	private void addToIndex(final RuleEntry entry) {
+		for (final Node predicate : entry.headPredicates) {
+			Set<Long> ids = this.rulesByHeadPredicate.get(predicate);
+			if (ids == null) {
+				ids = new TreeSet<>();
+				this.rulesByHeadPredicate.put(predicate, ids);
+			}
+			ids.add(entry.id);
+		}
+	}
+
+	private void removeFromIndex(final RuleEntry entry) {
+		for (final Node predicate : entry.headPredicates) {
+			final Set<Long> ids = this.rulesByHeadPredicate.get(predicate);
+			if (ids != null) {
+				ids.remove(entry.id);
+				if (ids.isEmpty()) {
+					this.rulesByHeadPredicate.remove(predicate);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return all the grants derived by the rules
+	 */
+	public synchronized Set<AccessGrant> getGrants() {
+		return new HashSet<>(this.supportCounts.keySet());
+	}
+
+	public synchronized Set<Long> getRuleIds() {
+		return new HashSet<>(this.rulesById.keySet());
+	}
+
+	/**
+	 * @param property
+	 * @return the datatype of the first typed literal value of the property in the data, or null
+	 */
+	public synchronized RDFDatatype lookupDatatype(final Property property) {
+		for (final NodeIterator it = this.dataModel.listObjectsOfProperty(property); it.hasNext();) {
+			final RDFNode node = it.next();
+			if (node.isLiteral() && node.asLiteral().getDatatype() != null) {
+				return node.asLiteral().getDatatype();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A rule with its parsed terms and the grants it derives.
+	 */
+	private static class RuleEntry {
+		private final long id;
+		private final String rule;
+
+		private final List<TriplePattern> bodyPatterns = new ArrayList<>();
+		private final Set<Node> bodyPredicates = new HashSet<>();
+		/** the head predicates; null for a variable head predicate */
+		private final Set<Node> headPredicates = new HashSet<>();
+		private boolean hasVariableBodyPredicate;
+		private boolean readsAnyStatement;
+		/** null if the rule doesn't compile */
+		private final CompiledRule compiledRule;
+
+		private Set<AccessGrant> grants = Collections.emptySet();
+
+		RuleEntry(final long id, final String rule) {
+			this.id = id;
+			this.rule = rule;
+
+			List<Rule> parsedRules;
+			try {
+				parsedRules = JenaInfModelManager.getInstance().parseRules(rule);
+			} catch (final RuntimeException e) {
+				System.out.println("Skipped malformed rule " + id + ": " + e.getMessage());
+				parsedRules = Collections.emptyList();
+			}
+
+			for (final Rule parsedRule : parsedRules) {
+				for (final ClauseEntry clause : parsedRule.getHead()) {
+					if (clause instanceof TriplePattern) {
+						final Node predicate = ((TriplePattern) clause).getPredicate();
+						this.headPredicates.add(predicate.isVariable() ? null : predicate);
+					}
+				}
+				for (final ClauseEntry clause : parsedRule.getBody()) {
+					if (clause instanceof TriplePattern) {
+						final TriplePattern pattern = (TriplePattern) clause;
+						this.bodyPatterns.add(pattern);
+						if (pattern.getPredicate().isVariable()) {
+							this.hasVariableBodyPredicate = true;
+						} else {
+							this.bodyPredicates.add(pattern.getPredicate());
+						}
+					} else if (clause instanceof Functor && NO_VALUE.equals(((Functor) clause).getName())) {
+						this.readsAnyStatement = true;
+					}
+				}
+			}
+			this.compiledRule = parsedRules.isEmpty() ? null : JenaRuleCompiler.compile(parsedRules);
+		}
+
+		boolean derivesGrants(final Node hasAccessTo) {
+			return this.headPredicates.contains(hasAccessTo) || this.headPredicates.contains(null);
+		}
+
+		/**
+		 * @param triple
+		 * @return whether a body term of the rule may match the statement
+		 */
+		boolean bodyMatches(final Triple triple) {
+			if (this.readsAnyStatement) {
+				return true;
+			}
+			for (final TriplePattern pattern : this.bodyPatterns) {
+				if (matches(pattern.getSubject(), triple.getSubject()) && matches(pattern.getPredicate(), triple.getPredicate())
+						&& matches(pattern.getObject(), triple.getObject())) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static boolean matches(final Node patternNode, final Node node) {
+			// functor terms are matched conservatively
+			return patternNode.isVariable() || Functor.isFunctor(patternNode) || patternNode.sameValueAs(node);
+		}
+	}
+}
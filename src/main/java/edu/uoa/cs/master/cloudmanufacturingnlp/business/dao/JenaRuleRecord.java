@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.dao;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A stored Jena rule, with the resource owner and the resource it grants access to, as found in its body terms.
+ *
+ * <pre>
+ * 	[(?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), (?org manuservice:name 'B'), (?y rdf:type manuservice:SoftResource), ...]
+ * 	=> owner B, resource SoftResource
+ * </pre>
+ *
+ * A tombstone records the deletion of the rule with its id.
+ */
+public class JenaRuleRecord {
+
+	/** e.g. (?org manuservice:name 'B') */
+	private static final Pattern OWNER = Pattern.compile("\\(\\?org \\S+:name '([^']*)'\\)");
+	/** e.g. (?y manuservice:name 'R_AutoCAD1_F') */
+	private static final Pattern RESOURCE_NAME = Pattern.compile("\\(\\?y \\S+:name '([^']*)'\\)");
+	/** e.g. (?y rdf:type manuservice:SoftResource) */
+	private static final Pattern RESOURCE_TYPE = Pattern.compile("\\(\\?y rdf:type (?:\\S+:)?([^\\s)]+)\\)");
+
+	private static final char SEPARATOR = '\t';
+
+	private final long id;
+	private final long createdMillis;
+	private final String owner;
+	private final String resource;
+	private final String rule;
+	private final boolean deleted;
+
+	public JenaRuleRecord(final long id, final long createdMillis, final String owner, final String resource, final String rule) {
+		this(id, createdMillis, owner, resource, rule, false);
+	}
+
+	private JenaRuleRecord(final long id, final long createdMillis, final String owner, final String resource, final String rule,
+			final boolean deleted) {
+		this.id = id;
+		this.createdMillis = createdMillis;
+		this.owner = (owner == null) ? "" : owner;
+		this.resource = (resource == null) ? "" : resource;
+		this.rule = (rule == null) ? "" : rule;
+		this.deleted = deleted;
+	}
+
+	/**
+	 * @param id
+	 * @param rule
+	 * @return the record, with the owner and resource extracted from the rule
+	 */
+	public static JenaRuleRecord create(final long id, final String rule) {
+		String resource = find(RESOURCE_NAME, rule);
+		if (resource.isEmpty()) {
+			resource = find(RESOURCE_TYPE, rule);
+		}
+		return new JenaRuleRecord(id, System.currentTimeMillis(), find(OWNER, rule), resource, rule);
+	}
+
+	/**
+	 * @param id
+	 * @return the tombstone of the rule with the id
+	 */
+	static JenaRuleRecord tombstone(final long id) {
+		return new JenaRuleRecord(id, System.currentTimeMillis(), null, null, null, true);
+	}
+
+	private static String find(final Pattern pattern, final String rule) {
+		final Matcher matcher = pattern.matcher(rule);
+		return matcher.find() ? matcher.group(1) : "";
+	}
+
+	/**
+	 * @return e.g. "12\t1434585600000\tB\tSoftResource\t[(?x manuservice:hasAccessTo ?y) <- ...]", or for a tombstone
+	 *         "-12\t1434585600000"
+	 */
+	String toLogLine() {
+		if (this.deleted) {
+			return new StringBuilder(32).append(-this.id).append(SEPARATOR).append(this.createdMillis).toString();
+		}
+		return new StringBuilder(this.rule.length() + 64).append(this.id).append(SEPARATOR).append(this.createdMillis).append(SEPARATOR)
+				.append(escape(this.owner)).append(SEPARATOR).append(escape(this.resource)).append(SEPARATOR).append(escape(this.rule))
+				.toString();
+	}
+
+	/**
+	 * @param line
+	 * @return the record, or null if the line is incomplete, e.g. torn by a crash in the middle of a write
+	 */
+	static JenaRuleRecord fromLogLine(final String line) {
+		final String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+		if (fields.length != 5 && !(fields.length == 2 && fields[0].startsWith("-"))) {
+			return null;
+		}
+
+		try {
+			if (fields.length == 2) {
+				return new JenaRuleRecord(-Long.parseLong(fields[0]), Long.parseLong(fields[1]), null, null, null, true);
+			}
+			return new JenaRuleRecord(Long.parseLong(fields[0]), Long.parseLong(fields[1]), unescape(fields[2]), unescape(fields[3]),
+					unescape(fields[4]));
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static String escape(final String value) {
+		return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+	}
+
+	private static String unescape(final String value) {
+		if (value.indexOf('\\') == -1) {
+			return value;
+		}
+
+		final StringBuilder unescaped = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c != '\\' || i == value.length() - 1) {
+				unescaped.append(c);
+				continue;
+			}
+
+			final char escaped = value.charAt(++i);
+			switch (escaped) {
+			case 't':
+				unescaped.append('\t');
+				break;
+			case 'n':
+				unescaped.append('\n');
+				break;
+			case 'r':
+				unescaped.append('\r');
+				break;
+			default:
+				unescaped.append(escaped);
+			}
+		}
+		return unescaped.toString();
+	}
+
+	public long getId() {
+		return this.id;
+	}
+
+	public long getCreatedMillis() {
+		return this.createdMillis;
+	}
+
+	public String getOwner() {
+		return this.owner;
+	}
+
+	public String getResource() {
+		return this.resource;
+	}
+
+	public String getRule() {
+		return this.rule;
+	}
+
+	public boolean isDeleted() {
+		return this.deleted;
+	}
+
+	@Override
+	public String toString() {
+		return this.id + " " + this.rule;
+	}
+}
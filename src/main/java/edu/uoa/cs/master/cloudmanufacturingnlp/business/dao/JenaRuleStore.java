@@ -0,0 +1,480 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.dao;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded store of Jena rules: an append-only log file, and an in-memory index by rule id, owner, resource and rule text which is
+ * rebuilt by replaying the log on start-up. A delete appends a tombstone for the rule id. A rule is stored once: inserting it again
+ * returns the stored record and writes nothing.
+ *
+ * Inserts and deletes update the index right away and queue the records for the writer thread, which appends everything queued so far
+ * and then syncs the file once, so that concurrent writes share a single disk sync (group commit). A record is durable once
+ * {@link #flush()} returns; records still queued when the process dies are lost, and a torn last line is cut off the log on replay.
+ * Once a write fails, or the writer thread stops with records left to write, every later flush fails, since the log is missing records
+ * the index has.
+ */
+public class JenaRuleStore {
+
+	private static final long WRITER_POLL_MILLIS = 100;
+
+	private final File logFile;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<Long, JenaRuleRecord> recordsById = new LinkedHashMap<>();
+	private final Map<String, List<JenaRuleRecord>> recordsByOwner = new HashMap<>();
+	private final Map<String, List<JenaRuleRecord>> recordsByResource = new HashMap<>();
+	private final Map<String, JenaRuleRecord> recordsByRule = new HashMap<>();
+	private long nextId = 1;
+	/** changes with every insert and delete, so that views derived from the rules know when to refresh */
+	private long version;
+
+	private final BlockingQueue<JenaRuleRecord> pendingRecords = new LinkedBlockingQueue<>();
+	private final Object commitMonitor = new Object();
+	/** number of records queued for, and written to, the log file */
+	private long queuedCount;
+	private long committedCount;
+	/** the first write failure, kept since the records it lost are never written */
+	private IOException commitError;
+	private boolean writerStopped;
+	private volatile boolean closed;
+
+	private final Thread writerThread;
+
+	/**
+	 * Open the store, replaying the log file if it exists.
+	 *
+	 * @param logFile
+	 */
+	public JenaRuleStore(final File logFile) {
+		this.logFile = logFile;
+		final File directory = logFile.getAbsoluteFile().getParentFile();
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			throw new RuntimeException("Error: failed to create the directory of the rule store " + logFile);
+		}
+		replay();
+
+		this.writerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeLoop();
+			}
+		}, "jena-rule-store-writer");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	private void replay() {
+		if (!this.logFile.exists()) {
+			return;
+		}
+		truncateTornLine();
+
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.logFile), StandardCharsets.UTF_8));
+			String line = reader.readLine();
+
+			while (null != line) {
+				final JenaRuleRecord record = JenaRuleRecord.fromLogLine(line);
+				if (record == null) {
+					System.out.println("Error: skipped a malformed line of the rule store " + this.logFile);
+				} else if (record.isDeleted()) {
+					unindex(record.getId());
+				} else {
+					// a log written before the rules were stored once may repeat them
+					if (!this.recordsByRule.containsKey(record.getRule())) {
+						index(record);
+					}
+					this.nextId = Math.max(this.nextId, record.getId() + 1);
+				}
+				line = reader.readLine();
+			}
+		} catch (final IOException e) {
+			throw new RuntimeException("Error: failed to replay the rule store " + this.logFile, e);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (final IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Cut off the last line if a crash in the middle of a write left it without its line break, so that the next record appended
+	 * starts a line of its own.
+	 */
+	private void truncateTornLine() {
+		try (RandomAccessFile file = new RandomAccessFile(this.logFile, "rw")) {
+			long length = file.length();
+			while (length > 0) {
+				file.seek(length - 1);
+				if (file.read() == '\n') {
+					break;
+				}
+				length--;
+			}
+
+			if (length < file.length()) {
+				System.out.println("Error: cut off the torn last line of the rule store " + this.logFile);
+				file.setLength(length);
+				file.getChannel().force(false);
+			}
+		} catch (final IOException e) {
+			throw new RuntimeException("Error: failed to replay the rule store " + this.logFile, e);
+		}
+	}
+
+	/**
+	 * @param rule
+	 * @return the stored record, with its new id, or the record the rule was already stored with; the owner and resource are
+	 *         extracted from the rule, so the same rule always has the same
+	 */
+	public JenaRuleRecord insert(final String rule) {
+		this.lock.writeLock().lock();
+		try {
+			if (this.closed) {
+				throw new IllegalStateException("Error: the rule store is closed");
+			}
+
+			final JenaRuleRecord storedRecord = this.recordsByRule.get(rule);
+			if (storedRecord != null) {
+				return storedRecord;
+			}
+
+			final JenaRuleRecord record = JenaRuleRecord.create(this.nextId++, rule);
+			index(record);
+			enqueue(record);
+			return record;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @param id
+	 * @return the deleted record, or null if there is no record with the id
+	 */
+	public JenaRuleRecord delete(final long id) {
+		this.lock.writeLock().lock();
+		try {
+			if (this.closed) {
+				throw new IllegalStateException("Error: the rule store is closed");
+			}
+
+			final JenaRuleRecord record = unindex(id);
+			if (record != null) {
+				enqueue(JenaRuleRecord.tombstone(id));
+			}
+			return record;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Called under the write lock, so that the log is written in the order of the changes.
+	 */
+	private void enqueue(final JenaRuleRecord record) {
+		this.version++;
+		this.queuedCount++;
+		this.pendingRecords.add(record);
+	}
+
+	private void index(final JenaRuleRecord record) {
+		this.recordsById.put(record.getId(), record);
+		this.recordsByRule.put(record.getRule(), record);
+		addToIndex(this.recordsByOwner, record.getOwner(), record);
+		addToIndex(this.recordsByResource, record.getResource(), record);
+	}
+
+	private static void addToIndex(final Map<String, List<JenaRuleRecord>> index, final String key, final JenaRuleRecord record) {
+		if (key.isEmpty()) {
+			return;
+		}
+
+		final String lowerCaseKey = key.toLowerCase(Locale.ENGLISH);
+		List<JenaRuleRecord> records = index.get(lowerCaseKey);
+		if (records == null) {
+			records = new ArrayList<>();
+			index.put(lowerCaseKey, records);
+		}
+		records.add(record);
+	}
+
+	private JenaRuleRecord unindex(final long id) {
+		final JenaRuleRecord record = this.recordsById.remove(id);
+		if (record != null) {
+			this.recordsByRule.remove(record.getRule());
+			removeFromIndex(this.recordsByOwner, record.getOwner(), record);
+			removeFromIndex(this.recordsByResource, record.getResource(), record);
+		}
+		return record;
+	}
+
+	private static void removeFromIndex(final Map<String, List<JenaRuleRecord>> index, final String key, final JenaRuleRecord record) {
+		final String lowerCaseKey = key.toLowerCase(Locale.ENGLISH);
+		final List<JenaRuleRecord> records = index.get(lowerCaseKey);
+		if (records != null) {
+			records.remove(record);
+			if (records.isEmpty()) {
+				index.remove(lowerCaseKey);
+			}
+		}
+	}
+
+	public JenaRuleRecord findById(final long id) {
+		this.lock.readLock().lock();
+		try {
+			return this.recordsById.get(id);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param offset
+	 * @param limit
+	 * @return a page of all the records, in insertion order
+	 */
+	public List<JenaRuleRecord> findAll(final int offset, final int limit) {
+		this.lock.readLock().lock();
+		try {
+			return page(new ArrayList<>(this.recordsById.values()), offset, limit);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param owner
+	 *            e.g. B
+	 * @param offset
+	 * @param limit
+	 * @return a page of the records of the owner, in insertion order
+	 */
+	public List<JenaRuleRecord> findByOwner(final String owner, final int offset, final int limit) {
+		return findByKey(this.recordsByOwner, owner, offset, limit);
+	}
+
+	/**
+	 * @param resource
+	 *            e.g. R_AutoCAD1_F or SoftResource
+	 * @param offset
+	 * @param limit
+	 * @return a page of the records granting access to the resource, in insertion order
+	 */
+	public List<JenaRuleRecord> findByResource(final String resource, final int offset, final int limit) {
+		return findByKey(this.recordsByResource, resource, offset, limit);
+	}
+
+	private List<JenaRuleRecord> findByKey(final Map<String, List<JenaRuleRecord>> index, final String key, final int offset,
+			final int limit) {
+		if (key == null) {
+			return Collections.emptyList();
+		}
+
+		this.lock.readLock().lock();
+		try {
+			final List<JenaRuleRecord> records = index.get(key.toLowerCase(Locale.ENGLISH));
+			return (records == null) ? Collections.<JenaRuleRecord> emptyList() : page(records, offset, limit);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	private static List<JenaRuleRecord> page(final List<JenaRuleRecord> records, final int offset, final int limit) {
+		final int from = Math.min(Math.max(0, offset), records.size());
+		final int to = Math.min(records.size(), from + Math.max(0, limit));
+		return new ArrayList<>(records.subList(from, to));
+	}
+
+	/**
+	 * @return all the records, in insertion order
+	 */
+	public List<JenaRuleRecord> findAll() {
+		this.lock.readLock().lock();
+		try {
+			return new ArrayList<>(this.recordsById.values());
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	public long getVersion() {
+		this.lock.readLock().lock();
+		try {
+			return this.version;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.recordsById.size();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	private void writeLoop() {
+		try {
+			writeBatches();
+		} finally {
+			// fail the flushes waiting on records which won't be written
+			synchronized (this.commitMonitor) {
+				this.writerStopped = true;
+				this.commitMonitor.notifyAll();
+			}
+		}
+	}
+
+	private void writeBatches() {
+		final List<JenaRuleRecord> batch = new ArrayList<>();
+
+		while (!this.closed || !this.pendingRecords.isEmpty()) {
+			try {
+				// wake up now and then to notice close()
+				final JenaRuleRecord first = this.pendingRecords.poll(WRITER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			this.pendingRecords.drainTo(batch);
+
+			IOException error = null;
+			try {
+				append(batch);
+			} catch (final IOException e) {
+				e.printStackTrace();
+				error = e;
+			}
+
+			synchronized (this.commitMonitor) {
+				this.committedCount += batch.size();
+				if (this.commitError == null) {
+					this.commitError = error;
+				}
+				this.commitMonitor.notifyAll();
+			}
+			batch.clear();
+		}
+	}
+
+	private void append(final List<JenaRuleRecord> batch) throws IOException {
+		final FileOutputStream outputStream = new FileOutputStream(this.logFile, true);
+		try {
+			final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+			for (final JenaRuleRecord record : batch) {
+				writer.write(record.toLogLine());
+				writer.write('\n');
+			}
+			writer.flush();
+			outputStream.getChannel().force(false);
+		} finally {
+			outputStream.close();
+		}
+	}
+
+	/**
+	 * Wait until all the records inserted or deleted so far are written and synced to the log file.
+	 */
+	public void flush() {
+		final long lastCount;
+		this.lock.readLock().lock();
+		try {
+			lastCount = this.queuedCount;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+
+		synchronized (this.commitMonitor) {
+			while (this.committedCount < lastCount && !this.writerStopped) {
+				try {
+					this.commitMonitor.wait();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException("Error: interrupted while waiting for the rule store " + this.logFile);
+				}
+			}
+			if (this.commitError != null) {
+				throw new RuntimeException("Error: failed to write the rule store " + this.logFile, this.commitError);
+			}
+			if (this.committedCount < lastCount) {
+				throw new RuntimeException("Error: the writer of the rule store " + this.logFile + " stopped with "
+						+ (lastCount - this.committedCount) + " records left to write");
+			}
+		}
+	}
+
+	/**
+	 * Write the queued records and stop the writer thread.
+	 */
+	public void close() {
+		this.lock.writeLock().lock();
+		try {
+			this.closed = true;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+
+		try {
+			this.writerThread.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+
+	public File getLogFile() {
+		return this.logFile;
+	}
+}
@@ -4,9 +4,9 @@
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
- * 
+ *
  *      http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
@@ -19,31 +19,124 @@
  */
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.dao;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Access to the generated Jena rules, kept in a {@link JenaRuleStore} at the path preset with the system property
+ * {@link Constants.Config#RULE_STORE_PATH}, by default {@link Constants.FilePath#RULE_STORE} in the home directory. Storing a rule
+ * already stored changes nothing, so the rules generated for every request can be stored.
+ */
 public class JenaRulesDAO {
 	private static JenaRulesDAO instance = new JenaRulesDAO();
 
+	private final JenaRuleStore ruleStore;
+
 	private JenaRulesDAO() {
-		// do nothing;
+		this.ruleStore = new JenaRuleStore(new File(System.getProperty(Constants.Config.RULE_STORE_PATH, Constants.FilePath.RULE_STORE)));
 	}
 
 	public static JenaRulesDAO getInstance() {
 		return instance;
 	}
 
-	public void insertRule(String[] rule) {
+	/**
+	 * Store each of the Jena rules generated from one natural language rule.
+	 * 
+	 * @param rule
+	 * @return the ids of the stored rules
+	 */
+	public List<Long> insertRule(String[] rule) {
+		List<Long> ids = new ArrayList<Long>();
+		if (rule == null) {
+			return ids;
+		}
+
+		for (String jenaRule : rule) {
+			if (jenaRule != null) {
+				ids.add(this.ruleStore.insert(jenaRule).getId());
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * @param id
+	 * @return whether there was a rule with the id
+	 */
+	public boolean deleteRule(long id) {
+		return this.ruleStore.delete(id) != null;
+	}
+
+	/**
+	 * @param id
+	 * @return the Jena rule, or null
+	 */
+	public String queryRule(long id) {
+		JenaRuleRecord record = this.ruleStore.findById(id);
+		return (record == null) ? null : record.getRule();
+	}
 
+	/**
+	 * @param offset
+	 * @param limit
+	 * @return a page of the stored Jena rules, oldest first
+	 */
+	public List<String> queryRules(int offset, int limit) {
+		return toRules(this.ruleStore.findAll(offset, limit));
 	}
 
-	public String queryRule() {
-		return null;
+	/**
+	 * @param owner
+	 *            the company which has the resource, e.g. B
+	 * @param offset
+	 * @param limit
+	 * @return
+	 */
+	public List<String> queryRulesByOwner(String owner, int offset, int limit) {
+		return toRules(this.ruleStore.findByOwner(owner, offset, limit));
 	}
 
-	public List<String> queryRules() {
-		List<String> rules = new ArrayList<String>();
+	/**
+	 * @param resource
+	 *            the resource name or type, e.g. R_AutoCAD1_F or SoftResource
+	 * @param offset
+	 * @param limit
+	 * @return
+	 */
+	public List<String> queryRulesByResource(String resource, int offset, int limit) {
+		return toRules(this.ruleStore.findByResource(resource, offset, limit));
+	}
+
+	/**
+	 * @return all the stored records, oldest first
+	 */
+	public List<JenaRuleRecord> queryAllRecords() {
+		return this.ruleStore.findAll();
+	}
 
+	/**
+	 * @return a number which changes whenever a rule is stored or deleted
+	 */
+	public long getVersion() {
+		return this.ruleStore.getVersion();
+	}
+
+	private List<String> toRules(List<JenaRuleRecord> records) {
+		List<String> rules = new ArrayList<String>(records.size());
+		for (JenaRuleRecord record : records) {
+			rules.add(record.getRule());
+		}
 		return rules;
 	}
+
+	/**
+	 * Wait until the stored rules are written to disk, and stop writing.
+	 */
+	public void close() {
+		this.ruleStore.close();
+	}
 }
@@ -20,15 +20,29 @@
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
 
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.BoundedCache;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
 
 public class DictionaryService {
 
+	/**
+	 * synonym decisions, keyed on the pair of the keys of the original and the ontology term, so that the size bounds every decision;
+	 * shared by all the instances
+	 */
+	private static final BoundedCache<SynonymKey, Boolean> synonymDecisions = new BoundedCache<>(
+			Integer.getInteger(Constants.Config.SYNONYM_CACHE_SIZE, 10000));
+
+	private static final AtomicLong dictionaryVersion = new AtomicLong();
+
 	/**
 	 * e.g. with-5 vs. with
 	 *
@@ -37,24 +51,57 @@ public class DictionaryService {
 	 * @return
 	 */
 	public boolean isSynonym(final String originalTerm, final String ontologyTerm) {
-
-		// validation
 		if (StringUtils.isEmpty(originalTerm) || StringUtils.isEmpty(ontologyTerm)) {
 			return false;
 		}
+		return isSynonym(Term.of(originalTerm), Term.of(ontologyTerm));
+	}
 
-		// literal match
-		final String lowerCaseOriginalTerm = Tools.lowerCaseString(originalTerm);
-		final String lowerCaseOntologyTerm = Tools.lowerCaseString(ontologyTerm);
-		if (doesLiteralMatch(lowerCaseOriginalTerm, lowerCaseOntologyTerm)) {
-			return true;
-		}
+	/**
+	 * Compare the normalized forms of the terms, which are computed once, so that a decision already made allocates nothing.
+	 *
+	 * @param originalTerm
+	 *            possibly null
+	 * @param ontologyTerm
+	 *            possibly null
+	 * @return
+	 */
+	public boolean isSynonym(final Term originalTerm, final Term ontologyTerm) {
+		final long start = Metrics.getInstance().startStage(Metrics.Stage.IS_SYNONYM);
+		try {
+			// validation
+			if (originalTerm == null || ontologyTerm == null || originalTerm.isEmpty() || ontologyTerm.isEmpty()) {
+				return false;
+			}
 
-		final String originalTermWithoutDashSuffix = Tools.removeDashSuffix(lowerCaseOriginalTerm);
-		final String ontologyTermWithoutDashSuffix = Tools.removeDashSuffix(lowerCaseOntologyTerm);
-		if (doesLiteralMatch(originalTermWithoutDashSuffix, ontologyTermWithoutDashSuffix)) {
-			return true;
+			// literal match
+			if (doesLiteralMatch(originalTerm.getLowerCase(), ontologyTerm.getLowerCase())) {
+				return true;
+			}
+			if (doesLiteralMatch(originalTerm.getKey(), ontologyTerm.getKey())) {
+				return true;
+			}
+
+			final SynonymKey key = new SynonymKey(originalTerm.getKey(), ontologyTerm.getKey());
+			Boolean isSynonym = synonymDecisions.get(key);
+			if (isSynonym == null) {
+				isSynonym = Boolean.valueOf(isDictionarySynonym(originalTerm.getKey(), ontologyTerm.getKey()));
+				synonymDecisions.put(key, isSynonym);
+			}
+			return isSynonym.booleanValue();
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.IS_SYNONYM, start);
 		}
+	}
+
+	/**
+	 * Match the terms through WordNet and the local dictionary.
+	 *
+	 * @param originalTermWithoutDashSuffix
+	 * @param ontologyTermWithoutDashSuffix
+	 * @return
+	 */
+	private boolean isDictionarySynonym(final String originalTermWithoutDashSuffix, final String ontologyTermWithoutDashSuffix) {
 
 		// WordNet synonym match
 		final Set<String> synonymSet = JwnlWordNet.getInstance().lookupSynonym(ontologyTermWithoutDashSuffix, null);
@@ -107,6 +154,67 @@ public class DictionaryService {
 		return false;
 	}
 
+	/**
+	 * The lower case forms which are synonyms of the term whenever they literally equal an ontology term: the term itself, the term
+	 * without dash suffix, and its WordNet and local synonyms.
+	 *
+	 * @param term
+	 * @return
+	 */
+	public Set<String> lookupSynonymForms(final String term) {
+		final Set<String> forms = new LinkedHashSet<>();
+		if (StringUtils.isEmpty(term)) {
+			return forms;
+		}
+
+		final String lowerCaseTerm = Tools.lowerCaseString(term);
+		final String termWithoutDashSuffix = Tools.removeDashSuffix(lowerCaseTerm);
+		forms.add(lowerCaseTerm);
+		forms.add(termWithoutDashSuffix);
+
+		for (final String synonym : JwnlWordNet.getInstance().lookupSynonym(termWithoutDashSuffix, null)) {
+			forms.add(synonym.toLowerCase());
+		}
+
+		final List<String> synonymList = LocalDictionary.getIntance().lookupSynonym(termWithoutDashSuffix);
+		if (synonymList != null) {
+			forms.addAll(synonymList);
+		}
+		return forms;
+	}
+
+	/**
+	 * @param term
+	 * @return the local synonyms of the lower case term without dash suffix, or null
+	 */
+	public List<String> lookupLocalSynonyms(final String term) {
+		if (StringUtils.isEmpty(term)) {
+			return null;
+		}
+		return LocalDictionary.getIntance().lookupSynonym(Tools.removeDashSuffix(Tools.lowerCaseString(term)));
+	}
+
+	public static BoundedCache<?, Boolean> getSynonymDecisionCache() {
+		return synonymDecisions;
+	}
+
+	/**
+	 * Forget the cached synonym decisions and WordNet synonym sets, e.g. once the dictionaries change.
+	 */
+	public static void clearSynonymCaches() {
+		synonymDecisions.clear();
+		JwnlWordNet.getInstance().getSynonymSetCache().clear();
+		dictionaryVersion.incrementAndGet();
+	}
+
+	/**
+	 * @return a number which changes every time the synonym caches are cleared, so that results derived from the dictionaries can be
+	 *         invalidated
+	 */
+	public static long getDictionaryVersion() {
+		return dictionaryVersion.get();
+	}
+
 	/**
 	 * Country name can be: NZ or New Zealand.
 	 *
@@ -127,4 +235,40 @@ public class DictionaryService {
 			System.out.println(originalString + " is a synonym of " + resource);
 		}
 	}
+
+	/**
+	 * The key of a synonym decision: the keys of the original and the ontology term.
+	 */
+	private static final class SynonymKey {
+
+		private final String originalKey;
+		private final String ontologyKey;
+
+		SynonymKey(final String originalKey, final String ontologyKey) {
+			this.originalKey = originalKey;
+			this.ontologyKey = ontologyKey;
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if (this == object) {
+				return true;
+			}
+			if (!(object instanceof SynonymKey)) {
+				return false;
+			}
+			final SynonymKey other = (SynonymKey) object;
+			return originalKey.equals(other.originalKey) && ontologyKey.equals(other.ontologyKey);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * originalKey.hashCode() + ontologyKey.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return originalKey + "/" + ontologyKey;
+		}
+	}
 }
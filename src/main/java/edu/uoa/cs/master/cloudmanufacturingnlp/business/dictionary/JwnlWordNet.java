@@ -19,12 +19,22 @@
  */
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.BoundedCache;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
 import net.didion.jwnl.JWNL;
 import net.didion.jwnl.JWNLException;
 import net.didion.jwnl.data.IndexWord;
@@ -40,22 +50,75 @@ import net.didion.jwnl.dictionary.Dictionary;
  */
 public class JwnlWordNet {
 
+	private static final Pattern DICTIONARY_PATH = Pattern.compile("<param\\s+name=\"dictionary_path\"\\s+value=\"([^\"]*)\"");
+
 	private final static JwnlWordNet instance = new JwnlWordNet();
 	private Dictionary dictionary = null;
 
-	private JwnlWordNet() {
-		Constants.LOCAL_BASE = Constants.FilePath.LOCAL_BASE_JAVA;
+	/** synonym sets keyed on lemma and POS */
+	private final BoundedCache<String, Set<String>> synonymSets = new BoundedCache<>(
+			Integer.getInteger(Constants.Config.SYNONYM_CACHE_SIZE, 10000));
 
-		try {
-			final FileInputStream in = new FileInputStream(Constants.FilePath.WORDNET_PROPERTY);
-			JWNL.initialize(in);
+	private JwnlWordNet() {
+		try (InputStream in = Tools.openResource(Constants.FilePath.WORDNET_PROPERTY)) {
+			final String properties = withDictionaryPath(readProperties(in));
+			JWNL.initialize(new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8)));
 			this.dictionary = Dictionary.getInstance();
 
-		} catch (final FileNotFoundException | JWNLException e) {
+		} catch (final IOException | JWNLException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * The file backed dictionary reads the WordNet files at random, so they have to be in a directory rather than on the classpath: the
+	 * one given by {@link Constants.Config#WORDNET_DICTIONARY_PATH}, else the one of the properties if it exists, else the one under
+	 * {@link Constants#LOCAL_BASE}.
+	 *
+	 * @param properties
+	 *            the JWNL properties
+	 * @return the properties with the dictionary path in place
+	 */
+	static String withDictionaryPath(final String properties) {
+		final Matcher matcher = DICTIONARY_PATH.matcher(properties);
+		if (!matcher.find()) {
+			return properties;
+		}
+
+		String path = System.getProperty(Constants.Config.WORDNET_DICTIONARY_PATH);
+		if (path == null) {
+			final String configuredPath = unescapeXml(matcher.group(1));
+			path = new File(configuredPath).isDirectory() ? configuredPath
+					: new File(Constants.FilePath.WORDNET_DICTIONARY).getAbsolutePath();
+		}
+		return properties.substring(0, matcher.start(1)) + escapeXml(path) + properties.substring(matcher.end(1));
+	}
+
+	/**
+	 * @param value
+	 * @return the value with the five predefined XML entities escaped, e.g. for an attribute value
+	 */
+	static String escapeXml(final String value) {
+		return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;").replace("'", "&apos;");
+	}
+
+	/**
+	 * @param value
+	 * @return the value with the five predefined XML entities unescaped
+	 */
+	static String unescapeXml(final String value) {
+		return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'").replace("&amp;", "&");
+	}
+
+	private static String readProperties(final InputStream in) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+		final byte[] buffer = new byte[4096];
+		for (int length = in.read(buffer); length != -1; length = in.read(buffer)) {
+			out.write(buffer, 0, length);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
 	public static JwnlWordNet getInstance() {
 		return instance;
 	}
@@ -69,11 +132,37 @@ public class JwnlWordNet {
 	 * </p>
 	 *
 	 * @param originalLemma
-	 * @return
+	 * @return an unmodifiable set, cached for later lookups
 	 */
 	public Set<String> lookupSynonym(final String originalLemma, final POS pos) {
-		final Set<String> synonyms = new HashSet<>();
+		final String key = (pos == null) ? originalLemma : originalLemma + '\t' + pos.getKey();
+
+		Set<String> synonyms = this.synonymSets.get(key);
+		if (synonyms == null) {
+			synonyms = new HashSet<>();
+
+			// the file backed dictionary reads through shared random access files, which must not be read by two threads at once
+			final long start = Metrics.getInstance().startStage(Metrics.Stage.WORDNET_LOOKUP);
+			try {
+				synchronized (this) {
+					lookupSynonym(originalLemma, pos, synonyms);
+				}
+			} finally {
+				Metrics.getInstance().stopStage(Metrics.Stage.WORDNET_LOOKUP, start);
+			}
 
+			synonyms = Collections.unmodifiableSet(synonyms);
+			this.synonymSets.put(key, synonyms);
+		}
+
+		return synonyms;
+	}
+
+	public BoundedCache<String, Set<String>> getSynonymSetCache() {
+		return this.synonymSets;
+	}
+
+	private void lookupSynonym(final String originalLemma, final POS pos, final Set<String> synonyms) {
 		try {
 			// [IndexWordSet: [IndexWord: [Lemma: share] [POS: verb]][IndexWord: [Lemma: share] [POS: noun]]]
 			final IndexWordSet indexWordSet = this.dictionary.lookupAllIndexWords(originalLemma);
@@ -92,8 +181,6 @@ public class JwnlWordNet {
 		} catch (final JWNLException e) {
 			e.printStackTrace();
 		}
-
-		return synonyms;
 	}
 
 	/**
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
+
+/**
+ * A term compared by the {@link DictionaryService}, with the forms the comparisons use computed once.
+ *
+ * <pre>
+ * 	Term.of("with-5")                          lower case: with-5, key: with
+ * 	Term.ofOntologyName("manuservice:hasResource")  text: manuservice:hasResource, local name: hasResource, key: hasresource
+ * 	Term.ofToken("companies", "company")         key: companies, lemma: company
+ * </pre>
+ *
+ * Natural language terms are created when the sentence is parsed, and ontology terms when the ontology is loaded, so that the loops
+ * comparing them allocate nothing.
+ */
+public final class Term {
+
+	private final String text;
+	private final String localName;
+	private final String lowerCase;
+	private final String key;
+	private final String lemma;
+
+	private Term(final String text, final String localName, final String lemma) {
+		this.text = text;
+		this.localName = localName;
+		this.lowerCase = Tools.lowerCaseString(localName);
+		this.key = Tools.removeDashSuffix(this.lowerCase);
+		this.lemma = (lemma == null) ? this.key : lemma;
+	}
+
+	/**
+	 * @param text
+	 *            e.g. with-5 or New Zealand
+	 * @return
+	 */
+	public static Term of(final String text) {
+		return new Term(text, text, null);
+	}
+
+	/**
+	 * The term is compared by the local name, e.g. hasResource for manuservice:hasResource.
+	 *
+	 * @param name
+	 * @return
+	 */
+	public static Term ofOntologyName(final String name) {
+		return new Term(name, Tools.removePrefix(name), null);
+	}
+
+	/**
+	 * @param word
+	 *            a word of the sentence, e.g. companies
+	 * @param lemma
+	 *            e.g. company, or null to use the lower case form
+	 * @return
+	 */
+	public static Term ofToken(final String word, final String lemma) {
+		return new Term(word, word, lemma);
+	}
+
+	/**
+	 * @return the term as given, e.g. manuservice:hasResource
+	 */
+	public String getText() {
+		return this.text;
+	}
+
+	/**
+	 * @return the term without prefix, e.g. hasResource
+	 */
+	public String getLocalName() {
+		return this.localName;
+	}
+
+	/**
+	 * @return the trimmed lower case local name, e.g. with-5
+	 */
+	public String getLowerCase() {
+		return this.lowerCase;
+	}
+
+	/**
+	 * @return the lower case form without dash suffix, e.g. with; the terms with the same key are synonyms of each other
+	 */
+	public String getKey() {
+		return this.key;
+	}
+
+	/**
+	 * @return e.g. company for companies
+	 */
+	public String getLemma() {
+		return this.lemma;
+	}
+
+	public boolean isEmpty() {
+		return this.localName.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return this.text;
+	}
+}
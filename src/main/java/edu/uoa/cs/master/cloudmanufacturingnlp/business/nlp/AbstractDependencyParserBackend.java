@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
+
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.List;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.process.Morphology;
+import edu.stanford.nlp.process.Tokenizer;
+import edu.stanford.nlp.process.TokenizerFactory;
+import edu.stanford.nlp.trees.PennTreebankLanguagePack;
+import edu.stanford.nlp.trees.TreebankLanguagePack;
+import edu.stanford.nlp.trees.TypedDependency;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
+
+/**
+ * Tokenize the sentence and collect the typed dependencies into a {@link DependencyGraph}; subclasses only produce the typed
+ * dependencies.
+ */
+public abstract class AbstractDependencyParserBackend implements DependencyParserBackend {
+	protected final TreebankLanguagePack tlp = new PennTreebankLanguagePack();
+	private final TokenizerFactory<? extends HasWord> tokenizerFactory = tlp.getTokenizerFactory();
+
+	/** the lemmatizer keeps the state of its lexer, so each thread has its own */
+	private final ThreadLocal<Morphology> morphology = new ThreadLocal<Morphology>() {
+		@Override
+		protected Morphology initialValue() {
+			return new Morphology();
+		}
+	};
+
+	@Override
+	public DependencyGraph parseNaturalLanguage(String naturalLanguageRule) {
+		long start = Metrics.getInstance().startStage(Metrics.Stage.TOKENIZE);
+		Tokenizer<? extends HasWord> toke = tokenizerFactory.getTokenizer(new StringReader(naturalLanguageRule));
+		List<? extends HasWord> sentence = toke.tokenize();
+		Metrics.getInstance().stopStage(Metrics.Stage.TOKENIZE, start);
+
+		Collection<TypedDependency> tdl = typedDependencies(sentence);
+
+		DependencyGraph.Builder builder = new DependencyGraph.Builder(sentence.size());
+		for (int i = 0; i < sentence.size(); i++) {
+			builder.withToken(i + 1, sentence.get(i).word(), null, null);
+		}
+
+		for (TypedDependency dependency : tdl) {
+			withToken(builder, dependency.gov());
+			withToken(builder, dependency.dep());
+
+			builder.addDependency(dependency.gov().index(), DependencyRelation.fromName(dependency.reln().toString()),
+					dependency.dep().index());
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * Use the word and the tag the parser produced, rather than those of the tokenizer.
+	 * 
+	 * @param builder
+	 * @param word
+	 */
+	private void withToken(DependencyGraph.Builder builder, IndexedWord word) {
+		if (word.index() == DependencyGraph.ROOT) {
+			return;
+		}
+
+		String lemma = (word.tag() == null) ? null : this.morphology.get().lemma(word.value(), word.tag());
+		builder.withToken(word.index(), word.value(), word.tag(), lemma);
+	}
+
+	/**
+	 * @param sentence
+	 *            the tokenized sentence
+	 * @return the basic Stanford Dependencies of the sentence
+	 */
+	protected abstract Collection<TypedDependency> typedDependencies(List<? extends HasWord> sentence);
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
+
+import java.util.Arrays;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.Term;
+
+/**
+ * The Stanford Dependencies of a sentence.
+ * <p>
+ * The tokens are identified by their index in the sentence, 0 being the root. The dependents of each governor are kept in an array
+ * per relation, in the order the parser produced them, so that looking a dependent up is two array accesses. The {@link Term} of
+ * every token, with its lower case form and lemma, is computed once, when the graph is built.
+ * </p>
+ */
+public final class DependencyGraph {
+
+	/** the token looked up doesn't exist */
+	public static final int NONE = -1;
+
+	/** the root of the sentence */
+	public static final int ROOT = 0;
+
+	private static final DependencyRelation[] RELATIONS = DependencyRelation.values();
+	private static final int[] NO_DEPENDENTS = new int[0];
+	private static final int[][] NO_RELATIONS = new int[RELATIONS.length][];
+	static {
+		Arrays.fill(NO_RELATIONS, NO_DEPENDENTS);
+	}
+
+	private final Term[] terms;
+	private final String[] tags;
+
+	/** [governor][relation] => dependents */
+	private final int[][][] dependents;
+
+	/** the governor of nsubj */
+	private final int action;
+
+	private DependencyGraph(final Term[] terms, final String[] tags, final int[][][] dependents, final int action) {
+		this.terms = terms;
+		this.tags = tags;
+		this.dependents = dependents;
+		this.action = action;
+	}
+
+	/**
+	 * @return the number of tokens, including the root
+	 */
+	public int size() {
+		return this.terms.length;
+	}
+
+	/**
+	 * @return the action, i.e. the governor of nsubj, or {@link #NONE}
+	 */
+	public int getAction() {
+		return this.action;
+	}
+
+	/**
+	 * @param token
+	 * @return the word as it appears in the sentence, e.g. companyC
+	 */
+	public String getWord(final int token) {
+		return this.terms[token].getText();
+	}
+
+	/**
+	 * @param token
+	 * @return the term to compare the token by
+	 */
+	public Term getTerm(final int token) {
+		return this.terms[token];
+	}
+
+	/**
+	 * @param token
+	 * @return e.g. companyc
+	 */
+	public String getLowerCase(final int token) {
+		return this.terms[token].getLowerCase();
+	}
+
+	/**
+	 * @param token
+	 * @return e.g. company for companies
+	 */
+	public String getLemma(final int token) {
+		return this.terms[token].getLemma();
+	}
+
+	/**
+	 * @param token
+	 * @return the part of speech tag, or null if the parser didn't tag the token
+	 */
+	public String getTag(final int token) {
+		return this.tags[token];
+	}
+
+	/**
+	 * Lookup the first dependent of the governor by the relation.
+	 * 
+	 * @param gov
+	 *            the governor, possibly {@link #NONE}
+	 * @param reln
+	 * @return the dependent, or {@link #NONE}
+	 */
+	public int getDependent(final int gov, final DependencyRelation reln) {
+		if (gov == NONE) {
+			return NONE;
+		}
+
+		final int[] deps = this.dependents[gov][reln.ordinal()];
+		return (deps.length == 0) ? NONE : deps[0];
+	}
+
+	/**
+	 * @param gov
+	 *            the governor, possibly {@link #NONE}
+	 * @param reln
+	 * @return the number of dependents of the governor by the relation
+	 */
+	public int getDependentCount(final int gov, final DependencyRelation reln) {
+		return (gov == NONE) ? 0 : this.dependents[gov][reln.ordinal()].length;
+	}
+
+	/**
+	 * @param gov
+	 * @param reln
+	 * @param i
+	 *            less than {@link #getDependentCount(int, DependencyRelation)}
+	 * @return the i-th dependent of the governor by the relation
+	 */
+	public int getDependent(final int gov, final DependencyRelation reln, final int i) {
+		return this.dependents[gov][reln.ordinal()][i];
+	}
+
+	/**
+	 * e.g. shares-3
+	 * 
+	 * @param token
+	 * @return the word with its index, as the Stanford Dependencies print it
+	 */
+	public String toIndexedString(final int token) {
+		return getWord(token) + "-" + token;
+	}
+
+	/**
+	 * e.g. [nsubj(shares-3, companyC-2), dobj(shares-3, resources-5)], the other relations being printed as dep
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(64 * this.terms.length);
+		builder.append('[');
+		for (int gov = 0; gov < this.dependents.length; gov++) {
+			for (final DependencyRelation reln : RELATIONS) {
+				for (final int dep : this.dependents[gov][reln.ordinal()]) {
+					if (builder.length() > 1) {
+						builder.append(", ");
+					}
+					builder.append(reln.getName()).append('(').append(toIndexedString(gov)).append(", ").append(toIndexedString(dep))
+							.append(')');
+				}
+			}
+		}
+		return builder.append(']').toString();
+	}
+
+	/**
+	 * Collect the tokens and the typed dependencies of a sentence into a graph.
+	 */
+	public static class Builder {
+		private final String[] words;
+		private final String[] lemmas;
+		private final String[] tags;
+
+		/** governor, relation and dependent of each dependency */
+		private int[] dependencies = new int[3 * 16];
+		private int dependencyCount = 0;
+
+		/**
+		 * @param tokenCount
+		 *            the number of tokens of the sentence, excluding the root
+		 */
+		public Builder(final int tokenCount) {
+			this.words = new String[tokenCount + 1];
+			this.lemmas = new String[tokenCount + 1];
+			this.tags = new String[tokenCount + 1];
+
+			this.words[ROOT] = "ROOT";
+		}
+
+		/**
+		 * @param token
+		 *            the index of the token in the sentence, starting from 1
+		 * @param word
+		 * @param tag
+		 *            the part of speech tag, possibly null
+		 * @param lemma
+		 *            the lemma, or null to use the lower case form
+		 * @return
+		 */
+		public Builder withToken(final int token, final String word, final String tag, final String lemma) {
+			this.words[token] = word;
+			this.tags[token] = tag;
+			this.lemmas[token] = lemma;
+			return this;
+		}
+
+		/**
+		 * @param gov
+		 * @param reln
+		 * @param dep
+		 * @return
+		 */
+		public Builder addDependency(final int gov, final DependencyRelation reln, final int dep) {
+			if (this.dependencyCount == this.dependencies.length) {
+				this.dependencies = Arrays.copyOf(this.dependencies, 2 * this.dependencies.length);
+			}
+			this.dependencies[this.dependencyCount++] = gov;
+			this.dependencies[this.dependencyCount++] = reln.ordinal();
+			this.dependencies[this.dependencyCount++] = dep;
+			return this;
+		}
+
+		public DependencyGraph build() {
+			final int tokenCount = this.words.length;
+
+			final Term[] terms = new Term[tokenCount];
+			for (int token = 0; token < tokenCount; token++) {
+				if (this.words[token] == null) {
+					throw new RuntimeException("Error: no word for the token " + token);
+				}
+				terms[token] = Term.ofToken(this.words[token], this.lemmas[token]);
+			}
+
+			// size the arrays first, then fill them in the order the dependencies were added
+			final int[][] counts = new int[tokenCount][];
+			int action = NONE;
+			for (int i = 0; i < this.dependencyCount; i += 3) {
+				final int gov = this.dependencies[i];
+				final int reln = this.dependencies[i + 1];
+				if (counts[gov] == null) {
+					counts[gov] = new int[RELATIONS.length];
+				}
+				counts[gov][reln]++;
+
+				if (reln == DependencyRelation.NSUBJ.ordinal()) {
+					action = gov;
+				}
+			}
+
+			final int[][][] dependents = new int[tokenCount][][];
+			for (int gov = 0; gov < tokenCount; gov++) {
+				if (counts[gov] == null) {
+					dependents[gov] = NO_RELATIONS;
+					continue;
+				}
+				dependents[gov] = new int[RELATIONS.length][];
+				for (int reln = 0; reln < RELATIONS.length; reln++) {
+					dependents[gov][reln] = (counts[gov][reln] == 0) ? NO_DEPENDENTS : new int[counts[gov][reln]];
+					counts[gov][reln] = 0;
+				}
+			}
+			for (int i = 0; i < this.dependencyCount; i += 3) {
+				final int gov = this.dependencies[i];
+				final int reln = this.dependencies[i + 1];
+				dependents[gov][reln][counts[gov][reln]++] = this.dependencies[i + 2];
+			}
+
+			return new DependencyGraph(terms, this.tags.clone(), dependents, action);
+		}
+	}
+}
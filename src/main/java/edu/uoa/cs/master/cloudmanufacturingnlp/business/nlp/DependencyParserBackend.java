@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
+
+/**
+ * A parser which turns a natural language rule into Stanford Dependencies.
+ */
+public interface DependencyParserBackend {
+
+	/**
+	 * Parse the input raw sentence, output the Stanford Dependencies.
+	 * <p>
+	 * An output example is: [nsubj(shares-3, companyC-2), dobj(shares-3, resources-5)]
+	 * </p>
+	 * 
+	 * @param naturalLanguageRule
+	 * @return the dependency graph, whose action is the gov of nsubj
+	 */
+	public DependencyGraph parseNaturalLanguage(String naturalLanguageRule);
+
+	/**
+	 * @return the name the backend is selected by
+	 */
+	public String getName();
+}
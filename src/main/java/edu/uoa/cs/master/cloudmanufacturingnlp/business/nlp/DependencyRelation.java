@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * The Stanford Dependencies relations the rules are assembled from; the other relations are kept as {@link #OTHER}.
+ */
+public enum DependencyRelation {
+
+	ROOT("root"),
+	NSUBJ(Constants.Nlp.NSUBJ),
+	DOBJ(Constants.Nlp.DOBJ),
+	PREP(Constants.Nlp.PREP),
+	POBJ(Constants.Nlp.POBJ),
+	AMOD(Constants.Nlp.AMOD),
+	NN(Constants.Nlp.NN),
+	CONJ(Constants.Nlp.CONJ),
+	NUM(Constants.Nlp.NUM),
+	QUANTMOD(Constants.Nlp.QUANTMOD),
+	MWE(Constants.Nlp.MWE),
+	VMOD(Constants.Nlp.VMOD),
+	ADVMOD(Constants.Nlp.ADVMOD),
+	/** any other relation */
+	OTHER("dep");
+
+	private static final Map<String, DependencyRelation> relations = new HashMap<>();
+	static {
+		for (final DependencyRelation relation : values()) {
+			if (relation != OTHER) {
+				relations.put(relation.getName(), relation);
+			}
+		}
+	}
+
+	private final String name;
+
+	private DependencyRelation(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return the short name of the relation, e.g. nsubj
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @param name
+	 *            the short name of the relation, e.g. nsubj
+	 * @return the relation, {@link #OTHER} if it is none of the ones the rules are assembled from
+	 */
+	public static DependencyRelation fromName(final String name) {
+		final DependencyRelation relation = relations.get(name);
+		return (relation == null) ? OTHER : relation;
+	}
+}
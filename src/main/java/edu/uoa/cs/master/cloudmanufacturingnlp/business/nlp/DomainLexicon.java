@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.stanford.nlp.process.TokenizerFactory;
+import edu.stanford.nlp.trees.PennTreebankLanguagePack;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
+
+/**
+ * The tags of the domain terms, e.g. the company names and the resources of the ontology, forced on a sentence after POS tagging, as
+ * a general purpose tagger gets them wrong, e.g. "CompanyA shares" as a noun phrase.
+ *
+ * Each line of the lexicon file is a term and the tag of each of its tokens:
+ *
+ * <pre>
+ * 	CompanyA: NNP
+ * 	OKUMA MP-46V: NNP NNP HYPH CD
+ * </pre>
+ */
+public class DomainLexicon {
+
+	private final TokenizerFactory<? extends HasWord> tokenizerFactory = new PennTreebankLanguagePack().getTokenizerFactory();
+
+	/** the terms by their first word, the longest first */
+	private final Map<String, List<TaggedTerm>> terms = new HashMap<>();
+	private int size = 0;
+
+	/**
+	 * Load the lexicon file, skipping the comment lines which start with "/".
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public static DomainLexicon load(String fileName) {
+		List<String> lines = new ArrayList<>();
+		Tools.loadLines(lines, fileName);
+
+		DomainLexicon domainLexicon = new DomainLexicon();
+		for (String line : lines) {
+			int separator = line.lastIndexOf(':');
+			if (separator < 0) {
+				throw new RuntimeException("Error: no tags for the domain term " + line);
+			}
+			domainLexicon.addTerm(line.substring(0, separator).trim(), line.substring(separator + 1).trim().split("\\s+"));
+		}
+		return domainLexicon;
+	}
+
+	/**
+	 * @param term
+	 *            e.g. OKUMA MP-46V
+	 * @param tags
+	 *            the tag of each token of the term, e.g. NNP NNP HYPH CD
+	 */
+	public void addTerm(String term, String... tags) {
+		List<? extends HasWord> words = this.tokenizerFactory.getTokenizer(new StringReader(term)).tokenize();
+		if (words.isEmpty() || words.size() != tags.length) {
+			throw new RuntimeException("Error: " + tags.length + " tags for the " + words.size() + " tokens of the domain term " + term);
+		}
+
+		String[] termWords = new String[words.size()];
+		for (int i = 0; i < termWords.length; i++) {
+			termWords[i] = words.get(i).word();
+		}
+
+		List<TaggedTerm> sameFirstWord = this.terms.get(termWords[0]);
+		if (sameFirstWord == null) {
+			sameFirstWord = new ArrayList<>(1);
+			this.terms.put(termWords[0], sameFirstWord);
+		}
+
+		int position = 0;
+		while (position < sameFirstWord.size() && sameFirstWord.get(position).words.length >= termWords.length) {
+			position++;
+		}
+		sameFirstWord.add(position, new TaggedTerm(termWords, tags));
+		this.size++;
+	}
+
+	/**
+	 * Force the tags of the domain terms found in the sentence, the longest term first.
+	 * 
+	 * @param sentence
+	 *            the tagged sentence, updated in place
+	 * @return the number of tokens whose tag was forced
+	 */
+	public int apply(List<TaggedWord> sentence) {
+		int forced = 0;
+		int i = 0;
+		while (i < sentence.size()) {
+			TaggedTerm term = match(sentence, i);
+			if (term == null) {
+				i++;
+				continue;
+			}
+
+			for (int j = 0; j < term.tags.length; j++) {
+				sentence.get(i + j).setTag(term.tags[j]);
+			}
+			forced += term.tags.length;
+			i += term.tags.length;
+		}
+		return forced;
+	}
+
+	private TaggedTerm match(List<TaggedWord> sentence, int start) {
+		List<TaggedTerm> sameFirstWord = this.terms.get(sentence.get(start).word());
+		if (sameFirstWord == null) {
+			return null;
+		}
+
+		for (TaggedTerm term : sameFirstWord) {
+			if (term.matches(sentence, start)) {
+				return term;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the number of terms
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	private static final class TaggedTerm {
+		private final String[] words;
+		private final String[] tags;
+
+		private TaggedTerm(String[] words, String[] tags) {
+			this.words = words;
+			this.tags = tags;
+		}
+
+		private boolean matches(List<TaggedWord> sentence, int start) {
+			if (start + this.words.length > sentence.size()) {
+				return false;
+			}
+			for (int i = 1; i < this.words.length; i++) {
+				if (!this.words[i].equals(sentence.get(start + i).word())) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
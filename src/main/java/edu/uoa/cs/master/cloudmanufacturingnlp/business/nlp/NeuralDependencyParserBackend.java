@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.stanford.nlp.parser.nndep.DependencyParser;
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
+import edu.stanford.nlp.trees.GrammaticalStructure;
+import edu.stanford.nlp.trees.TypedDependency;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
+
+/**
+ * POS tag the sentence and parse it with the CoreNLP transition-based (neural network) dependency parser, using the model trained on
+ * English Stanford Dependencies so that the relations match those of the PCFG backend.
+ */
+public class NeuralDependencyParserBackend extends AbstractDependencyParserBackend {
+	public static final String NAME = "nndep";
+
+	static final String TAGGER_MODEL = "edu/stanford/nlp/models/pos-tagger/english-left3words-distsim.tagger";
+	private static final String PARSER_MODEL = "edu/stanford/nlp/models/parser/nndep/english_SD.gz";
+
+	private final MaxentTagger tagger = new MaxentTagger(TAGGER_MODEL);
+	private final DependencyParser parser;
+
+	public NeuralDependencyParserBackend() {
+		Properties properties = new Properties();
+		properties.setProperty("language", "English");
+		this.parser = DependencyParser.loadFromModelFile(PARSER_MODEL, properties);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	protected Collection<TypedDependency> typedDependencies(List<? extends HasWord> sentence) {
+		List<TaggedWord> taggedSentence;
+		long start = Metrics.getInstance().startStage(Metrics.Stage.POS_TAG);
+		try {
+			taggedSentence = tagger.tagSentence(sentence);
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.POS_TAG, start);
+		}
+
+		GrammaticalStructure gs;
+		start = Metrics.getInstance().startStage(Metrics.Stage.PARSE);
+		try {
+			gs = parser.predict(taggedSentence);
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.PARSE, start);
+		}
+
+		start = Metrics.getInstance().startStage(Metrics.Stage.DEPENDENCY_CONVERSION);
+		try {
+			return gs.typedDependencies();
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.DEPENDENCY_CONVERSION, start);
+		}
+	}
+}
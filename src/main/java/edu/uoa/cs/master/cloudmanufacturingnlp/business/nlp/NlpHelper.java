@@ -19,15 +19,10 @@
  */
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-
 import org.apache.commons.lang3.StringUtils;
 
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.Term;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
 
@@ -40,76 +35,36 @@ public class NlpHelper {
 	}
 
 	/**
-	 * Lookup the dependent from the triples.
+	 * Match a token of the sentence against a term.
 	 * 
-	 * @param gov
-	 * @param reln
+	 * @param graph
+	 * @param token
+	 *            possibly {@link DependencyGraph#NONE}
+	 * @param term
 	 * @return
 	 */
-	public String lookupDep(Map<String, Map<String, String>> triples, String gov, String reln) {
-		String dep = null;
-
-		Map<String, String> dep_reln_map = triples.get(gov);
-		if (dep_reln_map == null) {
-			return dep;
-		}
-
-		Iterator<Entry<String, String>> it = dep_reln_map.entrySet().iterator();
-		while (it.hasNext()) {
-			Entry<String, String> entry = it.next();
-
-			if (reln.equals(entry.getValue())) {
-				dep = entry.getKey();
-				break;
-			}
+	public boolean isSynonym(DependencyGraph graph, int token, String term) {
+		if (token == DependencyGraph.NONE) {
+			return false;
 		}
-
-		return dep;
-	}
-
-	/**
-	 * Lookup the list of dependents from the triples.
-	 * 
-	 * @param gov
-	 * @param reln
-	 * @return
-	 */
-	public List<String> lookupDeps(Map<String, Map<String, String>> triples, String gov, String reln) {
-		List<String> deps = null;
-
-		Map<String, String> dep_reln_map = triples.get(gov);
-		if (dep_reln_map == null) {
-			return deps;
-		}
-
-		Iterator<Entry<String, String>> it = dep_reln_map.entrySet().iterator();
-		while (it.hasNext()) {
-			Entry<String, String> entry = it.next();
-
-			if (this.dictionaryService.isSynonym(entry.getValue(), reln)) {
-				if (deps == null) {
-					deps = new ArrayList<String>();
-				}
-				deps.add(entry.getKey());
-			}
-		}
-
-		return deps;
+		return this.dictionaryService.isSynonym(graph.getTerm(token), Term.of(term));
 	}
 
 	/**
 	 * Retrieve the base location which can be: NZ, New Zealand, Auckland, etc.
 	 * 
-	 * @param originalString
+	 * @param graph
+	 * @param token
+	 *            e.g. NZ-based
 	 * @return
 	 */
-	public String getBaseLocation(String originalString) {
+	public String getBaseLocation(DependencyGraph graph, int token) {
 
-		// remove the suffix
-		String tempString = Tools.removeDashSuffix(originalString);
+		String tempString = graph.getWord(token);
 
-		if (tempString.toLowerCase().endsWith(Constants.Nlp.BASED)) {
-			tempString = tempString.substring(0, tempString.toLowerCase().indexOf(Constants.Nlp.BASED));
+		String lowerCaseString = graph.getLowerCase(token);
+		if (lowerCaseString.endsWith(Constants.Nlp.BASED)) {
+			tempString = tempString.substring(0, lowerCaseString.indexOf(Constants.Nlp.BASED));
 		}
 
 		tempString = tempString.trim();
@@ -126,16 +81,16 @@ public class NlpHelper {
 	/**
 	 * Get the comparison value. 1: more than -1: less than 0: equal
 	 * 
-	 * @param triples
+	 * @param graph
 	 * @param yearsNum
-	 * @return
+	 * @return the token of the comparison, e.g. "more" of "more than 10 years", or {@link DependencyGraph#NONE}
 	 */
-	public String getComparison(Map<String, Map<String, String>> triples, String yearsNum) {
-		String quantmod = lookupDep(triples, yearsNum, Constants.Nlp.QUANTMOD);
-		if (this.dictionaryService.isSynonym(quantmod, "than")) {
-			return lookupDep(triples, quantmod, Constants.Nlp.MWE);
+	public int getComparison(DependencyGraph graph, int yearsNum) {
+		int quantmod = graph.getDependent(yearsNum, DependencyRelation.QUANTMOD);
+		if (isSynonym(graph, quantmod, "than")) {
+			return graph.getDependent(quantmod, DependencyRelation.MWE);
 		}
 
-		return null;
+		return DependencyGraph.NONE;
 	}
 }
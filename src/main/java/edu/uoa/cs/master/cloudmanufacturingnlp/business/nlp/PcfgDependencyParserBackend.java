@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.stanford.nlp.parser.common.ParserQuery;
+import edu.stanford.nlp.parser.common.ParserUtils;
+import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
+import edu.stanford.nlp.trees.EnglishGrammaticalStructure;
+import edu.stanford.nlp.trees.EnglishGrammaticalStructureFactory;
+import edu.stanford.nlp.trees.Tree;
+import edu.stanford.nlp.trees.TypedDependency;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.PoolStats;
+
+/**
+ * Constituency parse with the englishPCFG grammar, then convert the tree to English Stanford Dependencies.
+ * 
+ * With {@link Constants.Config#PARSER_PRE_TAG}, the sentence is POS tagged first, and the tags of the {@link DomainLexicon} terms are
+ * forced on it, so that the parser only considers the given tag of each word rather than every tag. The tags change some of the
+ * parses, e.g. "higher than 8.0" then modifies "credit rating", so the Jena rules aren't always the same as without them.
+ */
+public class PcfgDependencyParserBackend extends AbstractDependencyParserBackend {
+	public static final String NAME = "pcfg";
+
+	private EnglishGrammaticalStructureFactory gsf = new EnglishGrammaticalStructureFactory();
+
+	private LexicalizedParser lp = LexicalizedParser.loadModel("edu/stanford/nlp/models/lexparser/englishPCFG.ser.gz",
+			"-maxLength", "80", "-retainTmpSubcategories");
+
+	/**
+	 * Parser queries over the shared grammar. A query keeps its charts between parses, so each one is checked out by a single thread
+	 * at a time.
+	 */
+	private final BlockingQueue<ParserQuery> parserQueries;
+	private final int parserPoolSize;
+	private final boolean failFast;
+	private final long timeoutMillis;
+
+	/** null unless the sentences are POS tagged before parsing */
+	private final MaxentTagger tagger;
+	private final DomainLexicon domainLexicon;
+
+	/** parser pool metrics */
+	private final PoolStats poolStats;
+
+	public PcfgDependencyParserBackend() {
+		this(Boolean.getBoolean(Constants.Config.PARSER_PRE_TAG));
+	}
+
+	/**
+	 * @param preTag
+	 *            whether to POS tag the sentences before parsing them
+	 */
+	public PcfgDependencyParserBackend(boolean preTag) {
+		this.parserPoolSize = Math.max(1,
+				Integer.getInteger(Constants.Config.PARSER_POOL_SIZE, Runtime.getRuntime().availableProcessors()));
+		this.failFast = Boolean.getBoolean(Constants.Config.PARSER_POOL_FAIL_FAST);
+		this.timeoutMillis = Long.getLong(Constants.Config.PARSER_POOL_TIMEOUT_MILLIS, 0L);
+
+		this.poolStats = new PoolStats(this.parserPoolSize);
+		this.parserQueries = new ArrayBlockingQueue<>(this.parserPoolSize);
+		for (int i = 0; i < this.parserPoolSize; i++) {
+			this.parserQueries.add(this.lp.parserQuery());
+		}
+
+		if (preTag) {
+			this.tagger = new MaxentTagger(NeuralDependencyParserBackend.TAGGER_MODEL);
+			this.domainLexicon = DomainLexicon.load(Constants.FilePath.DOMAIN_LEXICON);
+		} else {
+			this.tagger = null;
+			this.domainLexicon = null;
+		}
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	protected Collection<TypedDependency> typedDependencies(List<? extends HasWord> sentence) {
+		List<? extends HasWord> words = (this.tagger == null) ? sentence : tag(sentence);
+
+		Tree parse;
+		long start = Metrics.getInstance().startStage(Metrics.Stage.PARSE);
+		try {
+			parse = parse(words);
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.PARSE, start);
+		}
+
+		start = Metrics.getInstance().startStage(Metrics.Stage.DEPENDENCY_CONVERSION);
+		try {
+			EnglishGrammaticalStructure gs = gsf.newGrammaticalStructure(parse);
+			return gs.typedDependencies();
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.DEPENDENCY_CONVERSION, start);
+		}
+	}
+
+	/**
+	 * POS tag the sentence, then force the tags of the domain terms.
+	 * 
+	 * @param sentence
+	 * @return
+	 */
+	private List<TaggedWord> tag(List<? extends HasWord> sentence) {
+		long start = Metrics.getInstance().startStage(Metrics.Stage.POS_TAG);
+		try {
+			List<TaggedWord> taggedSentence = this.tagger.tagSentence(sentence);
+			this.domainLexicon.apply(taggedSentence);
+			return taggedSentence;
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.POS_TAG, start);
+		}
+	}
+
+	public boolean isPreTagging() {
+		return this.tagger != null;
+	}
+
+	/**
+	 * Parse the sentence with a parser query checked out of the pool. A query which throws may be left half way through its charts, so
+	 * it is dropped and a fresh one takes its place, which keeps the pool at its size.
+	 * 
+	 * @param sentence
+	 * @return the best parse, or a flat X tree if the sentence can't be parsed, or the parser throws, as
+	 *         {@link LexicalizedParser#parse(List)} does
+	 */
+	private Tree parse(List<? extends HasWord> sentence) {
+		ParserQuery parserQuery = checkoutParserQuery();
+		boolean reusable = false;
+		try {
+			Tree bestParse = parserQuery.parse(sentence) ? parserQuery.getBestParse() : null;
+			reusable = true;
+			if (bestParse != null) {
+				return bestParse;
+			}
+		} catch (Exception e) {
+			System.out.println("Error: failed to parse " + sentence + ", falling back to an (X ...) tree");
+			e.printStackTrace();
+		} finally {
+			returnParserQuery(reusable ? parserQuery : this.lp.parserQuery());
+		}
+		return ParserUtils.xTree(sentence);
+	}
+
+	/**
+	 * Take a parser query from the pool. Waits for one to be returned unless the pool is configured to fail fast, or until the
+	 * configured timeout elapses. The wait is recorded in the {@link PoolStats} whether a query is checked out or not.
+	 * 
+	 * @return
+	 */
+	protected ParserQuery checkoutParserQuery() {
+		long start = System.nanoTime();
+		ParserQuery parserQuery = this.parserQueries.poll();
+
+		if (parserQuery == null && !this.failFast) {
+			try {
+				parserQuery = (this.timeoutMillis > 0) ? this.parserQueries.poll(this.timeoutMillis, TimeUnit.MILLISECONDS)
+						: this.parserQueries.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		this.poolStats.recordCheckout(System.nanoTime() - start, parserQuery == null);
+		if (parserQuery == null) {
+			throw new RuntimeException(Constants.ErrMsg.PARSER_POOL_SATURATED);
+		}
+		return parserQuery;
+	}
+
+	protected void returnParserQuery(ParserQuery parserQuery) {
+		this.parserQueries.offer(parserQuery);
+	}
+
+	public int getParserPoolSize() {
+		return this.parserPoolSize;
+	}
+
+	public int getIdleParserCount() {
+		return this.parserQueries.size();
+	}
+
+	public PoolStats getPoolStats() {
+		return this.poolStats;
+	}
+}
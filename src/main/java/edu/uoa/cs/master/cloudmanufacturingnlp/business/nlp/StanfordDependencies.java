@@ -19,31 +19,19 @@
  */
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
 
-import java.io.StringReader;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-import edu.stanford.nlp.ling.HasWord;
-import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
-import edu.stanford.nlp.process.Tokenizer;
-import edu.stanford.nlp.process.TokenizerFactory;
-import edu.stanford.nlp.trees.EnglishGrammaticalStructure;
-import edu.stanford.nlp.trees.GrammaticalStructureFactory;
-import edu.stanford.nlp.trees.PennTreebankLanguagePack;
-import edu.stanford.nlp.trees.Tree;
-import edu.stanford.nlp.trees.TreebankLanguagePack;
-import edu.stanford.nlp.trees.TypedDependency;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
 
-public class StanfordDependencies {
-	private TreebankLanguagePack tlp = new PennTreebankLanguagePack();
-	private GrammaticalStructureFactory gsf = tlp.grammaticalStructureFactory();
-	private TokenizerFactory<? extends HasWord> tokenizerFactory = tlp.getTokenizerFactory();
+/**
+ * Entry point of dependency parsing, delegating to the backend selected with the system property
+ * {@link Constants.Config#PARSER_BACKEND}: "pcfg" (default) or "nndep".
+ * 
+ * With the PCFG backend, the sentences following the templates of the natural language rules skip the parser, see
+ * {@link TemplateDependencyParserBackend}, unless the sentences are POS tagged first ({@link Constants.Config#PARSER_PRE_TAG}) or
+ * {@link Constants.Config#PARSER_TEMPLATE_FAST_PATH} is set to false. The fast path generates the same Jena rules as the parser.
+ */
+public class StanfordDependencies implements DependencyParserBackend {
 
-	private LexicalizedParser lp = LexicalizedParser.loadModel("edu/stanford/nlp/models/lexparser/englishPCFG.ser.gz",
-			"-maxLength", "80", "-retainTmpSubcategories");
+	private final DependencyParserBackend backend;
 
 	/** singleton */
 	private static StanfordDependencies instance = new StanfordDependencies();
@@ -52,89 +40,90 @@ public class StanfordDependencies {
 	 * singleton
 	 */
 	private StanfordDependencies() {
-		// do nothing;
+		DependencyParserBackend parser = createBackend(System.getProperty(Constants.Config.PARSER_BACKEND,
+				PcfgDependencyParserBackend.NAME));
+
+		// the templates reproduce the dependencies the PCFG parser produces for the untagged sentences
+		if (Boolean.parseBoolean(System.getProperty(Constants.Config.PARSER_TEMPLATE_FAST_PATH, "true"))
+				&& parser instanceof PcfgDependencyParserBackend && !((PcfgDependencyParserBackend) parser).isPreTagging()) {
+			this.backend = new TemplateDependencyParserBackend(parser);
+		} else {
+			this.backend = parser;
+		}
 	}
 
 	public static StanfordDependencies getInstance() {
 		return instance;
 	}
 
+	/**
+	 * Create a new backend, loading its models.
+	 * 
+	 * @param name
+	 *            "pcfg" or "nndep"
+	 * @return
+	 */
+	public static DependencyParserBackend createBackend(String name) {
+		if (NeuralDependencyParserBackend.NAME.equalsIgnoreCase(name)) {
+			return new NeuralDependencyParserBackend();
+		}
+		if (PcfgDependencyParserBackend.NAME.equalsIgnoreCase(name)) {
+			return new PcfgDependencyParserBackend();
+		}
+		throw new IllegalArgumentException("Unknown dependency parser backend: " + name);
+	}
+
+	public DependencyParserBackend getBackend() {
+		return this.backend;
+	}
+
+	@Override
+	public String getName() {
+		return this.backend.getName();
+	}
+
 	/**
 	 * Parse the input raw sentence, output the Stanford Dependencies.
 	 * <p>
-	 * An output example is:shares-3={companyC-2=nsubj}
+	 * An output example is: [nsubj(shares-3, companyC-2), dobj(shares-3, resources-5)]
 	 * </p>
 	 * 
-	 * @param triples
 	 * @param naturalLanguageRule
 	 * @return
 	 */
-	public String parseNaturalLanguage(Map<String, Map<String, String>> triples, String naturalLanguageRule) {
-		String action = null;
-
-		Tokenizer<? extends HasWord> toke = tokenizerFactory.getTokenizer(new StringReader(naturalLanguageRule));
-		List<? extends HasWord> sentence = toke.tokenize();
-
-		Tree parse = lp.parse(sentence);
-		EnglishGrammaticalStructure gs = (EnglishGrammaticalStructure) gsf.newGrammaticalStructure(parse);
-
-		Collection<TypedDependency> tdl = gs.typedDependencies();
-
-		for (TypedDependency dependency : tdl) {
-			String gov = dependency.gov().toString();
-			String reln = dependency.reln().toString();
-			String dep = dependency.dep().toString();
-
-			if (triples.containsKey(gov)) {
-				triples.get(gov).put(dep, reln);
-			} else {
-				Map<String, String> triple = new HashMap<String, String>();
-
-				triple.put(dep, reln);
-				triples.put(gov, triple);
-			}
-
-			if (reln.equalsIgnoreCase(Constants.Nlp.NSUBJ)) {
-				action = gov;
-			}
-		}
-
-		return action;
+	@Override
+	public DependencyGraph parseNaturalLanguage(String naturalLanguageRule) {
+		return this.backend.parseNaturalLanguage(naturalLanguageRule);
 	}
 
 	public static void main(String[] args) {
-		Map<String, Map<String, String>> triples = new HashMap<String, Map<String, String>>();
-
 		// StanfordDependencies.getInstance().parseNaturalLanguage(
-		// triples, "The companyA shares resources within its own company.");
+		// "The companyA shares resources within its own company.");
 		//
 		// StanfordDependencies.getInstance().parseNaturalLanguage(
-		// triples, "The companyB shares resources with NZ-based companies.");
+		// "The companyB shares resources with NZ-based companies.");
 		//
-		StanfordDependencies.getInstance().parseNaturalLanguage(triples,
+		DependencyGraph graph = StanfordDependencies.getInstance().parseNaturalLanguage(
 				"The companyC shares soft resources within the public cloud;");
 		//
 		// StanfordDependencies
 		// .getInstance()
 		// .parseNaturalLanguage(
-		// triples,
 		// "The companyC shares hard resources with specific companies, i.e., companyA, companyB and companyE;");
 		//
 		// StanfordDependencies
 		// .getInstance()
 		// .parseNaturalLanguage(
-		// triples,
 		// "The companyD shares machining resources with companies having an credit rating higher than 8.0 (out of 10.0);");
 		//
 		// StanfordDependencies.getInstance().parseNaturalLanguage(
-		// triples, "The companyE shares OKUMA MP-46V within the public cloud.");
+		// "The companyE shares OKUMA MP-46V within the public cloud.");
 		//
 		// StanfordDependencies
 		// .getInstance()
 		// .parseNaturalLanguage(
-		// triples,
 		// "The companyF shares resources with private limited companies in operation for more than 10 years.");
 
-		System.out.println(triples);
+		System.out.println(graph);
 	}
 }
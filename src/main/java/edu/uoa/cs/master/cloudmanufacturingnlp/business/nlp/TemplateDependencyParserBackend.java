@@ -0,0 +1,580 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.process.Morphology;
+import edu.stanford.nlp.process.TokenizerFactory;
+import edu.stanford.nlp.trees.PennTreebankLanguagePack;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
+
+/**
+ * Fast path in front of a full dependency parser: the sentences which follow the templates of the natural language rules are matched
+ * token by token, and their dependencies are filled in directly; any other sentence falls back to the full parser.
+ *
+ * The templates are those of the rules the users write, e.g.
+ *
+ * <pre>
+ * 	The CompanyA shares soft resources with NZ-based company in operation for more than 6 years.
+ * 	The CompanyB shares OKUMA MP-46V with specific companies, i.e., Company A, B, and C;.
+ * </pre>
+ *
+ * and the dependencies filled in are those the englishPCFG parser produces for them, including its attachments of the modifiers, so
+ * that the Jena rules generated are the same as with the full parse. The templates cover, in this order:
+ *
+ * <pre>
+ * 	The | the
+ * 	CompanyA, i.e. a capitalized word ending with a capital letter
+ * 	shares
+ * 	resources | soft resources | hard resources | machining resources | OKUMA MP-46V, i.e. maker, model, dash and model number
+ * 	with
+ * 	its own company | the public cloud
+ * 	| specific companies, i.e., Company A, B, and C;
+ * 	| NZ-based company | NZ-based companies | [private limited] companies, followed by
+ * 		having a credit rating higher | lower than 8.0 [(out of 10.0)]
+ * 		| in operation for more | less | fewer than 6 years
+ * 		| nothing, unless the companies are bare
+ * 	[;] .
+ * </pre>
+ *
+ * The shapes the parser finds no action in aren't matched, so that they fail the same way, i.e. resources shared with location based
+ * companies having a credit rating, e.g. "CompanyA shares resources with NZ-based company having ...". The comparatives the parser
+ * parses otherwise, e.g. "greater than", aren't matched either.
+ */
+public class TemplateDependencyParserBackend implements DependencyParserBackend {
+
+	/** e.g. CompanyA */
+	private static final Pattern SUBJECT = Pattern.compile("[A-Z][a-z]+[A-Z]");
+	/** e.g. OKUMA MP-46V, i.e. the maker, the model, a dash and the model number */
+	private static final Pattern MAKER = Pattern.compile("[A-Z]+");
+	private static final Pattern MODEL_NUMBER = Pattern.compile("[0-9]+[A-Z]*");
+	/** e.g. NZ of NZ-based */
+	private static final Pattern LOCATION = Pattern.compile("[A-Z]+");
+	/** e.g. B of Company A, B and C */
+	private static final Pattern COMPANY_LETTER = Pattern.compile("[A-Z]");
+	private static final Pattern NUMBER = Pattern.compile("[0-9]+(\\.[0-9]+)?");
+
+	private final DependencyParserBackend fallback;
+	private final TokenizerFactory<? extends HasWord> tokenizerFactory = new PennTreebankLanguagePack().getTokenizerFactory();
+
+	/** the lemmatizer keeps the state of its lexer, so each thread has its own */
+	private final ThreadLocal<Morphology> morphology = new ThreadLocal<Morphology>() {
+		@Override
+		protected Morphology initialValue() {
+			return new Morphology();
+		}
+	};
+
+	/** fast path metrics */
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * @param fallback
+	 *            the parser of the sentences which don't follow a template
+	 */
+	public TemplateDependencyParserBackend(DependencyParserBackend fallback) {
+		this.fallback = fallback;
+	}
+
+	/**
+	 * The Jena rules are cached apart from those of the fallback parser, so that the rules of either are never served as those of the
+	 * other.
+	 */
+	@Override
+	public String getName() {
+		return this.fallback.getName() + "+template";
+	}
+
+	public DependencyParserBackend getFallback() {
+		return this.fallback;
+	}
+
+	@Override
+	public DependencyGraph parseNaturalLanguage(String naturalLanguageRule) {
+		DependencyGraph graph = match(naturalLanguageRule);
+		if (graph != null) {
+			this.hitCount.incrementAndGet();
+			return graph;
+		}
+
+		this.missCount.incrementAndGet();
+		return this.fallback.parseNaturalLanguage(naturalLanguageRule);
+	}
+
+	/**
+	 * Match the sentence against the templates.
+	 * 
+	 * @param naturalLanguageRule
+	 * @return the dependency graph, or null if the sentence doesn't follow a template
+	 */
+	public DependencyGraph match(String naturalLanguageRule) {
+		long start = Metrics.getInstance().startStage(Metrics.Stage.TEMPLATE_MATCH);
+		try {
+			List<? extends HasWord> sentence = this.tokenizerFactory.getTokenizer(new StringReader(naturalLanguageRule)).tokenize();
+			return new TemplateMatch(sentence, this.morphology.get()).matchSentence();
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.TEMPLATE_MATCH, start);
+		}
+	}
+
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * @return the share of the sentences matched by a template, between 0 and 1
+	 */
+	public double getHitRate() {
+		long hits = this.hitCount.get();
+		long total = hits + this.missCount.get();
+		return (total == 0) ? 0 : (double) hits / total;
+	}
+
+	@Override
+	public String toString() {
+		return "hits=" + getHitCount() + ", misses=" + getMissCount() + ", hit rate=" + String.format("%.1f%%", 100 * getHitRate());
+	}
+
+	/**
+	 * A single left to right pass over the tokens, each rule of the templates consuming the tokens it recognizes and adding their
+	 * dependencies to the graph.
+	 */
+	private static final class TemplateMatch {
+		private final List<? extends HasWord> sentence;
+		private final Morphology morphology;
+		private final DependencyGraph.Builder builder;
+
+		/** the index of the next token, starting from 1 */
+		private int next = 1;
+		/** whether the object is "resources" without a modifier */
+		private boolean bareResources;
+
+		private TemplateMatch(List<? extends HasWord> sentence, Morphology morphology) {
+			this.sentence = sentence;
+			this.morphology = morphology;
+			this.builder = new DependencyGraph.Builder(sentence.size());
+			for (int i = 0; i < sentence.size(); i++) {
+				this.builder.withToken(i + 1, sentence.get(i).word(), null, null);
+			}
+		}
+
+		/**
+		 * The subject shares the object with the partner [having a credit rating ... | in operation for ...] [;] .
+		 */
+		private DependencyGraph matchSentence() {
+			int determiner = accept("The", "DT");
+			if (determiner == DependencyGraph.NONE) {
+				determiner = accept("the", "DT");
+			}
+			if (determiner == DependencyGraph.NONE) {
+				return null;
+			}
+
+			int subject = accept(SUBJECT, "NNP");
+			int action = accept("shares", "VBZ");
+			if (subject == DependencyGraph.NONE || action == DependencyGraph.NONE) {
+				return null;
+			}
+			this.builder.addDependency(DependencyGraph.ROOT, DependencyRelation.ROOT, action);
+			this.builder.addDependency(subject, DependencyRelation.OTHER, determiner);
+			this.builder.addDependency(action, DependencyRelation.NSUBJ, subject);
+
+			// the parser attaches "with" to a named resource rather than to the action
+			int object = matchResources(action);
+			int preposition = action;
+			if (object == DependencyGraph.NONE) {
+				object = matchNamedResource(action);
+				preposition = object;
+			}
+			if (object == DependencyGraph.NONE || !matchPartner(preposition)) {
+				return null;
+			}
+
+			accept(";", null);
+			if (accept(".", null) == DependencyGraph.NONE || this.next <= this.sentence.size()) {
+				return null;
+			}
+			return this.builder.build();
+		}
+
+		/**
+		 * e.g. resources, soft resources, hard resources, machining resources
+		 * 
+		 * @return the token of "resources"
+		 */
+		private int matchResources(int action) {
+			int start = this.next;
+
+			int adjective = accept("soft", "JJ");
+			if (adjective == DependencyGraph.NONE) {
+				adjective = accept("hard", "JJ");
+			}
+			int noun = (adjective == DependencyGraph.NONE) ? accept("machining", "NN") : DependencyGraph.NONE;
+
+			int resources = accept("resources", "NNS");
+			if (resources == DependencyGraph.NONE) {
+				this.next = start;
+				return DependencyGraph.NONE;
+			}
+
+			this.bareResources = (adjective == DependencyGraph.NONE && noun == DependencyGraph.NONE);
+			this.builder.addDependency(action, DependencyRelation.DOBJ, resources);
+			if (adjective != DependencyGraph.NONE) {
+				this.builder.addDependency(resources, DependencyRelation.AMOD, adjective);
+			}
+			if (noun != DependencyGraph.NONE) {
+				this.builder.addDependency(resources, DependencyRelation.NN, noun);
+			}
+			return resources;
+		}
+
+		/**
+		 * e.g. OKUMA MP-46V
+		 * 
+		 * @return the token of the model, e.g. MP
+		 */
+		private int matchNamedResource(int action) {
+			int maker = accept(MAKER, "NNP");
+			int model = accept(MAKER, "NNP");
+			int dash = accept("-", null);
+			int modelNumber = accept(MODEL_NUMBER, "CD");
+			if (maker == DependencyGraph.NONE || model == DependencyGraph.NONE || dash == DependencyGraph.NONE
+					|| modelNumber == DependencyGraph.NONE) {
+				return DependencyGraph.NONE;
+			}
+
+			this.builder.addDependency(action, DependencyRelation.DOBJ, model);
+			this.builder.addDependency(model, DependencyRelation.NN, maker);
+			this.builder.addDependency(model, DependencyRelation.NUM, modelNumber);
+			return model;
+		}
+
+		/**
+		 * with its own company | the public cloud | NZ-based company | specific companies, i.e., ... | [private limited] companies
+		 * 
+		 * @param gov
+		 *            the token "with" depends on
+		 * @return
+		 */
+		private boolean matchPartner(int gov) {
+			int with = accept("with", "IN");
+			if (with == DependencyGraph.NONE) {
+				return false;
+			}
+			this.builder.addDependency(gov, DependencyRelation.PREP, with);
+
+			int partner = matchPossessivePartner(with, "its", "PRP$", "own", "company");
+			if (partner == DependencyGraph.NONE) {
+				partner = matchPossessivePartner(with, "the", "DT", "public", "cloud");
+			}
+			if (partner != DependencyGraph.NONE) {
+				return true;
+			}
+
+			partner = matchSpecificCompanies(with);
+			if (partner != DependencyGraph.NONE) {
+				return true;
+			}
+
+			partner = matchLocationBasedCompany(with);
+			boolean locationBased = (partner != DependencyGraph.NONE);
+			boolean qualified = false;
+			if (partner == DependencyGraph.NONE) {
+				int privateLimited = accept("private", "JJ");
+				int limited = (privateLimited == DependencyGraph.NONE) ? DependencyGraph.NONE : accept("limited", "JJ");
+				if (privateLimited != DependencyGraph.NONE && limited == DependencyGraph.NONE) {
+					return false;
+				}
+
+				partner = accept("companies", "NNS");
+				if (partner == DependencyGraph.NONE) {
+					return false;
+				}
+				this.builder.addDependency(with, DependencyRelation.POBJ, partner);
+				if (privateLimited != DependencyGraph.NONE) {
+					this.builder.addDependency(partner, DependencyRelation.AMOD, privateLimited);
+					this.builder.addDependency(partner, DependencyRelation.AMOD, limited);
+					qualified = true;
+				}
+			} else {
+				qualified = true;
+			}
+
+			// the parser has "company" head e.g. "The CompanyA shares resources with NZ-based company having a credit rating ...", with no
+			// action left
+			if (matchCreditRating(partner)) {
+				return !(locationBased && this.bareResources);
+			}
+
+			// the companies have to be qualified one way or another
+			return matchOperationYears(partner) || qualified;
+		}
+
+		/**
+		 * e.g. its own company, the public cloud
+		 */
+		private int matchPossessivePartner(int with, String determiner, String determinerTag, String adjective, String noun) {
+			int start = this.next;
+
+			int determinerToken = accept(determiner, determinerTag);
+			int adjectiveToken = accept(adjective, "JJ");
+			int nounToken = accept(noun, "NN");
+			if (determinerToken == DependencyGraph.NONE || adjectiveToken == DependencyGraph.NONE || nounToken == DependencyGraph.NONE
+					|| !atEndOfSentence()) {
+				this.next = start;
+				return DependencyGraph.NONE;
+			}
+
+			this.builder.addDependency(with, DependencyRelation.POBJ, nounToken);
+			this.builder.addDependency(nounToken, DependencyRelation.AMOD, adjectiveToken);
+			this.builder.addDependency(nounToken, DependencyRelation.OTHER, determinerToken);
+			return nounToken;
+		}
+
+		/**
+		 * e.g. NZ-based company, NZ-based companies
+		 * 
+		 * The parser has the location depend on "based", e.g. dep(based, NZ), amod(company, based).
+		 */
+		private int matchLocationBasedCompany(int with) {
+			int start = this.next;
+
+			int location = accept(LOCATION, "NN");
+			int dash = accept("-", null);
+			int based = accept("based", "VBN");
+			int company = accept("company", "NN");
+			if (company == DependencyGraph.NONE) {
+				company = accept("companies", "NNS");
+			}
+			if (location == DependencyGraph.NONE || dash == DependencyGraph.NONE || based == DependencyGraph.NONE
+					|| company == DependencyGraph.NONE) {
+				this.next = start;
+				return DependencyGraph.NONE;
+			}
+
+			this.builder.addDependency(with, DependencyRelation.POBJ, company);
+			this.builder.addDependency(based, DependencyRelation.OTHER, location);
+			this.builder.addDependency(company, DependencyRelation.AMOD, based);
+			return company;
+		}
+
+		/**
+		 * e.g. specific companies, i.e., Company A, B, and C;
+		 * 
+		 * The parser has the first company head the list, rather than the "companies", i.e. conj(A, B), conj(A, C).
+		 */
+		private int matchSpecificCompanies(int with) {
+			int start = this.next;
+
+			int specific = accept("specific", "JJ");
+			int companies = accept("companies", "NNS");
+			accept(",", null);
+			int ie = accept("i.e.", "FW");
+			accept(",", null);
+			int company = accept("Company", "NNP");
+			int first = accept(COMPANY_LETTER, "NN");
+			if (specific == DependencyGraph.NONE || companies == DependencyGraph.NONE || ie == DependencyGraph.NONE
+					|| company == DependencyGraph.NONE || first == DependencyGraph.NONE) {
+				this.next = start;
+				return DependencyGraph.NONE;
+			}
+
+			// , B, and C | and C
+			List<Integer> others = new ArrayList<>();
+			int and = DependencyGraph.NONE;
+			while (and == DependencyGraph.NONE) {
+				accept(",", null);
+				and = accept("and", "CC");
+				int other = accept(COMPANY_LETTER, "NN");
+				if (other == DependencyGraph.NONE) {
+					this.next = start;
+					return DependencyGraph.NONE;
+				}
+				others.add(other);
+			}
+			if (!";".equals(peek()) || !atEndOfSentence()) {
+				this.next = start;
+				return DependencyGraph.NONE;
+			}
+
+			this.builder.addDependency(with, DependencyRelation.POBJ, companies);
+			this.builder.addDependency(companies, DependencyRelation.AMOD, specific);
+			this.builder.addDependency(companies, DependencyRelation.ADVMOD, ie);
+			this.builder.addDependency(companies, DependencyRelation.OTHER, first);
+			for (int other : others) {
+				this.builder.addDependency(first, DependencyRelation.CONJ, other);
+			}
+			this.builder.addDependency(first, DependencyRelation.OTHER, company);
+			this.builder.addDependency(first, DependencyRelation.OTHER, and);
+			return companies;
+		}
+
+		/**
+		 * e.g. having a credit rating higher than 8.0 (out of 10.0), having a credit rating lower than 5.0
+		 * 
+		 * The parser has "higher" modify "having" rather than "rating".
+		 */
+		private boolean matchCreditRating(int partner) {
+			int start = this.next;
+
+			int having = accept("having", "VBG");
+			int a = accept("a", "DT");
+			int credit = accept("credit", "NN");
+			int rating = accept("rating", "NN");
+			int higher = accept("higher", "RBR");
+			if (higher == DependencyGraph.NONE) {
+				higher = accept("lower", "RBR");
+			}
+			int than = accept("than", "IN");
+			int value = accept(NUMBER, "CD");
+
+			// the scale is optional, e.g. (out of 10.0)
+			int leftParenthesis = accept("(", null);
+			int out = DependencyGraph.NONE;
+			int of = DependencyGraph.NONE;
+			int scale = DependencyGraph.NONE;
+			int rightParenthesis = DependencyGraph.NONE;
+			if (leftParenthesis != DependencyGraph.NONE) {
+				out = accept("out", "RB");
+				of = accept("of", "IN");
+				scale = accept(NUMBER, "CD");
+				rightParenthesis = accept(")", null);
+			}
+			if (having == DependencyGraph.NONE || a == DependencyGraph.NONE || credit == DependencyGraph.NONE
+					|| rating == DependencyGraph.NONE || higher == DependencyGraph.NONE || than == DependencyGraph.NONE
+					|| value == DependencyGraph.NONE || (leftParenthesis != DependencyGraph.NONE && (out == DependencyGraph.NONE
+							|| of == DependencyGraph.NONE || scale == DependencyGraph.NONE || rightParenthesis == DependencyGraph.NONE))) {
+				this.next = start;
+				return false;
+			}
+
+			this.builder.addDependency(partner, DependencyRelation.VMOD, having);
+			this.builder.addDependency(having, DependencyRelation.DOBJ, rating);
+			this.builder.addDependency(having, DependencyRelation.ADVMOD, higher);
+			this.builder.addDependency(rating, DependencyRelation.NN, credit);
+			this.builder.addDependency(rating, DependencyRelation.OTHER, a);
+			this.builder.addDependency(higher, DependencyRelation.PREP, than);
+			if (leftParenthesis != DependencyGraph.NONE) {
+				this.builder.addDependency(than, DependencyRelation.PREP, of);
+			}
+			this.builder.addDependency(than, DependencyRelation.POBJ, value);
+			if (leftParenthesis != DependencyGraph.NONE) {
+				this.builder.addDependency(than, DependencyRelation.OTHER, out);
+				this.builder.addDependency(of, DependencyRelation.POBJ, scale);
+			}
+			return true;
+		}
+
+		/**
+		 * e.g. in operation for more than 6 years, in operation for less than 3 years
+		 */
+		private boolean matchOperationYears(int partner) {
+			int start = this.next;
+
+			int in = accept("in", "IN");
+			int operation = accept("operation", "NN");
+			int forToken = accept("for", "IN");
+			int more = accept("more", "JJR");
+			if (more == DependencyGraph.NONE) {
+				more = accept("less", "JJR");
+			}
+			if (more == DependencyGraph.NONE) {
+				more = accept("fewer", "JJR");
+			}
+			int than = accept("than", "IN");
+			int number = accept(NUMBER, "CD");
+			int years = accept("years", "NNS");
+			if (in == DependencyGraph.NONE || operation == DependencyGraph.NONE || forToken == DependencyGraph.NONE
+					|| more == DependencyGraph.NONE || than == DependencyGraph.NONE || number == DependencyGraph.NONE
+					|| years == DependencyGraph.NONE) {
+				this.next = start;
+				return false;
+			}
+
+			this.builder.addDependency(partner, DependencyRelation.PREP, in);
+			this.builder.addDependency(in, DependencyRelation.POBJ, operation);
+			this.builder.addDependency(operation, DependencyRelation.PREP, forToken);
+			this.builder.addDependency(forToken, DependencyRelation.POBJ, years);
+			this.builder.addDependency(than, DependencyRelation.MWE, more);
+			this.builder.addDependency(number, DependencyRelation.QUANTMOD, than);
+			this.builder.addDependency(years, DependencyRelation.NUM, number);
+			return true;
+		}
+
+		/**
+		 * Consume the next token if it is the given word.
+		 * 
+		 * @param word
+		 * @param tag
+		 *            the part of speech the parser tags the word with, or null for a punctuation
+		 * @return the token, or {@link DependencyGraph#NONE}
+		 */
+		private int accept(String word, String tag) {
+			String nextWord = peek();
+			if (nextWord == null || !nextWord.equals(word)) {
+				return DependencyGraph.NONE;
+			}
+			return consume(nextWord, tag);
+		}
+
+		private int accept(Pattern pattern, String tag) {
+			String nextWord = peek();
+			if (nextWord == null || !pattern.matcher(nextWord).matches()) {
+				return DependencyGraph.NONE;
+			}
+			return consume(nextWord, tag);
+		}
+
+		private int consume(String word, String tag) {
+			if (tag != null) {
+				this.builder.withToken(this.next, word, tag, this.morphology.lemma(word, tag));
+			}
+			return this.next++;
+		}
+
+		private String peek() {
+			return (this.next <= this.sentence.size()) ? this.sentence.get(this.next - 1).word() : null;
+		}
+
+		/**
+		 * @return whether only the closing punctuation is left
+		 */
+		private boolean atEndOfSentence() {
+			for (int i = this.next; i <= this.sentence.size(); i++) {
+				String word = this.sentence.get(i - 1).word();
+				if (!";".equals(word) && !".".equals(word)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
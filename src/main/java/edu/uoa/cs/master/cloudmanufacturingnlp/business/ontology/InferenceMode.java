@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology;
+
+/**
+ * How an inference model is created and queried.
+ */
+public enum InferenceMode {
+
+	/**
+	 * No derivation logging and no validation; the statements are returned as a lazy iterator.
+	 */
+	FAST,
+
+	/**
+	 * Derivation logging, so that the statements can be explained. The generated rules are backward rules, which are only proved for
+	 * the goals being queried, so derivations are only recorded for the statements the caller asks about.
+	 */
+	EXPLAIN;
+
+	/**
+	 * @param mode
+	 *            "fast" or "explain", in any case
+	 * @return the mode, {@link #FAST} if none is given
+	 */
+	public static InferenceMode fromString(final String mode) {
+		if (mode == null || mode.trim().isEmpty()) {
+			return FAST;
+		}
+		try {
+			return valueOf(mode.trim().toUpperCase());
+		} catch (final IllegalArgumentException e) {
+			throw new IllegalArgumentException("Error: unknown inference mode " + mode + ", expected fast or explain");
+		}
+	}
+}
@@ -19,8 +19,12 @@
  */
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -39,17 +43,38 @@ import com.hp.hpl.jena.reasoner.ValidityReport;
 import com.hp.hpl.jena.reasoner.ValidityReport.Report;
 import com.hp.hpl.jena.reasoner.rulesys.GenericRuleReasoner;
 import com.hp.hpl.jena.reasoner.rulesys.Rule;
-import com.hp.hpl.jena.util.FileManager;
 import com.hp.hpl.jena.util.PrintUtil;
 
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.BoundedCache;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
 
+/**
+ * Create inference models over the cloud manufacturing ontology.
+ *
+ * The ontology is read from disk once into a base model shared, read-only, by all the inference models. Parsed rules and the reasoners
+ * built from them are cached by rule set, so that creating an inference model for a known rule set costs neither disk I/O nor rule
+ * parsing. Use {@link #reloadBaseModel()} once the ontology file changes.
+ */
 public class JenaInfModelManager {
 
 	private static JenaInfModelManager instance = new JenaInfModelManager();
 
+	/** the ontology, loaded on first use */
+	private volatile Model baseModel;
+
+	/** parsed rules, keyed on the rule text */
+	private final BoundedCache<String, List<Rule>> parsedRules;
+	/** reasoners, keyed on the rule texts of the rule set */
+	private final BoundedCache<String, Reasoner> reasoners;
+
 	private JenaInfModelManager() {
-		// do nothing;
+		final int cacheSize = Integer.getInteger(Constants.Config.REASONER_CACHE_SIZE, 1000);
+		this.parsedRules = new BoundedCache<>(cacheSize);
+		this.reasoners = new BoundedCache<>(cacheSize);
+
+		// the generated rules may test partner names with oneOf, which has to be known before any of them is parsed
+		OneOfBuiltin.register();
 	}
 
 	public static JenaInfModelManager getInstance() {
@@ -57,38 +82,168 @@ public class JenaInfModelManager {
 	}
 
 	public InfModel createInfModelByRules(final String[] rules) {
-		final List<Rule> parsedRules = new ArrayList<>();
+		return createInfModelByRules(rules, InferenceMode.FAST);
+	}
+
+	public InfModel createInfModelByRules(final String[] rules, final InferenceMode mode) {
+		return createInfModelByRules(rules, mode, getBaseModel());
+	}
+
+	/**
+	 * Create the inference model over other data than the ontology, e.g. a modified copy of it.
+	 *
+	 * @param rules
+	 * @param mode
+	 * @param dataModel
+	 * @return
+	 */
+	public InfModel createInfModelByRules(final String[] rules, final InferenceMode mode, final Model dataModel) {
+		final StringBuilder ruleSetKey = new StringBuilder(1024).append(mode).append('\n');
 		for (final String rule : rules) {
 			if (StringUtils.isNotBlank(rule)) {
-				parsedRules.addAll(Rule.parseRules(rule));
+				ruleSetKey.append(rule).append('\n');
 			}
 		}
 
-		final Reasoner reasoner = new GenericRuleReasoner(parsedRules);
-		return createInfModelWithReasoner(reasoner);
+		Reasoner reasoner = this.reasoners.get(ruleSetKey.toString());
+		if (reasoner == null) {
+			final List<Rule> ruleSet = new ArrayList<>();
+			for (final String rule : rules) {
+				if (StringUtils.isNotBlank(rule)) {
+					ruleSet.addAll(parseRules(rule));
+				}
+			}
+
+			reasoner = createReasoner(ruleSet, mode);
+			this.reasoners.put(ruleSetKey.toString(), reasoner);
+		}
+
+		return ModelFactory.createInfModel(reasoner, dataModel);
 	}
 
 	public InfModel createInfModelByRule(final String rule) {
-		final Reasoner reasoner = new GenericRuleReasoner(Rule.parseRules(rule));
+		return createInfModelByRule(rule, InferenceMode.FAST);
+	}
+
+	public InfModel createInfModelByRule(final String rule, final InferenceMode mode) {
+		final String ruleSetKey = mode + "\n" + rule;
+
+		Reasoner reasoner = this.reasoners.get(ruleSetKey);
+		if (reasoner == null) {
+			reasoner = createReasoner(parseRules(rule), mode);
+			this.reasoners.put(ruleSetKey, reasoner);
+		}
+
 		return createInfModelWithReasoner(reasoner);
 	}
 
 	/**
+	 * @param rule
+	 * @return the parsed rules, cached for later use
+	 * @throws com.hp.hpl.jena.reasoner.rulesys.Rule.ParserException
+	 *             if the rule text is malformed
+	 */
+	public List<Rule> parseRules(final String rule) {
+		List<Rule> rules = this.parsedRules.get(rule);
+		if (rules == null) {
+			rules = Collections.unmodifiableList(Rule.parseRules(rule));
+			this.parsedRules.put(rule, rules);
+		}
+		return rules;
+	}
+
+	/**
+	 * Cache rules which were built rather than parsed, so that parsing their text later is a cache hit.
+	 *
+	 * @param rule
+	 *            the rule text
+	 * @param rules
+	 *            the rules the text parses into
+	 */
+	public void putParsedRules(final String rule, final List<Rule> rules) {
+		this.parsedRules.put(rule, Collections.unmodifiableList(rules));
+	}
+
+	private Reasoner createReasoner(final List<Rule> rules, final InferenceMode mode) {
+		final Reasoner reasoner = new GenericRuleReasoner(rules);
+		// derivation logging roughly doubles the memory of the reasoner
+		reasoner.setDerivationLogging(mode == InferenceMode.EXPLAIN);
+		return reasoner;
+	}
+
+	/**
+	 * Create the inference model, without validating it: validation materializes every statement. Call
+	 * {@link #validateInfModel(InfModel)} when the consistency of the rules needs checking.
+	 *
 	 * @param reasoner
 	 * @return
 	 */
 	private InfModel createInfModelWithReasoner(final Reasoner reasoner) {
-		reasoner.setDerivationLogging(true);
-
 		// create the inference model using the reasoner against the data
-		final Model cloudOntologyModel = FileManager.get().loadModel(Constants.FilePath.MC_LOCAL);
-		final InfModel infModel = ModelFactory.createInfModel(reasoner, cloudOntologyModel);
+		return ModelFactory.createInfModel(reasoner, getBaseModel());
+	}
+
+	/**
+	 * @return the ontology model; the inference models only read it, so it must not be modified
+	 */
+	private Model getBaseModel() {
+		Model model = this.baseModel;
+		if (model == null) {
+			synchronized (this) {
+				model = this.baseModel;
+				if (model == null) {
+					model = loadOntology();
+					this.baseModel = model;
+				}
+			}
+		}
+		return model;
+	}
+
+	/**
+	 * @return a copy of the ontology model, which may be modified
+	 */
+	public Model copyBaseModel() {
+		final Model baseModel = getBaseModel();
+		final Model copy = ModelFactory.createDefaultModel();
+		copy.setNsPrefixes(baseModel);
+		return copy.add(baseModel);
+	}
 
-		validateInfModel(infModel);
-		return infModel;
+	/**
+	 * Read the ontology from disk again; inference models created before keep the previous base model.
+	 */
+	public synchronized void reloadBaseModel() {
+		this.baseModel = loadOntology();
 	}
 
-	private void validateInfModel(final InfModel infModel) {
+	/**
+	 * Read the ontology from {@link Constants.Config#ONTOLOGY_PATH} if set, e.g. a generated one, and otherwise from
+	 * {@link Constants#LOCAL_BASE} or the classpath.
+	 */
+	private static Model loadOntology() {
+		try (InputStream in = Tools.openResource(System.getProperty(Constants.Config.ONTOLOGY_PATH, Constants.FilePath.MC_LOCAL))) {
+			return ModelFactory.createDefaultModel().read(in, Constants.Ontology.MC_SOURCE, "RDF/XML");
+		} catch (final IOException e) {
+			throw new RuntimeException("Error: failed to load the ontology", e);
+		}
+	}
+
+	public BoundedCache<String, Reasoner> getReasonerCache() {
+		return this.reasoners;
+	}
+
+	public BoundedCache<String, List<Rule>> getParsedRuleCache() {
+		return this.parsedRules;
+	}
+
+	/**
+	 * Validate the inference model, printing the problems found. This forces all the statements to be inferred.
+	 *
+	 * @param infModel
+	 * @return
+	 */
+	public ValidityReport validateInfModel(final InfModel infModel) {
 		final ValidityReport validityReport = infModel.validate();
 
 		if (!validityReport.isValid()) {
@@ -98,38 +253,75 @@ public class JenaInfModelManager {
 				System.out.println(i.next());
 			}
 		}
+		return validityReport;
 	}
 
-	public int inferenceModel(final InfModel infModel, final String resourceStringA, final String propertyString,
+	/**
+	 * List the statements matching the pattern; empty strings match anything. The statements are inferred as the iterator advances.
+	 *
+	 * @param infModel
+	 * @param resourceStringA
+	 * @param propertyString
+	 * @param resourceStringB
+	 * @return
+	 */
+	public StmtIterator listStatements(final InfModel infModel, final String resourceStringA, final String propertyString,
 			final String resourceStringB) {
 
-		int statementNum = 0;
-
-		System.out.printf("\nList all statements for ResourceA (%s), Property (%s), ResourceB (%s):\n", resourceStringA, propertyString,
-				resourceStringB);
-
 		final Resource resourceA = (StringUtils.isEmpty(resourceStringA)) ? null : infModel.getResource(resourceStringA);
 		final Property property = (StringUtils.isEmpty(propertyString)) ? null : infModel.getProperty(propertyString);
 		final Resource resourceB = (StringUtils.isEmpty(resourceStringB)) ? null : infModel.getResource(resourceStringB);
 
-		final PrintWriter out = new PrintWriter(System.out);
-		final StmtIterator listStatements = infModel.listStatements(resourceA, property, resourceB);
+		return infModel.listStatements(resourceA, property, resourceB);
+	}
 
-		for (final StmtIterator stmtIt = listStatements; stmtIt.hasNext();) {
-			final Statement statement = stmtIt.nextStatement();
+	/**
+	 * Explain the statements matching the pattern with their derivation traces. Needs an inference model created in
+	 * {@link InferenceMode#EXPLAIN} mode; otherwise the statements come without traces.
+	 *
+	 * @param infModel
+	 * @param resourceStringA
+	 * @param propertyString
+	 * @param resourceStringB
+	 * @return one entry per statement: the statement followed by its traces
+	 */
+	public List<String> explainStatements(final InfModel infModel, final String resourceStringA, final String propertyString,
+			final String resourceStringB) {
 
-			statementNum++;
-			System.out.println("Statement: " + PrintUtil.print(statement));
+		final List<String> explanations = new ArrayList<>();
+		for (final StmtIterator stmtIt = listStatements(infModel, resourceStringA, propertyString, resourceStringB); stmtIt.hasNext();) {
+			final Statement statement = stmtIt.nextStatement();
 
-			// open trace
+			final StringWriter trace = new StringWriter(1024);
+			final PrintWriter out = new PrintWriter(trace);
+			out.println("Statement: " + PrintUtil.print(statement));
 			for (final Iterator<Derivation> id = infModel.getDerivation(statement); id.hasNext();) {
-				final Derivation deriv = id.next();
-				deriv.printTrace(out, true);
+				id.next().printTrace(out, true);
 			}
+			out.flush();
+
+			explanations.add(trace.toString());
 		}
+		return explanations;
+	}
+
+	/**
+	 * Print the statements matching the pattern, with their derivation traces if the inference model was created in
+	 * {@link InferenceMode#EXPLAIN} mode.
+	 *
+	 * @return the number of statements
+	 */
+	public int inferenceModel(final InfModel infModel, final String resourceStringA, final String propertyString,
+			final String resourceStringB) {
 
-		out.flush();
-		return statementNum;
+		System.out.printf("\nList all statements for ResourceA (%s), Property (%s), ResourceB (%s):\n", resourceStringA, propertyString,
+				resourceStringB);
+
+		final List<String> explanations = explainStatements(infModel, resourceStringA, propertyString, resourceStringB);
+		for (final String explanation : explanations) {
+			System.out.print(explanation);
+		}
+		return explanations.size();
 	}
 
 	public static void main(final String[] args) {
@@ -146,7 +338,7 @@ public class JenaInfModelManager {
 						+ "(?x manuservice:hasAddress ?addr), (?addr manuservice:country 'New Zealand')]";
 
 		// query based on the generated rule
-		final InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRules(new String[] { rule });
+		final InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRules(new String[] { rule }, InferenceMode.EXPLAIN);
 
 		JenaInfModelManager.getInstance().inferenceModel(infModel, "",
 				Constants.Ontology.NS_MC + "hasAccessTo",
@@ -19,6 +19,8 @@
  */
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,16 +35,37 @@ import com.hp.hpl.jena.util.PrintUtil;
 import com.hp.hpl.jena.util.iterator.ExtendedIterator;
 
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
 
 public class JenaOntModelManager {
 
-	private final OntModel mcOntModel = ModelFactory.createOntologyModel();
+	/** replaced as a whole on reload, so that a caller reads the properties and classes of a single ontology */
+	private volatile OntModel mcOntModel = loadOntModel();
 
 	private static JenaOntModelManager instance = new JenaOntModelManager();
 
 	private JenaOntModelManager() {
-		this.mcOntModel.getDocumentManager().addAltEntry(Constants.Ontology.MC_SOURCE, "file:" + Constants.FilePath.MC_LOCAL);
-		this.mcOntModel.read(Constants.Ontology.MC_SOURCE, "RDF/XML");
+	}
+
+	/**
+	 * Read the ontology from {@link Constants.Config#ONTOLOGY_PATH} if set, and otherwise from {@link Constants#LOCAL_BASE} or the
+	 * classpath.
+	 */
+	private static OntModel loadOntModel() {
+		final OntModel ontModel = ModelFactory.createOntologyModel();
+		try (InputStream in = Tools.openResource(System.getProperty(Constants.Config.ONTOLOGY_PATH, Constants.FilePath.MC_LOCAL))) {
+			ontModel.read(in, Constants.Ontology.MC_SOURCE, "RDF/XML");
+		} catch (final IOException e) {
+			throw new RuntimeException("Error: failed to load the ontology", e);
+		}
+		return ontModel;
+	}
+
+	/**
+	 * Read the ontology from disk again, e.g. together with {@link JenaInfModelManager#reloadBaseModel()}.
+	 */
+	public synchronized void reloadOntModel() {
+		this.mcOntModel = loadOntModel();
 	}
 
 	public static JenaOntModelManager getInstance() {
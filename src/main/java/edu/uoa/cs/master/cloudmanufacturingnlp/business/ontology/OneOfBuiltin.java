@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.reasoner.rulesys.BuiltinException;
+import com.hp.hpl.jena.reasoner.rulesys.BuiltinRegistry;
+import com.hp.hpl.jena.reasoner.rulesys.RuleContext;
+import com.hp.hpl.jena.reasoner.rulesys.builtins.BaseBuiltin;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Membership test, e.g. oneOf(?name, 'CompanyA', 'CompanyB', 'CompanyE'), which holds if the first argument has the same value as any
+ * of the others. It lets a single rule grant the access to a list of partners, rather than a rule per partner.
+ */
+public class OneOfBuiltin extends BaseBuiltin {
+
+	/**
+	 * Register the builtin, which has to be done before a rule using it is parsed or built. Registering it again does nothing.
+	 */
+	public static void register() {
+		if (BuiltinRegistry.theRegistry.getImplementation(Constants.JenaRules.FACT_NATIVE_ONE_OF) == null) {
+			BuiltinRegistry.theRegistry.register(new OneOfBuiltin());
+		}
+	}
+
+	@Override
+	public String getName() {
+		return Constants.JenaRules.FACT_NATIVE_ONE_OF;
+	}
+
+	@Override
+	public boolean bodyCall(final Node[] args, final int length, final RuleContext context) {
+		if (length < 2) {
+			throw new BuiltinException(this, context, "Must have at least 2 arguments to " + getName());
+		}
+
+		final Node value = getArg(0, args, context);
+		for (int i = 1; i < length; i++) {
+			if (value.sameValueAs(getArg(i, args, context))) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
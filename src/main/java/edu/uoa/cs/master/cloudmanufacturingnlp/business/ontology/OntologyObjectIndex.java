@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.Term;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.BoundedCache;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
+
+/**
+ * Inverted index over the objects of the ontology statements, built together with the {@link OntologySnapshot}.
+ *
+ * <pre>
+ * 	new zealand => [New Zealand]
+ * 	companyfadd => [manuservice:CompanyFAdd]
+ * 	nz ltd => [NZ Ltd]                  (tokens)
+ * 	nz => [NZ Ltd]                      (contained tokens)
+ * 	BusinessEntity => [manuservice:CompanyA, ..., manuservice:CompanyF]
+ * </pre>
+ *
+ * Objects are indexed by their lower case forms, with and without dash suffix, by their local synonyms, by the tokens of both and
+ * every contiguous run of those tokens, and by the manuservice rdf:type of their local name, so that a lookup costs the same however
+ * many objects there are. Resolved natural language objects are memoized, so that a repeated lookup is a single hash probe; the memo
+ * is cleared once {@link DictionaryService#clearSynonymCaches()} changes the synonyms it was resolved with.
+ *
+ * The {@link Term} of every rdf:type is created with the index, so that the lookups which have to compare them one by one allocate
+ * nothing.
+ */
+public class OntologyObjectIndex {
+
+	/** memoized in place of a null lookup result */
+	static final String NOT_FOUND = "";
+
+	private final List<String> objects;
+	private final Map<String, List<String>> objectsBySurfaceForm;
+	private final Map<String, List<String>> objectsByLocalSynonym;
+	private final Map<String, List<String>> objectsByTokens;
+	private final Map<String, List<String>> objectsByContainedTokens;
+	private final List<RdfTypeGroup> rdfTypeGroups;
+	private final List<Term> rdfTypeTerms;
+
+	private final BoundedCache<String, String> resolvedObjects;
+	/** the {@link DictionaryService#getDictionaryVersion()} which the memoized objects were resolved with */
+	private volatile long dictionaryVersion;
+
+	OntologyObjectIndex(final Collection<String> objectCollection, final List<Map<String, String>> rdfTypeStatements,
+			final Map<String, Term> specificRdfTypesBySubject, final DictionaryService dictionaryService) {
+
+		final Map<String, List<String>> surfaceForms = new HashMap<>();
+		final Map<String, List<String>> localSynonyms = new HashMap<>();
+		final Map<String, List<String>> tokens = new HashMap<>();
+		final Map<String, List<String>> containedTokens = new HashMap<>();
+		final Map<String, List<String>> rdfTypeObjects = new LinkedHashMap<>();
+
+		for (final String object : objectCollection) {
+			if (StringUtils.isEmpty(object)) {
+				continue;
+			}
+
+			final Term objectTerm = Term.of(object);
+			addToIndex(surfaceForms, objectTerm.getLowerCase(), object);
+			addToIndex(surfaceForms, objectTerm.getKey(), object);
+			addToTokenIndex(tokens, containedTokens, objectTerm.getLowerCase(), object);
+
+			final List<String> synonyms = dictionaryService.lookupLocalSynonyms(object);
+			if (synonyms != null) {
+				for (final String synonym : synonyms) {
+					addToIndex(localSynonyms, synonym, object);
+					addToTokenIndex(tokens, containedTokens, synonym, object);
+				}
+			}
+
+			final Term rdfType = specificRdfTypesBySubject.get(Tools.removePrefix(object));
+			if (rdfType != null) {
+				addToIndex(rdfTypeObjects, rdfType.getText(), object);
+			}
+		}
+
+		final Set<String> types = new LinkedHashSet<>();
+		if (rdfTypeStatements != null) {
+			for (final Map<String, String> objectSubjectMap : rdfTypeStatements) {
+				for (final String rdfType : objectSubjectMap.keySet()) {
+					types.add(Tools.removePrefix(rdfType));
+				}
+			}
+		}
+
+		final List<RdfTypeGroup> groups = new ArrayList<>(rdfTypeObjects.size());
+		for (final Entry<String, List<String>> entry : rdfTypeObjects.entrySet()) {
+			groups.add(new RdfTypeGroup(entry.getKey(), entry.getValue()));
+		}
+
+		final List<Term> typeTerms = new ArrayList<>(types.size());
+		for (final String rdfType : types) {
+			typeTerms.add(Term.of(rdfType));
+		}
+
+		this.objects = Collections.unmodifiableList(new ArrayList<>(objectCollection));
+		this.objectsBySurfaceForm = freeze(surfaceForms);
+		this.objectsByLocalSynonym = freeze(localSynonyms);
+		this.objectsByTokens = freeze(tokens);
+		this.objectsByContainedTokens = freeze(containedTokens);
+		this.rdfTypeGroups = Collections.unmodifiableList(groups);
+		this.rdfTypeTerms = Collections.unmodifiableList(typeTerms);
+
+		this.resolvedObjects = new BoundedCache<>(Integer.getInteger(Constants.Config.ONTOLOGY_CACHE_SIZE, 10000));
+		this.dictionaryVersion = DictionaryService.getDictionaryVersion();
+	}
+
+	private static void addToIndex(final Map<String, List<String>> index, final String key, final String object) {
+		List<String> objectList = index.get(key);
+		if (objectList == null) {
+			objectList = new ArrayList<>(1);
+			index.put(key, objectList);
+		}
+		if (!objectList.contains(object)) {
+			objectList.add(object);
+		}
+	}
+
+	/**
+	 * Index the object by the tokens of the form, e.g. "nz ltd", and by every contiguous run of them, e.g. "nz", "ltd" and "nz ltd".
+	 */
+	private static void addToTokenIndex(final Map<String, List<String>> tokenIndex, final Map<String, List<String>> containedTokenIndex,
+			final String lowerCaseForm, final String object) {
+		final String[] formTokens = tokenize(lowerCaseForm);
+		if (formTokens.length == 0) {
+			return;
+		}
+
+		addToIndex(tokenIndex, StringUtils.join(formTokens, ' '), object);
+		for (int start = 0; start < formTokens.length; start++) {
+			for (int end = start + 1; end <= formTokens.length; end++) {
+				addToIndex(containedTokenIndex, StringUtils.join(formTokens, ' ', start, end), object);
+			}
+		}
+	}
+
+	/**
+	 * @param lowerCaseForm
+	 * @return the runs of letters and digits, e.g. [nz, based] for "nz-based"
+	 */
+	static String[] tokenize(final String lowerCaseForm) {
+		return StringUtils.split(lowerCaseForm.replaceAll("[^\\p{L}\\p{N}]+", " "), ' ');
+	}
+
+	private static Map<String, List<String>> freeze(final Map<String, List<String>> index) {
+		for (final Entry<String, List<String>> entry : index.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(index);
+	}
+
+	/**
+	 * @return all the indexed objects
+	 */
+	public List<String> getObjects() {
+		return this.objects;
+	}
+
+	/**
+	 * @param lowerCaseForm
+	 * @return the objects whose lower case form, with or without dash suffix, equals the given form
+	 */
+	public List<String> lookupObjectsBySurfaceForm(final String lowerCaseForm) {
+		final List<String> objectList = this.objectsBySurfaceForm.get(lowerCaseForm);
+		return (objectList == null) ? Collections.<String> emptyList() : objectList;
+	}
+
+	/**
+	 * @param lowerCaseForm
+	 * @return the objects which have the given form as a local synonym
+	 */
+	public List<String> lookupObjectsByLocalSynonym(final String lowerCaseForm) {
+		final List<String> objectList = this.objectsByLocalSynonym.get(lowerCaseForm);
+		return (objectList == null) ? Collections.<String> emptyList() : objectList;
+	}
+
+	/**
+	 * @param lowerCaseForm
+	 * @return the objects, or local synonyms, whose tokens contain those of the given form as a contiguous run, e.g. [NZ Ltd] for "nz"
+	 */
+	public List<String> lookupObjectsContainingTokens(final String lowerCaseForm) {
+		final List<String> objectList = this.objectsByContainedTokens.get(StringUtils.join(tokenize(lowerCaseForm), ' '));
+		return (objectList == null) ? Collections.<String> emptyList() : objectList;
+	}
+
+	/**
+	 * The runs of tokens of the form are tried longest first, so that e.g. "new zealand" is preferred to "new". A form has a handful of
+	 * tokens, so the lookup doesn't depend on the number of objects.
+	 *
+	 * @param lowerCaseForm
+	 * @return the objects, or local synonyms, whose tokens are a contiguous run of those of the given form, e.g. [NZ] for
+	 *         "nz-based companies"
+	 */
+	public List<String> lookupObjectsContainedInTokens(final String lowerCaseForm) {
+		final String[] formTokens = tokenize(lowerCaseForm);
+		for (int length = formTokens.length; length > 0; length--) {
+			for (int start = 0; start + length <= formTokens.length; start++) {
+				final List<String> objectList = this.objectsByTokens.get(StringUtils.join(formTokens, ' ', start, start + length));
+				if (objectList != null) {
+					return objectList;
+				}
+			}
+		}
+		return Collections.<String> emptyList();
+	}
+
+	/**
+	 * @return the terms of the local names of the rdf:type objects, in statement order
+	 */
+	public List<Term> getRdfTypeTerms() {
+		return this.rdfTypeTerms;
+	}
+
+	/**
+	 * @return the objects grouped by the manuservice rdf:type of their local name
+	 */
+	public List<RdfTypeGroup> getRdfTypeGroups() {
+		return this.rdfTypeGroups;
+	}
+
+	/**
+	 * @param key
+	 * @return the memoized lookup result, {@link #NOT_FOUND} if the lookup found nothing, or null if nothing has been memoized
+	 */
+	String getResolvedObject(final String key) {
+		if (this.dictionaryVersion != DictionaryService.getDictionaryVersion()) {
+			clearResolvedObjects();
+		}
+		return this.resolvedObjects.get(key);
+	}
+
+	/**
+	 * @param key
+	 * @param object
+	 *            possibly null
+	 * @param dictionaryVersion
+	 *            the {@link DictionaryService#getDictionaryVersion()} read before the object was resolved; the object isn't memoized if
+	 *            the memo has since been cleared
+	 */
+	synchronized void putResolvedObject(final String key, final String object, final long dictionaryVersion) {
+		if (dictionaryVersion == this.dictionaryVersion) {
+			this.resolvedObjects.put(key, (object == null) ? NOT_FOUND : object);
+		}
+	}
+
+	private synchronized void clearResolvedObjects() {
+		final long currentDictionaryVersion = DictionaryService.getDictionaryVersion();
+		if (this.dictionaryVersion != currentDictionaryVersion) {
+			this.resolvedObjects.clear();
+			this.dictionaryVersion = currentDictionaryVersion;
+		}
+	}
+
+	public BoundedCache<String, String> getResolvedObjectCache() {
+		return this.resolvedObjects;
+	}
+
+	/**
+	 * e.g. BusinessEntity => [manuservice:CompanyA, ..., manuservice:CompanyF], the objects being compared by their local names
+	 */
+	public static final class RdfTypeGroup {
+		private final Term rdfType;
+		private final List<Term> objects;
+
+		RdfTypeGroup(final String rdfType, final List<String> objects) {
+			this.rdfType = Term.of(rdfType);
+
+			final List<Term> objectTerms = new ArrayList<>(objects.size());
+			for (final String object : objects) {
+				objectTerms.add(Term.ofOntologyName(object));
+			}
+			this.objects = Collections.unmodifiableList(objectTerms);
+		}
+
+		public Term getRdfType() {
+			return this.rdfType;
+		}
+
+		public List<Term> getObjects() {
+			return this.objects;
+		}
+	}
+}
@@ -20,133 +20,77 @@
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
-import com.hp.hpl.jena.graph.Node;
-import com.hp.hpl.jena.graph.Triple;
-import com.hp.hpl.jena.ontology.OntClass;
-import com.hp.hpl.jena.ontology.OntProperty;
-import com.hp.hpl.jena.rdf.model.InfModel;
-import com.hp.hpl.jena.rdf.model.Property;
-import com.hp.hpl.jena.rdf.model.Resource;
-import com.hp.hpl.jena.rdf.model.StmtIterator;
-import com.hp.hpl.jena.util.PrintUtil;
+import org.apache.commons.lang3.StringUtils;
 
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
-import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.Term;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologyObjectIndex.RdfTypeGroup;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
 
+/**
+ * Match the natural language terms against the ontology.
+ *
+ * The ontology terms are created with the {@link OntologySnapshot}, and a natural language term once per lookup, so that comparing
+ * them one by one allocates nothing; the lists of terms are indexed rather than iterated for the same reason.
+ */
 public class OntologyService {
 
 	private final DictionaryService dictionaryService;
-
-	private InfModel infModel = null;
-	private final List<String> ontProperties = new ArrayList<>();
-	private final List<String> ontClasses = new ArrayList<>();
-
-	/*
-	 * e.g. manuservice:CompanyFAdd manuservice:country 'New Zealand' <'New Zealand', <manuservice:country, manuservice:CompanyFAdd>,
-	 * <manuservice:country, manuservice:CompanyBAdd>>
-	 */
-	private final Map<String, List<Map<String, String>>> statementTriplesIndexedByObjects = new HashMap<>();
-	/*
-	 * e.g. manuservice:CompanyF rdf:type manuservice:BusinessEntity <rdf:type, <<manuservice:BusinessEntity, manuservice:CompanyF>,
-	 * <manuservice:BusinessEntity, manuservice:CompanyB>>
-	 */
-	private final Map<String, List<Map<String, String>>> statementTriplesIndexedByPredicates = new HashMap<>();
+	private final OntologySnapshot ontologySnapshot;
 
 	public OntologyService(final DictionaryService dictionaryService) {
-		this.dictionaryService = dictionaryService;
-
-		loadOntProperties();
-		loadStatementTriples();
+		this(dictionaryService, OntologySnapshot.getInstance());
 	}
 
-	private void loadOntProperties() {
-		PrintUtil.registerPrefix(Constants.Ontology.PREFIX, Constants.Ontology.NS_MC);
-
-		// load ont properties
-		final List<OntProperty> ontologyProperties = JenaOntModelManager.getInstance().loadOntProperties();
-		for (final OntProperty ontProperty : ontologyProperties) {
-			this.ontProperties.add(PrintUtil.print(ontProperty));
-		}
-
-		// load ont classess
-		final List<OntClass> ontClassess = JenaOntModelManager.getInstance().loadOntClasses();
-		for (final OntClass ontClasse : ontClassess) {
-			this.ontClasses.add(PrintUtil.print(ontClasse));
-		}
+	public OntologyService(final DictionaryService dictionaryService, final OntologySnapshot ontologySnapshot) {
+		this.dictionaryService = dictionaryService;
+		this.ontologySnapshot = ontologySnapshot;
 	}
 
-	private void loadStatementTriples() {
-
-		PrintUtil.registerPrefix(Constants.Ontology.PREFIX, Constants.Ontology.NS_MC);
-		this.infModel = JenaInfModelManager.getInstance().createInfModelByRule("");
-
-		for (final StmtIterator it = this.infModel.listStatements(); it.hasNext();) {
-			final Triple triple = it.next().asTriple();
-
-			final String object = printLiteralLexicalForm(triple.getObject());
-			final String predicate = PrintUtil.print(triple.getPredicate());
-			final String subject = PrintUtil.print(triple.getSubject());
-
-			// load triples, indexed by object
-			List<Map<String, String>> predicateSubjects = this.statementTriplesIndexedByObjects.get(object);
-			if (predicateSubjects == null) {
-				predicateSubjects = new ArrayList<>();
-			}
-			final Map<String, String> predicateSubject = new HashMap<>();
-			predicateSubject.put(predicate, subject);
-
-			predicateSubjects.add(predicateSubject);
-			this.statementTriplesIndexedByObjects.put(object, predicateSubjects);
-
-			// load triples, indexed by predicate
-			List<Map<String, String>> objectSubjects = this.statementTriplesIndexedByPredicates.get(predicate);
-			if (objectSubjects == null) {
-				objectSubjects = new ArrayList<>();
-			}
-			final Map<String, String> objectSubject = new HashMap<>();
-			objectSubject.put(object, subject);
-
-			objectSubjects.add(objectSubject);
-			this.statementTriplesIndexedByPredicates.put(predicate, objectSubjects);
-		}
+	public List<String> getOntProperties() {
+		return this.ontologySnapshot.getOntProperties();
 	}
 
-	private String printLiteralLexicalForm(final Node node) {
+	public List<String> getOntClasses() {
+		return this.ontologySnapshot.getOntClasses();
+	}
 
-		if (node.isLiteral()) {
-			return node.getLiteralLexicalForm();
-		} else {
-			return PrintUtil.print(node);
-		}
+	public String lookupOntProperty(final String inputProperty) {
+		return StringUtils.isEmpty(inputProperty) ? null : lookupOntProperty(Term.of(inputProperty));
 	}
 
-	public List<String> getOntProperties() {
-		return this.ontProperties;
+	public String lookupOntProperty(final Term inputProperty) {
+		final long start = Metrics.getInstance().startStage(Metrics.Stage.ONTOLOGY_MATCHING);
+		try {
+			return lookupOntologyName(inputProperty, this.ontologySnapshot.getOntPropertyTerms());
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.ONTOLOGY_MATCHING, start);
+		}
 	}
 
-	public List<String> getOntClasses() {
-		return this.ontClasses;
+	public String lookupOntClass(final String inputClass) {
+		return StringUtils.isEmpty(inputClass) ? null : lookupOntClass(Term.of(inputClass));
 	}
 
-	public String lookupOntProperty(final String inputProperty) {
-		for (final String property : getOntProperties()) {
-			if (this.dictionaryService.isSynonym(inputProperty, Tools.removePrefix(property))) {
-				return property;
-			}
+	public String lookupOntClass(final Term inputClass) {
+		final long start = Metrics.getInstance().startStage(Metrics.Stage.ONTOLOGY_MATCHING);
+		try {
+			return lookupOntologyName(inputClass, this.ontologySnapshot.getOntClassTerms());
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.ONTOLOGY_MATCHING, start);
 		}
-		return null;
 	}
 
-	public String lookupOntClass(final String inputClass) {
-		for (final String ontClass : getOntClasses()) {
-			if (this.dictionaryService.isSynonym(inputClass, Tools.removePrefix(ontClass))) {
-				return ontClass;
+	private String lookupOntologyName(final Term inputTerm, final List<Term> ontologyTerms) {
+		for (int i = 0; i < ontologyTerms.size(); i++) {
+			if (this.dictionaryService.isSynonym(inputTerm, ontologyTerms.get(i))) {
+				return ontologyTerms.get(i).getText();
 			}
 		}
 		return null;
@@ -154,10 +98,9 @@ public class OntologyService {
 
 	public List<Map<String, String>> lookupPredicateSubjectListByObject(final String originalObject) {
 
-		for (final String object : this.statementTriplesIndexedByObjects.keySet()) {
-			if (this.dictionaryService.isSynonym(object, originalObject)) {
-				return this.statementTriplesIndexedByObjects.get(object);
-			}
+		final String object = lookupObjectByNlObject(originalObject);
+		if (object != null) {
+			return getStatementTriplesIndexedByObjects().get(object);
 		}
 
 		return new ArrayList<>();
@@ -166,9 +109,9 @@ public class OntologyService {
 	public List<Map<String, String>> lookupObjectSubjectListByPredicate(final String originalPredicate) {
 		List<Map<String, String>> objectSubjects = null;
 
-		for (final String predicate : this.statementTriplesIndexedByPredicates.keySet()) {
+		for (final String predicate : getStatementTriplesIndexedByPredicates().keySet()) {
 			if (predicate.equalsIgnoreCase(originalPredicate)) {
-				objectSubjects = this.statementTriplesIndexedByPredicates.get(predicate);
+				objectSubjects = getStatementTriplesIndexedByPredicates().get(predicate);
 			}
 		}
 
@@ -178,53 +121,157 @@ public class OntologyService {
 		return objectSubjects;
 	}
 
+	/**
+	 * Lookup the ontology object which is a synonym of the natural language object through the object index, by the literal forms,
+	 * the synonyms, and then the tokens contained in either. The result is memoized in the index.
+	 *
+	 * @param originalObject
+	 * @return
+	 */
 	public String lookupObjectByNlObject(final String originalObject) {
-		for (final String object : this.statementTriplesIndexedByObjects.keySet()) {
-			if (this.dictionaryService.isSynonym(object, originalObject)) {
-				return object;
+		final long start = Metrics.getInstance().startStage(Metrics.Stage.ONTOLOGY_MATCHING);
+		try {
+			if (StringUtils.isEmpty(originalObject)) {
+				return null;
+			}
+
+			final OntologyObjectIndex objectIndex = this.ontologySnapshot.getObjectIndex();
+			final Term originalTerm = Term.of(originalObject);
+			final String key = originalTerm.getLowerCase();
+			final long dictionaryVersion = DictionaryService.getDictionaryVersion();
+
+			final String resolvedObject = objectIndex.getResolvedObject(key);
+			if (resolvedObject != null) {
+				return OntologyObjectIndex.NOT_FOUND.equals(resolvedObject) ? null : resolvedObject;
+			}
+
+			final String object = lookupIndexedObjectByNlObject(objectIndex, originalTerm);
+			objectIndex.putResolvedObject(key, object, dictionaryVersion);
+			return object;
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.ONTOLOGY_MATCHING, start);
+		}
+	}
+
+	private String lookupIndexedObjectByNlObject(final OntologyObjectIndex objectIndex, final Term originalObject) {
+		final String[] literalForms = new String[] { originalObject.getLowerCase(), originalObject.getKey() };
+
+		// the object literally equals an ontology object or one of its local synonyms
+		for (final String form : literalForms) {
+			final List<String> objects = objectIndex.lookupObjectsBySurfaceForm(form);
+			if (!objects.isEmpty()) {
+				return objects.get(0);
+			}
+		}
+		for (final String form : literalForms) {
+			final List<String> objects = objectIndex.lookupObjectsByLocalSynonym(form);
+			if (!objects.isEmpty()) {
+				return objects.get(0);
+			}
+		}
+
+		// one of the synonyms of the object literally equals an ontology object
+		final Set<String> synonymForms = this.dictionaryService.lookupSynonymForms(originalObject.getText());
+		for (final String form : synonymForms) {
+			final List<String> objects = objectIndex.lookupObjectsBySurfaceForm(form);
+			if (!objects.isEmpty()) {
+				return objects.get(0);
+			}
+		}
+
+		// the object or one of its synonyms contains an ontology object or one of its local synonyms, or the other way round, e.g. "NZ"
+		// is contained in "NZ Ltd"
+		for (final String form : synonymForms) {
+			List<String> objects = objectIndex.lookupObjectsContainingTokens(form);
+			if (objects.isEmpty()) {
+				objects = objectIndex.lookupObjectsContainedInTokens(form);
+			}
+			if (!objects.isEmpty()) {
+				return objects.get(0);
 			}
 		}
 		return null;
 	}
 
 	public String lookupObjectByNlObjectAndReferenceObject(final String originalObject, final String referenceObject) {
+		final long start = Metrics.getInstance().startStage(Metrics.Stage.ONTOLOGY_MATCHING);
+		try {
+			final OntologyObjectIndex objectIndex = this.ontologySnapshot.getObjectIndex();
+			final String key = originalObject + '\t' + referenceObject;
+			final long dictionaryVersion = DictionaryService.getDictionaryVersion();
+
+			final String resolvedObject = objectIndex.getResolvedObject(key);
+			if (resolvedObject != null) {
+				return OntologyObjectIndex.NOT_FOUND.equals(resolvedObject) ? null : resolvedObject;
+			}
 
-		final String referenceRdfType = lookupReferenceRDFTypeBySubject(referenceObject);
+			final String object = lookupObjectByReferenceRdfType(objectIndex, originalObject, referenceObject);
+			objectIndex.putResolvedObject(key, object, dictionaryVersion);
+			return object;
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.ONTOLOGY_MATCHING, start);
+		}
+	}
 
-		for (final String object : this.statementTriplesIndexedByObjects.keySet()) {
-			final String object_local = Tools.removePrefix(object);
+	/**
+	 * Only the objects whose rdf:type is a synonym of the reference rdf:type can be the desired subject, so only those are compared.
+	 */
+	private String lookupObjectByReferenceRdfType(final OntologyObjectIndex objectIndex, final String originalObject,
+			final String referenceObject) {
 
-			if (Tools.doesMatch(object_local, originalObject)) {
-				if (isDesiredSubject(object_local, referenceObject, referenceRdfType)) {
-					return object;
-				}
+		if (StringUtils.isEmpty(referenceObject)) {
+			return null;
+		}
+		final Term referenceTerm = Term.of(referenceObject);
+		final Term referenceRdfType = lookupReferenceRDFTypeBySubject(referenceTerm);
+
+		final List<RdfTypeGroup> groups = objectIndex.getRdfTypeGroups();
+		for (int i = 0; i < groups.size(); i++) {
+			if (!this.dictionaryService.isSynonym(groups.get(i).getRdfType(), referenceRdfType)) {
+				continue;
 			}
 
+			final List<Term> objects = groups.get(i).getObjects();
+			for (int j = 0; j < objects.size(); j++) {
+				final Term object = objects.get(j);
+
+				if (Tools.doesMatch(object.getLocalName(), originalObject) && this.dictionaryService.isSynonym(object, referenceTerm)) {
+					return object.getText();
+				}
+			}
 		}
 		return null;
 	}
 
 	public Entry<String, String> lookupPredicateSubjectByObject(final String object, final String referenceSubject) {
+		final long start = Metrics.getInstance().startStage(Metrics.Stage.ONTOLOGY_MATCHING);
+		try {
+			if (StringUtils.isEmpty(referenceSubject)) {
+				return null;
+			}
+			final Term referenceTerm = Term.of(referenceSubject);
+			final Term referenceRdfType = lookupReferenceRDFTypeBySubject(referenceTerm);
 
-		final String referenceRdfType = lookupReferenceRDFTypeBySubject(referenceSubject);
-
-		for (final Map<String, String> predicateSubjectMap : lookupPredicateSubjectListByObject(object)) {
-			for (final Entry<String, String> entry : predicateSubjectMap.entrySet()) {
-				final String subject = Tools.removePrefix(entry.getValue());
+			for (final Map<String, String> predicateSubjectMap : lookupPredicateSubjectListByObject(object)) {
+				for (final Entry<String, String> entry : predicateSubjectMap.entrySet()) {
+					final Term subject = this.ontologySnapshot.getSubjectTerm(entry.getValue());
 
-				if (isDesiredSubject(subject, referenceSubject, referenceRdfType)) {
-					return entry;
+					if (isDesiredSubject(subject, referenceTerm, referenceRdfType)) {
+						return entry;
+					}
 				}
 			}
+			return null;
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.ONTOLOGY_MATCHING, start);
 		}
-		return null;
 	}
 
-	private boolean isDesiredSubject(final String subject, final String referenceSubject, final String referenceRdfType) {
+	private boolean isDesiredSubject(final Term subject, final Term referenceSubject, final Term referenceRdfType) {
 
 		if (this.dictionaryService.isSynonym(subject, referenceSubject)) {
 			// further check if their rdf:type matches
-			final String specificRdfType = lookupSpecificRDFTypeBySubject(subject);
+			final Term specificRdfType = this.ontologySnapshot.lookupSpecificRdfTypeTerm(subject.getLocalName());
 			if (this.dictionaryService.isSynonym(specificRdfType, referenceRdfType)) {
 				return true;
 			}
@@ -232,35 +279,24 @@ public class OntologyService {
 		return false;
 	}
 
-	private String lookupReferenceRDFTypeBySubject(final String referenceSubject) {
-
-		for (final Map<String, String> objectSubjectMap : this.statementTriplesIndexedByPredicates
-				.get(Constants.Ontology.RDF_TYPE_USING_PREFIX)) {
+	private Term lookupReferenceRDFTypeBySubject(final Term referenceSubject) {
 
-			for (final String string : objectSubjectMap.keySet()) {
-				final String rdfType = Tools.removePrefix(string);
-				if (this.dictionaryService.isSynonym(referenceSubject, rdfType)) {
-					return rdfType;
-				}
+		final List<Term> rdfTypes = this.ontologySnapshot.getObjectIndex().getRdfTypeTerms();
+		for (int i = 0; i < rdfTypes.size(); i++) {
+			if (this.dictionaryService.isSynonym(referenceSubject, rdfTypes.get(i))) {
+				return rdfTypes.get(i);
 			}
 		}
 
 		return null;
 	}
 
-	private String lookupSpecificRDFTypeBySubject(final String resourceString) {
-		final Resource resource = this.infModel.getResource(Constants.Ontology.NS_MC + resourceString);
-		final Property property = this.infModel.getProperty(Constants.Ontology.RDF_TYPE);
-		final StmtIterator stmtIt = this.infModel.listStatements(resource, property, (Resource) null);
-
-		while (stmtIt.hasNext()) {
-			final Resource objectResource = stmtIt.next().getObject().asResource();
-			if (objectResource.getNameSpace().equals(Constants.Ontology.NS_MC)) {
-				return objectResource.getLocalName();
-			}
-		}
+	private Map<String, List<Map<String, String>>> getStatementTriplesIndexedByObjects() {
+		return this.ontologySnapshot.getStatementTriplesIndexedByObjects();
+	}
 
-		return null;
+	private Map<String, List<Map<String, String>>> getStatementTriplesIndexedByPredicates() {
+		return this.ontologySnapshot.getStatementTriplesIndexedByPredicates();
 	}
 
 	public static void main(final String[] args) {
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.ontology.OntClass;
+import com.hp.hpl.jena.ontology.OntProperty;
+import com.hp.hpl.jena.rdf.model.InfModel;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.util.PrintUtil;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.Term;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Read-only view of the cloud manufacturing ontology, built once per process and shared by all the request threads.
+ *
+ * All the collections are fully populated in the constructor and never modified afterwards, so the snapshot can be read concurrently
+ * without locking. Use {@link #reload()} to publish a fresh snapshot once the ontology file changes.
+ */
+public class OntologySnapshot {
+
+	/** singleton */
+	private static volatile OntologySnapshot instance = new OntologySnapshot();
+
+	private final List<String> ontProperties;
+	private final List<String> ontClasses;
+	private final List<Term> ontPropertyTerms;
+	private final List<Term> ontClassTerms;
+
+	/*
+	 * e.g. manuservice:CompanyFAdd manuservice:country 'New Zealand' <'New Zealand', <manuservice:country, manuservice:CompanyFAdd>,
+	 * <manuservice:country, manuservice:CompanyBAdd>>
+	 */
+	private final Map<String, List<Map<String, String>>> statementTriplesIndexedByObjects;
+	/*
+	 * e.g. manuservice:CompanyF rdf:type manuservice:BusinessEntity <rdf:type, <<manuservice:BusinessEntity, manuservice:CompanyF>,
+	 * <manuservice:BusinessEntity, manuservice:CompanyB>>
+	 */
+	private final Map<String, List<Map<String, String>>> statementTriplesIndexedByPredicates;
+	/*
+	 * e.g. CompanyF => BusinessEntity, i.e. the local name of the first manuservice rdf:type of each manuservice subject
+	 */
+	private final Map<String, Term> specificRdfTypesBySubject;
+	/*
+	 * e.g. manuservice:CompanyF => the term compared by CompanyF, i.e. a single term for each subject of the statements
+	 */
+	private final Map<String, Term> subjectTerms;
+	/*
+	 * e.g. new zealand => [New Zealand], i.e. objects indexed by their surface forms and synonyms
+	 */
+	private final OntologyObjectIndex objectIndex;
+
+	private OntologySnapshot() {
+		PrintUtil.registerPrefix(Constants.Ontology.PREFIX, Constants.Ontology.NS_MC);
+
+		this.ontProperties = Collections.unmodifiableList(loadOntProperties());
+		this.ontClasses = Collections.unmodifiableList(loadOntClasses());
+		this.ontPropertyTerms = toOntologyNameTerms(this.ontProperties);
+		this.ontClassTerms = toOntologyNameTerms(this.ontClasses);
+
+		final Map<String, List<Map<String, String>>> triplesIndexedByObjects = new HashMap<>();
+		final Map<String, List<Map<String, String>>> triplesIndexedByPredicates = new HashMap<>();
+		final Map<String, Term> rdfTypesBySubject = new HashMap<>();
+		final Map<String, Term> subjects = new HashMap<>();
+
+		final InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRule("");
+		loadStatementTriples(infModel, triplesIndexedByObjects, triplesIndexedByPredicates, subjects);
+		loadSpecificRdfTypes(infModel, rdfTypesBySubject);
+
+		this.statementTriplesIndexedByObjects = freeze(triplesIndexedByObjects);
+		this.statementTriplesIndexedByPredicates = freeze(triplesIndexedByPredicates);
+		this.specificRdfTypesBySubject = Collections.unmodifiableMap(rdfTypesBySubject);
+		this.subjectTerms = Collections.unmodifiableMap(subjects);
+
+		this.objectIndex = new OntologyObjectIndex(this.statementTriplesIndexedByObjects.keySet(),
+				this.statementTriplesIndexedByPredicates.get(Constants.Ontology.RDF_TYPE_USING_PREFIX), this.specificRdfTypesBySubject,
+				new DictionaryService());
+	}
+
+	public static OntologySnapshot getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Re-read the ontology, rebuild the snapshot from it and publish it. Requests already running keep the snapshot they started with.
+	 *
+	 * @return the new snapshot
+	 */
+	public static synchronized OntologySnapshot reload() {
+		JenaOntModelManager.getInstance().reloadOntModel();
+		JenaInfModelManager.getInstance().reloadBaseModel();
+		instance = new OntologySnapshot();
+		return instance;
+	}
+
+	private List<String> loadOntProperties() {
+		final List<String> properties = new ArrayList<>();
+		for (final OntProperty ontProperty : JenaOntModelManager.getInstance().loadOntProperties()) {
+			properties.add(PrintUtil.print(ontProperty));
+		}
+		return properties;
+	}
+
+	private List<String> loadOntClasses() {
+		final List<String> classes = new ArrayList<>();
+		for (final OntClass ontClass : JenaOntModelManager.getInstance().loadOntClasses()) {
+			classes.add(PrintUtil.print(ontClass));
+		}
+		return classes;
+	}
+
+	private static List<Term> toOntologyNameTerms(final List<String> names) {
+		final List<Term> terms = new ArrayList<>(names.size());
+		for (final String name : names) {
+			terms.add(Term.ofOntologyName(name));
+		}
+		return Collections.unmodifiableList(terms);
+	}
+
+	private void loadStatementTriples(final InfModel infModel, final Map<String, List<Map<String, String>>> triplesIndexedByObjects,
+			final Map<String, List<Map<String, String>>> triplesIndexedByPredicates, final Map<String, Term> subjects) {
+
+		for (final StmtIterator it = infModel.listStatements(); it.hasNext();) {
+			final Triple triple = it.next().asTriple();
+
+			final String object = printLiteralLexicalForm(triple.getObject());
+			final String predicate = PrintUtil.print(triple.getPredicate());
+			final String subject = PrintUtil.print(triple.getSubject());
+
+			if (!subjects.containsKey(subject)) {
+				subjects.put(subject, Term.ofOntologyName(subject));
+			}
+
+			// load triples, indexed by object
+			List<Map<String, String>> predicateSubjects = triplesIndexedByObjects.get(object);
+			if (predicateSubjects == null) {
+				predicateSubjects = new ArrayList<>();
+				triplesIndexedByObjects.put(object, predicateSubjects);
+			}
+			predicateSubjects.add(Collections.singletonMap(predicate, subject));
+
+			// load triples, indexed by predicate
+			List<Map<String, String>> objectSubjects = triplesIndexedByPredicates.get(predicate);
+			if (objectSubjects == null) {
+				objectSubjects = new ArrayList<>();
+				triplesIndexedByPredicates.put(predicate, objectSubjects);
+			}
+			objectSubjects.add(Collections.singletonMap(object, subject));
+		}
+	}
+
+	private void loadSpecificRdfTypes(final InfModel infModel, final Map<String, Term> rdfTypesBySubject) {
+		final Property property = infModel.getProperty(Constants.Ontology.RDF_TYPE);
+
+		for (final StmtIterator it = infModel.listStatements(null, property, (RDFNode) null); it.hasNext();) {
+			final Statement statement = it.next();
+			final Resource subject = statement.getSubject();
+			final RDFNode object = statement.getObject();
+
+			if (subject.isAnon() || !object.isURIResource() || !Constants.Ontology.NS_MC.equals(subject.getNameSpace())) {
+				continue;
+			}
+
+			final Resource objectResource = object.asResource();
+			if (Constants.Ontology.NS_MC.equals(objectResource.getNameSpace()) && !rdfTypesBySubject.containsKey(subject.getLocalName())) {
+				rdfTypesBySubject.put(subject.getLocalName(), Term.of(objectResource.getLocalName()));
+			}
+		}
+	}
+
+	private String printLiteralLexicalForm(final Node node) {
+
+		if (node.isLiteral()) {
+			return node.getLiteralLexicalForm();
+		} else {
+			return PrintUtil.print(node);
+		}
+	}
+
+	private static Map<String, List<Map<String, String>>> freeze(final Map<String, List<Map<String, String>>> index) {
+		for (final Entry<String, List<Map<String, String>>> entry : index.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(index);
+	}
+
+	public List<String> getOntProperties() {
+		return this.ontProperties;
+	}
+
+	public List<String> getOntClasses() {
+		return this.ontClasses;
+	}
+
+	/**
+	 * @return the terms of {@link #getOntProperties()}, compared by their local names
+	 */
+	public List<Term> getOntPropertyTerms() {
+		return this.ontPropertyTerms;
+	}
+
+	/**
+	 * @return the terms of {@link #getOntClasses()}, compared by their local names
+	 */
+	public List<Term> getOntClassTerms() {
+		return this.ontClassTerms;
+	}
+
+	public Map<String, List<Map<String, String>>> getStatementTriplesIndexedByObjects() {
+		return this.statementTriplesIndexedByObjects;
+	}
+
+	public Map<String, List<Map<String, String>>> getStatementTriplesIndexedByPredicates() {
+		return this.statementTriplesIndexedByPredicates;
+	}
+
+	public OntologyObjectIndex getObjectIndex() {
+		return this.objectIndex;
+	}
+
+	/**
+	 * e.g. CompanyF => BusinessEntity
+	 *
+	 * @param subject
+	 *            local name of the subject
+	 * @return local name of its manuservice rdf:type, or null
+	 */
+	public String lookupSpecificRdfType(final String subject) {
+		final Term rdfType = this.specificRdfTypesBySubject.get(subject);
+		return (rdfType == null) ? null : rdfType.getText();
+	}
+
+	/**
+	 * @param subject
+	 *            local name of the subject
+	 * @return the term of its manuservice rdf:type, or null
+	 */
+	public Term lookupSpecificRdfTypeTerm(final String subject) {
+		return this.specificRdfTypesBySubject.get(subject);
+	}
+
+	/**
+	 * @param subject
+	 *            e.g. manuservice:CompanyF
+	 * @return the term of the subject, created when the ontology was loaded unless the subject is in no statement
+	 */
+	public Term getSubjectTerm(final String subject) {
+		final Term term = this.subjectTerms.get(subject);
+		return (term == null) ? Term.ofOntologyName(subject) : term;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+
+/**
+ * Hash index over the statements of a model, by subject and predicate, by predicate and object, and by predicate.
+ *
+ * <pre>
+ * 	manuservice:CompanyB, manuservice:hasResource => [manuservice:R_AutoCAD1_B, manuservice:R_NXCNC1_B, ...]
+ * 	manuservice:name, 'CompanyB' => [manuservice:CompanyB]
+ * </pre>
+ *
+ * Objects are looked up by value, like Jena does, so that e.g. 'New Zealand' finds "New Zealand"^^xsd:string. The index is not
+ * thread-safe; it is kept in step with its model by the caller.
+ */
+public class TripleIndex {
+
+	private final Map<Node, Map<Node, Set<Node>>> objectsBySubjectAndPredicate = new HashMap<>();
+	private final Map<Node, Map<Object, Set<Node>>> subjectsByPredicateAndObject = new HashMap<>();
+	private final Map<Node, Set<Triple>> triplesByPredicate = new HashMap<>();
+
+	public TripleIndex(final Model model) {
+		for (final StmtIterator it = model.listStatements(); it.hasNext();) {
+			add(it.nextStatement().asTriple());
+		}
+	}
+
+	public void add(final Triple triple) {
+		Set<Triple> triples = this.triplesByPredicate.get(triple.getPredicate());
+		if (triples == null) {
+			triples = new LinkedHashSet<>();
+			this.triplesByPredicate.put(triple.getPredicate(), triples);
+		}
+		if (!triples.add(triple)) {
+			return;
+		}
+
+		addToIndex(this.objectsBySubjectAndPredicate, triple.getSubject(), triple.getPredicate(), triple.getObject());
+		addToIndex(this.subjectsByPredicateAndObject, triple.getPredicate(), triple.getObject().getIndexingValue(), triple.getSubject());
+	}
+
+	public void remove(final Triple triple) {
+		final Set<Triple> triples = this.triplesByPredicate.get(triple.getPredicate());
+		if (triples == null || !triples.remove(triple)) {
+			return;
+		}
+		if (triples.isEmpty()) {
+			this.triplesByPredicate.remove(triple.getPredicate());
+		}
+
+		removeFromIndex(this.objectsBySubjectAndPredicate, triple.getSubject(), triple.getPredicate(), triple.getObject());
+		removeFromIndex(this.subjectsByPredicateAndObject, triple.getPredicate(), triple.getObject().getIndexingValue(),
+				triple.getSubject());
+	}
+
+	private static <K> void addToIndex(final Map<Node, Map<K, Set<Node>>> index, final Node key, final K secondKey, final Node value) {
+		Map<K, Set<Node>> secondIndex = index.get(key);
+		if (secondIndex == null) {
+			secondIndex = new HashMap<>();
+			index.put(key, secondIndex);
+		}
+		Set<Node> values = secondIndex.get(secondKey);
+		if (values == null) {
+			values = new LinkedHashSet<>();
+			secondIndex.put(secondKey, values);
+		}
+		values.add(value);
+	}
+
+	private static <K> void removeFromIndex(final Map<Node, Map<K, Set<Node>>> index, final Node key, final K secondKey,
+			final Node value) {
+		final Map<K, Set<Node>> secondIndex = index.get(key);
+		if (secondIndex == null) {
+			return;
+		}
+		final Set<Node> values = secondIndex.get(secondKey);
+		if (values == null) {
+			return;
+		}
+
+		values.remove(value);
+		if (values.isEmpty()) {
+			secondIndex.remove(secondKey);
+			if (secondIndex.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * @param subject
+	 * @param predicate
+	 * @return the objects of the statements with the subject and predicate
+	 */
+	public Set<Node> listObjects(final Node subject, final Node predicate) {
+		final Map<Node, Set<Node>> objectsByPredicate = this.objectsBySubjectAndPredicate.get(subject);
+		final Set<Node> objects = (objectsByPredicate == null) ? null : objectsByPredicate.get(predicate);
+		return (objects == null) ? Collections.<Node> emptySet() : objects;
+	}
+
+	/**
+	 * @param predicate
+	 * @param object
+	 *            matched by value
+	 * @return the subjects of the statements with the predicate and object
+	 */
+	public Set<Node> listSubjects(final Node predicate, final Node object) {
+		final Map<Object, Set<Node>> subjectsByObject = this.subjectsByPredicateAndObject.get(predicate);
+		final Set<Node> subjects = (subjectsByObject == null) ? null : subjectsByObject.get(object.getIndexingValue());
+		if (subjects == null || !object.isLiteral()) {
+			return (subjects == null) ? Collections.<Node> emptySet() : subjects;
+		}
+
+		// the indexing value may be shared by literals of different values
+		final Set<Node> matchingSubjects = new LinkedHashSet<>();
+		for (final Node subject : subjects) {
+			for (final Node candidate : listObjects(subject, predicate)) {
+				if (candidate.sameValueAs(object)) {
+					matchingSubjects.add(subject);
+					break;
+				}
+			}
+		}
+		return matchingSubjects;
+	}
+
+	/**
+	 * @param predicate
+	 * @return the subjects of the statements with the predicate
+	 */
+	public Set<Node> listSubjects(final Node predicate) {
+		final Set<Node> subjects = new HashSet<>();
+		for (final Triple triple : listTriples(predicate)) {
+			subjects.add(triple.getSubject());
+		}
+		return subjects;
+	}
+
+	/**
+	 * @param predicate
+	 * @return the objects of the statements with the predicate
+	 */
+	public Set<Node> listObjects(final Node predicate) {
+		final Set<Node> objects = new HashSet<>();
+		for (final Triple triple : listTriples(predicate)) {
+			objects.add(triple.getObject());
+		}
+		return objects;
+	}
+
+	private Set<Triple> listTriples(final Node predicate) {
+		final Set<Triple> triples = this.triplesByPredicate.get(predicate);
+		return (triples == null) ? Collections.<Triple> emptySet() : triples;
+	}
+
+	/**
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 *            matched by value
+	 * @return
+	 */
+	public boolean contains(final Node subject, final Node predicate, final Node object) {
+		for (final Node candidate : listObjects(subject, predicate)) {
+			if (candidate.sameValueAs(object)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
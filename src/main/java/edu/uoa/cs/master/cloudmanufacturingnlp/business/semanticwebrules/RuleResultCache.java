@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.BoundedCache;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Generated Jena rules, keyed on the canonical form of the natural language rule, so that a resubmitted rule skips parsing and
+ * ontology matching.
+ *
+ * <pre>
+ * 	"The CompanyF shares resources with NZ-based companies." => CompanyF shares resources with NZ-based companies
+ * </pre>
+ *
+ * The size and the time to live can be preset with the system properties {@link Constants.Config#RULE_CACHE_SIZE} and
+ * {@link Constants.Config#RULE_CACHE_TTL_MILLIS}. The cache is emptied as soon as a new {@link OntologySnapshot} is published or the
+ * dictionaries are cleared with {@link DictionaryService#clearSynonymCaches()}.
+ */
+public class RuleResultCache {
+
+	private final BoundedCache<String, String[]> jenaRules;
+
+	/** the state the cached rules were generated from; checked without locking, and swapped once when it changes */
+	private final AtomicReference<GenerationState> generationState = new AtomicReference<>(new GenerationState(null, -1));
+
+	/** singleton */
+	private static RuleResultCache instance = new RuleResultCache();
+
+	private RuleResultCache() {
+		this.jenaRules = new BoundedCache<>(Integer.getInteger(Constants.Config.RULE_CACHE_SIZE, 10000),
+				Long.getLong(Constants.Config.RULE_CACHE_TTL_MILLIS, 60 * 60 * 1000L));
+	}
+
+	public static RuleResultCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @param naturalLanguageRule
+	 * @param ontologySnapshot
+	 *            the snapshot the caller generates rules from
+	 * @param parserName
+	 *            the name of the dependency parser backend
+	 * @return a copy of the cached Jena rules, or null
+	 */
+	public String[] get(final String naturalLanguageRule, final OntologySnapshot ontologySnapshot, final String parserName) {
+		if (!isCurrent(ontologySnapshot)) {
+			return null;
+		}
+
+		final String[] rules = this.jenaRules.get(createKey(naturalLanguageRule, parserName));
+		return (rules == null) ? null : rules.clone();
+	}
+
+	public void put(final String naturalLanguageRule, final OntologySnapshot ontologySnapshot, final String parserName,
+			final String[] rules) {
+		if (rules == null || !isCurrent(ontologySnapshot)) {
+			return;
+		}
+
+		this.jenaRules.put(createKey(naturalLanguageRule, parserName), rules.clone());
+	}
+
+	/**
+	 * Only rules generated from the published snapshot and the current dictionaries are cached; anything else empties the cache, or,
+	 * for a request still running on a stale snapshot, bypasses it. The thread which swaps in the new state is the one to empty the
+	 * cache.
+	 */
+	private boolean isCurrent(final OntologySnapshot snapshot) {
+		final OntologySnapshot publishedSnapshot = OntologySnapshot.getInstance();
+		final long currentDictionaryVersion = DictionaryService.getDictionaryVersion();
+
+		final GenerationState state = this.generationState.get();
+		if (state.ontologySnapshot != publishedSnapshot || state.dictionaryVersion != currentDictionaryVersion) {
+			if (this.generationState.compareAndSet(state, new GenerationState(publishedSnapshot, currentDictionaryVersion))) {
+				this.jenaRules.clear();
+			}
+		}
+		return snapshot == publishedSnapshot;
+	}
+
+	public void invalidate() {
+		this.jenaRules.clear();
+	}
+
+	public BoundedCache<String, String[]> getJenaRuleCache() {
+		return this.jenaRules;
+	}
+
+	private static String createKey(final String naturalLanguageRule, final String parserName) {
+		return parserName + '\t' + canonicalize(naturalLanguageRule);
+	}
+
+	/**
+	 * Reduce the variations of a natural language rule the generated rules don't depend on: wrapping double quotes, a leading "The",
+	 * trailing periods and repeated white spaces. The case is kept, since names are matched case-sensitively. The rule service
+	 * generates the rules from this form, so that a cached rule is the one its key would generate.
+	 * 
+	 * @param naturalLanguageRule
+	 * @return e.g. "CompanyF shares resources with NZ-based companies" for "The CompanyF shares  resources with NZ-based companies."
+	 */
+	public static String canonicalize(final String naturalLanguageRule) {
+		String rule = naturalLanguageRule.trim();
+
+		// remove the wrapping quotes in case they are carried from the browser URL
+		if (rule.length() >= 2 && rule.startsWith("\"") && rule.endsWith("\"")) {
+			rule = rule.substring(1, rule.length() - 1).trim();
+		}
+
+		rule = rule.replaceAll("\\s+", " ");
+
+		// remove the "." at the end of the sentence
+		while (rule.endsWith(".")) {
+			rule = rule.substring(0, rule.length() - 1).trim();
+		}
+
+		// remove "The" at the beginning, unless what follows would be taken for it
+		if (rule.startsWith("The ") && !rule.substring("The ".length()).toLowerCase(Locale.ENGLISH).startsWith("the")) {
+			rule = rule.substring("The ".length());
+		}
+
+		return rule;
+	}
+
+	@Override
+	public String toString() {
+		return this.jenaRules.toString();
+	}
+
+	/**
+	 * The ontology snapshot and the dictionary version the cached rules were generated from.
+	 */
+	private static final class GenerationState {
+		private final OntologySnapshot ontologySnapshot;
+		private final long dictionaryVersion;
+
+		GenerationState(final OntologySnapshot ontologySnapshot, final long dictionaryVersion) {
+			this.ontologySnapshot = ontologySnapshot;
+			this.dictionaryVersion = dictionaryVersion;
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules;
+
+/**
+ * Outcome of processing one natural language rule: either the generated Jena rules or the error which stopped the generation.
+ */
+public class SemanticWebRuleResult {
+
+	private final String naturalLanguageRule;
+	private final String[] jenaRules;
+	private final String error;
+
+	private SemanticWebRuleResult(final String naturalLanguageRule, final String[] jenaRules, final String error) {
+		this.naturalLanguageRule = naturalLanguageRule;
+		this.jenaRules = jenaRules;
+		this.error = error;
+	}
+
+	public static SemanticWebRuleResult success(final String naturalLanguageRule, final String[] jenaRules) {
+		return new SemanticWebRuleResult(naturalLanguageRule, jenaRules, null);
+	}
+
+	public static SemanticWebRuleResult failure(final String naturalLanguageRule, final String error) {
+		return new SemanticWebRuleResult(naturalLanguageRule, null, error);
+	}
+
+	public boolean isSuccessful() {
+		return this.jenaRules != null;
+	}
+
+	public String getNaturalLanguageRule() {
+		return this.naturalLanguageRule;
+	}
+
+	public String[] getJenaRules() {
+		return this.jenaRules;
+	}
+
+	public String getError() {
+		return this.error;
+	}
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Convert a file of natural language rules, one per line, into Jena rules from the command line.
+ *
+ * <pre>
+ * 	java -Dcloudmanufacturingnlp.localBase=src/main/resources/resource/ -cp ... \
+ * 		edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRulesBatchCommand rules.txt jenarules.tsv
+ * </pre>
+ *
+ * The input is read a chunk of lines at a time ({@link Constants.Config#BATCH_CHUNK_SIZE}), and the rules of a chunk are processed on
+ * a fork-join pool ({@link Constants.Config#BATCH_POOL_SIZE}) through the same pipeline as the REST service. Blank lines and the
+ * comment lines which start with "/" are skipped. The output has a tab separated line per generated Jena rule or per error, in input
+ * order:
+ *
+ * <pre>
+ * 	12	OK	[(?x manuservice:hasAccessTo ?y) <- ...]
+ * 	13	ERROR	Error: natural language rule doesn't contain subject
+ * </pre>
+ *
+ * After each chunk, the number of input lines done and the length of the output are saved to the checkpoint file, i.e. the output
+ * file name followed by ".checkpoint". A run which finds the checkpoint resumes after the last chunk it records, and the checkpoint
+ * is deleted once the whole input is done.
+ */
+public class SemanticWebRulesBatchCommand {
+
+	static final String OK = "OK";
+	static final String ERROR = "ERROR";
+	static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+	private static final int DEFAULT_CHUNK_SIZE = 1000;
+	private static final String CHECKPOINT_LINES = "lines";
+	private static final String CHECKPOINT_OUTPUT_LENGTH = "outputLength";
+
+	private final File input;
+	private final File output;
+	private final File checkpoint;
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+
+	private OntologySnapshot ontologySnapshot;
+
+	/** figures of the run */
+	private long processedCount = 0;
+	private long errorCount = 0;
+
+	/**
+	 * @param input
+	 *            the natural language rules, one per line
+	 * @param output
+	 *            the Jena rules and the errors
+	 * @param parallelism
+	 *            the number of worker threads
+	 * @param chunkSize
+	 *            the number of lines processed between two checkpoints
+	 */
+	public SemanticWebRulesBatchCommand(final File input, final File output, final int parallelism, final int chunkSize) {
+		this.input = input;
+		this.output = output;
+		this.checkpoint = new File(output.getPath() + CHECKPOINT_SUFFIX);
+		this.pool = new ForkJoinPool(Math.max(1, parallelism));
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	/**
+	 * Process the input from the beginning, or from the checkpoint of an interrupted run.
+	 *
+	 * @return the number of rules processed by this run
+	 * @throws IOException
+	 */
+	public long run() throws IOException {
+		long linesDone = 0;
+		long outputLength = 0;
+		if (this.checkpoint.exists()) {
+			final Properties properties = loadCheckpoint();
+			linesDone = Long.parseLong(properties.getProperty(CHECKPOINT_LINES));
+			outputLength = Long.parseLong(properties.getProperty(CHECKPOINT_OUTPUT_LENGTH));
+			System.out.println("Resuming " + this.input + " after line " + linesDone);
+		}
+
+		// drop whatever an interrupted run wrote after its last checkpoint
+		try (RandomAccessFile outputFile = new RandomAccessFile(this.output, "rw")) {
+			if (outputFile.length() < outputLength) {
+				throw new RuntimeException("Error: " + this.output + " is shorter than its checkpoint");
+			}
+			outputFile.setLength(outputLength);
+		}
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.input), StandardCharsets.UTF_8));
+				FileOutputStream outputStream = new FileOutputStream(this.output, true);
+				Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+
+			for (long i = 0; i < linesDone; i++) {
+				if (reader.readLine() == null) {
+					break;
+				}
+			}
+
+			final List<String> chunk = new ArrayList<>(this.chunkSize);
+			String line = reader.readLine();
+			while (line != null) {
+				chunk.add(line);
+				line = reader.readLine();
+
+				if (chunk.size() == this.chunkSize || line == null) {
+					writeResults(writer, linesDone + 1, chunk, process(chunk));
+					linesDone += chunk.size();
+					chunk.clear();
+
+					writer.flush();
+					outputStream.getChannel().force(false);
+					saveCheckpoint(linesDone, outputStream.getChannel().size());
+				}
+			}
+		}
+
+		Files.deleteIfExists(this.checkpoint.toPath());
+		return this.processedCount;
+	}
+
+	public long getErrorCount() {
+		return this.errorCount;
+	}
+
+	/**
+	 * Process the rules of a chunk on the pool.
+	 *
+	 * @param lines
+	 * @return the result of each line, null for the lines skipped
+	 */
+	private SemanticWebRuleResult[] process(final List<String> lines) {
+		final String[] rules = new String[lines.size()];
+		for (int i = 0; i < rules.length; i++) {
+			final String rule = lines.get(i).trim();
+			rules[i] = (rule.isEmpty() || rule.startsWith("/")) ? null : rule;
+		}
+
+		final SemanticWebRuleResult[] results = new SemanticWebRuleResult[rules.length];
+		this.pool.invoke(new ChunkTask(rules, results, 0, rules.length));
+		return results;
+	}
+
+	/**
+	 * Process a single natural language rule, on a worker thread.
+	 *
+	 * @param naturalLanguageRule
+	 * @return
+	 */
+	protected SemanticWebRuleResult process(final String naturalLanguageRule) {
+		return SemanticWebRulesBatchService.processRule(naturalLanguageRule, getOntologySnapshot());
+	}
+
+	/**
+	 * The whole run uses the snapshot of the ontology taken by the first rule.
+	 */
+	private synchronized OntologySnapshot getOntologySnapshot() {
+		if (this.ontologySnapshot == null) {
+			this.ontologySnapshot = OntologySnapshot.getInstance();
+		}
+		return this.ontologySnapshot;
+	}
+
+	private void writeResults(final Writer writer, final long firstLineNumber, final List<String> lines,
+			final SemanticWebRuleResult[] results) throws IOException {
+
+		for (int i = 0; i < results.length; i++) {
+			final SemanticWebRuleResult result = results[i];
+			if (result == null) {
+				continue;
+			}
+
+			this.processedCount++;
+			final long lineNumber = firstLineNumber + i;
+			if (result.isSuccessful()) {
+				for (final String jenaRule : result.getJenaRules()) {
+					writeLine(writer, lineNumber, OK, jenaRule);
+				}
+			} else {
+				this.errorCount++;
+				writeLine(writer, lineNumber, ERROR, result.getError());
+			}
+		}
+	}
+
+	private static void writeLine(final Writer writer, final long lineNumber, final String status, final String text)
+			throws IOException {
+		writer.write(Long.toString(lineNumber));
+		writer.write('\t');
+		writer.write(status);
+		writer.write('\t');
+		writer.write((text == null) ? "" : text.replaceAll("[\t\r\n]+", " "));
+		writer.write('\n');
+	}
+
+	private Properties loadCheckpoint() throws IOException {
+		final Properties properties = new Properties();
+		try (FileInputStream inputStream = new FileInputStream(this.checkpoint)) {
+			properties.load(inputStream);
+		}
+		if (properties.getProperty(CHECKPOINT_LINES) == null || properties.getProperty(CHECKPOINT_OUTPUT_LENGTH) == null) {
+			throw new RuntimeException("Error: invalid checkpoint " + this.checkpoint);
+		}
+		return properties;
+	}
+
+	/**
+	 * Write the checkpoint to a temporary file first, so that an interruption leaves either the previous or the new one.
+	 */
+	private void saveCheckpoint(final long linesDone, final long outputLength) throws IOException {
+		final Properties properties = new Properties();
+		properties.setProperty(CHECKPOINT_LINES, Long.toString(linesDone));
+		properties.setProperty(CHECKPOINT_OUTPUT_LENGTH, Long.toString(outputLength));
+
+		final File temporary = new File(this.checkpoint.getPath() + ".tmp");
+		try (FileOutputStream outputStream = new FileOutputStream(temporary)) {
+			properties.store(outputStream, this.input.getPath());
+			outputStream.getChannel().force(false);
+		}
+		Files.move(temporary.toPath(), this.checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Split the rules of a chunk in halves down to single rules.
+	 */
+	private class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final String[] rules;
+		private final SemanticWebRuleResult[] results;
+		private final int from;
+		private final int to;
+
+		ChunkTask(final String[] rules, final SemanticWebRuleResult[] results, final int from, final int to) {
+			this.rules = rules;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > 1) {
+				final int middle = (this.from + this.to) >>> 1;
+				invokeAll(new ChunkTask(this.rules, this.results, this.from, middle),
+						new ChunkTask(this.rules, this.results, middle, this.to));
+			} else if (this.to > this.from && this.rules[this.from] != null) {
+				this.results[this.from] = process(this.rules[this.from]);
+			}
+		}
+	}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: SemanticWebRulesBatchCommand <natural language rules file> <Jena rules file>");
+			System.exit(1);
+		}
+
+		Constants.LOCAL_BASE = System.getProperty(Constants.Config.LOCAL_BASE, Constants.FilePath.LOCAL_BASE_JAVA);
+
+		final int parallelism = Integer.getInteger(Constants.Config.BATCH_POOL_SIZE, Runtime.getRuntime().availableProcessors());
+		final int chunkSize = Integer.getInteger(Constants.Config.BATCH_CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+		final SemanticWebRulesBatchCommand command = new SemanticWebRulesBatchCommand(new File(args[0]), new File(args[1]), parallelism,
+				chunkSize);
+
+		final long start = System.currentTimeMillis();
+		final long processedCount = command.run();
+		System.out.println("Processed " + processedCount + " rules, " + command.getErrorCount() + " errors, in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Process a list of natural language rules on a bounded pool of worker threads.
+ *
+ * The pool size defaults to the number of available processors and can be preset with the system property
+ * {@link Constants.Config#BATCH_POOL_SIZE}.
+ */
+public class SemanticWebRulesBatchService {
+
+	private final ExecutorService executorService;
+
+	/** singleton */
+	private static SemanticWebRulesBatchService instance = new SemanticWebRulesBatchService();
+
+	private SemanticWebRulesBatchService() {
+		final int poolSize = Integer.getInteger(Constants.Config.BATCH_POOL_SIZE, Runtime.getRuntime().availableProcessors());
+		this.executorService = Executors.newFixedThreadPool(Math.max(1, poolSize), new WorkerThreadFactory());
+	}
+
+	public static SemanticWebRulesBatchService getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Process each of the natural language rules. A rule that fails, e.g. in isParsedLanguageValid or validateTriples, only yields an
+	 * error result; the remaining rules are still processed.
+	 *
+	 * @param naturalLanguageRules
+	 * @return the results, in the same order as the input rules
+	 */
+	public List<SemanticWebRuleResult> process(final List<String> naturalLanguageRules) {
+		final OntologySnapshot ontologySnapshot = OntologySnapshot.getInstance();
+
+		final List<Future<SemanticWebRuleResult>> futures = new ArrayList<>(naturalLanguageRules.size());
+		for (final String naturalLanguageRule : naturalLanguageRules) {
+			futures.add(this.executorService.submit(new RuleTask(naturalLanguageRule, ontologySnapshot)));
+		}
+
+		final List<SemanticWebRuleResult> results = new ArrayList<>(futures.size());
+		for (int i = 0; i < futures.size(); i++) {
+			results.add(waitForResult(naturalLanguageRules.get(i), futures.get(i)));
+		}
+		return results;
+	}
+
+	private SemanticWebRuleResult waitForResult(final String naturalLanguageRule, final Future<SemanticWebRuleResult> future) {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			return SemanticWebRuleResult.failure(naturalLanguageRule, toErrorMessage(e.getCause()));
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return SemanticWebRuleResult.failure(naturalLanguageRule, toErrorMessage(e));
+		}
+	}
+
+	/**
+	 * Process a single natural language rule on the calling thread.
+	 *
+	 * @param naturalLanguageRule
+	 * @param ontologySnapshot
+	 * @return the generated Jena rules, or the error which stopped the generation
+	 */
+	static SemanticWebRuleResult processRule(final String naturalLanguageRule, final OntologySnapshot ontologySnapshot) {
+		final String[] jenaRules;
+		try {
+			// SemanticWebRulesService keeps per-rule state, so every rule uses its own instance
+			jenaRules = new SemanticWebRulesService(ontologySnapshot).process(naturalLanguageRule);
+		} catch (final RuntimeException e) {
+			return SemanticWebRuleResult.failure(naturalLanguageRule, toErrorMessage(e));
+		}
+
+		if (jenaRules == null) {
+			return SemanticWebRuleResult.failure(naturalLanguageRule, Constants.ErrMsg.NO_ACTION);
+		}
+		return SemanticWebRuleResult.success(naturalLanguageRule, jenaRules);
+	}
+
+	private static String toErrorMessage(final Throwable throwable) {
+		final String message = StringUtils.isBlank(throwable.getMessage()) ? throwable.getClass().getSimpleName() : throwable.getMessage();
+		return message.startsWith(Constants.ErrMsg.PREFIX) ? message : Constants.ErrMsg.PREFIX + message;
+	}
+
+	private static class RuleTask implements Callable<SemanticWebRuleResult> {
+		private final String naturalLanguageRule;
+		private final OntologySnapshot ontologySnapshot;
+
+		RuleTask(final String naturalLanguageRule, final OntologySnapshot ontologySnapshot) {
+			this.naturalLanguageRule = naturalLanguageRule;
+			this.ontologySnapshot = ontologySnapshot;
+		}
+
+		@Override
+		public SemanticWebRuleResult call() {
+			return processRule(this.naturalLanguageRule, this.ontologySnapshot);
+		}
+	}
+
+	private static class WorkerThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, "semantic-web-rules-batch-" + this.threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -19,18 +19,41 @@
  */
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules;
 
-import java.util.HashMap;
-import java.util.Map;
-
-import org.apache.commons.lang3.StringUtils;
-
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyParserBackend;
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.StanfordDependencies;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRulesProcessor;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
 
 public class SemanticWebRulesService {
 
-	private String action;
+	private final OntologySnapshot ontologySnapshot;
+	private final DependencyParserBackend dependencyParser;
+
+	public SemanticWebRulesService() {
+		this(OntologySnapshot.getInstance());
+	}
+
+	/**
+	 * @param ontologySnapshot
+	 *            the shared ontology, built once per process rather than per request
+	 */
+	public SemanticWebRulesService(OntologySnapshot ontologySnapshot) {
+		this(ontologySnapshot, StanfordDependencies.getInstance());
+	}
+
+	/**
+	 * @param ontologySnapshot
+	 *            the shared ontology, built once per process rather than per request
+	 * @param dependencyParser
+	 *            the parser producing the Stanford Dependencies
+	 */
+	public SemanticWebRulesService(OntologySnapshot ontologySnapshot, DependencyParserBackend dependencyParser) {
+		this.ontologySnapshot = ontologySnapshot;
+		this.dependencyParser = dependencyParser;
+	}
 
 	/**
 	 * Parse the natural language rule and use the parsed elements/tags to generate the Jena rule.
@@ -39,22 +62,39 @@ public class SemanticWebRulesService {
 	 * @return String[]
 	 */
 	public String[] process(String naturalLanguageRule) {
+		long start = Metrics.getInstance().beginRequest();
+		try {
+			return processRule(naturalLanguageRule);
+		} finally {
+			Metrics.getInstance().endRequest(start);
+		}
+	}
+
+	private String[] processRule(String naturalLanguageRule) {
+
+		// a resubmitted rule, possibly with trivial variations, is served from the cache
+		RuleResultCache ruleResultCache = RuleResultCache.getInstance();
+		String[] cachedJenaRules = ruleResultCache.get(naturalLanguageRule, this.ontologySnapshot, this.dependencyParser.getName());
+		if (cachedJenaRules != null) {
+			return cachedJenaRules;
+		}
 
 		String preprocessedRule = preprocessRule(naturalLanguageRule);
 
-		// get the triples of a natural sentence in the format <gov, <dep, reln>>, e.g. shares-3={companyC-2=nsubj}
-		Map<String, Map<String, String>> triples = new HashMap<String, Map<String, String>>();
-		this.action = StanfordDependencies.getInstance().parseNaturalLanguage(triples, preprocessedRule);
+		// get the dependencies of a natural sentence, e.g. nsubj(shares-3, companyC-2)
+		DependencyGraph graph = this.dependencyParser.parseNaturalLanguage(preprocessedRule);
 
-		if (isParsedLanguageValid()) {
-			return new JenaRulesProcessor(triples, this.action).assembleRule();
+		if (isParsedLanguageValid(graph)) {
+			String[] jenaRules = new JenaRulesProcessor(graph, this.ontologySnapshot).assembleRule();
+			ruleResultCache.put(naturalLanguageRule, this.ontologySnapshot, this.dependencyParser.getName(), jenaRules);
+			return jenaRules;
 		}
 
 		return null;
 	}
 
 	/**
-	 * Standardize the input natural language rule.
+	 * Standardize the input natural language rule, from its canonical form, i.e. the form it is cached with.
 	 * 1. Add "." at the end.
 	 * "CompanyA shares resources within its own company" => "CompanyA shares resources within its own company."
 	 * 
@@ -64,19 +104,13 @@ public class SemanticWebRulesService {
 	 * @param naturalLanguageRule
 	 * @return
 	 */
-	private String preprocessRule(String naturalLanguageRule) {
+	public static String preprocessRule(String naturalLanguageRule) {
 
-		String preprocessedRule = naturalLanguageRule.trim();
-
-		// remove the beginning and ending character "\"" in case it is carried from the browser URL
-		if (preprocessedRule.startsWith("\"") && preprocessedRule.endsWith("\"")) {
-			preprocessedRule = preprocessedRule.substring(1, preprocessedRule.length() - 1);
-		}
+		// e.g. without the wrapping "\"" carried from the browser URL, or the "." at the end
+		String preprocessedRule = RuleResultCache.canonicalize(naturalLanguageRule);
 
 		// add "." at the end of the sentence
-		if (!preprocessedRule.endsWith(".")) {
-			preprocessedRule += ".";
-		}
+		preprocessedRule += ".";
 
 		// add "The" at the beginning
 		if (!preprocessedRule.toLowerCase().startsWith("the")) {
@@ -89,13 +123,12 @@ public class SemanticWebRulesService {
 	/**
 	 * Verify the input rule by checking the gov of nsubj, i.e. action.
 	 * 
-	 * @param action
-	 * @param triples
+	 * @param graph
 	 * @return
 	 */
-	private boolean isParsedLanguageValid() {
+	private boolean isParsedLanguageValid(DependencyGraph graph) {
 
-		if (StringUtils.isEmpty(this.action)) {
+		if (graph.getAction() == DependencyGraph.NONE) {
 			System.out.println(Constants.ErrMsg.NO_ACTION);
 			throw new RuntimeException(Constants.ErrMsg.NO_ACTION);
 		}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.TripleIndex;
+
+/**
+ * A Jena rule compiled by {@link JenaRuleCompiler} into matchers over a {@link TripleIndex}.
+ *
+ * The body variables form two trees, rooted at the subject and at the object variable of the head, which share no variable; the rule
+ * derives a head statement for each subject matching the one tree and each object matching the other.
+ */
+public class CompiledRule {
+
+	private final Node headPredicate;
+	private final VariableMatcher subjectMatcher;
+	private final VariableMatcher objectMatcher;
+
+	CompiledRule(final Node headPredicate, final VariableMatcher subjectMatcher, final VariableMatcher objectMatcher) {
+		this.headPredicate = headPredicate;
+		this.subjectMatcher = subjectMatcher;
+		this.objectMatcher = objectMatcher;
+	}
+
+	/**
+	 * @param index
+	 * @return the head statements the rule derives from the indexed statements
+	 */
+	public Set<Triple> derive(final TripleIndex index) {
+		final Set<Triple> triples = new LinkedHashSet<>();
+
+		final Set<Node> objects = this.objectMatcher.findMatches(index);
+		if (objects.isEmpty()) {
+			return triples;
+		}
+		for (final Node subject : this.subjectMatcher.findMatches(index)) {
+			for (final Node object : objects) {
+				triples.add(Triple.create(subject, this.headPredicate, object));
+			}
+		}
+		return triples;
+	}
+
+	public Node getHeadPredicate() {
+		return this.headPredicate;
+	}
+
+	/**
+	 * The terms of the rule body which constrain a variable: statements with a constant object, e.g. (?y rdf:type
+	 * manuservice:SoftResource), builtin comparisons, e.g. greaterThan(?creditGrade, 8.0), and statements linking it to another
+	 * variable, e.g. (?x manuservice:hasAddress ?addr).
+	 */
+	static class VariableMatcher {
+		private final List<Node[]> predicateObjects = new ArrayList<>();
+		private final List<Comparison> comparisons = new ArrayList<>();
+		private final List<Link> links = new ArrayList<>();
+
+		void addPredicateObject(final Node predicate, final Node object) {
+			this.predicateObjects.add(new Node[] { predicate, object });
+		}
+
+		void addComparison(final Comparison comparison) {
+			this.comparisons.add(comparison);
+		}
+
+		void addLink(final Node predicate, final boolean outgoing, final VariableMatcher matcher) {
+			this.links.add(new Link(predicate, outgoing, matcher));
+		}
+
+		boolean isConstrained() {
+			return !this.predicateObjects.isEmpty() || !this.links.isEmpty();
+		}
+
+		/**
+		 * @param index
+		 * @return the nodes matching the variable
+		 */
+		Set<Node> findMatches(final TripleIndex index) {
+			final Set<Node> matches = new LinkedHashSet<>();
+			for (final Node candidate : findCandidates(index)) {
+				if (matches(candidate, index)) {
+					matches.add(candidate);
+				}
+			}
+			return matches;
+		}
+
+		/**
+		 * Start from the most selective term: a constant object, else a linked variable which has one, else any statement of a link.
+		 */
+		private Set<Node> findCandidates(final TripleIndex index) {
+			if (!this.predicateObjects.isEmpty()) {
+				final Node[] predicateObject = this.predicateObjects.get(0);
+				return index.listSubjects(predicateObject[0], predicateObject[1]);
+			}
+
+			for (final Link link : this.links) {
+				if (link.matcher.hasPredicateObject()) {
+					final Set<Node> candidates = new LinkedHashSet<>();
+					for (final Node linkedNode : link.matcher.findMatches(index)) {
+						candidates.addAll(link.outgoing ? index.listSubjects(link.predicate, linkedNode) : index.listObjects(linkedNode,
+								link.predicate));
+					}
+					return candidates;
+				}
+			}
+
+			if (this.links.isEmpty()) {
+				return Collections.emptySet();
+			}
+			final Link link = this.links.get(0);
+			return link.outgoing ? index.listSubjects(link.predicate) : index.listObjects(link.predicate);
+		}
+
+		private boolean hasPredicateObject() {
+			if (!this.predicateObjects.isEmpty()) {
+				return true;
+			}
+			for (final Link link : this.links) {
+				if (link.matcher.hasPredicateObject()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		boolean matches(final Node node, final TripleIndex index) {
+			for (final Comparison comparison : this.comparisons) {
+				if (!comparison.holds(node)) {
+					return false;
+				}
+			}
+			for (final Node[] predicateObject : this.predicateObjects) {
+				if (!index.contains(node, predicateObject[0], predicateObject[1])) {
+					return false;
+				}
+			}
+			for (final Link link : this.links) {
+				if (!link.matches(node, index)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * e.g. (?x manuservice:hasAddress ?addr) for ?x, outgoing, or (?org manuservice:hasResource ?y) for ?y, incoming
+	 */
+	private static class Link {
+		private final Node predicate;
+		private final boolean outgoing;
+		private final VariableMatcher matcher;
+
+		Link(final Node predicate, final boolean outgoing, final VariableMatcher matcher) {
+			this.predicate = predicate;
+			this.outgoing = outgoing;
+			this.matcher = matcher;
+		}
+
+		boolean matches(final Node node, final TripleIndex index) {
+			final Set<Node> linkedNodes = this.outgoing ? index.listObjects(node, this.predicate) : index.listSubjects(this.predicate, node);
+			for (final Node linkedNode : linkedNodes) {
+				if (this.matcher.matches(linkedNode, index)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * A builtin comparing the variable to a constant, evaluated like the Jena builtins: numbers compare by value, anything else is equal
+	 * if it has the same value and is never greater or less.
+	 */
+	static class Comparison {
+		private final String builtin;
+		private final Node[] constants;
+		private final boolean variableFirst;
+
+		Comparison(final String builtin, final Node constant, final boolean variableFirst) {
+			this(builtin, new Node[] { constant }, variableFirst);
+		}
+
+		/**
+		 * @param builtin
+		 * @param constants
+		 *            the constant compared to, or for oneOf the constants of which the variable has to be one
+		 * @param variableFirst
+		 */
+		Comparison(final String builtin, final Node[] constants, final boolean variableFirst) {
+			this.builtin = builtin;
+			this.constants = constants;
+			this.variableFirst = variableFirst;
+		}
+
+		boolean holds(final Node node) {
+			if (JenaRuleExpander.ONE_OF.equals(this.builtin)) {
+				for (final Node constant : this.constants) {
+					if (node.sameValueAs(constant)) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			final Node first = this.variableFirst ? node : this.constants[0];
+			final Node second = this.variableFirst ? this.constants[0] : node;
+
+			final Integer order = compareNumbers(first, second);
+			switch (this.builtin) {
+			case JenaRuleCompiler.GREATER_THAN:
+				return order != null && order > 0;
+			case JenaRuleCompiler.LESS_THAN:
+				return order != null && order < 0;
+			case JenaRuleCompiler.EQUAL:
+				return (order == null) ? first.sameValueAs(second) : order == 0;
+			default:
+				return (order == null) ? !first.sameValueAs(second) : order != 0;
+			}
+		}
+
+		/**
+		 * @return the order of the numbers, or null if either node is not a number
+		 */
+		private static Integer compareNumbers(final Node first, final Node second) {
+			if (!first.isLiteral() || !second.isLiteral()) {
+				return null;
+			}
+			final Object firstValue = first.getLiteralValue();
+			final Object secondValue = second.getLiteralValue();
+			if (!(firstValue instanceof Number) || !(secondValue instanceof Number)) {
+				return null;
+			}
+
+			final Number firstNumber = (Number) firstValue;
+			final Number secondNumber = (Number) secondValue;
+			if (isIntegral(firstNumber) && isIntegral(secondNumber)) {
+				return Long.compare(firstNumber.longValue(), secondNumber.longValue());
+			}
+			return Double.compare(firstNumber.doubleValue(), secondNumber.doubleValue());
+		}
+
+		private static boolean isIntegral(final Number number) {
+			return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte
+					|| number instanceof BigInteger || (number instanceof BigDecimal && ((BigDecimal) number).scale() <= 0);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.reasoner.TriplePattern;
+import com.hp.hpl.jena.reasoner.rulesys.BuiltinRegistry;
+import com.hp.hpl.jena.reasoner.rulesys.ClauseEntry;
+import com.hp.hpl.jena.reasoner.rulesys.Functor;
+import com.hp.hpl.jena.reasoner.rulesys.Node_RuleVariable;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OneOfBuiltin;
+
+/**
+ * A statement or a builtin call of a {@link JenaRuleDefinition}.
+ *
+ * <pre>
+ * 	(?x manuservice:hasAddress ?addr)
+ * 	greaterThan(?creditGrade, 8.0)
+ * </pre>
+ */
+public final class JenaRuleClause {
+
+	static {
+		OneOfBuiltin.register();
+	}
+
+	/** null for a statement */
+	private final String builtinName;
+	private final List<JenaRuleTerm> terms;
+
+	private JenaRuleClause(final String builtinName, final List<JenaRuleTerm> terms) {
+		this.builtinName = builtinName;
+		this.terms = Collections.unmodifiableList(terms);
+	}
+
+	/**
+	 * e.g. (?x manuservice:hasAddress ?addr)
+	 *
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 * @return
+	 */
+	public static JenaRuleClause statement(final JenaRuleTerm subject, final JenaRuleTerm predicate, final JenaRuleTerm object) {
+		return new JenaRuleClause(null, Arrays.asList(subject, predicate, object));
+	}
+
+	/**
+	 * e.g. greaterThan(?creditGrade, 8.0)
+	 *
+	 * @param name
+	 * @param arguments
+	 * @return
+	 */
+	public static JenaRuleClause builtin(final String name, final JenaRuleTerm... arguments) {
+		return new JenaRuleClause(name, new ArrayList<>(Arrays.asList(arguments)));
+	}
+
+	public boolean isBuiltin() {
+		return this.builtinName != null;
+	}
+
+	/**
+	 * @return the builtin name, or null for a statement
+	 */
+	public String getBuiltinName() {
+		return this.builtinName;
+	}
+
+	/**
+	 * @return the subject, predicate and object of a statement, or the arguments of a builtin
+	 */
+	public List<JenaRuleTerm> getTerms() {
+		return this.terms;
+	}
+
+	/**
+	 * @param variables
+	 *            the variables of the rule so far, see {@link JenaRuleTerm#toNode(Map)}
+	 * @return
+	 */
+	ClauseEntry toClauseEntry(final Map<String, Node_RuleVariable> variables) {
+		final List<Node> nodes = new ArrayList<>(this.terms.size());
+		for (final JenaRuleTerm term : this.terms) {
+			nodes.add(term.toNode(variables));
+		}
+
+		if (isBuiltin()) {
+			return new Functor(this.builtinName, nodes, BuiltinRegistry.theRegistry);
+		}
+		return new TriplePattern(nodes.get(0), nodes.get(1), nodes.get(2));
+	}
+
+	void appendTo(final StringBuilder text) {
+		if (isBuiltin()) {
+			text.append(this.builtinName);
+		}
+		text.append('(');
+		for (int i = 0; i < this.terms.size(); i++) {
+			if (i > 0) {
+				text.append(isBuiltin() ? ", " : " ");
+			}
+			text.append(this.terms.get(i));
+		}
+		text.append(')');
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof JenaRuleClause)) {
+			return false;
+		}
+		final JenaRuleClause other = (JenaRuleClause) obj;
+		return ((this.builtinName == null) ? other.builtinName == null : this.builtinName.equals(other.builtinName))
+				&& this.terms.equals(other.terms);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * ((this.builtinName == null) ? 0 : this.builtinName.hashCode()) + this.terms.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder text = new StringBuilder(64);
+		appendTo(text);
+		return text.toString();
+	}
+}
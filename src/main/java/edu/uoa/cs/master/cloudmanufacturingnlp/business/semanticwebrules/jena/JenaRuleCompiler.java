@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.reasoner.TriplePattern;
+import com.hp.hpl.jena.reasoner.rulesys.ClauseEntry;
+import com.hp.hpl.jena.reasoner.rulesys.Functor;
+import com.hp.hpl.jena.reasoner.rulesys.Rule;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Compile the rules {@link JenaRulesBuilder#build()} generates into {@link CompiledRule}s, which derive the same statements as the
+ * Jena reasoner with hash lookups over a {@link edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.TripleIndex}.
+ *
+ * <pre>
+ * 	[(?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyB'),
+ * 		(?y rdf:type manuservice:Resource), (?x rdf:type manuservice:BusinessEntity), (?x manuservice:hasAddress ?addr),
+ * 		(?addr manuservice:country 'New Zealand'), (?x manuservice:creditGrade ?creditGrade), greaterThan(?creditGrade, 5.0)]
+ * </pre>
+ *
+ * A rule compiles if it has a single head statement (?x P ?y), its body statements have constant predicates and link its variables
+ * into one tree per head variable, and its builtins compare a variable to constants. Any other rule yields null, for the caller to
+ * fall back to the Jena reasoner.
+ */
+public class JenaRuleCompiler {
+
+	static final String GREATER_THAN = Constants.JenaRules.FACT_NATIVE_GREATER_THAN;
+	static final String LESS_THAN = Constants.JenaRules.FACT_NATIVE_LESS_THAN;
+	static final String EQUAL = Constants.JenaRules.FACT_NATIVE_EQUAL;
+	static final String NOT_EQUAL = Constants.JenaRules.FACT_NATIVE_NOTEQUAL;
+
+	private JenaRuleCompiler() {
+	}
+
+	/**
+	 * @param rule
+	 *            the rule text
+	 * @return the compiled rule, or null if the rule is malformed or of a shape which doesn't compile
+	 */
+	public static CompiledRule compile(final String rule) {
+		try {
+			return compile(JenaInfModelManager.getInstance().parseRules(rule));
+		} catch (final RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param rules
+	 *            the parsed rule text
+	 * @return the compiled rule, or null if it isn't a single rule of a shape which compiles
+	 */
+	public static CompiledRule compile(final List<Rule> rules) {
+		if (rules.size() != 1) {
+			return null;
+		}
+
+		final Rule rule = rules.get(0);
+		if (rule.getHead().length != 1 || !(rule.getHead()[0] instanceof TriplePattern)) {
+			return null;
+		}
+		final TriplePattern head = (TriplePattern) rule.getHead()[0];
+		if (!head.getSubject().isVariable() || head.getPredicate().isVariable() || !head.getObject().isVariable()
+				|| head.getSubject().equals(head.getObject())) {
+			return null;
+		}
+
+		final Map<Node, CompiledRule.VariableMatcher> matchers = new HashMap<>();
+		final Map<Node, List<Link>> links = new HashMap<>();
+		for (final ClauseEntry clause : rule.getBody()) {
+			if (!addTerm(clause, matchers, links)) {
+				return null;
+			}
+		}
+
+		// link the variables into a tree under each head variable
+		final Set<Node> linkedVariables = new HashSet<>();
+		if (!linkTree(head.getSubject(), matchers, links, linkedVariables) || !linkTree(head.getObject(), matchers, links, linkedVariables)
+				|| !linkedVariables.containsAll(matchers.keySet())) {
+			return null;
+		}
+
+		final CompiledRule.VariableMatcher subjectMatcher = matchers.get(head.getSubject());
+		final CompiledRule.VariableMatcher objectMatcher = matchers.get(head.getObject());
+		if (subjectMatcher == null || objectMatcher == null || !subjectMatcher.isConstrained() || !objectMatcher.isConstrained()) {
+			return null;
+		}
+		return new CompiledRule(head.getPredicate(), subjectMatcher, objectMatcher);
+	}
+
+	/**
+	 * @return false if the term is of a kind which doesn't compile
+	 */
+	private static boolean addTerm(final ClauseEntry clause, final Map<Node, CompiledRule.VariableMatcher> matchers,
+			final Map<Node, List<Link>> links) {
+
+		if (clause instanceof Functor) {
+			return addComparison((Functor) clause, matchers);
+		}
+		if (!(clause instanceof TriplePattern)) {
+			return false;
+		}
+
+		final TriplePattern pattern = (TriplePattern) clause;
+		final Node subject = pattern.getSubject();
+		final Node object = pattern.getObject();
+		if (!subject.isVariable() || pattern.getPredicate().isVariable() || Functor.isFunctor(object)) {
+			return false;
+		}
+
+		if (!object.isVariable()) {
+			getMatcher(subject, matchers).addPredicateObject(pattern.getPredicate(), object);
+			return true;
+		}
+		if (subject.equals(object)) {
+			return false;
+		}
+
+		getMatcher(subject, matchers);
+		getMatcher(object, matchers);
+		getLinks(subject, links).add(new Link(pattern.getPredicate(), object, true));
+		getLinks(object, links).add(new Link(pattern.getPredicate(), subject, false));
+		return true;
+	}
+
+	/**
+	 * e.g. greaterThan(?creditGrade, 8.0), or oneOf(?name, 'CompanyA', 'CompanyB')
+	 */
+	private static boolean addComparison(final Functor functor, final Map<Node, CompiledRule.VariableMatcher> matchers) {
+		final String name = functor.getName();
+		final Node[] args = functor.getArgs();
+		for (final Node arg : args) {
+			if (Functor.isFunctor(arg)) {
+				return false;
+			}
+		}
+
+		if (JenaRuleExpander.ONE_OF.equals(name)) {
+			if (args.length < 2 || !args[0].isVariable()) {
+				return false;
+			}
+			for (int i = 1; i < args.length; i++) {
+				if (args[i].isVariable()) {
+					return false;
+				}
+			}
+
+			getMatcher(args[0], matchers).addComparison(
+					new CompiledRule.Comparison(name, Arrays.copyOfRange(args, 1, args.length), true));
+			return true;
+		}
+
+		if (!GREATER_THAN.equals(name) && !LESS_THAN.equals(name) && !EQUAL.equals(name) && !NOT_EQUAL.equals(name)) {
+			return false;
+		}
+		if (args.length != 2 || args[0].isVariable() == args[1].isVariable()) {
+			return false;
+		}
+
+		final boolean variableFirst = args[0].isVariable();
+		final Node variable = variableFirst ? args[0] : args[1];
+		getMatcher(variable, matchers).addComparison(new CompiledRule.Comparison(name, variableFirst ? args[1] : args[0], variableFirst));
+		return true;
+	}
+
+	/**
+	 * Walk the links from the root variable, adding each variable under the one it is first reached from.
+	 *
+	 * @return false if the links form a cycle or reach a variable of another tree
+	 */
+	private static boolean linkTree(final Node root, final Map<Node, CompiledRule.VariableMatcher> matchers,
+			final Map<Node, List<Link>> links, final Set<Node> linkedVariables) {
+
+		if (!linkedVariables.add(root)) {
+			return false;
+		}
+
+		final Set<Link> walkedLinks = new HashSet<>();
+		final Deque<Node> pending = new ArrayDeque<>();
+		pending.add(root);
+		while (!pending.isEmpty()) {
+			final Node variable = pending.poll();
+			for (final Link link : getLinks(variable, links)) {
+				// the same statement seen from the variable it was reached from
+				if (walkedLinks.contains(link.reverse(variable))) {
+					continue;
+				}
+				if (!linkedVariables.add(link.variable)) {
+					return false;
+				}
+				walkedLinks.add(link);
+				matchers.get(variable).addLink(link.predicate, link.outgoing, matchers.get(link.variable));
+				pending.add(link.variable);
+			}
+		}
+		return true;
+	}
+
+	private static CompiledRule.VariableMatcher getMatcher(final Node variable, final Map<Node, CompiledRule.VariableMatcher> matchers) {
+		CompiledRule.VariableMatcher matcher = matchers.get(variable);
+		if (matcher == null) {
+			matcher = new CompiledRule.VariableMatcher();
+			matchers.put(variable, matcher);
+		}
+		return matcher;
+	}
+
+	private static List<Link> getLinks(final Node variable, final Map<Node, List<Link>> links) {
+		List<Link> variableLinks = links.get(variable);
+		if (variableLinks == null) {
+			variableLinks = new ArrayList<>();
+			links.put(variable, variableLinks);
+		}
+		return variableLinks;
+	}
+
+	/**
+	 * A body statement between two variables, seen from one of them.
+	 */
+	private static class Link {
+		private final Node predicate;
+		private final Node variable;
+		private final boolean outgoing;
+
+		Link(final Node predicate, final Node variable, final boolean outgoing) {
+			this.predicate = predicate;
+			this.variable = variable;
+			this.outgoing = outgoing;
+		}
+
+		/**
+		 * @param from
+		 * @return the link seen from the other variable
+		 */
+		Link reverse(final Node from) {
+			return new Link(this.predicate, from, !this.outgoing);
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if (!(object instanceof Link)) {
+				return false;
+			}
+			final Link other = (Link) object;
+			return this.predicate.equals(other.predicate) && this.variable.equals(other.variable) && this.outgoing == other.outgoing;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * this.predicate.hashCode() + this.variable.hashCode()) + (this.outgoing ? 1 : 0);
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.hp.hpl.jena.reasoner.rulesys.ClauseEntry;
+import com.hp.hpl.jena.reasoner.rulesys.Node_RuleVariable;
+import com.hp.hpl.jena.reasoner.rulesys.Rule;
+
+/**
+ * Typed form of a generated Jena rule: the head statement, the body clauses which all have to hold, and the disjunctions of which each
+ * has to hold.
+ *
+ * <pre>
+ * 	(?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyB'),
+ * 		(?y rdf:type manuservice:Resource), (?x rdf:type manuservice:BusinessEntity), ((?x manuservice:name 'CompanyA') or
+ * 		(?x manuservice:name 'CompanyC'))
+ * </pre>
+ *
+ * Since Jena doesn't support disjunction, a definition expands into the rules {@link JenaRuleExpander} makes of it, here a single rule
+ * testing the partner name with oneOf. The rules are built as Jena {@link Rule}s directly; their text is just a rendering of them.
+ */
+public class JenaRuleDefinition {
+
+	private final JenaRuleClause head;
+	private final List<JenaRuleClause> body;
+	private final List<JenaRuleDisjunction> disjunctions;
+
+	/** the expansion, computed on first use; the definition is immutable, so a racing thread computes the same */
+	private volatile List<List<JenaRuleClause>> expansion;
+
+	/**
+	 * @param head
+	 * @param body
+	 * @param disjunctions
+	 *            the disjunctions which all have to hold, or empty
+	 */
+	public JenaRuleDefinition(final JenaRuleClause head, final List<JenaRuleClause> body, final List<JenaRuleDisjunction> disjunctions) {
+		this.head = head;
+		this.body = Collections.unmodifiableList(new ArrayList<>(body));
+		this.disjunctions = Collections.unmodifiableList(new ArrayList<>(disjunctions));
+	}
+
+	public JenaRuleClause getHead() {
+		return this.head;
+	}
+
+	public List<JenaRuleClause> getBody() {
+		return this.body;
+	}
+
+	public List<JenaRuleDisjunction> getDisjunctions() {
+		return this.disjunctions;
+	}
+
+	/**
+	 * @return the body clauses of each rule the definition expands into
+	 */
+	public List<List<JenaRuleClause>> expand() {
+		List<List<JenaRuleClause>> bodies = this.expansion;
+		if (bodies == null) {
+			bodies = Collections.unmodifiableList(JenaRuleExpander.expand(this.head, this.body, this.disjunctions));
+			this.expansion = bodies;
+		}
+		return bodies;
+	}
+
+	/**
+	 * @return the backward rules the definition expands into
+	 */
+	public List<Rule> toRules() {
+		final List<List<JenaRuleClause>> bodies = expand();
+		final List<Rule> rules = new ArrayList<>(bodies.size());
+		for (final List<JenaRuleClause> clauses : bodies) {
+			rules.add(toRule(clauses));
+		}
+		return rules;
+	}
+
+	/**
+	 * e.g. "(?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyB')]"
+	 *
+	 * @return the texts of the rules the definition expands into, in the same order as {@link #toRules()}
+	 */
+	public String[] toStrings() {
+		final List<List<JenaRuleClause>> bodies = expand();
+		final String[] rules = new String[bodies.size()];
+		for (int i = 0; i < rules.length; i++) {
+			rules[i] = toString(bodies.get(i));
+		}
+		return rules;
+	}
+
+	private Rule toRule(final List<JenaRuleClause> clauses) {
+		// number the variables in order of appearance, head first, as the rule parser does
+		final Map<String, Node_RuleVariable> variables = new HashMap<>();
+
+		final List<ClauseEntry> headEntries = Collections.singletonList(this.head.toClauseEntry(variables));
+		final List<ClauseEntry> bodyEntries = new ArrayList<>(clauses.size());
+		for (final JenaRuleClause clause : clauses) {
+			bodyEntries.add(clause.toClauseEntry(variables));
+		}
+
+		final Rule rule = new Rule(null, headEntries, bodyEntries);
+		rule.setBackward(true);
+		rule.setNumVars(variables.size());
+		return rule;
+	}
+
+	private String toString(final List<JenaRuleClause> clauses) {
+		final StringBuilder text = new StringBuilder(1024);
+		this.head.appendTo(text);
+		text.append(" <- ");
+		for (int i = 0; i < clauses.size(); i++) {
+			if (i > 0) {
+				text.append(", ");
+			}
+			clauses.get(i).appendTo(text);
+		}
+		return text.append(']').toString();
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder text = new StringBuilder(1024);
+		for (final String rule : toStrings()) {
+			text.append(rule).append('\n');
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Alternatives of which one has to hold for a {@link JenaRuleDefinition} to hold, each of them a conjunction of clauses.
+ *
+ * <pre>
+ * 	((?x manuservice:name 'CompanyA') or (?x manuservice:name 'CompanyB'))
+ * </pre>
+ */
+public final class JenaRuleDisjunction {
+
+	private final List<List<JenaRuleClause>> alternatives;
+
+	/**
+	 * @param alternatives
+	 *            the conjunctions of which one has to hold
+	 */
+	public JenaRuleDisjunction(final List<List<JenaRuleClause>> alternatives) {
+		final List<List<JenaRuleClause>> copies = new ArrayList<>(alternatives.size());
+		for (final List<JenaRuleClause> alternative : alternatives) {
+			copies.add(Collections.unmodifiableList(new ArrayList<>(alternative)));
+		}
+		this.alternatives = Collections.unmodifiableList(copies);
+	}
+
+	/**
+	 * @param clauses
+	 *            the clauses of which one has to hold, e.g. the names of the partners
+	 * @return
+	 */
+	public static JenaRuleDisjunction of(final List<JenaRuleClause> clauses) {
+		final List<List<JenaRuleClause>> alternatives = new ArrayList<>(clauses.size());
+		for (final JenaRuleClause clause : clauses) {
+			alternatives.add(Collections.singletonList(clause));
+		}
+		return new JenaRuleDisjunction(alternatives);
+	}
+
+	public List<List<JenaRuleClause>> getAlternatives() {
+		return this.alternatives;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder text = new StringBuilder(256).append('(');
+		for (int i = 0; i < this.alternatives.size(); i++) {
+			if (i > 0) {
+				text.append(" or ");
+			}
+			text.append(this.alternatives.get(i));
+		}
+		return text.append(')').toString();
+	}
+}
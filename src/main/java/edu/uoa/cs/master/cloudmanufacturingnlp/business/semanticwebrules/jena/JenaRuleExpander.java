@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Expand the disjunctions of a {@link JenaRuleDefinition} into the bodies of plain Jena rules, i.e. into disjunctive normal form.
+ *
+ * Before multiplying the disjunctions out, the expansion drops the duplicate clauses and alternatives, and the alternatives implied by
+ * another one, e.g. (A) or (A and B) is A, and it factors the clauses every alternative shares into the common body. A disjunction of
+ * the same statement with different constant objects becomes a single membership test, so that a list of partners costs one rule
+ * rather than a rule per partner:
+ *
+ * <pre>
+ * 	(?x manuservice:name 'CompanyA') or (?x manuservice:name 'CompanyB') or (?x manuservice:name 'CompanyE')
+ * 	=>
+ * 	(?x manuservice:name ?name), oneOf(?name, 'CompanyA', 'CompanyB', 'CompanyE')
+ * </pre>
+ */
+public class JenaRuleExpander {
+
+	static final String ONE_OF = Constants.JenaRules.FACT_NATIVE_ONE_OF;
+
+	private JenaRuleExpander() {
+	}
+
+	/**
+	 * @param head
+	 * @param body
+	 *            the clauses which all have to hold
+	 * @param disjunctions
+	 *            the disjunctions which all have to hold; a disjunction without alternatives is ignored
+	 * @return the body clauses of each rule the definition expands into
+	 */
+	public static List<List<JenaRuleClause>> expand(final JenaRuleClause head, final List<JenaRuleClause> body,
+			final List<JenaRuleDisjunction> disjunctions) {
+
+		final Set<JenaRuleClause> common = new LinkedHashSet<>(body);
+
+		// factor the shared clauses out, and the disjunctions which are left with a single alternative
+		final List<List<Set<JenaRuleClause>>> groups = new ArrayList<>(disjunctions.size());
+		for (final JenaRuleDisjunction disjunction : disjunctions) {
+			if (disjunction.getAlternatives().isEmpty()) {
+				continue;
+			}
+
+			final List<Set<JenaRuleClause>> alternatives = simplify(disjunction.getAlternatives(), common);
+			if (alternatives == null) {
+				continue;
+			}
+
+			common.addAll(intersect(alternatives));
+			if (alternatives.size() == 1) {
+				common.addAll(alternatives.get(0));
+			} else {
+				groups.add(alternatives);
+			}
+		}
+
+		// with all the common clauses known, turn the lists of constants into membership tests
+		final Set<String> variables = collectVariables(head, common, groups);
+		final Set<Set<Set<JenaRuleClause>>> distinctGroups = new HashSet<>();
+		final List<List<Set<JenaRuleClause>>> remainingGroups = new ArrayList<>(groups.size());
+		for (final List<Set<JenaRuleClause>> group : groups) {
+			final List<Set<JenaRuleClause>> alternatives = simplify(group, common);
+			if (alternatives == null) {
+				continue;
+			}
+			if (alternatives.size() == 1) {
+				common.addAll(alternatives.get(0));
+				continue;
+			}
+			if (!distinctGroups.add(new HashSet<>(alternatives))) {
+				continue;
+			}
+
+			final List<JenaRuleClause> membership = toMembership(alternatives, variables);
+			if (membership != null) {
+				common.addAll(membership);
+			} else {
+				remainingGroups.add(alternatives);
+			}
+		}
+
+		// multiply the other disjunctions out
+		List<Set<JenaRuleClause>> bodies = new ArrayList<>();
+		bodies.add(common);
+		for (final List<Set<JenaRuleClause>> group : remainingGroups) {
+			final List<Set<JenaRuleClause>> expandedBodies = new ArrayList<>(bodies.size() * group.size());
+			for (final Set<JenaRuleClause> expandedBody : bodies) {
+				for (final Set<JenaRuleClause> alternative : group) {
+					final Set<JenaRuleClause> clauses = new LinkedHashSet<>(expandedBody);
+					clauses.addAll(alternative);
+					expandedBodies.add(clauses);
+				}
+			}
+			bodies = expandedBodies;
+		}
+
+		final List<List<JenaRuleClause>> expansion = new ArrayList<>(bodies.size());
+		for (final Set<JenaRuleClause> expandedBody : bodies) {
+			expansion.add(new ArrayList<>(expandedBody));
+		}
+		return expansion;
+	}
+
+	/**
+	 * Drop the clauses which hold anyway, the duplicate alternatives, and the alternatives implied by another one.
+	 *
+	 * @return the alternatives left, or null if one of them holds anyway, and so does the disjunction
+	 */
+	private static List<Set<JenaRuleClause>> simplify(final Collection<? extends Collection<JenaRuleClause>> alternatives,
+			final Set<JenaRuleClause> common) {
+
+		final List<Set<JenaRuleClause>> distinctAlternatives = new ArrayList<>(alternatives.size());
+		for (final Collection<JenaRuleClause> alternative : alternatives) {
+			final Set<JenaRuleClause> clauses = new LinkedHashSet<>(alternative);
+			clauses.removeAll(common);
+			if (clauses.isEmpty()) {
+				return null;
+			}
+			if (!distinctAlternatives.contains(clauses)) {
+				distinctAlternatives.add(clauses);
+			}
+		}
+
+		// (A) or (A and B) is A
+		final List<Set<JenaRuleClause>> simplifiedAlternatives = new ArrayList<>(distinctAlternatives.size());
+		for (final Set<JenaRuleClause> alternative : distinctAlternatives) {
+			boolean implied = false;
+			for (final Set<JenaRuleClause> other : distinctAlternatives) {
+				if (other != alternative && alternative.containsAll(other)) {
+					implied = true;
+					break;
+				}
+			}
+			if (!implied) {
+				simplifiedAlternatives.add(alternative);
+			}
+		}
+		return simplifiedAlternatives;
+	}
+
+	private static Set<JenaRuleClause> intersect(final List<Set<JenaRuleClause>> alternatives) {
+		final Set<JenaRuleClause> shared = new LinkedHashSet<>(alternatives.get(0));
+		for (int i = 1; i < alternatives.size(); i++) {
+			shared.retainAll(alternatives.get(i));
+		}
+		return shared;
+	}
+
+	/**
+	 * e.g. (?x manuservice:name 'CompanyA') or (?x manuservice:name 'CompanyB') => (?x manuservice:name ?name), oneOf(?name, 'CompanyA',
+	 * 'CompanyB')
+	 *
+	 * @return the membership test, or null if the alternatives are not the same statement with different constant objects
+	 */
+	private static List<JenaRuleClause> toMembership(final List<Set<JenaRuleClause>> alternatives, final Set<String> variables) {
+		JenaRuleTerm subject = null;
+		JenaRuleTerm predicate = null;
+		final List<JenaRuleTerm> objects = new ArrayList<>(alternatives.size());
+
+		for (final Set<JenaRuleClause> alternative : alternatives) {
+			if (alternative.size() != 1) {
+				return null;
+			}
+
+			final JenaRuleClause clause = alternative.iterator().next();
+			if (clause.isBuiltin() || clause.getTerms().get(2).isVariable()) {
+				return null;
+			}
+
+			if (subject == null) {
+				subject = clause.getTerms().get(0);
+				predicate = clause.getTerms().get(1);
+			} else if (!subject.equals(clause.getTerms().get(0)) || !predicate.equals(clause.getTerms().get(1))) {
+				return null;
+			}
+			objects.add(clause.getTerms().get(2));
+		}
+
+		final JenaRuleTerm variable = createVariable(predicate, variables);
+		final List<JenaRuleTerm> arguments = new ArrayList<>(objects.size() + 1);
+		arguments.add(variable);
+		arguments.addAll(objects);
+
+		final List<JenaRuleClause> membership = new ArrayList<>(2);
+		membership.add(JenaRuleClause.statement(subject, predicate, variable));
+		membership.add(JenaRuleClause.builtin(ONE_OF, arguments.toArray(new JenaRuleTerm[arguments.size()])));
+		return membership;
+	}
+
+	/**
+	 * @return a variable named after the predicate, e.g. ?name for manuservice:name, which the rule doesn't use yet
+	 */
+	private static JenaRuleTerm createVariable(final JenaRuleTerm predicate, final Set<String> variables) {
+		final String text = predicate.getText();
+		final String localName = text.substring(Math.max(text.lastIndexOf(':'), text.lastIndexOf('#')) + 1).replaceAll("[^A-Za-z0-9_]", "");
+		final String baseName = localName.isEmpty() ? "value" : localName;
+
+		String name = baseName;
+		for (int i = 2; variables.contains("?" + name); i++) {
+			name = baseName + i;
+		}
+		variables.add("?" + name);
+		return JenaRuleTerm.variable(name);
+	}
+
+	private static Set<String> collectVariables(final JenaRuleClause head, final Set<JenaRuleClause> common,
+			final List<List<Set<JenaRuleClause>>> groups) {
+
+		final Set<String> variables = new HashSet<>();
+		addVariables(head, variables);
+		for (final JenaRuleClause clause : common) {
+			addVariables(clause, variables);
+		}
+		for (final List<Set<JenaRuleClause>> group : groups) {
+			for (final Set<JenaRuleClause> alternative : group) {
+				for (final JenaRuleClause clause : alternative) {
+					addVariables(clause, variables);
+				}
+			}
+		}
+		return variables;
+	}
+
+	private static void addVariables(final JenaRuleClause clause, final Set<String> variables) {
+		for (final JenaRuleTerm term : clause.getTerms()) {
+			if (term.isVariable()) {
+				variables.add(term.getText());
+			}
+		}
+	}
+}
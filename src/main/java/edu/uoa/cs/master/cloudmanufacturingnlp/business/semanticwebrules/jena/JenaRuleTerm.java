@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena;
+
+import java.util.Map;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.NodeFactory;
+import com.hp.hpl.jena.reasoner.rulesys.Node_RuleVariable;
+import com.hp.hpl.jena.util.PrintUtil;
+
+/**
+ * A node of a {@link JenaRuleClause}: a variable, a resource name, a quoted literal or a number.
+ *
+ * <pre>
+ * 	?x, manuservice:hasAccessTo, 'New Zealand', 8.0
+ * </pre>
+ *
+ * The terms convert to the same Jena nodes {@link com.hp.hpl.jena.reasoner.rulesys.Rule#parseRules(String)} would make of their text.
+ */
+public final class JenaRuleTerm {
+
+	private enum Kind {
+		VARIABLE, NAME, LITERAL, NUMBER
+	}
+
+	private final Kind kind;
+	private final String text;
+
+	private JenaRuleTerm(final Kind kind, final String text) {
+		this.kind = kind;
+		this.text = text;
+	}
+
+	/**
+	 * @param name
+	 *            e.g. "x" for ?x
+	 * @return
+	 */
+	public static JenaRuleTerm variable(final String name) {
+		return new JenaRuleTerm(Kind.VARIABLE, "?" + name);
+	}
+
+	/**
+	 * @param name
+	 *            e.g. manuservice:hasResource, or a full URI in angle brackets
+	 * @return
+	 */
+	public static JenaRuleTerm name(final String name) {
+		return new JenaRuleTerm(Kind.NAME, name);
+	}
+
+	/**
+	 * @param lexicalForm
+	 *            e.g. New Zealand
+	 * @return
+	 */
+	public static JenaRuleTerm literal(final String lexicalForm) {
+		return new JenaRuleTerm(Kind.LITERAL, lexicalForm);
+	}
+
+	/**
+	 * @param lexicalForm
+	 *            e.g. 8.0
+	 * @return
+	 */
+	public static JenaRuleTerm number(final String lexicalForm) {
+		return new JenaRuleTerm(Kind.NUMBER, lexicalForm);
+	}
+
+	public boolean isVariable() {
+		return this.kind == Kind.VARIABLE;
+	}
+
+	/**
+	 * @return the term as it is written in the rule text, without quotes
+	 */
+	public String getText() {
+		return this.text;
+	}
+
+	/**
+	 * @param variables
+	 *            the variables of the rule so far, indexed in order of appearance; a new variable is added to it
+	 * @return
+	 */
+	Node toNode(final Map<String, Node_RuleVariable> variables) {
+		switch (this.kind) {
+		case VARIABLE:
+			Node_RuleVariable variable = variables.get(this.text);
+			if (variable == null) {
+				variable = new Node_RuleVariable(this.text, variables.size());
+				variables.put(this.text, variable);
+			}
+			return variable;
+
+		case LITERAL:
+			return NodeFactory.createLiteral(this.text, "", false);
+
+		default:
+			return toConstantNode();
+		}
+	}
+
+	/**
+	 * e.g. a name, a number, or an unresolved placeholder like $PRED, which the parser takes for a URI which matches nothing
+	 */
+	private Node toConstantNode() {
+		if (this.text.startsWith("<") && this.text.endsWith(">")) {
+			return NodeFactory.createURI(this.text.substring(1, this.text.length() - 1));
+		}
+
+		final int colon = this.text.indexOf(':');
+		if (colon != -1) {
+			final String uri = PrintUtil.expandQname(this.text);
+			if (uri.equals(this.text) && !isUriScheme(this.text.substring(0, colon))) {
+				throw new RuntimeException("Error: unrecognized qname prefix in rule: " + this.text);
+			}
+			return NodeFactory.createURI(uri);
+		}
+
+		if (isNumber()) {
+			if (this.text.contains(".") && XSDDatatype.XSDfloat.isValid(this.text)) {
+				return NodeFactory.createLiteral(this.text, "", XSDDatatype.XSDfloat);
+			}
+			if (XSDDatatype.XSDint.isValid(this.text)) {
+				return NodeFactory.createLiteral(this.text, "", XSDDatatype.XSDint);
+			}
+			return NodeFactory.createLiteral(this.text, "", false);
+		}
+
+		return NodeFactory.createURI(this.text);
+	}
+
+	private boolean isNumber() {
+		return !this.text.isEmpty()
+				&& (Character.isDigit(this.text.charAt(0)) || (this.text.charAt(0) == '-' && this.text.length() > 1 && Character
+						.isDigit(this.text.charAt(1))));
+	}
+
+	private static boolean isUriScheme(final String prefix) {
+		return "http".equals(prefix) || "urn".equals(prefix) || "file".equals(prefix) || "ftp".equals(prefix) || "mailto".equals(prefix);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof JenaRuleTerm)) {
+			return false;
+		}
+		final JenaRuleTerm other = (JenaRuleTerm) obj;
+		return this.kind == other.kind && this.text.equals(other.text);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.kind.hashCode() + this.text.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return (this.kind == Kind.LITERAL) ? "'" + this.text + "'" : this.text;
+	}
+}
@@ -20,6 +20,8 @@
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -28,27 +30,35 @@ import org.apache.commons.lang3.StringUtils;
 
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologyService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
 
+/**
+ * Assemble the {@link JenaRuleDefinition} of a natural language rule, clause by clause.
+ */
 public class JenaRulesBuilder {
 
 	private final OntologyService ontologyService;
 
-	private String ruleHeadTerm = null;
-	private String hasResource = null;
-	private String resourceType = null;
-	private String resourceName = null;
-	private String organization = null;
-	private String accesserName = null;
-	private final List<String> accesserNameList = new ArrayList<>();
-	private String accesserBaseLocation = null;
-	private String accesserEntityType = null;
-	private String accessCreditGrade = null;
-	private String accessOperationYears = null;
+	private JenaRuleClause ruleHeadTerm = null;
+	private List<JenaRuleClause> hasResource = Collections.emptyList();
+	private JenaRuleClause resourceType = null;
+	private JenaRuleClause resourceName = null;
+	private JenaRuleClause organization = null;
+	private JenaRuleClause accesserName = null;
+	private final List<JenaRuleClause> accesserNameList = new ArrayList<>();
+	private List<JenaRuleClause> accesserBaseLocation = Collections.emptyList();
+	private JenaRuleClause accesserEntityType = null;
+	private List<JenaRuleClause> accessCreditGrade = Collections.emptyList();
+	private List<JenaRuleClause> accessOperationYears = Collections.emptyList();
 
 	public JenaRulesBuilder(final DictionaryService dictionaryService) {
-		this.ontologyService = new OntologyService(dictionaryService);
+		this(dictionaryService, OntologySnapshot.getInstance());
+	}
+
+	public JenaRulesBuilder(final DictionaryService dictionaryService, final OntologySnapshot ontologySnapshot) {
+		this.ontologyService = new OntologyService(dictionaryService, ontologySnapshot);
 	}
 
 	/**
@@ -59,7 +69,7 @@ public class JenaRulesBuilder {
 	 */
 	public JenaRulesBuilder withRuleHeadTerm(final String action) {
 		final String objectProperty_action = this.ontologyService.lookupOntProperty(action);
-		this.ruleHeadTerm = buildRuleFact(Constants.JenaRules.FACT_WITH_RESOURCE_OBJECT, "?x", objectProperty_action, "?y");
+		this.ruleHeadTerm = buildRuleFact("x", objectProperty_action, JenaRuleTerm.variable("y"));
 
 		return this;
 	}
@@ -69,12 +79,12 @@ public class JenaRulesBuilder {
 	 */
 	public JenaRulesBuilder withResourceOwner(final String subject) {
 		final String property_hasResource = this.ontologyService.lookupOntProperty(Constants.Ontology.HAS_RESOURCE);
-		final String fact_hasRes = buildRuleFact(Constants.JenaRules.FACT_WITH_RESOURCE_OBJECT, "?org", property_hasResource, "?y");
+		final JenaRuleClause fact_hasRes = buildRuleFact("org", property_hasResource, JenaRuleTerm.variable("y"));
 
 		final String property_name = this.ontologyService.lookupOntProperty(Constants.Ontology.NAME);
-		final String fact_name = buildRuleFact(Constants.JenaRules.FACT_WITH_LITERAL_OBJECT, "?org", property_name, subject);
+		final JenaRuleClause fact_name = buildRuleFact("org", property_name, literal(subject));
 
-		this.hasResource = fact_hasRes + ", " + fact_name;
+		this.hasResource = Arrays.asList(fact_hasRes, fact_name);
 		return this;
 	}
 
@@ -88,8 +98,7 @@ public class JenaRulesBuilder {
 		final String classResourceType = StringUtils.isBlank(ontologyResourceType) ? Constants.Ontology.RESOURCE : ontologyResourceType;
 		final String class_resourceType = this.ontologyService.lookupOntClass(classResourceType);
 
-		this.resourceType = buildRuleFact(Constants.JenaRules.FACT_WITH_RESOURCE_OBJECT, "?y", Constants.Ontology.RDF_TYPE_USING_PREFIX,
-				class_resourceType);
+		this.resourceType = buildRuleFact("y", Constants.Ontology.RDF_TYPE_USING_PREFIX, resource(class_resourceType));
 
 		return this;
 	}
@@ -102,7 +111,7 @@ public class JenaRulesBuilder {
 	 */
 	public JenaRulesBuilder withResouceName(final String resName) {
 		final String property_name = this.ontologyService.lookupOntProperty(Constants.Ontology.NAME);
-		this.resourceName = buildRuleFact(Constants.JenaRules.FACT_WITH_LITERAL_OBJECT, "?y", property_name, resName);
+		this.resourceName = buildRuleFact("y", property_name, literal(resName));
 		return this;
 	}
 
@@ -114,8 +123,7 @@ public class JenaRulesBuilder {
 	public JenaRulesBuilder withPartnerGeneralInformation() {
 
 		final String class_business_entity = this.ontologyService.lookupOntClass(Constants.Ontology.BUSINESS_ENTITY);
-		this.organization = buildRuleFact(Constants.JenaRules.FACT_WITH_RESOURCE_OBJECT, "?x", Constants.Ontology.RDF_TYPE_USING_PREFIX,
-				class_business_entity);
+		this.organization = buildRuleFact("x", Constants.Ontology.RDF_TYPE_USING_PREFIX, resource(class_business_entity));
 		return this;
 	}
 
@@ -127,14 +135,14 @@ public class JenaRulesBuilder {
 	 */
 	public JenaRulesBuilder withPartnerName(final String subject) {
 		final String property_name = this.ontologyService.lookupOntProperty(Constants.Ontology.NAME);
-		this.accesserName = buildRuleFact(Constants.JenaRules.FACT_WITH_LITERAL_OBJECT, "?x", property_name, subject);
+		this.accesserName = buildRuleFact("x", property_name, literal(subject));
 		return this;
 	}
 
 	public JenaRulesBuilder addPartnerName(final String subject, final String referenceSubject) {
 		final String object = this.ontologyService.lookupObjectByNlObjectAndReferenceObject(subject, referenceSubject);
 		final String property_name = this.ontologyService.lookupOntProperty(Constants.Ontology.NAME);
-		final String name = buildRuleFact(Constants.JenaRules.FACT_WITH_LITERAL_OBJECT, "?x", property_name, object);
+		final JenaRuleClause name = buildRuleFact("x", property_name, literal(object));
 
 		this.accesserNameList.add(name);
 		return this;
@@ -148,7 +156,8 @@ public class JenaRulesBuilder {
 	 * @return
 	 */
 	public JenaRulesBuilder withPartnerBaseLocation(final String baseLocation, final String allowedObj) {
-		this.accesserBaseLocation = buildLocationRules(baseLocation, Tools.removeDashSuffix(allowedObj));
+		final List<JenaRuleClause> locationRules = buildLocationRules(baseLocation, Tools.removeDashSuffix(allowedObj));
+		this.accesserBaseLocation = (locationRules == null) ? Collections.<JenaRuleClause> emptyList() : locationRules;
 		return this;
 	}
 
@@ -162,14 +171,14 @@ public class JenaRulesBuilder {
 	 * @param referenceSubject
 	 * @return
 	 */
-	private String buildLocationRules(final String object, final String referenceSubject) {
+	private List<JenaRuleClause> buildLocationRules(final String object, final String referenceSubject) {
 
 		// look into 1 depth
 		// e.g. New Zealand={manuservice:country=manuservice:CompanyFAdd
 		final Entry<String, String> entry_one = this.ontologyService.lookupPredicateSubjectByObject(object, referenceSubject);
 		if (entry_one != null) {
 			final String realObject = this.ontologyService.lookupObjectByNlObject(object);
-			return buildRuleFact(Constants.JenaRules.FACT_WITH_LITERAL_OBJECT, "?x", entry_one.getKey(), realObject);
+			return Collections.singletonList(buildRuleFact("x", entry_one.getKey(), literal(realObject)));
 		}
 
 		// look into 2 depths
@@ -181,8 +190,8 @@ public class JenaRulesBuilder {
 
 				if (entryResult != null) {
 					final String realObject = this.ontologyService.lookupObjectByNlObject(object);
-					return buildRuleFact(Constants.JenaRules.FACT_WITH_RESOURCE_OBJECT, "?x", entryResult.getKey(), "?addr")
-							+ ", " + buildRuleFact(Constants.JenaRules.FACT_WITH_LITERAL_OBJECT, "?addr", entry_two.getKey(), realObject);
+					return Arrays.asList(buildRuleFact("x", entryResult.getKey(), JenaRuleTerm.variable("addr")),
+							buildRuleFact("addr", entry_two.getKey(), literal(realObject)));
 				}
 			}
 		}
@@ -201,8 +210,7 @@ public class JenaRulesBuilder {
 
 		if (predicateSubject != null) {
 			final String realObject = this.ontologyService.lookupObjectByNlObject(entityType);
-			this.accesserEntityType = buildRuleFact(Constants.JenaRules.FACT_WITH_LITERAL_OBJECT, "?x", predicateSubject.getKey(),
-					realObject);
+			this.accesserEntityType = buildRuleFact("x", predicateSubject.getKey(), literal(realObject));
 		}
 
 		return this;
@@ -217,95 +225,66 @@ public class JenaRulesBuilder {
 	 * @return
 	 */
 	public JenaRulesBuilder withCreditGrade(final String rating, final String comparator, final String thanValue) {
-
 		final String property_rating = this.ontologyService.lookupOntProperty(rating);
-		final String object = "?" + Tools.removePrefix(property_rating);
-
-		this.accessCreditGrade = buildRuleFact(Constants.JenaRules.FACT_WITH_RESOURCE_OBJECT, "?x", property_rating, object)
-				+ ", " + comparator + "(" + object + ", " + thanValue + ")";
-
+		this.accessCreditGrade = buildComparisonRules(property_rating, comparator, thanValue);
 		return this;
 	}
 
 	public JenaRulesBuilder withOperationYears(final String years, final String comparator, final String thanValue) {
 		final String property_years = this.ontologyService.lookupOntProperty(years);
-		final String object = "?" + Tools.removePrefix(property_years);
-
-		this.accessOperationYears = buildRuleFact(Constants.JenaRules.FACT_WITH_RESOURCE_OBJECT, "?x", property_years, object)
-				+ ", " + comparator + "(" + object + ", " + thanValue + ")";
-
+		this.accessOperationYears = buildComparisonRules(property_years, comparator, thanValue);
 		return this;
 	}
 
-	private String buildRuleFact(final String ruleTemplate, final String subject, final String predicate, final String object) {
+	/**
+	 * e.g. (?x manuservice:yearsInOperation ?yearsInOperation), greaterThan(?yearsInOperation, 6)
+	 */
+	private List<JenaRuleClause> buildComparisonRules(final String property, final String comparator, final String thanValue) {
+		final JenaRuleTerm object = JenaRuleTerm.variable(Tools.removePrefix(property));
 
-		String ruleFact = ruleTemplate;
-		if (subject != null) {
-			ruleFact = ruleFact.replace(Constants.Param.SUBJECT, subject);
-		}
-		if (predicate != null) {
-			ruleFact = ruleFact.replace(Constants.Param.PREDICATE, predicate);
-		}
-		if (object != null) {
-			ruleFact = ruleFact.replace(Constants.Param.OBJECT, object);
-		}
-		return ruleFact;
+		return Arrays.asList(buildRuleFact("x", property, object),
+				JenaRuleClause.builtin(comparator, object, JenaRuleTerm.number(thanValue)));
 	}
 
-	public String build() {
-		final StringBuilder jenaFactors = new StringBuilder(1024);
-
-		if (!StringUtils.isBlank(this.ruleHeadTerm)) {
-			jenaFactors.append(this.ruleHeadTerm).append(" <- ");
-		}
-
-		if (!StringUtils.isEmpty(this.hasResource)) {
-			jenaFactors.append(this.hasResource).append(", ");
-		}
-
-		if (!StringUtils.isEmpty(this.resourceType)) {
-			jenaFactors.append(this.resourceType).append(", ");
-		}
-
-		if (!StringUtils.isEmpty(this.resourceName)) {
-			jenaFactors.append(this.resourceName).append(", ");
-		}
-
-		if (!StringUtils.isEmpty(this.organization)) {
-			jenaFactors.append(this.organization).append(", ");
-		}
+	/**
+	 * An unresolved predicate or object is left as its placeholder, so that the clause matches nothing.
+	 */
+	private static JenaRuleClause buildRuleFact(final String subject, final String predicate, final JenaRuleTerm object) {
+		return JenaRuleClause.statement(JenaRuleTerm.variable(subject),
+				JenaRuleTerm.name((predicate == null) ? Constants.Param.PREDICATE : predicate), object);
+	}
 
-		if (!StringUtils.isEmpty(this.accesserName)) {
-			jenaFactors.append(this.accesserName).append(", ");
-		}
+	private static JenaRuleTerm resource(final String object) {
+		return JenaRuleTerm.name((object == null) ? Constants.Param.OBJECT : object);
+	}
 
-		if (!this.accesserNameList.isEmpty()) {
-			// since Jena doesn't support logic disjunction, only temporarily assemble factors with disjunctions, need to remove them in the
-			// end
-			jenaFactors.append(Constants.Param.JENA_DISJUNCTION_START).append(" ");
+	private static JenaRuleTerm literal(final String object) {
+		return JenaRuleTerm.literal((object == null) ? Constants.Param.OBJECT : object);
+	}
 
-			for (final String name : this.accesserNameList) {
-				jenaFactors.append(name).append(" ").append(Constants.Param.JENA_DISJUNCTION).append(" ");
-			}
-			jenaFactors.append(Constants.Param.JENA_DISJUNCTION_END).append(" ");
-		}
+	public JenaRuleDefinition build() {
+		final List<JenaRuleClause> body = new ArrayList<>(16);
 
-		if (!StringUtils.isEmpty(this.accesserBaseLocation)) {
-			jenaFactors.append(this.accesserBaseLocation).append(", ");
-		}
+		body.addAll(this.hasResource);
+		addIfPresent(body, this.resourceType);
+		addIfPresent(body, this.resourceName);
+		addIfPresent(body, this.organization);
+		addIfPresent(body, this.accesserName);
+		body.addAll(this.accesserBaseLocation);
+		addIfPresent(body, this.accesserEntityType);
+		body.addAll(this.accessCreditGrade);
+		body.addAll(this.accessOperationYears);
 
-		if (!StringUtils.isEmpty(this.accesserEntityType)) {
-			jenaFactors.append(this.accesserEntityType).append(", ");
-		}
+		// one of the partner names has to match
+		final List<JenaRuleDisjunction> disjunctions = this.accesserNameList.isEmpty() ? Collections.<JenaRuleDisjunction> emptyList()
+				: Collections.singletonList(JenaRuleDisjunction.of(this.accesserNameList));
 
-		if (!StringUtils.isEmpty(this.accessCreditGrade)) {
-			jenaFactors.append(this.accessCreditGrade).append(", ");
-		}
+		return new JenaRuleDefinition(this.ruleHeadTerm, body, disjunctions);
+	}
 
-		if (!StringUtils.isEmpty(this.accessOperationYears)) {
-			jenaFactors.append(this.accessOperationYears).append(", ");
+	private static void addIfPresent(final List<JenaRuleClause> body, final JenaRuleClause clause) {
+		if (clause != null) {
+			body.add(clause);
 		}
-
-		return jenaFactors.toString();
 	}
 }
@@ -19,44 +19,61 @@
  */
 package edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.hp.hpl.jena.reasoner.rulesys.Rule;
+
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyRelation;
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.NlpHelper;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
-import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
 
 public class JenaRulesProcessor {
 
-	/** triples, action, subject, and object of a natural sentence */
-	private final Map<String, Map<String, String>> triples;
-	private final String action;
-	private String subject;
-	private String object;
+	/** dependencies, action, subject, and object of a natural sentence */
+	private final DependencyGraph graph;
+	private final int action;
+	private int subject;
+	private int object;
 
 	private final DictionaryService dictionaryService = new DictionaryService();
 	private final NlpHelper nlpHelper = new NlpHelper(this.dictionaryService);
-	private final JenaRulesBuilder jenaRulesBuilder = new JenaRulesBuilder(this.dictionaryService);
+	private final JenaRulesBuilder jenaRulesBuilder;
+
+	/** the assembled Jena rule */
+	private JenaRuleDefinition jenaRule;
 
-	/** container for parsing Jena rule */
-	private final StringBuffer jenaRule = new StringBuffer(1024);
+	/**
+	 * Constructor.
+	 *
+	 * @param graph
+	 */
+	public JenaRulesProcessor(final DependencyGraph graph) {
+		this(graph, OntologySnapshot.getInstance());
+	}
 
 	/**
 	 * Constructor.
 	 *
-	 * @param triples
-	 * @param action
+	 * @param graph
+	 * @param ontologySnapshot
+	 *            the shared ontology the rule is matched against
 	 */
-	public JenaRulesProcessor(final Map<String, Map<String, String>> triples, final String action) {
-		this.triples = triples;
-		this.action = action;
+	public JenaRulesProcessor(final DependencyGraph graph, final OntologySnapshot ontologySnapshot) {
+		this.graph = graph;
+		this.action = graph.getAction();
+		this.jenaRulesBuilder = new JenaRulesBuilder(this.dictionaryService, ontologySnapshot);
 	}
 
 	/**
-	 * Assemble the Jena rule based on the parsed triples of input natural language rule.
+	 * Assemble the Jena rule based on the parsed dependencies of input natural language rule.
 	 *
 	 * <pre>
 	 * 	Company-B	Share resources with NZ-based companies
@@ -68,27 +85,43 @@ public class JenaRulesProcessor {
 	 * @return String[]
 	 */
 	public String[] assembleRule() {
+		final JenaRuleDefinition ruleDefinition = assembleRuleDefinition();
+
+		final long start = Metrics.getInstance().startStage(Metrics.Stage.FINALISE_RULE);
+		try {
+			return finaliseRule(ruleDefinition);
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.FINALISE_RULE, start);
+		}
+	}
+
+	/**
+	 * Assemble the typed Jena rule, without rendering it as text.
+	 *
+	 * @return
+	 */
+	public JenaRuleDefinition assembleRuleDefinition() {
 
 		// make sure "subject" and "object" is not null
-		validateTriples();
+		validateDependencies();
 
 		// assemble head term and body terms
 		assembleRuleHeadTerm();
 		assembleBodyTerms();
 
-		return finaliseRule();
+		return this.jenaRule;
 	}
 
-	private void validateTriples() {
+	private void validateDependencies() {
 
-		this.subject = this.nlpHelper.lookupDep(this.triples, this.action, Constants.Nlp.NSUBJ);
-		if (StringUtils.isEmpty(this.subject)) {
+		this.subject = this.graph.getDependent(this.action, DependencyRelation.NSUBJ);
+		if (this.subject == DependencyGraph.NONE) {
 			System.out.println(Constants.ErrMsg.NO_SUBJ);
 			throw new RuntimeException(Constants.ErrMsg.NO_SUBJ);
 		}
 
-		this.object = this.nlpHelper.lookupDep(this.triples, this.action, Constants.Nlp.DOBJ);
-		if (StringUtils.isEmpty(this.object)) {
+		this.object = this.graph.getDependent(this.action, DependencyRelation.DOBJ);
+		if (this.object == DependencyGraph.NONE) {
 			System.out.println(Constants.ErrMsg.NO_OBJ);
 			throw new RuntimeException(Constants.ErrMsg.NO_OBJ);
 		}
@@ -104,7 +137,7 @@ public class JenaRulesProcessor {
 	 *
 	 */
 	private void assembleRuleHeadTerm() {
-		this.jenaRulesBuilder.withRuleHeadTerm(this.action);
+		this.jenaRulesBuilder.withRuleHeadTerm(this.graph.getWord(this.action));
 	}
 
 	/**
@@ -117,7 +150,7 @@ public class JenaRulesProcessor {
 	private void assembleBodyTerms() {
 
 		// who has resource, e.g. (?org cm:hasRes ?y), (?org gr:name ?n), equal(?n, "B")
-		this.jenaRulesBuilder.withResourceOwner(Tools.removeDashSuffix(this.subject));
+		this.jenaRulesBuilder.withResourceOwner(this.graph.getWord(this.subject));
 
 		// the type of resource
 		assembleResourceType();
@@ -125,7 +158,12 @@ public class JenaRulesProcessor {
 		// assemble the conditions applied to the user who has access to resource
 		assembleAccessConditions();
 
-		this.jenaRule.append(this.jenaRulesBuilder.build());
+		final long start = Metrics.getInstance().startStage(Metrics.Stage.BUILD);
+		try {
+			this.jenaRule = this.jenaRulesBuilder.build();
+		} finally {
+			Metrics.getInstance().stopStage(Metrics.Stage.BUILD, start);
+		}
 	}
 
 	/**
@@ -137,25 +175,25 @@ public class JenaRulesProcessor {
 	private void assembleResourceType() {
 
 		// general resource
-		if (this.dictionaryService.isSynonym(this.object, Constants.Ontology.RESOURCE)) {
-			final String obj_amod = this.nlpHelper.lookupDep(this.triples, this.object, Constants.Nlp.AMOD);
+		if (this.nlpHelper.isSynonym(this.graph, this.object, Constants.Ontology.RESOURCE)) {
+			final int obj_amod = this.graph.getDependent(this.object, DependencyRelation.AMOD);
 			// hard resources
-			if (!StringUtils.isEmpty(obj_amod)) {
-				this.jenaRulesBuilder.withResouceType(obj_amod);
+			if (obj_amod != DependencyGraph.NONE) {
+				this.jenaRulesBuilder.withResouceType(this.graph.getWord(obj_amod));
 			}
 			// machining resources
 			else {
-				final String obj_nn = this.nlpHelper.lookupDep(this.triples, this.object, Constants.Nlp.NN);
-				this.jenaRulesBuilder.withResouceType(obj_nn);
+				final int obj_nn = this.graph.getDependent(this.object, DependencyRelation.NN);
+				this.jenaRulesBuilder.withResouceType(wordOf(obj_nn));
 			}
 		}
 		// assume the resource is specific, e.g., OKUMA_MP-46V
 		else {
-			final String obj_nn = this.nlpHelper.lookupDep(this.triples, this.object, Constants.Nlp.NN);
-			String resName = Tools.removeDashSuffix(this.object);
+			final int obj_nn = this.graph.getDependent(this.object, DependencyRelation.NN);
+			String resName = this.graph.getWord(this.object);
 
-			if (!StringUtils.isBlank(obj_nn)) {
-				resName = Tools.removeDashSuffix(obj_nn) + "_" + resName;
+			if (obj_nn != DependencyGraph.NONE) {
+				resName = this.graph.getWord(obj_nn) + "_" + resName;
 			}
 			this.jenaRulesBuilder.withResouceName(resName);
 		}
@@ -171,20 +209,20 @@ public class JenaRulesProcessor {
 		this.jenaRulesBuilder.withPartnerGeneralInformation();
 
 		// conditions such as the geography from where the resource can be accessed
-		final String action_prep = this.nlpHelper.lookupDep(this.triples, this.action, Constants.Nlp.PREP);
-		if (!StringUtils.isEmpty(action_prep)) {
-			final String accessLimit_pobj = this.nlpHelper.lookupDep(this.triples, action_prep, Constants.Nlp.POBJ);
-			if (!StringUtils.isEmpty(accessLimit_pobj)) {
+		final int action_prep = this.graph.getDependent(this.action, DependencyRelation.PREP);
+		if (action_prep != DependencyGraph.NONE) {
+			final int accessLimit_pobj = this.graph.getDependent(action_prep, DependencyRelation.POBJ);
+			if (accessLimit_pobj != DependencyGraph.NONE) {
 				assemblePartnerSpecificInformation(action_prep, accessLimit_pobj);
 			}
 		}
 		// sometimes with is parsed as the prep of object rather than that of the action
 		// e.g. CompanyF shares OKUMA MP-46V with private limited companies.
 		else {
-			final String object_prep = this.nlpHelper.lookupDep(this.triples, this.object, Constants.Nlp.PREP);
-			if (!StringUtils.isEmpty(object_prep)) {
-				final String accessLimit_pobj = this.nlpHelper.lookupDep(this.triples, object_prep, Constants.Nlp.POBJ);
-				if (!StringUtils.isEmpty(accessLimit_pobj)) {
+			final int object_prep = this.graph.getDependent(this.object, DependencyRelation.PREP);
+			if (object_prep != DependencyGraph.NONE) {
+				final int accessLimit_pobj = this.graph.getDependent(object_prep, DependencyRelation.POBJ);
+				if (accessLimit_pobj != DependencyGraph.NONE) {
 					assemblePartnerSpecificInformation(object_prep, accessLimit_pobj);
 				}
 			}
@@ -198,66 +236,65 @@ public class JenaRulesProcessor {
 	 *
 	 * @param allowedObj
 	 */
-	private void assemblePartnerSpecificInformation(final String actionPrep, final String allowedObj) {
+	private void assemblePartnerSpecificInformation(final int actionPrep, final int allowedObj) {
 
-		if (!this.dictionaryService.isSynonym(actionPrep, Constants.Nlp.WITH)) {
+		if (!this.nlpHelper.isSynonym(this.graph, actionPrep, Constants.Nlp.WITH)) {
 			return;
 		}
 
-		final String allowedObj_amod = this.nlpHelper.lookupDep(this.triples, allowedObj, Constants.Nlp.AMOD);
+		final int allowedObj_amod = this.graph.getDependent(allowedObj, DependencyRelation.AMOD);
 
 		// share resource within own company
-		if (this.dictionaryService.isSynonym(allowedObj_amod, Constants.Nlp.OWN)) {
-			this.jenaRulesBuilder.withPartnerName(Tools.removeDashSuffix(this.subject));
+		if (this.nlpHelper.isSynonym(this.graph, allowedObj_amod, Constants.Nlp.OWN)) {
+			this.jenaRulesBuilder.withPartnerName(this.graph.getWord(this.subject));
 		}
 		// share resource with the public cloud
-		else if (this.dictionaryService.isSynonym(allowedObj_amod, Constants.Nlp.PUBLIC)) {
+		else if (this.nlpHelper.isSynonym(this.graph, allowedObj_amod, Constants.Nlp.PUBLIC)) {
 			// do nothing;
 		}
 		// share resource with specific companies
-		else if (this.dictionaryService.isSynonym(allowedObj_amod, Constants.Nlp.SPECIFIC)) {
+		else if (this.nlpHelper.isSynonym(this.graph, allowedObj_amod, Constants.Nlp.SPECIFIC)) {
 			assembleCompaniesSpecific(allowedObj);
 		}
 		// share resource with location based companies
-		else if (!StringUtils.isEmpty(allowedObj_amod) && allowedObj_amod.contains(Constants.Nlp.BASED)) {
-			final String baseLocation = this.nlpHelper.getBaseLocation(allowedObj_amod);
+		else if (allowedObj_amod != DependencyGraph.NONE && this.graph.getWord(allowedObj_amod).contains(Constants.Nlp.BASED)) {
+			final String baseLocation = this.nlpHelper.getBaseLocation(this.graph, allowedObj_amod);
 
 			if (!StringUtils.isEmpty(baseLocation)) {
-				this.jenaRulesBuilder.withPartnerBaseLocation(baseLocation, allowedObj);
+				this.jenaRulesBuilder.withPartnerBaseLocation(baseLocation, this.graph.getWord(allowedObj));
 			}
 		}
 		// share resource with other companies
 		else {
-			final List<String> allowedObj_amods = this.nlpHelper.lookupDeps(this.triples, allowedObj,
-					Constants.Nlp.AMOD);
+			final int amodCount = this.graph.getDependentCount(allowedObj, DependencyRelation.AMOD);
 
 			// e.g. private limited company
-			if (allowedObj_amods != null) {
-				String amods = "";
-				for (final String amod : allowedObj_amods) {
-					amods += Tools.removeDashSuffix(amod) + " ";
+			if (amodCount > 0) {
+				final StringBuilder amods = new StringBuilder();
+				for (int i = 0; i < amodCount; i++) {
+					amods.append(this.graph.getWord(this.graph.getDependent(allowedObj, DependencyRelation.AMOD, i))).append(' ');
 				}
-				amods += Tools.removeDashSuffix(allowedObj);
-				this.jenaRulesBuilder.withPartnerEntityType(amods, allowedObj);
+				amods.append(this.graph.getWord(allowedObj));
+				this.jenaRulesBuilder.withPartnerEntityType(amods.toString(), this.graph.getWord(allowedObj));
 			}
 		}
 
 		// share resource with companies with particular credit rating
-		final String allowedObj_vmod = this.nlpHelper.lookupDep(this.triples, allowedObj, Constants.Nlp.VMOD);
+		final int allowedObj_vmod = this.graph.getDependent(allowedObj, DependencyRelation.VMOD);
 
-		if (this.dictionaryService.isSynonym(allowedObj_vmod, Constants.Nlp.HAVING)) {
-			final String having_dobj = this.nlpHelper.lookupDep(this.triples, allowedObj_vmod, Constants.Nlp.DOBJ);
-			if (this.dictionaryService.isSynonym(having_dobj, Constants.Nlp.RATING)) {
+		if (this.nlpHelper.isSynonym(this.graph, allowedObj_vmod, Constants.Nlp.HAVING)) {
+			final int having_dobj = this.graph.getDependent(allowedObj_vmod, DependencyRelation.DOBJ);
+			if (this.nlpHelper.isSynonym(this.graph, having_dobj, Constants.Nlp.RATING)) {
 				assembleCompaniesCreditRating(having_dobj);
 			}
 		}
 
 		// share resource with companies with particular operation years
-		final String allowedObj_prep = this.nlpHelper.lookupDep(this.triples, allowedObj, Constants.Nlp.PREP);
+		final int allowedObj_prep = this.graph.getDependent(allowedObj, DependencyRelation.PREP);
 
-		if (this.dictionaryService.isSynonym(allowedObj_prep, Constants.Nlp.IN)) {
-			final String prep_pobj = this.nlpHelper.lookupDep(this.triples, allowedObj_prep, Constants.Nlp.POBJ);
-			if (this.dictionaryService.isSynonym(prep_pobj, Constants.Nlp.OPERATION)) {
+		if (this.nlpHelper.isSynonym(this.graph, allowedObj_prep, Constants.Nlp.IN)) {
+			final int prep_pobj = this.graph.getDependent(allowedObj_prep, DependencyRelation.POBJ);
+			if (this.nlpHelper.isSynonym(this.graph, prep_pobj, Constants.Nlp.OPERATION)) {
 				assembleCompaniesOperationYears(prep_pobj);
 			}
 		}
@@ -269,23 +306,21 @@ public class JenaRulesProcessor {
 	 *
 	 * @param allowedObj
 	 */
-	private void assembleCompaniesSpecific(final String allowedObj) {
-		final List<String> deps = this.nlpHelper.lookupDeps(this.triples, allowedObj, Constants.Nlp.CONJ);
-
-		if (deps != null) {
-			if (deps.size() == 1) {
-				final String name = Tools.removeDashSuffix(deps.get(0));
-				this.jenaRulesBuilder.withPartnerName(name);
-
-			} else {
-				for (final String dep : deps) {
-					if (Tools.doesMatch(dep, "i.e.")) {
-						continue;
-					}
+	private void assembleCompaniesSpecific(final int allowedObj) {
+		final int conjCount = this.graph.getDependentCount(allowedObj, DependencyRelation.CONJ);
+
+		if (conjCount == 1) {
+			final String name = this.graph.getWord(this.graph.getDependent(allowedObj, DependencyRelation.CONJ));
+			this.jenaRulesBuilder.withPartnerName(name);
 
-					final String name = Tools.removeDashSuffix(dep);
-					this.jenaRulesBuilder.addPartnerName(name, allowedObj);
+		} else {
+			for (int i = 0; i < conjCount; i++) {
+				final String name = this.graph.getWord(this.graph.getDependent(allowedObj, DependencyRelation.CONJ, i));
+				if (name.contains("i.e.")) {
+					continue;
 				}
+
+				this.jenaRulesBuilder.addPartnerName(name, this.graph.getWord(allowedObj));
 			}
 		}
 	}
@@ -295,32 +330,32 @@ public class JenaRulesProcessor {
 	 *
 	 * @param rating
 	 */
-	private void assembleCompaniesCreditRating(final String rating) {
+	private void assembleCompaniesCreditRating(final int rating) {
 		// rating_amod: e.g. "higher", "lower"
-		final String rating_amod = this.nlpHelper.lookupDep(this.triples, rating, Constants.Nlp.AMOD);
-		if (!StringUtils.isEmpty(rating_amod)) {
+		final int rating_amod = this.graph.getDependent(rating, DependencyRelation.AMOD);
+		if (rating_amod != DependencyGraph.NONE) {
 
-			final String rating_amod_prep = this.nlpHelper.lookupDep(this.triples, rating_amod, Constants.Nlp.PREP);
-			if (this.dictionaryService.isSynonym(rating_amod_prep, "than")) {
+			final int rating_amod_prep = this.graph.getDependent(rating_amod, DependencyRelation.PREP);
+			if (this.nlpHelper.isSynonym(this.graph, rating_amod_prep, "than")) {
 
 				String than_value = "";
-				final String than_pobj = this.nlpHelper.lookupDep(this.triples, rating_amod_prep,
-						Constants.Nlp.POBJ);
+				final int than_pobj = this.graph.getDependent(rating_amod_prep, DependencyRelation.POBJ);
 
-				if (!StringUtils.isEmpty(than_pobj)) {
-					than_value = Tools.removeDashSuffix(than_pobj);
+				if (than_pobj != DependencyGraph.NONE) {
+					than_value = this.graph.getWord(than_pobj);
 				}
 
-				if (this.dictionaryService.isSynonym(rating_amod, "higher")) {
-					this.jenaRulesBuilder.withCreditGrade(rating,
+				final String ratingWord = this.graph.getWord(rating);
+				if (this.nlpHelper.isSynonym(this.graph, rating_amod, "higher")) {
+					this.jenaRulesBuilder.withCreditGrade(ratingWord,
 							Constants.JenaRules.FACT_NATIVE_GREATER_THAN, than_value);
 
-				} else if (this.dictionaryService.isSynonym(rating_amod, "lower")) {
-					this.jenaRulesBuilder.withCreditGrade(rating, Constants.JenaRules.FACT_NATIVE_LESS_THAN,
+				} else if (this.nlpHelper.isSynonym(this.graph, rating_amod, "lower")) {
+					this.jenaRulesBuilder.withCreditGrade(ratingWord, Constants.JenaRules.FACT_NATIVE_LESS_THAN,
 							than_value);
 
 				} else {
-					this.jenaRulesBuilder.withCreditGrade(rating, Constants.JenaRules.FACT_NATIVE_EQUAL,
+					this.jenaRulesBuilder.withCreditGrade(ratingWord, Constants.JenaRules.FACT_NATIVE_EQUAL,
 							than_value);
 				}
 			}
@@ -332,29 +367,30 @@ public class JenaRulesProcessor {
 	 *
 	 * @param operation
 	 */
-	private void assembleCompaniesOperationYears(final String operation) {
-		final String operation_prep = this.nlpHelper.lookupDep(this.triples, operation, Constants.Nlp.PREP);
+	private void assembleCompaniesOperationYears(final int operation) {
+		final int operation_prep = this.graph.getDependent(operation, DependencyRelation.PREP);
 
-		if (this.dictionaryService.isSynonym(operation_prep, Constants.Nlp.FOR)) {
-			final String prep_pobj = this.nlpHelper.lookupDep(this.triples, operation_prep, Constants.Nlp.POBJ);
+		if (this.nlpHelper.isSynonym(this.graph, operation_prep, Constants.Nlp.FOR)) {
+			final int prep_pobj = this.graph.getDependent(operation_prep, DependencyRelation.POBJ);
 
-			if (this.dictionaryService.isSynonym(prep_pobj, Constants.Nlp.YEARS)) {
-				final String yearsNum = this.nlpHelper.lookupDep(this.triples, prep_pobj, Constants.Nlp.NUM);
+			if (this.nlpHelper.isSynonym(this.graph, prep_pobj, Constants.Nlp.YEARS)) {
+				final int yearsNum = this.graph.getDependent(prep_pobj, DependencyRelation.NUM);
 
-				if (!StringUtils.isEmpty(yearsNum)) {
-					final String comparison = this.nlpHelper.getComparison(this.triples, yearsNum);
-					final String num = Tools.removeDashSuffix(yearsNum);
+				if (yearsNum != DependencyGraph.NONE) {
+					final int comparison = this.nlpHelper.getComparison(this.graph, yearsNum);
+					final String num = this.graph.getWord(yearsNum);
+					final String years = this.graph.getWord(prep_pobj);
 
-					if (this.dictionaryService.isSynonym(comparison, Constants.Nlp.MORE)) {
-						this.jenaRulesBuilder.withOperationYears(prep_pobj,
+					if (this.nlpHelper.isSynonym(this.graph, comparison, Constants.Nlp.MORE)) {
+						this.jenaRulesBuilder.withOperationYears(years,
 								Constants.JenaRules.FACT_NATIVE_GREATER_THAN, num);
 
-					} else if (this.dictionaryService.isSynonym(comparison, Constants.Nlp.LESS)) {
-						this.jenaRulesBuilder.withOperationYears(prep_pobj,
+					} else if (this.nlpHelper.isSynonym(this.graph, comparison, Constants.Nlp.LESS)) {
+						this.jenaRulesBuilder.withOperationYears(years,
 								Constants.JenaRules.FACT_NATIVE_LESS_THAN, num);
 
 					} else {
-						this.jenaRulesBuilder.withOperationYears(prep_pobj,
+						this.jenaRulesBuilder.withOperationYears(years,
 								Constants.JenaRules.FACT_NATIVE_EQUAL, num);
 					}
 				}
@@ -363,49 +399,29 @@ public class JenaRulesProcessor {
 	}
 
 	/**
-	 * Finalise the Jena rule output. Specifically, split the disjunction factors, which is not supported in Jena, into multiple rules.
+	 * @param token
+	 *            possibly {@link DependencyGraph#NONE}
+	 * @return the word of the token, or null
+	 */
+	private String wordOf(final int token) {
+		return (token == DependencyGraph.NONE) ? null : this.graph.getWord(token);
+	}
+
+	/**
+	 * Finalise the Jena rule output. Specifically, expand the disjunction, which is not supported in Jena, into multiple rules.
 	 *
+	 * The rules are built directly rather than parsed, and cached under their texts, so that reasoning over the texts later parses
+	 * nothing.
+	 *
+	 * @param ruleDefinition
 	 * @return
 	 */
-	private String[] finaliseRule() {
-		String[] jenaRule_ary = null;
-
-		// check the "or" disjunction facts and split them if they exist
-		if (this.jenaRule.indexOf(Constants.Param.JENA_DISJUNCTION) != -1) {
-
-			// parse the disjuntion part of the jena rule
-			final int start = this.jenaRule.indexOf(Constants.Param.JENA_DISJUNCTION_START);
-			final int end = this.jenaRule.indexOf(Constants.Param.JENA_DISJUNCTION_END);
-
-			final String jenaRule_or_str = this.jenaRule.substring(
-					start + Constants.Param.JENA_DISJUNCTION_START.length(), end);
-			final String[] jenaRule_or_ary = jenaRule_or_str.split(Constants.Param.JENA_DISJUNCTION);
-			final String jenaRule_main_str = this.jenaRule.replace(start,
-					end + Constants.Param.JENA_DISJUNCTION_END.length(), "").toString();
-
-			// recompile the jena rule using each of disjunction factors
-			jenaRule_ary = new String[jenaRule_or_ary.length];
-
-			for (int i = 0; i < jenaRule_or_ary.length; i++) {
-				if (StringUtils.isEmpty(jenaRule_or_ary[i]) || StringUtils.isEmpty(jenaRule_or_ary[i].trim())) {
-					continue;
-				}
-
-				final String tmp = jenaRule_main_str + jenaRule_or_ary[i];
-				if (tmp.endsWith(", ")) {
-					jenaRule_ary[i] = tmp.substring(0, tmp.lastIndexOf(", ")) + "]";
-				} else {
-					jenaRule_ary[i] = tmp + "]";
-				}
-			}
-
-		} else {
-			String tmp = this.jenaRule.toString();
-			if (tmp.endsWith(", ")) {
-				tmp = tmp.substring(0, tmp.lastIndexOf(", ")) + "]";
-			}
+	private String[] finaliseRule(final JenaRuleDefinition ruleDefinition) {
+		final String[] jenaRule_ary = ruleDefinition.toStrings();
+		final List<Rule> rules = ruleDefinition.toRules();
 
-			jenaRule_ary = new String[] { tmp };
+		for (int i = 0; i < jenaRule_ary.length; i++) {
+			JenaInfModelManager.getInstance().putParsedRules(jenaRule_ary[i], Collections.singletonList(rules.get(i)));
 		}
 
 		return jenaRule_ary;
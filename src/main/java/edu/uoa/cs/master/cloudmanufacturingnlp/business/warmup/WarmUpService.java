@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.business.warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.JwnlWordNet;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.LocalDictionary;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.StanfordDependencies;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaOntModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.RuleResultCache;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRulesService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
+
+/**
+ * Load the models, dictionaries and ontology up front, in parallel, and then run the warm-up rules through the whole pipeline, so
+ * that the first requests after a deployment don't pay for the lazy initialization.
+ *
+ * The service reports itself ready once the warm-up has finished. It can be disabled with the system property
+ * {@link Constants.Config#WARM_UP_ENABLED}, in which case it is ready right away.
+ */
+public class WarmUpService {
+
+	public interface Status {
+		public final String NOT_STARTED = "not started";
+		public final String WARMING_UP = "warming up";
+		public final String READY = "ready";
+		public final String FAILED = "failed";
+	}
+
+	private volatile String status = Status.NOT_STARTED;
+	private volatile String detail = "";
+
+	/** singleton */
+	private static WarmUpService instance = new WarmUpService();
+
+	private WarmUpService() {
+	}
+
+	public static WarmUpService getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Start the warm-up on a background thread; only the first call has any effect.
+	 */
+	public synchronized void start() {
+		if (!Status.NOT_STARTED.equals(this.status)) {
+			return;
+		}
+
+		if (!Boolean.parseBoolean(System.getProperty(Constants.Config.WARM_UP_ENABLED, "true"))) {
+			this.status = Status.READY;
+			this.detail = "warm-up disabled";
+			return;
+		}
+
+		this.status = Status.WARMING_UP;
+		final Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				warmUp();
+			}
+		}, "warm-up");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Warm up on the calling thread.
+	 */
+	public void warmUp() {
+		this.status = Status.WARMING_UP;
+		final long start = System.currentTimeMillis();
+
+		try {
+			initializeSingletons();
+		} catch (final Exception e) {
+			e.printStackTrace();
+			this.detail = e.getMessage();
+			this.status = Status.FAILED;
+			return;
+		}
+		final long initializedMillis = System.currentTimeMillis() - start;
+
+		final int processedRules = runWarmUpRules();
+
+		this.detail = "initialized in " + initializedMillis + " ms, warmed up with " + processedRules + " rules in "
+				+ (System.currentTimeMillis() - start) + " ms";
+		this.status = Status.READY;
+		System.out.println("Warm-up: " + this.detail);
+	}
+
+	/**
+	 * Initialize the singletons, which load their files and models in their constructors, on one thread each.
+	 */
+	private void initializeSingletons() throws InterruptedException, ExecutionException {
+		final List<Callable<Object>> initializers = new ArrayList<>();
+		initializers.add(new Callable<Object>() {
+			@Override
+			public Object call() {
+				return StanfordDependencies.getInstance();
+			}
+		});
+		initializers.add(new Callable<Object>() {
+			@Override
+			public Object call() {
+				return JwnlWordNet.getInstance();
+			}
+		});
+		initializers.add(new Callable<Object>() {
+			@Override
+			public Object call() {
+				return LocalDictionary.getIntance();
+			}
+		});
+		initializers.add(new Callable<Object>() {
+			@Override
+			public Object call() {
+				return JenaOntModelManager.getInstance();
+			}
+		});
+		initializers.add(new Callable<Object>() {
+			@Override
+			public Object call() {
+				return JenaInfModelManager.getInstance();
+			}
+		});
+		initializers.add(new Callable<Object>() {
+			@Override
+			public Object call() {
+				return OntologySnapshot.getInstance();
+			}
+		});
+
+		final List<Callable<Object>> unrecordedInitializers = new ArrayList<>(initializers.size());
+		for (final Callable<Object> initializer : initializers) {
+			unrecordedInitializers.add(unrecorded(initializer));
+		}
+
+		final ExecutorService executorService = Executors.newFixedThreadPool(initializers.size());
+		try {
+			for (final Future<Object> future : executorService.invokeAll(unrecordedInitializers)) {
+				// rethrows the first initialization error
+				future.get();
+			}
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	/**
+	 * @return the task, run without recording metrics
+	 */
+	private static Callable<Object> unrecorded(final Callable<Object> task) {
+		return new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				Metrics.getInstance().pauseRecording();
+				try {
+					return task.call();
+				} finally {
+					Metrics.getInstance().resumeRecording();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Run the warm-up rules through the whole pipeline, without recording metrics. The rule result cache is emptied before every iteration, so that each one
+	 * goes through parsing and ontology matching again. A rule which fails doesn't fail the warm-up.
+	 *
+	 * @return the number of rules processed
+	 */
+	private int runWarmUpRules() {
+		final List<String> rules = new ArrayList<>();
+		Tools.loadLines(rules, Constants.FilePath.WARM_UP_RULES);
+
+		final int iterations = Math.max(1, Integer.getInteger(Constants.Config.WARM_UP_ITERATIONS, 3));
+		int processedRules = 0;
+
+		Metrics.getInstance().pauseRecording();
+		try {
+			for (int i = 0; i < iterations; i++) {
+				RuleResultCache.getInstance().invalidate();
+
+				for (final String rule : rules) {
+					try {
+						new SemanticWebRulesService().process(rule);
+					} catch (final RuntimeException e) {
+						System.out.println("Warm-up rule failed: " + rule + ": " + e.getMessage());
+					}
+					processedRules++;
+				}
+			}
+		} finally {
+			Metrics.getInstance().resumeRecording();
+		}
+		return processedRules;
+	}
+
+	public boolean isReady() {
+		return Status.READY.equals(this.status);
+	}
+
+	public String getStatus() {
+		return this.status;
+	}
+
+	@Override
+	public String toString() {
+		return this.detail.isEmpty() ? this.status : this.status + ": " + this.detail;
+	}
+}
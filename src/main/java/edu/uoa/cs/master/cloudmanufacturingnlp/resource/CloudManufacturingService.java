@@ -19,14 +19,51 @@
  */
 package edu.uoa.cs.master.cloudmanufacturingnlp.resource;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.hp.hpl.jena.rdf.model.InfModel;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.util.PrintUtil;
 
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.access.AccessService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.access.GrantDelta;
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.dao.JenaRulesDAO;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.JwnlWordNet;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.PcfgDependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.StanfordDependencies;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.TemplateDependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.InferenceMode;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.RuleResultCache;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRuleResult;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRulesBatchService;
 import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRulesService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.warmup.WarmUpService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.BoundedCache;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.PoolStats;
 import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
 
 @Path("/")
@@ -65,6 +102,285 @@ public class CloudManufacturingService {
 		return null;
 	}
 
+	/**
+	 * Generate the Jena rules for a batch of natural language rules, one rule per line.
+	 *
+	 * The response has one line per input line, in input order: the generated Jena rules, or the error of that rule. Blank input lines
+	 * yield blank output lines.
+	 *
+	 * @param naturalLanguageRules
+	 * @return
+	 */
+	@POST
+	@Path("generate-jena-rules-batch")
+	@Consumes(MediaType.TEXT_PLAIN)
+	@Produces(MediaType.TEXT_PLAIN)
+	public String generateJenaRulesBatch(String naturalLanguageRules) {
+
+		String[] lines = (naturalLanguageRules == null) ? new String[0] : naturalLanguageRules.split("\\r?\\n");
+
+		List<String> rules = new ArrayList<String>();
+		for (String line : lines) {
+			if (!StringUtils.isBlank(line)) {
+				rules.add(line);
+			}
+		}
+
+		List<SemanticWebRuleResult> results = SemanticWebRulesBatchService.getInstance().process(rules);
+
+		StringBuilder response = new StringBuilder(1024);
+		int resultIndex = 0;
+		for (String line : lines) {
+			if (!StringUtils.isBlank(line)) {
+				SemanticWebRuleResult result = results.get(resultIndex++);
+				if (result.isSuccessful()) {
+					JenaRulesDAO.getInstance().insertRule(result.getJenaRules());
+					response.append(Tools.getContentFromArray(result.getJenaRules()));
+				} else {
+					response.append(result.getError());
+				}
+			}
+			response.append("\n");
+		}
+		return response.toString();
+	}
+
+	/**
+	 * Generate the Jena rules of a natural language rule and list the statements they infer, e.g. which business entities have access
+	 * to R_AutoCAD1_B.
+	 *
+	 * @param naturalLanguageRule
+	 * @param subject
+	 *            local name or URI of the subject, any subject if empty
+	 * @param property
+	 *            local name or URI of the property, hasAccessTo by default
+	 * @param object
+	 *            local name or URI of the object, any object if empty
+	 * @param mode
+	 *            "fast" (default): the statements only; "explain": each statement followed by its derivation trace
+	 * @return
+	 */
+	@GET
+	@Path("infer")
+	@Produces(MediaType.TEXT_PLAIN)
+	public String infer(@QueryParam("rule") String naturalLanguageRule, @QueryParam("subject") String subject,
+			@QueryParam("property") @DefaultValue("hasAccessTo") String property, @QueryParam("object") String object,
+			@QueryParam("mode") @DefaultValue("fast") String mode) {
+
+		InferenceMode inferenceMode = InferenceMode.fromString(mode);
+		String[] jenaRules = new SemanticWebRulesService().process(naturalLanguageRule);
+		InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRules(jenaRules, inferenceMode);
+
+		StringBuilder response = new StringBuilder(1024);
+		if (inferenceMode == InferenceMode.EXPLAIN) {
+			for (String explanation : JenaInfModelManager.getInstance().explainStatements(infModel, toOntologyUri(subject),
+					toOntologyUri(property), toOntologyUri(object))) {
+				response.append(explanation).append("\n");
+			}
+		} else {
+			for (StmtIterator it = JenaInfModelManager.getInstance().listStatements(infModel, toOntologyUri(subject),
+					toOntologyUri(property), toOntologyUri(object)); it.hasNext();) {
+				response.append(PrintUtil.print(it.nextStatement())).append("\n");
+			}
+		}
+		return response.toString();
+	}
+
+	/**
+	 * e.g. R_AutoCAD1_B or manuservice:R_AutoCAD1_B => http://www.semanticweb.org/yuqianlu/ontologies/2013/10/manuservice#R_AutoCAD1_B
+	 */
+	private String toOntologyUri(String name) {
+		if (StringUtils.isBlank(name) || name.contains("://")) {
+			return name;
+		}
+		return Constants.Ontology.NS_MC + Tools.removePrefix(name.trim());
+	}
+
+	/**
+	 * Serve the stored Jena rules, one rule per line, optionally filtered by the resource owner or the resource.
+	 *
+	 * @param owner
+	 *            e.g. B
+	 * @param resource
+	 *            e.g. R_AutoCAD1_F or SoftResource
+	 * @param offset
+	 * @param limit
+	 * @return
+	 */
+	@GET
+	@Path("jena-rules")
+	@Produces(MediaType.TEXT_PLAIN)
+	public String queryJenaRules(@QueryParam("owner") String owner, @QueryParam("resource") String resource,
+			@QueryParam("offset") @DefaultValue("0") int offset, @QueryParam("limit") @DefaultValue("100") int limit) {
+
+		List<String> rules;
+		if (!StringUtils.isBlank(owner)) {
+			rules = JenaRulesDAO.getInstance().queryRulesByOwner(owner, offset, limit);
+		} else if (!StringUtils.isBlank(resource)) {
+			rules = JenaRulesDAO.getInstance().queryRulesByResource(resource, offset, limit);
+		} else {
+			rules = JenaRulesDAO.getInstance().queryRules(offset, limit);
+		}
+		return StringUtils.join(rules, "\n");
+	}
+
+	@GET
+	@Path("jena-rules/{id}")
+	@Produces(MediaType.TEXT_PLAIN)
+	public Response queryJenaRule(@PathParam("id") long id) {
+		String rule = JenaRulesDAO.getInstance().queryRule(id);
+		if (rule == null) {
+			return Response.status(Status.NOT_FOUND).build();
+		}
+		return Response.ok(rule).build();
+	}
+
+	/**
+	 * Delete a stored Jena rule.
+	 *
+	 * @param id
+	 * @return the access grants revoked or added by the deletion, e.g. "- CompanyA hasAccessTo R_AutoCAD1_B"
+	 */
+	@DELETE
+	@Path("jena-rules/{id}")
+	@Produces(MediaType.TEXT_PLAIN)
+	public Response deleteJenaRule(@PathParam("id") long id) {
+		GrantDelta delta = AccessService.getInstance().deleteRule(id);
+		if (delta == null) {
+			return Response.status(Status.NOT_FOUND).build();
+		}
+		return Response.ok(delta.toString()).build();
+	}
+
+	/**
+	 * Check whether a partner may access a resource under all the stored rules, e.g. partner=CompanyF&resource=R_AutoCAD1_B.
+	 *
+	 * @param partner
+	 * @param resource
+	 * @return "true" or "false"
+	 */
+	@GET
+	@Path("access")
+	@Produces(MediaType.TEXT_PLAIN)
+	public String canAccess(@QueryParam("partner") String partner, @QueryParam("resource") String resource) {
+		return String.valueOf(AccessService.getInstance().canAccess(partner, resource));
+	}
+
+	@GET
+	@Path("access/partners")
+	@Produces(MediaType.TEXT_PLAIN)
+	public String listPartners(@QueryParam("resource") String resource) {
+		return StringUtils.join(AccessService.getInstance().listPartners(resource), "\n");
+	}
+
+	@GET
+	@Path("access/resources")
+	@Produces(MediaType.TEXT_PLAIN)
+	public String listResources(@QueryParam("partner") String partner) {
+		return StringUtils.join(AccessService.getInstance().listResources(partner), "\n");
+	}
+
+	/**
+	 * Add a statement to the ontology the access grants are derived from, e.g. subject=CompanyG&property=rdf:type&object=BusinessEntity
+	 * or subject=CompanyGAdd&property=country&object='New Zealand'.
+	 *
+	 * @param subject
+	 * @param property
+	 * @param object
+	 *            name of a resource, or a quoted literal
+	 * @return the access grants added or revoked, e.g. "+ CompanyG hasAccessTo R_AutoCAD1_B"
+	 */
+	@POST
+	@Path("access/statements")
+	@Produces(MediaType.TEXT_PLAIN)
+	public String addAccessStatement(@QueryParam("subject") String subject, @QueryParam("property") String property,
+			@QueryParam("object") String object) {
+		return AccessService.getInstance().addStatement(subject, property, object).toString();
+	}
+
+	@DELETE
+	@Path("access/statements")
+	@Produces(MediaType.TEXT_PLAIN)
+	public String removeAccessStatement(@QueryParam("subject") String subject, @QueryParam("property") String property,
+			@QueryParam("object") String object) {
+		return AccessService.getInstance().removeStatement(subject, property, object).toString();
+	}
+
+	/**
+	 * Readiness probe: 200 once the warm-up has finished, 503 until then.
+	 *
+	 * @return
+	 */
+	@GET
+	@Path("ready")
+	@Produces(MediaType.TEXT_PLAIN)
+	public Response ready() {
+		WarmUpService warmUpService = WarmUpService.getInstance();
+		Status status = warmUpService.isReady() ? Status.OK : Status.SERVICE_UNAVAILABLE;
+		return Response.status(status).entity(warmUpService.toString()).build();
+	}
+
+	/**
+	 * Report the size, hits, misses and expirations of the rule result cache and of the caches underneath it, and the hit rate of the
+	 * parser's template fast path.
+	 *
+	 * @return
+	 */
+	@GET
+	@Path("cache-stats")
+	@Produces(MediaType.TEXT_PLAIN)
+	public String cacheStats() {
+		StringBuilder response = new StringBuilder(256);
+		response.append("jena rules: ").append(RuleResultCache.getInstance()).append("\n");
+		response.append("ontology objects: ").append(OntologySnapshot.getInstance().getObjectIndex().getResolvedObjectCache()).append("\n");
+		response.append("synonym decisions: ").append(DictionaryService.getSynonymDecisionCache()).append("\n");
+		response.append("wordnet synonym sets: ").append(JwnlWordNet.getInstance().getSynonymSetCache()).append("\n");
+		response.append("reasoners: ").append(JenaInfModelManager.getInstance().getReasonerCache()).append("\n");
+		response.append("parsed rules: ").append(JenaInfModelManager.getInstance().getParsedRuleCache()).append("\n");
+
+		DependencyParserBackend parser = StanfordDependencies.getInstance().getBackend();
+		if (parser instanceof TemplateDependencyParserBackend) {
+			response.append("template fast path: ").append(parser).append("\n");
+		}
+		PoolStats parserPool = getParserPoolStats();
+		if (parserPool != null) {
+			response.append("parser pool: ").append(parserPool).append("\n");
+		}
+		return response.toString();
+	}
+
+	/**
+	 * Expose the stage latencies, the per request isSynonym figures, the throughput and the cache statistics in the Prometheus text
+	 * format.
+	 *
+	 * @return
+	 */
+	@GET
+	@Path("metrics")
+	@Produces("text/plain; version=0.0.4")
+	public String metrics() {
+		Map<String, BoundedCache<?, ?>> caches = new LinkedHashMap<String, BoundedCache<?, ?>>();
+		caches.put("jena_rules", RuleResultCache.getInstance().getJenaRuleCache());
+		caches.put("ontology_objects", OntologySnapshot.getInstance().getObjectIndex().getResolvedObjectCache());
+		caches.put("synonym_decisions", DictionaryService.getSynonymDecisionCache());
+		caches.put("wordnet_synonym_sets", JwnlWordNet.getInstance().getSynonymSetCache());
+		caches.put("reasoners", JenaInfModelManager.getInstance().getReasonerCache());
+		caches.put("parsed_rules", JenaInfModelManager.getInstance().getParsedRuleCache());
+
+		return Metrics.getInstance().toPrometheusText(caches, getParserPoolStats());
+	}
+
+	/**
+	 * @return the statistics of the pool of the PCFG parser, possibly behind the template fast path, or null for another backend
+	 */
+	private static PoolStats getParserPoolStats() {
+		DependencyParserBackend parser = StanfordDependencies.getInstance().getBackend();
+		if (parser instanceof TemplateDependencyParserBackend) {
+			parser = ((TemplateDependencyParserBackend) parser).getFallback();
+		}
+		return (parser instanceof PcfgDependencyParserBackend) ? ((PcfgDependencyParserBackend) parser).getPoolStats() : null;
+	}
+
 	private String generateJenaResponse(String naturalLanguageRule, String jenaRule) {
 		return "<div>The original natural language rule is:<br/>"
 				+ naturalLanguageRule + "<br/><br/>"
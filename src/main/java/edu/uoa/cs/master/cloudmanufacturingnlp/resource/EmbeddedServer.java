@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.resource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.glassfish.jersey.jdkhttp.JdkHttpHandlerContainer;
+import org.glassfish.jersey.server.ContainerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dao.JenaRulesDAO;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.warmup.WarmUpService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Run the REST services without Tomcat, in the HTTP server of the JDK, e.g. from the jar of the standalone profile:
+ *
+ * <pre>
+ * 	mvn -P standalone package
+ * 	java -Dcloudmanufacturingnlp.server.port=8080 -jar target/cloudmanufacturingnlp-1.0.1-standalone.jar
+ * </pre>
+ *
+ * The services are at the same URLs as in the WAR, e.g. http://localhost:8080/cloudmanufacturingnlp/test. The resources are read from
+ * {@link Constants.Config#LOCAL_BASE} when it is set, and from the classpath otherwise, except for the WordNet dictionary, which is a
+ * directory given by {@link Constants.Config#WORDNET_DICTIONARY_PATH}.
+ *
+ * The requests are passed to Jersey by the {@link JdkHttpHandlerContainer} of jersey-container-jdk-http. It is mounted on a server of
+ * our own rather than one from JdkHttpServerFactory, which in this version of Jersey listens on all the addresses, with a thread per
+ * request, and is started as soon as it is created. The container builds the request URI from the Host header, so a request with a
+ * malformed one is answered with 400 before it gets there.
+ */
+public class EmbeddedServer {
+
+	public static final String DEFAULT_CONTEXT_PATH = "/cloudmanufacturingnlp";
+	private static final int DEFAULT_PORT = 8080;
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	/**
+	 * @param host
+	 *            the address to listen on, or null for all of them
+	 * @param port
+	 *            the port, or 0 for any free one
+	 * @param contextPath
+	 *            e.g. /cloudmanufacturingnlp
+	 * @param threads
+	 *            the number of threads serving the requests
+	 * @throws IOException
+	 */
+	public EmbeddedServer(final String host, final int port, final String contextPath, final int threads) throws IOException {
+		final InetSocketAddress address = (host == null) ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+		this.server = HttpServer.create(address, 0);
+		this.executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		this.server.setExecutor(this.executor);
+
+		// the same application as the one web.xml declares
+		final ResourceConfig resourceConfig = new ResourceConfig().packages(EmbeddedServer.class.getPackage().getName());
+		final HttpContext context = this.server.createContext(contextPath,
+				ContainerFactory.createContainer(JdkHttpHandlerContainer.class, resourceConfig));
+		context.getFilters().add(new HostHeaderFilter());
+	}
+
+	public void start() {
+		this.server.start();
+	}
+
+	/**
+	 * Stop accepting requests, and give the ones in progress up to a second to complete.
+	 */
+	public void stop() {
+		this.server.stop(1);
+		this.executor.shutdown();
+	}
+
+	public int getPort() {
+		return this.server.getAddress().getPort();
+	}
+
+	/**
+	 * Answer 400 to a request whose Host header isn't a valid URI authority.
+	 */
+	private static class HostHeaderFilter extends Filter {
+		@Override
+		public void doFilter(final HttpExchange exchange, final Chain chain) throws IOException {
+			final String host = exchange.getRequestHeaders().getFirst("Host");
+			if (host != null) {
+				try {
+					new URI("http://" + host + "/");
+				} catch (final URISyntaxException e) {
+					exchange.sendResponseHeaders(400, -1);
+					exchange.close();
+					return;
+				}
+			}
+			chain.doFilter(exchange);
+		}
+
+		@Override
+		public String description() {
+			return "Rejects the requests with a malformed Host header";
+		}
+	}
+
+	public static void main(final String[] args) throws IOException {
+		final long start = System.currentTimeMillis();
+
+		final String host = System.getProperty(Constants.Config.SERVER_HOST);
+		final int port = Integer.getInteger(Constants.Config.SERVER_PORT, DEFAULT_PORT);
+		final String contextPath = System.getProperty(Constants.Config.SERVER_CONTEXT_PATH, DEFAULT_CONTEXT_PATH);
+		final int threads = Integer.getInteger(Constants.Config.SERVER_THREADS, 2 * Runtime.getRuntime().availableProcessors());
+
+		final EmbeddedServer embeddedServer = new EmbeddedServer(host, port, contextPath, threads);
+		embeddedServer.start();
+
+		// what WarmUpListener does for the WAR
+		WarmUpService.getInstance().start();
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				embeddedServer.stop();
+				JenaRulesDAO.getInstance().close();
+			}
+		});
+
+		System.out.println("Cloud Manufacturing NLP listening on port " + embeddedServer.getPort() + contextPath + ", started in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+}
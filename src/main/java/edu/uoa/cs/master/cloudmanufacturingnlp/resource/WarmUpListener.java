@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.resource;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dao.JenaRulesDAO;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.warmup.WarmUpService;
+
+/**
+ * Start the warm-up as soon as the web application is deployed, and write out the stored rules when it is undeployed.
+ */
+public class WarmUpListener implements ServletContextListener {
+
+	@Override
+	public void contextInitialized(ServletContextEvent event) {
+		WarmUpService.getInstance().start();
+	}
+
+	@Override
+	public void contextDestroyed(ServletContextEvent event) {
+		JenaRulesDAO.getInstance().close();
+	}
+}
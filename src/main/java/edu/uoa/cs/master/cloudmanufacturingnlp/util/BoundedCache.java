@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe, size bounded cache which evicts the least recently used entry, optionally expires entries after a time to live, and
+ * counts its hits, misses and expirations.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class BoundedCache<K, V> {
+
+	private final int maximumSize;
+	private final long timeToLiveMillis;
+	private final Map<K, CacheEntry<V>> entries;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong expiredCount = new AtomicLong();
+
+	public BoundedCache(final int maximumSize) {
+		this(maximumSize, 0);
+	}
+
+	/**
+	 * @param maximumSize
+	 * @param timeToLiveMillis
+	 *            how long an entry stays valid after it is put, or 0 to keep it until evicted
+	 */
+	public BoundedCache(final int maximumSize, final long timeToLiveMillis) {
+		this.maximumSize = Math.max(1, maximumSize);
+		this.timeToLiveMillis = Math.max(0, timeToLiveMillis);
+		this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<K, CacheEntry<V>> eldest) {
+				return size() > BoundedCache.this.maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * @param key
+	 * @return the cached value, or null if there is none or it has expired
+	 */
+	public V get(final K key) {
+		V value = null;
+		synchronized (this.entries) {
+			final CacheEntry<V> entry = this.entries.get(key);
+			if (entry != null) {
+				if (entry.isExpired(System.currentTimeMillis())) {
+					this.entries.remove(key);
+					this.expiredCount.incrementAndGet();
+				} else {
+					value = entry.value;
+				}
+			}
+		}
+
+		if (value == null) {
+			this.missCount.incrementAndGet();
+		} else {
+			this.hitCount.incrementAndGet();
+		}
+		return value;
+	}
+
+	public void put(final K key, final V value) {
+		final long expiresAt = (this.timeToLiveMillis == 0) ? Long.MAX_VALUE : System.currentTimeMillis() + this.timeToLiveMillis;
+		synchronized (this.entries) {
+			this.entries.put(key, new CacheEntry<V>(value, expiresAt));
+		}
+	}
+
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	public long getTimeToLiveMillis() {
+		return this.timeToLiveMillis;
+	}
+
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	public long getExpiredCount() {
+		return this.expiredCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", expired=" + getExpiredCount();
+	}
+
+	private static class CacheEntry<V> {
+		private final V value;
+		private final long expiresAt;
+
+		CacheEntry(final V value, final long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired(final long now) {
+			return now >= this.expiresAt;
+		}
+	}
+}
@@ -21,8 +21,9 @@ package edu.uoa.cs.master.cloudmanufacturingnlp.util;
 
 public class Constants {
 
-	// IMPORTANT: this is the default value for running under tomcat; need to preset appropriately if under other scenarios
-	public static String LOCAL_BASE = FilePath.LOCAL_BASE_TOMCAT;
+	// IMPORTANT: this is the default value for running under tomcat; need to preset appropriately if under other scenarios, e.g. with
+	// -Dcloudmanufacturingnlp.localBase; a resource missing from it is read from the classpath instead
+	public static String LOCAL_BASE = System.getProperty(Config.LOCAL_BASE, FilePath.LOCAL_BASE_TOMCAT);
 
 	public interface Nlp {
 		public final String NSUBJ = "nsubj";
@@ -73,43 +74,73 @@ public class Constants {
 		public final String RESOURCE = "resources";
 	}
 
+	/** placeholders of the names which couldn't be resolved in the rule text */
 	public interface Param {
-		public final String SUBJECT = "$SUBJ";
 		public final String PREDICATE = "$PRED";
 		public final String OBJECT = "$OBJ";
-
-		public final String JENA_DISJUNCTION = "&OR";
-		public final String JENA_DISJUNCTION_START = "$OR_START";
-		public final String JENA_DISJUNCTION_END = "$OR_END";
 	}
 
 	public interface JenaRules {
-		public final String FACT_WITH_RESOURCE_OBJECT = "(" + Constants.Param.SUBJECT + " " + Constants.Param.PREDICATE + " "
-				+ Constants.Param.OBJECT + ")";
-
-		public final String FACT_WITH_LITERAL_OBJECT = "(" + Constants.Param.SUBJECT + " " + Constants.Param.PREDICATE + " '"
-				+ Constants.Param.OBJECT + "')";
-
 		public final String FACT_NATIVE_GREATER_THAN = "greaterThan";
 		public final String FACT_NATIVE_LESS_THAN = "lessThan";
 		public final String FACT_NATIVE_EQUAL = "equal";
 		public final String FACT_NATIVE_NOTEQUAL = "notEqual";
+		public final String FACT_NATIVE_ONE_OF = "oneOf";
 	}
 
 	public interface FilePath {
 
 		public static final String LOCAL_BASE_TOMCAT = "../webapps/cloudmanufacturingnlp/WEB-INF/classes/resource/";
 		public static final String LOCAL_BASE_JAVA = "src/main/resources/resource/";
+		public static final String CLASSPATH_BASE = "resource/";
 
-		public static final String MC_LOCAL = LOCAL_BASE + "cloudontology.owl";
+		public static final String MC_LOCAL = LOCAL_BASE + "cloudOntology.owl";
 		public static final String COUNTRY_CODE = LOCAL_BASE + "countrycode.txt";
 		public static final String WORDNET_PROPERTY = LOCAL_BASE + "file_properties.xml";
+		public static final String WORDNET_DICTIONARY = LOCAL_BASE + "WordNet/3.0/dict";
 		public static final String SYNONYM = LOCAL_BASE + "synonym.txt";
+		public static final String WARM_UP_RULES = LOCAL_BASE + "warmuprules.txt";
+		public static final String DOMAIN_LEXICON = LOCAL_BASE + "domainlexicon.txt";
+		// outside of the webapp, which is replaced on every redeploy
+		public static final String RULE_STORE = System.getProperty("user.home") + "/.cloudmanufacturingnlp/jenarules.log";
+	}
+
+	public interface Config {
+		public final String LOCAL_BASE = "cloudmanufacturingnlp.localBase";
+		public final String WORDNET_DICTIONARY_PATH = "cloudmanufacturingnlp.wordnet.dictionaryPath";
+		public final String ONTOLOGY_PATH = "cloudmanufacturingnlp.ontology.path";
+
+		public final String SERVER_HOST = "cloudmanufacturingnlp.server.host";
+		public final String SERVER_PORT = "cloudmanufacturingnlp.server.port";
+		public final String SERVER_CONTEXT_PATH = "cloudmanufacturingnlp.server.contextPath";
+		public final String SERVER_THREADS = "cloudmanufacturingnlp.server.threads";
+
+		public final String BATCH_POOL_SIZE = "cloudmanufacturingnlp.batch.poolSize";
+		public final String BATCH_CHUNK_SIZE = "cloudmanufacturingnlp.batch.chunkSize";
+		public final String SYNONYM_CACHE_SIZE = "cloudmanufacturingnlp.synonym.cacheSize";
+		public final String ONTOLOGY_CACHE_SIZE = "cloudmanufacturingnlp.ontology.cacheSize";
+		public final String RULE_CACHE_SIZE = "cloudmanufacturingnlp.rule.cacheSize";
+		public final String RULE_CACHE_TTL_MILLIS = "cloudmanufacturingnlp.rule.cacheTtlMillis";
+		public final String REASONER_CACHE_SIZE = "cloudmanufacturingnlp.reasoner.cacheSize";
+
+		public final String PARSER_BACKEND = "cloudmanufacturingnlp.parser.backend";
+		public final String PARSER_POOL_SIZE = "cloudmanufacturingnlp.parser.poolSize";
+		public final String PARSER_POOL_FAIL_FAST = "cloudmanufacturingnlp.parser.failFast";
+		public final String PARSER_POOL_TIMEOUT_MILLIS = "cloudmanufacturingnlp.parser.timeoutMillis";
+		public final String PARSER_PRE_TAG = "cloudmanufacturingnlp.parser.preTag";
+		public final String PARSER_TEMPLATE_FAST_PATH = "cloudmanufacturingnlp.parser.templateFastPath";
+
+		public final String RULE_STORE_PATH = "cloudmanufacturingnlp.ruleStore.path";
+
+		public final String WARM_UP_ENABLED = "cloudmanufacturingnlp.warmUp.enabled";
+		public final String WARM_UP_ITERATIONS = "cloudmanufacturingnlp.warmUp.iterations";
 	}
 
 	public interface ErrMsg {
 		public final String NO_SUBJ = "Error: natural language rule doesn't contain subject";
 		public final String NO_ACTION = "Error: natural language rule doesn't contain action";
 		public final String NO_OBJ = "Error: natural language rule doesn't contain object";
+		public final String PREFIX = "Error: ";
+		public final String PARSER_POOL_SATURATED = "Error: all the parsers are busy, please try again later";
 	}
 }
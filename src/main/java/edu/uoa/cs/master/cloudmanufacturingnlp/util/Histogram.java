@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe distribution of recorded values: the total count and sum, and the quantiles over the most recent samples. Recording takes
+ * no lock, so that the threads recording into the same histogram don't wait for each other.
+ */
+public class Histogram {
+
+	private static final int DEFAULT_RESERVOIR_SIZE = 1024;
+
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+
+	/** ring buffer of the most recent samples, the slot of each sample taken from the count */
+	private final AtomicLongArray reservoir;
+
+	public Histogram() {
+		this(DEFAULT_RESERVOIR_SIZE);
+	}
+
+	public Histogram(final int reservoirSize) {
+		this.reservoir = new AtomicLongArray(Math.max(1, reservoirSize));
+	}
+
+	public void record(final long value) {
+		final long index = this.count.getAndIncrement();
+		this.sum.addAndGet(value);
+		this.reservoir.set((int) (index % this.reservoir.length()), value);
+	}
+
+	/**
+	 * @param quantiles
+	 *            e.g. 0.5, 0.95, 0.99
+	 * @return the nearest-rank value of each quantile over the most recent samples, 0 if nothing has been recorded
+	 */
+	public long[] getQuantiles(final double... quantiles) {
+		// a sample recorded meanwhile may or may not be seen
+		final long[] samples = new long[(int) Math.min(this.count.get(), this.reservoir.length())];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = this.reservoir.get(i);
+		}
+		Arrays.sort(samples);
+
+		final long[] values = new long[quantiles.length];
+		if (samples.length == 0) {
+			return values;
+		}
+		for (int i = 0; i < quantiles.length; i++) {
+			final int rank = (int) Math.ceil(quantiles[i] * samples.length);
+			values[i] = samples[Math.min(samples.length - 1, Math.max(0, rank - 1))];
+		}
+		return values;
+	}
+
+	public long getCount() {
+		return this.count.get();
+	}
+
+	public long getSum() {
+		return this.sum.get();
+	}
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.util;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latency of the stages of rule generation, and per request counts, rendered in the Prometheus text exposition format.
+ *
+ * <pre>
+ * 	long start = Metrics.getInstance().startStage(Metrics.Stage.PARSE);
+ * 	try {
+ * 		...
+ * 	} finally {
+ * 		Metrics.getInstance().stopStage(Metrics.Stage.PARSE, start);
+ * 	}
+ * </pre>
+ *
+ * A stage entered again on the same thread, e.g. a nested ontology lookup, is only timed once by its outermost call. The isSynonym
+ * calls, which are many per request, are only summed up per request. Nothing is recorded on a thread while recording is paused, e.g.
+ * while warming up.
+ */
+public class Metrics {
+
+	public interface Stage {
+		public final String REQUEST = "request";
+		public final String TOKENIZE = "tokenize";
+		public final String TEMPLATE_MATCH = "template_match";
+		public final String POS_TAG = "pos_tag";
+		public final String PARSE = "parse";
+		public final String DEPENDENCY_CONVERSION = "dependency_conversion";
+		public final String IS_SYNONYM = "is_synonym";
+		public final String WORDNET_LOOKUP = "wordnet_lookup";
+		public final String ONTOLOGY_MATCHING = "ontology_matching";
+		public final String BUILD = "build";
+		public final String FINALISE_RULE = "finalise_rule";
+	}
+
+	private static final String PREFIX = "cloudmanufacturingnlp_";
+	private static final double[] QUANTILES = { 0.5, 0.95, 0.99 };
+	private static final double NANOS_PER_SECOND = 1e9;
+	private static final int THROUGHPUT_WINDOW_SECONDS = 60;
+
+	/** singleton */
+	private static Metrics instance = new Metrics();
+
+	private final long startNanos = System.nanoTime();
+
+	private final ConcurrentMap<String, Histogram> stageNanos = new ConcurrentHashMap<>();
+	private final Histogram synonymCallsPerRequest = new Histogram();
+	private final Histogram synonymNanosPerRequest = new Histogram();
+
+	/** requests completed in each of the last seconds, indexed by second modulo the window */
+	private final long[] requestsPerSecond = new long[THROUGHPUT_WINDOW_SECONDS];
+	private final long[] requestSeconds = new long[THROUGHPUT_WINDOW_SECONDS];
+
+	private final ThreadLocal<Set<String>> activeStages = new ThreadLocal<Set<String>>() {
+		@Override
+		protected Set<String> initialValue() {
+			return new HashSet<>();
+		}
+	};
+	private final ThreadLocal<RequestCounts> requestCounts = new ThreadLocal<>();
+	private final ThreadLocal<Boolean> paused = new ThreadLocal<>();
+
+	private Metrics() {
+	}
+
+	public static Metrics getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @param stage
+	 * @return the start time to pass to {@link #stopStage(String, long)}, or -1 if the stage is already being timed on this thread
+	 */
+	public long startStage(final String stage) {
+		if (this.paused.get() != null) {
+			return -1;
+		}
+		return this.activeStages.get().add(stage) ? System.nanoTime() : -1;
+	}
+
+	public void stopStage(final String stage, final long start) {
+		if (start < 0) {
+			return;
+		}
+
+		final long elapsedNanos = System.nanoTime() - start;
+		this.activeStages.get().remove(stage);
+
+		if (Stage.IS_SYNONYM.equals(stage)) {
+			// counted on this thread only, and recorded once per request
+			final RequestCounts counts = this.requestCounts.get();
+			if (counts != null) {
+				counts.synonymCalls++;
+				counts.synonymNanos += elapsedNanos;
+			}
+			return;
+		}
+		getStageHistogram(stage).record(elapsedNanos);
+	}
+
+	/**
+	 * Stop recording on this thread until {@link #resumeRecording()}, e.g. while running the warm-up rules, so that the figures are
+	 * those of the requests served.
+	 */
+	public void pauseRecording() {
+		this.paused.set(Boolean.TRUE);
+		this.activeStages.get().clear();
+		this.requestCounts.remove();
+	}
+
+	public void resumeRecording() {
+		this.paused.remove();
+	}
+
+	/**
+	 * Start counting the per request figures, e.g. the isSynonym calls, on this thread.
+	 * 
+	 * @return the start time to pass to {@link #endRequest(long)}
+	 */
+	public long beginRequest() {
+		if (this.paused.get() != null) {
+			return -1;
+		}
+		this.activeStages.get().clear();
+		this.requestCounts.set(new RequestCounts());
+		return startStage(Stage.REQUEST);
+	}
+
+	public void endRequest(final long start) {
+		if (start < 0) {
+			return;
+		}
+		stopStage(Stage.REQUEST, start);
+
+		final RequestCounts counts = this.requestCounts.get();
+		this.requestCounts.remove();
+		if (counts != null) {
+			this.synonymCallsPerRequest.record(counts.synonymCalls);
+			this.synonymNanosPerRequest.record(counts.synonymNanos);
+		}
+
+		final long second = System.currentTimeMillis() / 1000;
+		final int slot = (int) (second % THROUGHPUT_WINDOW_SECONDS);
+		synchronized (this.requestsPerSecond) {
+			if (this.requestSeconds[slot] != second) {
+				this.requestSeconds[slot] = second;
+				this.requestsPerSecond[slot] = 0;
+			}
+			this.requestsPerSecond[slot]++;
+		}
+	}
+
+	public Histogram getStageHistogram(final String stage) {
+		Histogram histogram = this.stageNanos.get(stage);
+		if (histogram == null) {
+			final Histogram newHistogram = new Histogram();
+			histogram = this.stageNanos.putIfAbsent(stage, newHistogram);
+			if (histogram == null) {
+				histogram = newHistogram;
+			}
+		}
+		return histogram;
+	}
+
+	/**
+	 * @return the requests completed per second, averaged over the last minute
+	 */
+	public double getThroughput() {
+		final long now = System.currentTimeMillis() / 1000;
+		long requests = 0;
+		synchronized (this.requestsPerSecond) {
+			for (int i = 0; i < THROUGHPUT_WINDOW_SECONDS; i++) {
+				// the current second is still incomplete
+				if (this.requestSeconds[i] < now && now - this.requestSeconds[i] <= THROUGHPUT_WINDOW_SECONDS) {
+					requests += this.requestsPerSecond[i];
+				}
+			}
+		}
+		return (double) requests / THROUGHPUT_WINDOW_SECONDS;
+	}
+
+	/**
+	 * Render the metrics in the Prometheus text exposition format (version 0.0.4).
+	 * 
+	 * @param caches
+	 *            named caches to report the size, hits and misses of
+	 * @param parserPool
+	 *            the parser pool to report the checkouts, rejections and waits of, or null
+	 * @return
+	 */
+	public String toPrometheusText(final Map<String, BoundedCache<?, ?>> caches, final PoolStats parserPool) {
+		final StringBuilder text = new StringBuilder(4096);
+
+		final String stageSeconds = PREFIX + "stage_seconds";
+		text.append("# HELP ").append(stageSeconds).append(" Latency of the stages of Jena rule generation.\n");
+		text.append("# TYPE ").append(stageSeconds).append(" summary\n");
+		for (final Entry<String, Histogram> entry : new TreeMap<>(this.stageNanos).entrySet()) {
+			appendSummary(text, stageSeconds, "stage=\"" + entry.getKey() + "\"", entry.getValue(), NANOS_PER_SECOND);
+		}
+
+		final String synonymCalls = PREFIX + "is_synonym_calls_per_request";
+		text.append("# HELP ").append(synonymCalls).append(" Number of isSynonym calls made by a request.\n");
+		text.append("# TYPE ").append(synonymCalls).append(" summary\n");
+		appendSummary(text, synonymCalls, null, this.synonymCallsPerRequest, 1);
+
+		final String synonymSeconds = PREFIX + "is_synonym_seconds_per_request";
+		text.append("# HELP ").append(synonymSeconds).append(" Time a request spent in isSynonym calls.\n");
+		text.append("# TYPE ").append(synonymSeconds).append(" summary\n");
+		appendSummary(text, synonymSeconds, null, this.synonymNanosPerRequest, NANOS_PER_SECOND);
+
+		final String requestsTotal = PREFIX + "requests_total";
+		text.append("# HELP ").append(requestsTotal).append(" Requests processed.\n");
+		text.append("# TYPE ").append(requestsTotal).append(" counter\n");
+		text.append(requestsTotal).append(' ').append(getStageHistogram(Stage.REQUEST).getCount()).append('\n');
+
+		final String throughput = PREFIX + "requests_per_second";
+		text.append("# HELP ").append(throughput).append(" Requests processed per second over the last minute.\n");
+		text.append("# TYPE ").append(throughput).append(" gauge\n");
+		text.append(throughput).append(' ').append(getThroughput()).append('\n');
+
+		final String uptime = PREFIX + "uptime_seconds";
+		text.append("# TYPE ").append(uptime).append(" gauge\n");
+		text.append(uptime).append(' ').append((System.nanoTime() - this.startNanos) / NANOS_PER_SECOND).append('\n');
+
+		if (caches != null && !caches.isEmpty()) {
+			appendCacheMetrics(text, caches);
+		}
+		if (parserPool != null) {
+			appendParserPoolMetrics(text, parserPool);
+		}
+
+		return text.toString();
+	}
+
+	private static void appendSummary(final StringBuilder text, final String name, final String label, final Histogram histogram,
+			final double scale) {
+		final String labelPrefix = (label == null) ? "" : label + ",";
+		final String labels = (label == null) ? "" : "{" + label + "}";
+
+		final long[] values = histogram.getQuantiles(QUANTILES);
+		for (int i = 0; i < QUANTILES.length; i++) {
+			text.append(name).append('{').append(labelPrefix).append("quantile=\"").append(QUANTILES[i]).append("\"} ")
+					.append(values[i] / scale).append('\n');
+		}
+		text.append(name).append("_sum").append(labels).append(' ').append(histogram.getSum() / scale).append('\n');
+		text.append(name).append("_count").append(labels).append(' ').append(histogram.getCount()).append('\n');
+	}
+
+	private static void appendCacheMetrics(final StringBuilder text, final Map<String, BoundedCache<?, ?>> caches) {
+		final String size = PREFIX + "cache_size";
+		text.append("# TYPE ").append(size).append(" gauge\n");
+		for (final Entry<String, BoundedCache<?, ?>> entry : caches.entrySet()) {
+			text.append(size).append("{cache=\"").append(entry.getKey()).append("\"} ").append(entry.getValue().size()).append('\n');
+		}
+
+		final String hits = PREFIX + "cache_hits_total";
+		text.append("# TYPE ").append(hits).append(" counter\n");
+		for (final Entry<String, BoundedCache<?, ?>> entry : caches.entrySet()) {
+			text.append(hits).append("{cache=\"").append(entry.getKey()).append("\"} ").append(entry.getValue().getHitCount())
+					.append('\n');
+		}
+
+		final String misses = PREFIX + "cache_misses_total";
+		text.append("# TYPE ").append(misses).append(" counter\n");
+		for (final Entry<String, BoundedCache<?, ?>> entry : caches.entrySet()) {
+			text.append(misses).append("{cache=\"").append(entry.getKey()).append("\"} ").append(entry.getValue().getMissCount())
+					.append('\n');
+		}
+	}
+
+	private static void appendParserPoolMetrics(final StringBuilder text, final PoolStats parserPool) {
+		final String size = PREFIX + "parser_pool_size";
+		text.append("# HELP ").append(size).append(" Parser queries in the pool.\n");
+		text.append("# TYPE ").append(size).append(" gauge\n");
+		text.append(size).append(' ').append(parserPool.getSize()).append('\n');
+
+		final String checkouts = PREFIX + "parser_pool_checkouts_total";
+		text.append("# HELP ").append(checkouts).append(" Parser queries checked out of the pool.\n");
+		text.append("# TYPE ").append(checkouts).append(" counter\n");
+		text.append(checkouts).append(' ').append(parserPool.getCheckoutCount()).append('\n');
+
+		final String rejections = PREFIX + "parser_pool_rejections_total";
+		text.append("# HELP ").append(rejections).append(" Requests rejected because no parser query became free in time.\n");
+		text.append("# TYPE ").append(rejections).append(" counter\n");
+		text.append(rejections).append(' ').append(parserPool.getRejectionCount()).append('\n');
+
+		final String waitSeconds = PREFIX + "parser_pool_wait_seconds_total";
+		text.append("# HELP ").append(waitSeconds).append(" Time spent waiting for a parser query, rejected or not.\n");
+		text.append("# TYPE ").append(waitSeconds).append(" counter\n");
+		text.append(waitSeconds).append(' ').append(parserPool.getTotalWaitNanos() / NANOS_PER_SECOND).append('\n');
+
+		final String maxWaitSeconds = PREFIX + "parser_pool_wait_seconds_max";
+		text.append("# HELP ").append(maxWaitSeconds).append(" Longest wait for a parser query.\n");
+		text.append("# TYPE ").append(maxWaitSeconds).append(" gauge\n");
+		text.append(maxWaitSeconds).append(' ').append(parserPool.getMaxWaitNanos() / NANOS_PER_SECOND).append('\n');
+	}
+
+	private static class RequestCounts {
+		private long synonymCalls;
+		private long synonymNanos;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe counters of the checkouts from an object pool: how many succeeded, how many were rejected because the pool stayed
+ * empty, and how long the callers waited for them, rejected or not.
+ */
+public class PoolStats {
+
+	private final int size;
+
+	private final AtomicLong checkoutCount = new AtomicLong();
+	private final AtomicLong rejectionCount = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	/**
+	 * @param size
+	 *            the number of objects in the pool
+	 */
+	public PoolStats(final int size) {
+		this.size = size;
+	}
+
+	/**
+	 * @param waitNanos
+	 *            how long the caller waited for the checkout
+	 * @param rejected
+	 *            whether the caller gave up without an object
+	 */
+	public void recordCheckout(final long waitNanos, final boolean rejected) {
+		if (rejected) {
+			this.rejectionCount.incrementAndGet();
+		} else {
+			this.checkoutCount.incrementAndGet();
+		}
+		this.totalWaitNanos.addAndGet(waitNanos);
+
+		long maxNanos = this.maxWaitNanos.get();
+		while (waitNanos > maxNanos && !this.maxWaitNanos.compareAndSet(maxNanos, waitNanos)) {
+			maxNanos = this.maxWaitNanos.get();
+		}
+	}
+
+	public int getSize() {
+		return this.size;
+	}
+
+	public long getCheckoutCount() {
+		return this.checkoutCount.get();
+	}
+
+	public long getRejectionCount() {
+		return this.rejectionCount.get();
+	}
+
+	public long getTotalWaitNanos() {
+		return this.totalWaitNanos.get();
+	}
+
+	public long getMaxWaitNanos() {
+		return this.maxWaitNanos.get();
+	}
+
+	@Override
+	public String toString() {
+		return "size=" + getSize() + ", checkouts=" + getCheckoutCount() + ", rejections=" + getRejectionCount() + ", total wait ms="
+				+ getTotalWaitNanos() / 1000000 + ", max wait ms=" + getMaxWaitNanos() / 1000000;
+	}
+}
@@ -21,8 +21,12 @@ package edu.uoa.cs.master.cloudmanufacturingnlp.util;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -111,12 +115,34 @@ public class Tools {
 		return stringWithoutDash;
 	}
 
+	/**
+	 * Open a resource file, e.g. {@link Constants.FilePath#SYNONYM}. A file missing from {@link Constants#LOCAL_BASE} is read from the
+	 * resource folder on the classpath, so that the resources packaged with the application are found whatever the working directory.
+	 * 
+	 * @param fileName
+	 * @return
+	 * @throws FileNotFoundException
+	 */
+	public static InputStream openResource(String fileName) throws FileNotFoundException {
+		File file = new File(fileName);
+		if (file.isFile()) {
+			return new FileInputStream(file);
+		}
+
+		String resourceName = Constants.FilePath.CLASSPATH_BASE
+				+ (fileName.startsWith(Constants.LOCAL_BASE) ? fileName.substring(Constants.LOCAL_BASE.length()) : file.getName());
+		InputStream in = Tools.class.getClassLoader().getResourceAsStream(resourceName);
+		if (in == null) {
+			throw new FileNotFoundException("Error: neither " + fileName + " nor classpath:" + resourceName + " exists");
+		}
+		return in;
+	}
+
 	public static void loadSynonyms(Map<String, List<String>> synonyms, String fileName) {
 
-		File file = new File(fileName);
 		BufferedReader reader = null;
 		try {
-			reader = new BufferedReader(new FileReader(file));
+			reader = new BufferedReader(new InputStreamReader(openResource(fileName), StandardCharsets.UTF_8));
 			String line = reader.readLine();
 
 			while (null != line) {
@@ -147,12 +173,44 @@ public class Tools {
 		}
 	}
 
+	/**
+	 * Load the non blank lines of a file, skipping the comment lines which start with "/".
+	 * 
+	 * @param lines
+	 * @param fileName
+	 */
+	public static void loadLines(List<String> lines, String fileName) {
+
+		BufferedReader reader = null;
+		try {
+			reader = new BufferedReader(new InputStreamReader(openResource(fileName), StandardCharsets.UTF_8));
+			String line = reader.readLine();
+
+			while (null != line) {
+				if (!line.startsWith("/") && !line.trim().isEmpty()) {
+					lines.add(line.trim());
+				}
+				line = reader.readLine();
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+				reader = null;
+			}
+		}
+	}
+
 	public static void loadCountryCodes(Map<String, String> countryCodeToCountryMap, List<String> countryList, String fileName) {
 
-		File file = new File(fileName);
 		BufferedReader reader = null;
 		try {
-			reader = new BufferedReader(new FileReader(file));
+			reader = new BufferedReader(new InputStreamReader(openResource(fileName), StandardCharsets.UTF_8));
 			String line = reader.readLine();
 
 			while (null != line) {
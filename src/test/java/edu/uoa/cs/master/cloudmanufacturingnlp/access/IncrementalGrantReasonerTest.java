@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.util.PrintUtil;
+import com.hp.hpl.jena.vocabulary.RDF;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.access.AccessGrant;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.access.GrantDelta;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.access.IncrementalGrantReasoner;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * @author pingz
+ *
+ */
+public class IncrementalGrantReasonerTest {
+
+	private static final String NZ_RULE = "[nz: (?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), "
+			+ "(?org manuservice:name 'CompanyB'), (?x rdf:type manuservice:BusinessEntity), (?x manuservice:country 'New Zealand')]";
+	private static final String ALL_RULE = "[all: (?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), "
+			+ "(?org manuservice:name 'CompanyB'), (?x rdf:type manuservice:BusinessEntity)]";
+	/** reads the trustedBy statements which {@link #TRUST_RULE} derives */
+	private static final String TRUSTED_RULE = "[trusted: (?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), "
+			+ "(?org manuservice:name 'CompanyB'), (?x manuservice:trustedBy ?org)]";
+	private static final String TRUST_RULE = "[trust: (?x manuservice:trustedBy ?org) <- (?org manuservice:name 'CompanyB'), "
+			+ "(?x rdf:type manuservice:BusinessEntity), (?x manuservice:country 'New Zealand')]";
+
+	private Model model;
+	private IncrementalGrantReasoner reasoner;
+
+	@Before
+	public void setUp() {
+		PrintUtil.registerPrefix(Constants.Ontology.PREFIX, Constants.Ontology.NS_MC);
+
+		this.model = ModelFactory.createDefaultModel();
+		final Resource companyB = addCompany("CompanyB", "New Zealand");
+		companyB.addProperty(this.model.getProperty(Constants.Ontology.NS_MC + "name"), "CompanyB");
+		companyB.addProperty(this.model.getProperty(Constants.Ontology.NS_MC + "hasResource"), resource("R_AutoCAD1_B"));
+		addCompany("CompanyA", "New Zealand");
+		addCompany("CompanyC", "China");
+
+		this.reasoner = new IncrementalGrantReasoner(this.model);
+	}
+
+	@Test
+	public void testRulesAddAndRevokeGrants() {
+		assertThat(this.reasoner.addRule(1, NZ_RULE).getAddedGrants()).containsOnly(grant("CompanyA"), grant("CompanyB"));
+
+		// CompanyA and CompanyB are derived by both rules now
+		final GrantDelta allDelta = this.reasoner.addRule(2, ALL_RULE);
+		assertThat(allDelta.getAddedGrants()).containsExactly(grant("CompanyC"));
+		assertThat(this.reasoner.removeRule(1).isEmpty()).isTrue();
+
+		assertThat(this.reasoner.removeRule(2).getRevokedGrants()).containsOnly(grant("CompanyA"), grant("CompanyB"),
+				grant("CompanyC"));
+		assertThat(this.reasoner.getGrants()).isEmpty();
+	}
+
+	@Test
+	public void testStatementsRederiveAffectedRules() {
+		this.reasoner.addRule(1, NZ_RULE);
+
+		final Statement country = this.model.createStatement(resource("CompanyC"), this.model.getProperty(Constants.Ontology.NS_MC
+				+ "country"), "New Zealand");
+		assertThat(this.reasoner.addStatement(country).getAddedGrants()).containsExactly(grant("CompanyC"));
+		assertThat(this.reasoner.addStatement(country).isEmpty()).isTrue();
+
+		final Statement type = this.model.createStatement(resource("CompanyA"), RDF.type, resource("BusinessEntity"));
+		assertThat(this.reasoner.removeStatement(type).getRevokedGrants()).containsExactly(grant("CompanyA"));
+		assertThat(this.reasoner.getGrants()).containsOnly(grant("CompanyB"), grant("CompanyC"));
+	}
+
+	@Test
+	public void testSupportRulesRederiveDependents() {
+		assertThat(this.reasoner.addRule(1, TRUSTED_RULE).isEmpty()).isTrue();
+
+		final GrantDelta supportAdded = this.reasoner.addRule(2, TRUST_RULE);
+		assertThat(supportAdded.getAddedGrants()).containsOnly(grant("CompanyA"), grant("CompanyB"));
+		assertThat(supportAdded.getRevokedGrants()).isEmpty();
+
+		final GrantDelta supportRemoved = this.reasoner.removeRule(2);
+		assertThat(supportRemoved.getAddedGrants()).isEmpty();
+		assertThat(supportRemoved.getRevokedGrants()).containsOnly(grant("CompanyA"), grant("CompanyB"));
+		assertThat(this.reasoner.getGrants()).isEmpty();
+
+		// nothing derives from the statement once the support rule is gone
+		final Statement countryB = this.model.createStatement(resource("CompanyB"), this.model.getProperty(Constants.Ontology.NS_MC
+				+ "country"), "New Zealand");
+		assertThat(this.reasoner.removeStatement(countryB).isEmpty()).isTrue();
+
+		this.reasoner.addRule(2, TRUST_RULE);
+		assertThat(this.reasoner.getGrants()).containsOnly(grant("CompanyA"));
+
+		// the statement reaches the grant rule through the support rule
+		final Statement typeA = this.model.createStatement(resource("CompanyA"), RDF.type, resource("BusinessEntity"));
+		final GrantDelta statementRemoved = this.reasoner.removeStatement(typeA);
+		assertThat(statementRemoved.getAddedGrants()).isEmpty();
+		assertThat(statementRemoved.getRevokedGrants()).containsExactly(grant("CompanyA"));
+		assertThat(this.reasoner.getGrants()).isEmpty();
+	}
+
+	private Resource addCompany(final String name, final String country) {
+		final Resource company = resource(name);
+		company.addProperty(RDF.type, resource("BusinessEntity"));
+		company.addProperty(this.model.getProperty(Constants.Ontology.NS_MC + "country"), country);
+		return company;
+	}
+
+	private Resource resource(final String localName) {
+		return this.model.getResource(Constants.Ontology.NS_MC + localName);
+	}
+
+	private static AccessGrant grant(final String partner) {
+		return new AccessGrant(partner, "R_AutoCAD1_B");
+	}
+}
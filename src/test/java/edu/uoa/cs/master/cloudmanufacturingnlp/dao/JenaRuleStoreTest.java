@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dao.JenaRuleRecord;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dao.JenaRuleStore;
+
+/**
+ * @author pingz
+ *
+ */
+public class JenaRuleStoreTest {
+
+	private static final String RULE_B = "[(?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), (?org manuservice:name 'B'), "
+			+ "(?y rdf:type manuservice:SoftResource), (?x rdf:type manuservice:BusinessEntity)]";
+	private static final String RULE_F = "[(?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), (?org manuservice:name 'F'), "
+			+ "(?y manuservice:name 'R_AutoCAD1_F'), (?x rdf:type manuservice:BusinessEntity)]";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testIndexesByOwnerAndResource() throws IOException {
+		final JenaRuleStore store = new JenaRuleStore(new File(this.folder.getRoot(), "jenarules.log"));
+
+		final JenaRuleRecord record = store.insert(RULE_B);
+		store.insert(RULE_F);
+
+		assertThat(record.getOwner()).isEqualTo("B");
+		assertThat(record.getResource()).isEqualTo("SoftResource");
+		assertThat(store.findById(record.getId()).getRule()).isEqualTo(RULE_B);
+		assertThat(store.findByOwner("f", 0, 10)).extracting("rule").containsExactly(RULE_F);
+		assertThat(store.findByResource("r_autocad1_f", 0, 10)).extracting("rule").containsExactly(RULE_F);
+		store.close();
+	}
+
+	@Test
+	public void testPages() throws IOException {
+		final JenaRuleStore store = new JenaRuleStore(new File(this.folder.getRoot(), "jenarules.log"));
+		for (int i = 0; i < 5; i++) {
+			store.insert(RULE_B.replace("SoftResource", "SoftResource" + i));
+		}
+
+		assertThat(store.findAll(0, 2)).extracting("id").containsExactly(1L, 2L);
+		assertThat(store.findAll(4, 2)).extracting("id").containsExactly(5L);
+		assertThat(store.findByOwner("B", 10, 2)).isEmpty();
+		assertThat(store.findAll()).hasSize(5);
+		assertThat(store.getVersion()).isEqualTo(5);
+		store.close();
+	}
+
+	@Test
+	public void testDeletesAndReplaysTombstones() throws IOException {
+		final File logFile = new File(this.folder.getRoot(), "jenarules.log");
+
+		JenaRuleStore store = new JenaRuleStore(logFile);
+		final long id = store.insert(RULE_B).getId();
+		store.insert(RULE_F);
+		assertThat(store.delete(id).getRule()).isEqualTo(RULE_B);
+		assertThat(store.delete(id)).isNull();
+		assertThat(store.findByOwner("B", 0, 10)).isEmpty();
+		assertThat(store.getVersion()).isEqualTo(3);
+		store.close();
+
+		store = new JenaRuleStore(logFile);
+		assertThat(store.findAll()).extracting("rule").containsExactly(RULE_F);
+		assertThat(store.insert(RULE_B).getId()).isEqualTo(3);
+		store.close();
+	}
+
+	@Test
+	public void testReplaysLogOnRestart() throws IOException {
+		final File logFile = new File(this.folder.getRoot(), "jenarules.log");
+
+		JenaRuleStore store = new JenaRuleStore(logFile);
+		store.insert(RULE_B);
+		store.insert(RULE_F);
+		store.close();
+
+		// a line torn by a crash in the middle of a write
+		final FileOutputStream outputStream = new FileOutputStream(logFile, true);
+		outputStream.write("3\t14345".getBytes(StandardCharsets.UTF_8));
+		outputStream.close();
+
+		store = new JenaRuleStore(logFile);
+		assertThat(store.size()).isEqualTo(2);
+		assertThat(store.findByOwner("B", 0, 10)).extracting("rule").containsExactly(RULE_B);
+		assertThat(store.insert(RULE_F.replace("'F'", "'E'")).getId()).isEqualTo(3);
+		store.close();
+	}
+
+	@Test
+	public void testAppendsAfterTornLine() throws IOException {
+		final File logFile = new File(this.folder.getRoot(), "jenarules.log");
+
+		JenaRuleStore store = new JenaRuleStore(logFile);
+		store.insert(RULE_B);
+		store.close();
+
+		final FileOutputStream outputStream = new FileOutputStream(logFile, true);
+		outputStream.write("2\t14345".getBytes(StandardCharsets.UTF_8));
+		outputStream.close();
+
+		store = new JenaRuleStore(logFile);
+		final long id = store.insert(RULE_F).getId();
+		store.close();
+
+		store = new JenaRuleStore(logFile);
+		assertThat(store.findAll()).extracting("rule").containsExactly(RULE_B, RULE_F);
+		assertThat(store.findById(id).getRule()).isEqualTo(RULE_F);
+		store.close();
+	}
+
+	@Test
+	public void testStoresRuleOnce() throws IOException {
+		final File logFile = new File(this.folder.getRoot(), "jenarules.log");
+
+		JenaRuleStore store = new JenaRuleStore(logFile);
+		final JenaRuleRecord record = store.insert(RULE_B);
+		assertThat(store.insert(RULE_B)).isSameAs(record);
+		assertThat(store.size()).isEqualTo(1);
+		assertThat(store.getVersion()).isEqualTo(1);
+		store.close();
+
+		store = new JenaRuleStore(logFile);
+		assertThat(store.insert(RULE_B).getId()).isEqualTo(record.getId());
+		assertThat(store.findByOwner("B", 0, 10)).hasSize(1);
+		store.close();
+	}
+
+	@Test
+	public void testKeepsFirstWriteFailure() throws IOException {
+		final File logFile = new File(this.folder.getRoot(), "jenarules.log");
+		final JenaRuleStore store = new JenaRuleStore(logFile);
+
+		// the log can't be opened for appending while a directory is in its place
+		assertThat(logFile.mkdir()).isTrue();
+		store.insert(RULE_B);
+		assertThat(flushFails(store)).isTrue();
+
+		// RULE_B is still missing from the log, however the next batch goes
+		assertThat(logFile.delete()).isTrue();
+		store.insert(RULE_F);
+		assertThat(flushFails(store)).isTrue();
+
+		try {
+			store.close();
+			fail("closed without writing " + RULE_B);
+		} catch (final RuntimeException e) {
+			// the writer thread has stopped all the same
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testFailsFlushOnceWriterStops() throws InterruptedException {
+		final JenaRuleStore store = new JenaRuleStore(new File(this.folder.getRoot(), "jenarules.log"));
+
+		final Thread writerThread = findWriterThread();
+		writerThread.interrupt();
+		writerThread.join();
+
+		store.insert(RULE_B);
+		assertThat(flushFails(store)).isTrue();
+	}
+
+	private static boolean flushFails(final JenaRuleStore store) {
+		try {
+			store.flush();
+			return false;
+		} catch (final RuntimeException e) {
+			return true;
+		}
+	}
+
+	private static Thread findWriterThread() {
+		for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+			if ("jena-rule-store-writer".equals(thread.getName()) && thread.isAlive()) {
+				return thread;
+			}
+		}
+		throw new AssertionError("no writer thread");
+	}
+}
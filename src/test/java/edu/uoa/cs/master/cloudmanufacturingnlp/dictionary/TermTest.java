@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.dictionary;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.Term;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
+
+/**
+ * @author pingz
+ *
+ */
+public class TermTest {
+
+	@Test
+	public void testForms() {
+		final Term term = Term.of(" With-5 ");
+
+		assertThat(term.getText()).isEqualTo(" With-5 ");
+		assertThat(term.getLowerCase()).isEqualTo("with-5");
+		assertThat(term.getKey()).isEqualTo("with");
+		assertThat(term.getLemma()).isEqualTo("with");
+	}
+
+	@Test
+	public void testOntologyName() {
+		final Term term = Term.ofOntologyName("manuservice:hasResource");
+
+		assertThat(term.getText()).isEqualTo("manuservice:hasResource");
+		assertThat(term.getLocalName()).isEqualTo("hasResource");
+		assertThat(term.getKey()).isEqualTo("hasresource");
+	}
+
+	@Test
+	public void testToken() {
+		final Term term = Term.ofToken("Companies", "company");
+
+		assertThat(term.getKey()).isEqualTo("companies");
+		assertThat(term.getLemma()).isEqualTo("company");
+	}
+
+	/**
+	 * The forms are those the comparisons used to compute on every call.
+	 */
+	@Test
+	public void testFormsMatchTools() {
+		for (final String text : new String[] { "companyB-2", "E.-14", "NZ-based", "OKUMA MP-46V", "-3", "New Zealand" }) {
+			final Term term = Term.of(text);
+
+			assertThat(term.getLowerCase()).isEqualTo(Tools.lowerCaseString(text));
+			assertThat(term.getKey()).isEqualTo(Tools.removeDashSuffix(Tools.lowerCaseString(text)));
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.nlp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyRelation;
+
+/**
+ * @author pingz
+ *
+ */
+public class DependencyGraphTest {
+
+	/**
+	 * The companyC shares hard resources with specific companies, companyA and companyA.
+	 */
+	private static DependencyGraph createGraph() {
+		final String[] words = { "The", "companyC", "shares", "hard", "resources", "with", "specific", "companies", ",", "companyA",
+				"and", "companyA", "." };
+
+		final DependencyGraph.Builder builder = new DependencyGraph.Builder(words.length);
+		for (int i = 0; i < words.length; i++) {
+			builder.withToken(i + 1, words[i], null, null);
+		}
+		builder.withToken(5, "resources", "NNS", "resource");
+
+		return builder.addDependency(DependencyGraph.ROOT, DependencyRelation.ROOT, 3).addDependency(3, DependencyRelation.NSUBJ, 2)
+				.addDependency(3, DependencyRelation.DOBJ, 5).addDependency(5, DependencyRelation.AMOD, 4)
+				.addDependency(3, DependencyRelation.PREP, 6).addDependency(6, DependencyRelation.POBJ, 8)
+				.addDependency(8, DependencyRelation.AMOD, 7).addDependency(8, DependencyRelation.CONJ, 10)
+				.addDependency(8, DependencyRelation.fromName("cc"), 11).addDependency(8, DependencyRelation.CONJ, 12).build();
+	}
+
+	@Test
+	public void testLookup() {
+		final DependencyGraph graph = createGraph();
+
+		assertThat(graph.getAction()).isEqualTo(3);
+		assertThat(graph.getDependent(3, DependencyRelation.NSUBJ)).isEqualTo(2);
+		assertThat(graph.getWord(graph.getDependent(3, DependencyRelation.DOBJ))).isEqualTo("resources");
+		assertThat(graph.getDependent(3, DependencyRelation.VMOD)).isEqualTo(DependencyGraph.NONE);
+		assertThat(graph.getDependent(DependencyGraph.NONE, DependencyRelation.AMOD)).isEqualTo(DependencyGraph.NONE);
+		assertThat(graph.getDependentCount(DependencyGraph.NONE, DependencyRelation.AMOD)).isEqualTo(0);
+		assertThat(graph.getDependentCount(8, DependencyRelation.OTHER)).isEqualTo(1);
+	}
+
+	@Test
+	public void testRepeatedDependentsAreKept() {
+		final DependencyGraph graph = createGraph();
+
+		assertThat(graph.getDependentCount(8, DependencyRelation.CONJ)).isEqualTo(2);
+		assertThat(graph.getDependent(8, DependencyRelation.CONJ, 0)).isEqualTo(10);
+		assertThat(graph.getDependent(8, DependencyRelation.CONJ, 1)).isEqualTo(12);
+		assertThat(graph.getWord(10)).isEqualTo(graph.getWord(12));
+	}
+
+	@Test
+	public void testTokenForms() {
+		final DependencyGraph graph = createGraph();
+
+		assertThat(graph.size()).isEqualTo(14);
+		assertThat(graph.getLowerCase(2)).isEqualTo("companyc");
+		assertThat(graph.getLemma(5)).isEqualTo("resource");
+		assertThat(graph.getTag(5)).isEqualTo("NNS");
+		assertThat(graph.getLemma(8)).isEqualTo("companies");
+		assertThat(graph.toIndexedString(3)).isEqualTo("shares-3");
+		assertThat(graph.toString()).startsWith("[root(ROOT-0, shares-3), nsubj(shares-3, companyC-2), dobj(shares-3, resources-5)");
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.nlp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DomainLexicon;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * @author pingz
+ *
+ */
+public class DomainLexiconTest {
+
+	private static List<TaggedWord> tag(final String... wordsAndTags) {
+		final List<TaggedWord> sentence = new ArrayList<>();
+		for (final String wordAndTag : wordsAndTags) {
+			final int separator = wordAndTag.lastIndexOf('/');
+			sentence.add(new TaggedWord(wordAndTag.substring(0, separator), wordAndTag.substring(separator + 1)));
+		}
+		return sentence;
+	}
+
+	@Test
+	public void testForcedTags() {
+		final DomainLexicon domainLexicon = new DomainLexicon();
+		domainLexicon.addTerm("CompanyA", "NNP");
+		domainLexicon.addTerm("shares", "VBZ");
+		domainLexicon.addTerm("OKUMA MP-46V", "NNP", "NNP", "HYPH", "CD");
+
+		final List<TaggedWord> sentence = tag("The/DT", "CompanyA/NN", "shares/NNS", "OKUMA/NNP", "MP/NNP", "-/HYPH", "46V/NNP",
+				"with/IN", "OKUMA/NN", "./.");
+
+		assertThat(domainLexicon.apply(sentence)).isEqualTo(6);
+		assertThat(sentence.get(1).tag()).isEqualTo("NNP");
+		assertThat(sentence.get(2).tag()).isEqualTo("VBZ");
+		assertThat(sentence.get(6).tag()).isEqualTo("CD");
+		// only a part of the term
+		assertThat(sentence.get(8).tag()).isEqualTo("NN");
+	}
+
+	@Test
+	public void testLongestTermFirst() {
+		final DomainLexicon domainLexicon = new DomainLexicon();
+		domainLexicon.addTerm("OKUMA", "NN");
+		domainLexicon.addTerm("OKUMA MP-46V", "NNP", "NNP", "HYPH", "CD");
+
+		final List<TaggedWord> sentence = tag("OKUMA/NN", "MP/NN", "-/HYPH", "46V/NN");
+		domainLexicon.apply(sentence);
+
+		assertThat(sentence.get(0).tag()).isEqualTo("NNP");
+		assertThat(sentence.get(3).tag()).isEqualTo("CD");
+	}
+
+	@Test
+	public void testLoad() {
+		final DomainLexicon domainLexicon = DomainLexicon.load(Constants.FilePath.LOCAL_BASE_JAVA + "domainlexicon.txt");
+
+		final List<TaggedWord> sentence = tag("CompanyF/NN", "shares/NNS");
+		domainLexicon.apply(sentence);
+
+		assertThat(domainLexicon.size()).isGreaterThan(0);
+		assertThat(sentence.get(0).tag()).isEqualTo("NNP");
+		assertThat(sentence.get(1).tag()).isEqualTo("VBZ");
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.nlp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.Word;
+import edu.stanford.nlp.parser.common.ParserQuery;
+import edu.stanford.nlp.trees.TypedDependency;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.PcfgDependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Metrics;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.PoolStats;
+
+/**
+ * @author pingz
+ *
+ */
+public class PcfgDependencyParserBackendTest {
+
+	@Test
+	public void testReplacesFailedParserQuery() {
+		TestBackend backend = new TestBackend();
+
+		// the parser throws on a word without text
+		List<HasWord> sentence = new ArrayList<>();
+		sentence.add(new Word("CompanyA"));
+		sentence.add(new Word((String) null));
+		sentence.add(new Word("resources"));
+
+		assertThat(backend.typedDependenciesOf(sentence)).hasSize(3);
+		assertThat(backend.getIdleParserCount()).isEqualTo(backend.getParserPoolSize());
+
+		sentence.set(1, new Word("shares"));
+		assertThat(backend.typedDependenciesOf(sentence)).isNotEmpty();
+		assertThat(backend.getIdleParserCount()).isEqualTo(backend.getParserPoolSize());
+	}
+
+	@Test
+	public void testRecordsCheckoutTimeout() {
+		final TestBackend backend;
+		System.setProperty(Constants.Config.PARSER_POOL_SIZE, "1");
+		System.setProperty(Constants.Config.PARSER_POOL_TIMEOUT_MILLIS, "50");
+		try {
+			backend = new TestBackend();
+		} finally {
+			System.clearProperty(Constants.Config.PARSER_POOL_SIZE);
+			System.clearProperty(Constants.Config.PARSER_POOL_TIMEOUT_MILLIS);
+		}
+		final PoolStats poolStats = backend.getPoolStats();
+
+		final ParserQuery parserQuery = backend.checkout();
+		assertThat(poolStats.getCheckoutCount()).isEqualTo(1);
+		try {
+			backend.checkout();
+			fail("checked out of an empty pool");
+		} catch (final RuntimeException e) {
+			assertThat(e.getMessage()).isEqualTo(Constants.ErrMsg.PARSER_POOL_SATURATED);
+		} finally {
+			backend.checkin(parserQuery);
+		}
+
+		assertThat(poolStats.getCheckoutCount()).isEqualTo(1);
+		assertThat(poolStats.getRejectionCount()).isEqualTo(1);
+		assertThat(poolStats.getTotalWaitNanos()).isGreaterThanOrEqualTo(50 * 1000000L);
+		assertThat(poolStats.getMaxWaitNanos()).isGreaterThanOrEqualTo(50 * 1000000L);
+		assertThat(backend.getIdleParserCount()).isEqualTo(1);
+
+		final String text = Metrics.getInstance().toPrometheusText(null, poolStats);
+		assertThat(text).contains("cloudmanufacturingnlp_parser_pool_rejections_total 1\n");
+		assertThat(text).contains("cloudmanufacturingnlp_parser_pool_checkouts_total 1\n");
+	}
+
+	private static class TestBackend extends PcfgDependencyParserBackend {
+
+		TestBackend() {
+			super(false);
+		}
+
+		Collection<TypedDependency> typedDependenciesOf(List<HasWord> sentence) {
+			return typedDependencies(sentence);
+		}
+
+		ParserQuery checkout() {
+			return checkoutParserQuery();
+		}
+
+		void checkin(ParserQuery parserQuery) {
+			returnParserQuery(parserQuery);
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.nlp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyRelation;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.TemplateDependencyParserBackend;
+
+/**
+ * @author pingz
+ *
+ */
+public class TemplateDependencyParserBackendTest {
+
+	private final List<String> fallbackSentences = new ArrayList<>();
+	private TemplateDependencyParserBackend backend;
+
+	@Before
+	public void setUp() {
+		this.fallbackSentences.clear();
+		this.backend = new TemplateDependencyParserBackend(new DependencyParserBackend() {
+			@Override
+			public DependencyGraph parseNaturalLanguage(final String naturalLanguageRule) {
+				TemplateDependencyParserBackendTest.this.fallbackSentences.add(naturalLanguageRule);
+				return new DependencyGraph.Builder(0).build();
+			}
+
+			@Override
+			public String getName() {
+				return "fallback";
+			}
+		});
+	}
+
+	@Test
+	public void testOperationYears() {
+		final DependencyGraph graph = this.backend
+				.parseNaturalLanguage("The CompanyF shares machining resources with private limited companies in operation for more than 6 years.");
+
+		assertThat(this.fallbackSentences).isEmpty();
+		assertThat(graph.getWord(graph.getAction())).isEqualTo("shares");
+		assertThat(graph.getWord(graph.getDependent(graph.getAction(), DependencyRelation.NSUBJ))).isEqualTo("CompanyF");
+
+		final int resources = graph.getDependent(graph.getAction(), DependencyRelation.DOBJ);
+		assertThat(graph.getWord(graph.getDependent(resources, DependencyRelation.NN))).isEqualTo("machining");
+		assertThat(graph.getLemma(resources)).isEqualTo("resource");
+
+		final int companies = graph.getDependent(graph.getDependent(graph.getAction(), DependencyRelation.PREP), DependencyRelation.POBJ);
+		assertThat(graph.getDependentCount(companies, DependencyRelation.AMOD)).isEqualTo(2);
+		assertThat(graph.getWord(graph.getDependent(companies, DependencyRelation.AMOD, 1))).isEqualTo("limited");
+
+		final int operation = graph.getDependent(graph.getDependent(companies, DependencyRelation.PREP), DependencyRelation.POBJ);
+		final int years = graph.getDependent(graph.getDependent(operation, DependencyRelation.PREP), DependencyRelation.POBJ);
+		final int number = graph.getDependent(years, DependencyRelation.NUM);
+		assertThat(graph.getWord(number)).isEqualTo("6");
+		assertThat(graph.getWord(graph.getDependent(graph.getDependent(number, DependencyRelation.QUANTMOD), DependencyRelation.MWE)))
+				.isEqualTo("more");
+	}
+
+	@Test
+	public void testNamedResourceTakesThePreposition() {
+		final DependencyGraph graph = this.backend.parseNaturalLanguage("The CompanyE shares OKUMA MP-46V with the public cloud.");
+
+		final int model = graph.getDependent(graph.getAction(), DependencyRelation.DOBJ);
+		assertThat(graph.getWord(model)).isEqualTo("MP");
+		assertThat(graph.getDependent(graph.getAction(), DependencyRelation.PREP)).isEqualTo(DependencyGraph.NONE);
+		assertThat(graph.getWord(graph.getDependent(model, DependencyRelation.PREP))).isEqualTo("with");
+	}
+
+	@Test
+	public void testSpecificCompanies() {
+		final DependencyGraph graph = this.backend
+				.parseNaturalLanguage("The CompanyD shares resources with specific companies, i.e., Company A, B, and C;.");
+
+		final int companies = graph.getDependent(graph.getDependent(graph.getAction(), DependencyRelation.PREP), DependencyRelation.POBJ);
+		final int first = graph.getDependent(companies, DependencyRelation.OTHER);
+		assertThat(graph.getWord(first)).isEqualTo("A");
+		assertThat(graph.getDependentCount(first, DependencyRelation.CONJ)).isEqualTo(2);
+		assertThat(graph.getWord(graph.getDependent(first, DependencyRelation.CONJ, 1))).isEqualTo("C");
+	}
+
+	@Test
+	public void testCreditRatingWithoutScale() {
+		final DependencyGraph graph = this.backend
+				.parseNaturalLanguage("the CompanyB shares soft resources with NZ-based company having a credit rating lower than 5.0.");
+
+		assertThat(this.fallbackSentences).isEmpty();
+		final int company = graph.getDependent(graph.getDependent(graph.getAction(), DependencyRelation.PREP), DependencyRelation.POBJ);
+		final int having = graph.getDependent(company, DependencyRelation.VMOD);
+		final int lower = graph.getDependent(having, DependencyRelation.ADVMOD);
+		assertThat(graph.getWord(lower)).isEqualTo("lower");
+
+		final int than = graph.getDependent(lower, DependencyRelation.PREP);
+		assertThat(graph.getWord(graph.getDependent(than, DependencyRelation.POBJ))).isEqualTo("5.0");
+		assertThat(graph.getDependent(than, DependencyRelation.PREP)).isEqualTo(DependencyGraph.NONE);
+	}
+
+	/**
+	 * The parser finds no action in these, so they fail on both paths.
+	 */
+	@Test
+	public void testBareResourcesWithLocationRatingFallBack() {
+		this.backend
+				.parseNaturalLanguage("The CompanyA shares resources with NZ-based company having a credit rating higher than 7.0 (out of 10.0).");
+		this.backend.parseNaturalLanguage("The CompanyA shares resources with NZ-based company in operation for more than 7 years.");
+
+		assertThat(this.fallbackSentences).containsExactly(
+				"The CompanyA shares resources with NZ-based company having a credit rating higher than 7.0 (out of 10.0).");
+	}
+
+	@Test
+	public void testOtherSentencesFallBack() {
+		this.backend.parseNaturalLanguage("The CompanyA shares resources with its own company.");
+		this.backend.parseNaturalLanguage("The CompanyA shares resources within its own company.");
+		this.backend.parseNaturalLanguage("The CompanyA shares resources with companies.");
+		this.backend.parseNaturalLanguage("The CompanyA shares resources with companies having a credit rating greater than 7.0.");
+
+		assertThat(this.fallbackSentences).containsExactly("The CompanyA shares resources within its own company.",
+				"The CompanyA shares resources with companies.",
+				"The CompanyA shares resources with companies having a credit rating greater than 7.0.");
+		assertThat(this.backend.getHitCount()).isEqualTo(1);
+		assertThat(this.backend.getMissCount()).isEqualTo(3);
+		assertThat(this.backend.getName()).isEqualTo("fallback+template");
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.ontology;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeSet;
+
+import com.hp.hpl.jena.datatypes.RDFDatatype;
+import com.hp.hpl.jena.datatypes.TypeMapper;
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.vocabulary.OWL2;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.RDFS;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Tools;
+
+/**
+ * Generate a scaled variant of the manuservice ontology: the classes, properties and individuals of cloudOntology.owl, plus the given
+ * number of business entities, each with its addresses, resources, credit grade and years in operation, e.g.
+ *
+ * <pre>
+ * 	manuservice:Company42 rdf:type manuservice:BusinessEntity; manuservice:name 'Company42'; manuservice:creditGrade 7.3;
+ * 		manuservice:yearsInOperation 12; manuservice:entityType 'Sole Trader'; manuservice:hasAddress manuservice:Company42Add1;
+ * 		manuservice:hasResource manuservice:R_Soft1_Company42, manuservice:R_Hard2_Company42
+ * </pre>
+ *
+ * The cities, countries and entity types are those of the original ontology, so that the natural language rules resolve against
+ * every variant. The same seed always generates the same ontology.
+ *
+ * @author pingz
+ *
+ */
+public class OntologyGenerator {
+
+	private static final String[] SOFT_RESOURCE_TYPES = { "Resource", "SoftResource", "SoftwareResource" };
+	private static final String[] HARD_RESOURCE_TYPES = { "HardResource", "MachiningResource" };
+	private static final String SHARED_MACHINE = "OKUMA_MP-46V";
+
+	private final Random random;
+	private int businessEntities = 1000;
+	private int addressesPerEntity = 1;
+	private int resourcesPerEntity = 2;
+	private int creditGrades = 91;
+	private int operationYears = 50;
+
+	public OntologyGenerator(final long seed) {
+		this.random = new Random(seed);
+	}
+
+	public OntologyGenerator withBusinessEntities(final int businessEntities) {
+		this.businessEntities = businessEntities;
+		return this;
+	}
+
+	public OntologyGenerator withAddressesPerEntity(final int addressesPerEntity) {
+		this.addressesPerEntity = addressesPerEntity;
+		return this;
+	}
+
+	public OntologyGenerator withResourcesPerEntity(final int resourcesPerEntity) {
+		this.resourcesPerEntity = resourcesPerEntity;
+		return this;
+	}
+
+	/**
+	 * @param creditGrades
+	 *            the number of distinct credit grades, spread from 1.0 to 10.0
+	 */
+	public OntologyGenerator withCreditGrades(final int creditGrades) {
+		this.creditGrades = creditGrades;
+		return this;
+	}
+
+	/**
+	 * @param operationYears
+	 *            the number of distinct years in operation, from 1 up
+	 */
+	public OntologyGenerator withOperationYears(final int operationYears) {
+		this.operationYears = operationYears;
+		return this;
+	}
+
+	/**
+	 * @return the original ontology, with the generated individuals added
+	 */
+	public Model generate() {
+		final Model model = ModelFactory.createDefaultModel();
+		try (InputStream in = Tools.openResource(Constants.FilePath.MC_LOCAL)) {
+			model.read(in, Constants.Ontology.MC_SOURCE, "RDF/XML");
+		} catch (final IOException e) {
+			throw new RuntimeException("Error: failed to load the ontology", e);
+		}
+		return generate(model);
+	}
+
+	/**
+	 * @param model
+	 *            the ontology the individuals are added to
+	 * @return the model
+	 */
+	public Model generate(final Model model) {
+		final List<String[]> cityCountries = listCityCountries(model);
+		final List<String> entityTypes = listLiterals(model, property(model, "entityType"));
+
+		final Resource businessEntity = resource(model, Constants.Ontology.BUSINESS_ENTITY);
+		final Resource address = resource(model, "Address");
+		final Resource sharedMachine = resource(model, SHARED_MACHINE);
+		final RDFDatatype literal = TypeMapper.getInstance().getSafeTypeByName(RDFS.Literal.getURI());
+
+		for (int i = 1; i <= this.businessEntities; i++) {
+			final String name = "Company" + i;
+			final Resource entity = individual(model, name, businessEntity);
+			entity.addProperty(property(model, Constants.Ontology.NAME), name, XSDDatatype.XSDstring);
+			entity.addProperty(property(model, "yearsInOperation"),
+					Integer.toString(1 + this.random.nextInt(Math.max(1, this.operationYears))), XSDDatatype.XSDint);
+			entity.addProperty(property(model, "creditGrade"), creditGrade(), XSDDatatype.XSDfloat);
+			entity.addProperty(property(model, "entityType"), entityTypes.get(this.random.nextInt(entityTypes.size())),
+					XSDDatatype.XSDstring);
+
+			for (int j = 1; j <= this.addressesPerEntity; j++) {
+				final String[] cityCountry = cityCountries.get(this.random.nextInt(cityCountries.size()));
+				final Resource entityAddress = individual(model, name + "Add" + j, address);
+				entityAddress.addProperty(property(model, "zipCode"), Integer.toString(1000 + this.random.nextInt(9000)), literal);
+				entityAddress.addProperty(property(model, "city"), cityCountry[0], XSDDatatype.XSDstring);
+				entityAddress.addProperty(property(model, "country"), cityCountry[1], XSDDatatype.XSDstring);
+				entity.addProperty(property(model, "hasAddress"), entityAddress);
+			}
+
+			for (int j = 1; j <= this.resourcesPerEntity; j++) {
+				final boolean soft = (j % 2 == 1);
+				final String resourceName = (soft ? "R_Soft" : "R_Hard") + j + "_" + name;
+				final Resource resource = individual(model, resourceName);
+				for (final String type : soft ? SOFT_RESOURCE_TYPES : HARD_RESOURCE_TYPES) {
+					resource.addProperty(RDF.type, resource(model, type));
+				}
+				resource.addProperty(property(model, Constants.Ontology.NAME), resourceName, XSDDatatype.XSDstring);
+				entity.addProperty(property(model, Constants.Ontology.HAS_RESOURCE), resource);
+			}
+
+			// a machine many of the companies share, as in the original ontology
+			if (this.random.nextBoolean()) {
+				entity.addProperty(property(model, Constants.Ontology.HAS_RESOURCE), sharedMachine);
+			}
+		}
+		return model;
+	}
+
+	private String creditGrade() {
+		if (this.creditGrades <= 1) {
+			return "10.0";
+		}
+		final int grade = this.random.nextInt(this.creditGrades);
+		return String.format(Locale.ROOT, "%.1f", 1.0 + 9.0 * grade / (this.creditGrades - 1));
+	}
+
+	private static Resource individual(final Model model, final String localName, final Resource... types) {
+		final Resource individual = resource(model, localName).addProperty(RDF.type, OWL2.NamedIndividual);
+		for (final Resource type : types) {
+			individual.addProperty(RDF.type, type);
+		}
+		return individual;
+	}
+
+	private static Resource resource(final Model model, final String localName) {
+		return model.createResource(Constants.Ontology.NS_MC + localName);
+	}
+
+	private static Property property(final Model model, final String localName) {
+		return model.createProperty(Constants.Ontology.NS_MC, localName);
+	}
+
+	private static List<String> listLiterals(final Model model, final Property property) {
+		final TreeSet<String> literals = new TreeSet<>();
+		for (final StmtIterator statements = model.listStatements(null, property, (RDFNode) null); statements.hasNext();) {
+			literals.add(statements.next().getString());
+		}
+		return new ArrayList<>(literals);
+	}
+
+	/**
+	 * @return the city and country of each address of the original ontology
+	 */
+	private static List<String[]> listCityCountries(final Model model) {
+		final Property city = property(model, "city");
+		final Property country = property(model, "country");
+
+		final List<String[]> cityCountries = new ArrayList<>();
+		for (final StmtIterator statements = model.listStatements(null, city, (RDFNode) null); statements.hasNext();) {
+			final Resource address = statements.next().getSubject();
+			if (address.hasProperty(country)) {
+				cityCountries.add(new String[] { address.getProperty(city).getString(), address.getProperty(country).getString() });
+			}
+		}
+		return cityCountries;
+	}
+
+	/**
+	 * e.g. OntologyGenerator 5000 target/ontology-5000.owl
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: OntologyGenerator <business entities> <ontology file>");
+			System.exit(1);
+		}
+		Constants.LOCAL_BASE = Constants.FilePath.LOCAL_BASE_JAVA;
+
+		final Model model = new OntologyGenerator(1).withBusinessEntities(Integer.parseInt(args[0])).generate();
+		try (OutputStream out = new FileOutputStream(args[1])) {
+			model.write(out, "RDF/XML");
+		}
+		System.out.println("Generated " + model.size() + " statements to " + args[1]);
+	}
+}
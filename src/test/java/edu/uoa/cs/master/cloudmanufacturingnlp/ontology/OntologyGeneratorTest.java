@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.ontology;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.rdf.model.ResourceFactory;
+import com.hp.hpl.jena.vocabulary.RDF;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * @author pingz
+ *
+ */
+public class OntologyGeneratorTest {
+
+	private static final Resource BUSINESS_ENTITY = ResourceFactory.createResource(Constants.Ontology.NS_MC
+			+ Constants.Ontology.BUSINESS_ENTITY);
+	private static final Resource ADDRESS = ResourceFactory.createResource(Constants.Ontology.NS_MC + "Address");
+
+	private static int count(final Model model, final Resource type) {
+		return model.listSubjectsWithProperty(RDF.type, type).toList().size();
+	}
+
+	@Test
+	public void testGenerate() {
+		final Model original = new OntologyGenerator(1).withBusinessEntities(0).generate();
+		final Model model = new OntologyGenerator(1).withBusinessEntities(50).withAddressesPerEntity(2).withResourcesPerEntity(3)
+				.generate();
+
+		assertThat(count(model, BUSINESS_ENTITY)).isEqualTo(count(original, BUSINESS_ENTITY) + 50);
+		assertThat(count(model, ADDRESS)).isEqualTo(count(original, ADDRESS) + 100);
+		assertThat(model.listStatements(model.getResource(Constants.Ontology.NS_MC + "Company42"),
+				model.getProperty(Constants.Ontology.NS_MC, Constants.Ontology.HAS_RESOURCE), (RDFNode) null).toList().size())
+				.isBetween(3, 4);
+	}
+
+	@Test
+	public void testGenerateDeterministic() {
+		final Model model = new OntologyGenerator(7).withBusinessEntities(20).generate();
+		final Model sameSeed = new OntologyGenerator(7).withBusinessEntities(20).generate();
+		final Model otherSeed = new OntologyGenerator(8).withBusinessEntities(20).generate();
+
+		assertThat(model.isIsomorphicWith(sameSeed)).isTrue();
+		assertThat(model.isIsomorphicWith(otherSeed)).isFalse();
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.ontology;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.hp.hpl.jena.rdf.model.InfModel;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.StanfordDependencies;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRulesProcessor;
+import edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules.TestCases;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Generate the ontology at each of the given sizes with {@link OntologyGenerator}, load it through
+ * {@link Constants.Config#ONTOLOGY_PATH} and report, as tab separated values to plot against the number of business entities:
+ * <ul>
+ * <li>the time to build the {@link OntologySnapshot} and its indexes;</li>
+ * <li>the heap used once it is built;</li>
+ * <li>the mean time to generate the Jena rules of the rules of {@link TestCases}, from their dependencies;</li>
+ * <li>the mean time to list every statement of the inference model of those Jena rules, with the reasoner caches cleared; the rules
+ * are backward rules, so listing the statements is what proves them.</li>
+ * </ul>
+ *
+ * e.g. OntologyScalingReport 0 100 1000 5000
+ *
+ * @author pingz
+ *
+ */
+public class OntologyScalingReport {
+
+	private static final int[] DEFAULT_SIZES = { 0, 100, 1000, 5000 };
+	private static final int REPETITIONS = 5;
+
+	public static void main(final String[] args) throws IOException {
+		Constants.LOCAL_BASE = Constants.FilePath.LOCAL_BASE_JAVA;
+
+		final int[] sizes = new int[(args.length == 0) ? DEFAULT_SIZES.length : args.length];
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = (args.length == 0) ? DEFAULT_SIZES[i] : Integer.parseInt(args[i]);
+		}
+
+		// the dependencies don't depend on the ontology, so the rules are parsed once
+		final List<DependencyGraph> graphs = new ArrayList<>();
+		for (final Map<String, Map<String, Integer>> testCase : TestCases.cases) {
+			for (final String naturalLanguageRule : testCase.keySet()) {
+				graphs.add(StanfordDependencies.getInstance().parseNaturalLanguage(preprocess(naturalLanguageRule)));
+			}
+		}
+
+		System.out.println("entities\tstatements\tsnapshot ms\theap MB\trule generation us\tinference ms");
+		for (final int size : sizes) {
+			final File ontology = File.createTempFile("ontology-" + size + "-", ".owl");
+			ontology.deleteOnExit();
+			final Model model = new OntologyGenerator(1).withBusinessEntities(size).generate();
+			try (OutputStream out = new FileOutputStream(ontology)) {
+				model.write(out, "RDF/XML");
+			}
+			System.setProperty(Constants.Config.ONTOLOGY_PATH, ontology.getAbsolutePath());
+
+			long start = System.nanoTime();
+			final OntologySnapshot ontologySnapshot = OntologySnapshot.reload();
+			final long snapshotNanos = System.nanoTime() - start;
+
+			final long heapBytes = usedHeap();
+
+			// the first pass warms the generation up for this snapshot, and its rules are used for the inference
+			final List<String[]> jenaRules = new ArrayList<>();
+			for (final DependencyGraph graph : graphs) {
+				final String[] rules = assemble(graph, ontologySnapshot);
+				if (rules != null) {
+					jenaRules.add(rules);
+				}
+			}
+
+			start = System.nanoTime();
+			for (int i = 0; i < REPETITIONS; i++) {
+				for (final DependencyGraph graph : graphs) {
+					assemble(graph, ontologySnapshot);
+				}
+			}
+			final long ruleNanos = (System.nanoTime() - start) / (REPETITIONS * graphs.size());
+
+			long inferenceNanos = 0;
+			for (int i = 0; i < REPETITIONS; i++) {
+				for (final String[] rules : jenaRules) {
+					JenaInfModelManager.getInstance().getReasonerCache().clear();
+					JenaInfModelManager.getInstance().getParsedRuleCache().clear();
+
+					start = System.nanoTime();
+					final InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRules(rules);
+					for (final StmtIterator it = infModel.listStatements(); it.hasNext();) {
+						it.next();
+					}
+					inferenceNanos += System.nanoTime() - start;
+				}
+			}
+			inferenceNanos /= REPETITIONS * jenaRules.size();
+
+			System.out.println(String.format("%d\t%d\t%.1f\t%.1f\t%.1f\t%.2f", size, model.size(), snapshotNanos / 1e6,
+					heapBytes / 1024.0 / 1024.0, ruleNanos / 1e3, inferenceNanos / 1e6));
+		}
+	}
+
+	private static long usedHeap() {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * The same as the rule service does, i.e. "The" at the beginning and "." at the end.
+	 */
+	private static String preprocess(final String naturalLanguageRule) {
+		return (naturalLanguageRule.toLowerCase().startsWith("the") ? "" : "The ") + naturalLanguageRule
+				+ (naturalLanguageRule.endsWith(".") ? "" : ".");
+	}
+
+	/**
+	 * @return the Jena rules, or null if they can't be assembled, e.g. for a rule without action
+	 */
+	private static String[] assemble(final DependencyGraph graph, final OntologySnapshot ontologySnapshot) {
+		try {
+			return new JenaRulesProcessor(graph, ontologySnapshot).assembleRule();
+		} catch (final RuntimeException e) {
+			return null;
+		}
+	}
+}
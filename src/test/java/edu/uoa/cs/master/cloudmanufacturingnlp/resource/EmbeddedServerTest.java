@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author pingz
+ *
+ */
+public class EmbeddedServerTest {
+
+	private static EmbeddedServer server;
+
+	@BeforeClass
+	public static void startServer() throws IOException {
+		server = new EmbeddedServer("localhost", 0, EmbeddedServer.DEFAULT_CONTEXT_PATH, 2);
+		server.start();
+	}
+
+	@AfterClass
+	public static void stopServer() {
+		server.stop();
+	}
+
+	private static HttpURLConnection get(final String path) throws IOException {
+		final URL url = new URL("http://localhost:" + server.getPort() + EmbeddedServer.DEFAULT_CONTEXT_PATH + path);
+		return (HttpURLConnection) url.openConnection();
+	}
+
+	private static String read(final InputStream in) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[1024];
+		for (int length = in.read(buffer); length != -1; length = in.read(buffer)) {
+			out.write(buffer, 0, length);
+		}
+		in.close();
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testServesResources() throws IOException {
+		final HttpURLConnection connection = get("/test");
+		assertThat(connection.getResponseCode()).isEqualTo(200);
+		assertThat(connection.getContentType()).startsWith("text/html");
+		assertThat(read(connection.getInputStream())).contains("The Cloud Manufacturing Services are runing!");
+	}
+
+	@Test
+	public void testUnknownPath() throws IOException {
+		assertThat(get("/no-such-service").getResponseCode()).isEqualTo(404);
+	}
+
+	@Test(timeout = 10000)
+	public void testMalformedHostHeader() throws IOException {
+		// HttpURLConnection won't send a Host header of its own
+		try (Socket socket = new Socket("localhost", server.getPort())) {
+			final OutputStream out = socket.getOutputStream();
+			out.write(("GET " + EmbeddedServer.DEFAULT_CONTEXT_PATH + "/test HTTP/1.1\r\nHost: bad host{}\r\nConnection: close\r\n\r\n")
+					.getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+
+			assertThat(read(socket.getInputStream())).startsWith("HTTP/1.1 400");
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.NeuralDependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.PcfgDependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.StanfordDependencies;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.RuleResultCache;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRulesService;
+
+/**
+ * Run the natural language rules of {@link TestCases} through the PCFG and the neural dependency parser backends, and report the
+ * parsing latency of each backend and the rate of rules for which both backends generate the same Jena rules.
+ *
+ * The latency covers the parsing of the preprocessed sentences alone; the Jena rules are generated afterwards, with the
+ * {@link RuleResultCache} emptied before each rule, so that none of them is served from the cache.
+ *
+ * @author pingz
+ *
+ */
+public class DependencyBackendComparison {
+
+	private static final String NO_RULES = "<no rules>";
+
+	public static void main(final String[] args) {
+		final List<String> naturalLanguageRules = new ArrayList<>();
+		for (final Map<String, Map<String, Integer>> testCase : TestCases.cases) {
+			naturalLanguageRules.addAll(testCase.keySet());
+		}
+
+		final OntologySnapshot ontologySnapshot = OntologySnapshot.getInstance();
+		final List<String> pcfgRules = run(StanfordDependencies.createBackend(PcfgDependencyParserBackend.NAME), ontologySnapshot,
+				naturalLanguageRules);
+		final List<String> nndepRules = run(StanfordDependencies.createBackend(NeuralDependencyParserBackend.NAME), ontologySnapshot,
+				naturalLanguageRules);
+
+		int equivalent = 0;
+		for (int i = 0; i < naturalLanguageRules.size(); i++) {
+			if (pcfgRules.get(i).equals(nndepRules.get(i))) {
+				equivalent++;
+			} else {
+				System.out.println("differs: " + naturalLanguageRules.get(i));
+				System.out.println("  pcfg:  " + pcfgRules.get(i));
+				System.out.println("  nndep: " + nndepRules.get(i));
+			}
+		}
+
+		System.out.println("equivalent rules: " + equivalent + "/" + naturalLanguageRules.size() + " ("
+				+ (100 * equivalent / Math.max(1, naturalLanguageRules.size())) + "%)");
+	}
+
+	private static List<String> run(final DependencyParserBackend backend, final OntologySnapshot ontologySnapshot,
+			final List<String> naturalLanguageRules) {
+
+		final List<String> sentences = new ArrayList<>(naturalLanguageRules.size());
+		for (final String naturalLanguageRule : naturalLanguageRules) {
+			sentences.add(SemanticWebRulesService.preprocessRule(naturalLanguageRule));
+		}
+
+		// warm up the models before measuring
+		parse(backend, sentences.get(0));
+
+		final long start = System.nanoTime();
+		for (final String sentence : sentences) {
+			parse(backend, sentence);
+		}
+		final double elapsedMillis = (System.nanoTime() - start) / 1e6;
+
+		System.out.println(String.format("%s: %d sentences parsed in %.1f ms, %.3f ms/sentence", backend.getName(), sentences.size(),
+				elapsedMillis, elapsedMillis / Math.max(1, sentences.size())));
+
+		final List<String> results = new ArrayList<>(naturalLanguageRules.size());
+		for (final String naturalLanguageRule : naturalLanguageRules) {
+			RuleResultCache.getInstance().invalidate();
+			results.add(process(backend, ontologySnapshot, naturalLanguageRule));
+		}
+		return results;
+	}
+
+	private static void parse(final DependencyParserBackend backend, final String sentence) {
+		try {
+			backend.parseNaturalLanguage(sentence);
+		} catch (final RuntimeException e) {
+			System.out.println("failed to parse: " + sentence + ": " + e.getMessage());
+		}
+	}
+
+	private static String process(final DependencyParserBackend backend, final OntologySnapshot ontologySnapshot,
+			final String naturalLanguageRule) {
+		try {
+			final String[] jenaRules = new SemanticWebRulesService(ontologySnapshot, backend).process(naturalLanguageRule);
+			return (jenaRules == null) ? NO_RULES : Arrays.toString(jenaRules);
+		} catch (final RuntimeException e) {
+			return e.getMessage();
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.InfModel;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.util.FileManager;
+import com.hp.hpl.jena.util.PrintUtil;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.InferenceMode;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.TripleIndex;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.CompiledRule;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleCompiler;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Compare the compiled rules of each shape {@link edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRulesBuilder}
+ * generates with the Jena reasoner, over the cloud manufacturing ontology.
+ *
+ * @author pingz
+ *
+ */
+public class JenaRuleCompilerTest {
+
+	private static final String HEAD = "[(?x manuservice:hasAccessTo ?y) <- ";
+
+	private static Model model;
+	private static TripleIndex index;
+
+	@BeforeClass
+	public static void setup() {
+		PrintUtil.registerPrefix(Constants.Ontology.PREFIX, Constants.Ontology.NS_MC);
+		model = FileManager.get().loadModel(Constants.FilePath.LOCAL_BASE_JAVA + "cloudOntology.owl");
+		index = new TripleIndex(model);
+	}
+
+	@Test
+	public void testResourceTypeAndBaseLocation() {
+		assertSameAsJena(HEAD + "(?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyB'), (?y rdf:type manuservice:Resource), "
+				+ "(?x rdf:type manuservice:BusinessEntity), (?x manuservice:hasAddress ?addr), (?addr manuservice:country 'New Zealand')]", 4);
+	}
+
+	@Test
+	public void testCreditGradeAndOperationYears() {
+		assertSameAsJena(HEAD + "(?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyA'), (?y rdf:type manuservice:SoftResource), "
+				+ "(?x rdf:type manuservice:BusinessEntity), (?x manuservice:creditGrade ?creditGrade), greaterThan(?creditGrade, 5.0)]", 6);
+		assertSameAsJena(HEAD + "(?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyD'), (?y rdf:type manuservice:Resource), "
+				+ "(?x rdf:type manuservice:BusinessEntity), (?x manuservice:yearsInOperation ?yearsInOperation), "
+				+ "lessThan(?yearsInOperation, 20)]", -1);
+	}
+
+	@Test
+	public void testResourceNameEntityTypeAndPartnerName() {
+		assertSameAsJena(HEAD + "(?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyE'), (?y manuservice:name 'OKUMA_MP-46V'), "
+				+ "(?x rdf:type manuservice:BusinessEntity), (?x manuservice:entityType 'Private Limited Company')]", -1);
+		assertSameAsJena(HEAD + "(?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyF'), (?y rdf:type manuservice:HardResource), "
+				+ "(?x rdf:type manuservice:BusinessEntity), (?x manuservice:name 'CompanyA')]", -1);
+		assertSameAsJena(HEAD + "(?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyF'), (?y rdf:type manuservice:HardResource), "
+				+ "(?x rdf:type manuservice:BusinessEntity), (?x manuservice:name ?name), oneOf(?name, 'CompanyA', 'CompanyC')]", -1);
+	}
+
+	@Test
+	public void testFallsBackOnOtherShapes() {
+		// the head variables are linked
+		assertThat(JenaRuleCompiler.compile(HEAD + "(?x manuservice:hasResource ?y)]")).isNull();
+		// builtin outside the compiled set
+		assertThat(JenaRuleCompiler.compile(HEAD + "(?org manuservice:hasResource ?y), (?x rdf:type manuservice:BusinessEntity), "
+				+ "noValue(?x manuservice:name 'CompanyA')]")).isNull();
+		assertThat(JenaRuleCompiler.compile("[malformed")).isNull();
+	}
+
+	/**
+	 * @param rule
+	 * @param expectedCount
+	 *            the number of statements derived, or -1 not to check it
+	 */
+	private static void assertSameAsJena(final String rule, final int expectedCount) {
+		final CompiledRule compiledRule = JenaRuleCompiler.compile(rule);
+		assertThat(compiledRule).isNotNull();
+
+		final Set<Triple> expectedTriples = new HashSet<>();
+		final InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRules(new String[] { rule }, InferenceMode.FAST, model);
+		for (final StmtIterator it = JenaInfModelManager.getInstance().listStatements(infModel, "", Constants.Ontology.NS_MC + "hasAccessTo",
+				""); it.hasNext();) {
+			expectedTriples.add(it.nextStatement().asTriple());
+		}
+
+		assertThat(compiledRule.derive(index)).isEqualTo(expectedTriples);
+		if (expectedCount >= 0) {
+			assertThat(expectedTriples).hasSize(expectedCount);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hp.hpl.jena.reasoner.rulesys.Rule;
+import com.hp.hpl.jena.util.PrintUtil;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleClause;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleDefinition;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleDisjunction;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleTerm;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * @author pingz
+ *
+ */
+public class JenaRuleDefinitionTest {
+
+	@Before
+	public void setup() {
+		PrintUtil.registerPrefix(Constants.Ontology.PREFIX, Constants.Ontology.NS_MC);
+	}
+
+	@Test
+	public void testBuildsTheRulesItsTextParsesInto() {
+		final JenaRuleTerm creditGrade = JenaRuleTerm.variable("creditGrade");
+		final JenaRuleDefinition definition = new JenaRuleDefinition(statement("x", "manuservice:hasAccessTo", JenaRuleTerm.variable("y")),
+				Arrays.asList(statement("org", "manuservice:hasResource", JenaRuleTerm.variable("y")),
+						statement("org", "manuservice:name", JenaRuleTerm.literal("CompanyD")),
+						statement("y", "rdf:type", JenaRuleTerm.name("manuservice:MachiningResource")),
+						statement("x", "manuservice:hasAddress", JenaRuleTerm.variable("addr")),
+						statement("addr", "manuservice:country", JenaRuleTerm.literal("New Zealand")),
+						statement("x", "manuservice:creditGrade", creditGrade),
+						JenaRuleClause.builtin(Constants.JenaRules.FACT_NATIVE_GREATER_THAN, creditGrade, JenaRuleTerm.number("6.0")),
+						statement("x", "manuservice:yearsInOperation", JenaRuleTerm.variable("yearsInOperation")),
+						JenaRuleClause.builtin(Constants.JenaRules.FACT_NATIVE_LESS_THAN, JenaRuleTerm.variable("yearsInOperation"),
+								JenaRuleTerm.number("7"))), Collections.<JenaRuleDisjunction> emptyList());
+
+		final String[] texts = definition.toStrings();
+		assertThat(texts).containsExactly("(?x manuservice:hasAccessTo ?y) <- (?org manuservice:hasResource ?y), "
+				+ "(?org manuservice:name 'CompanyD'), (?y rdf:type manuservice:MachiningResource), (?x manuservice:hasAddress ?addr), "
+				+ "(?addr manuservice:country 'New Zealand'), (?x manuservice:creditGrade ?creditGrade), greaterThan(?creditGrade, 6.0), "
+				+ "(?x manuservice:yearsInOperation ?yearsInOperation), lessThan(?yearsInOperation, 7)]");
+		assertSameAsParsed(definition.toRules(), texts);
+	}
+
+	@Test
+	public void testTestsThePartnerNamesInASingleRule() {
+		final JenaRuleDefinition definition = new JenaRuleDefinition(statement("x", "manuservice:hasAccessTo", JenaRuleTerm.variable("y")),
+				Arrays.asList(statement("org", "manuservice:hasResource", JenaRuleTerm.variable("y")),
+						statement("org", "manuservice:name", JenaRuleTerm.literal("CompanyB")),
+						statement("x", "rdf:type", JenaRuleTerm.name("manuservice:BusinessEntity"))),
+				Collections.singletonList(JenaRuleDisjunction.of(Arrays.asList(
+						statement("x", "manuservice:name", JenaRuleTerm.literal("CompanyA")),
+						statement("x", "manuservice:name", JenaRuleTerm.literal("CompanyC"))))));
+
+		final String[] texts = definition.toStrings();
+		assertThat(texts).hasSize(1);
+		assertThat(texts[0]).endsWith("(?x rdf:type manuservice:BusinessEntity), (?x manuservice:name ?name), "
+				+ "oneOf(?name, 'CompanyA', 'CompanyC')]");
+		assertSameAsParsed(definition.toRules(), texts);
+	}
+
+	@Test
+	public void testKeepsUnresolvedNamesAsPlaceholders() {
+		final JenaRuleDefinition definition = new JenaRuleDefinition(statement("x", "manuservice:hasAccessTo", JenaRuleTerm.variable("y")),
+				Arrays.asList(statement("x", Constants.Param.PREDICATE, JenaRuleTerm.literal(Constants.Param.OBJECT))),
+				Collections.<JenaRuleDisjunction> emptyList());
+
+		final String[] texts = definition.toStrings();
+		assertThat(texts).containsExactly("(?x manuservice:hasAccessTo ?y) <- (?x $PRED '$OBJ')]");
+		assertSameAsParsed(definition.toRules(), texts);
+	}
+
+	private static JenaRuleClause statement(final String subject, final String predicate, final JenaRuleTerm object) {
+		return JenaRuleClause.statement(JenaRuleTerm.variable(subject), JenaRuleTerm.name(predicate), object);
+	}
+
+	private static void assertSameAsParsed(final List<Rule> rules, final String[] texts) {
+		assertThat(rules).hasSize(texts.length);
+		for (int i = 0; i < texts.length; i++) {
+			final Rule parsedRule = Rule.parseRules(texts[i]).get(0);
+
+			assertThat(rules.get(i)).isEqualTo(parsedRule);
+			assertThat(rules.get(i).toString()).isEqualTo(parsedRule.toString());
+			assertThat(rules.get(i).isBackward()).isEqualTo(parsedRule.isBackward());
+			assertThat(rules.get(i).getNumVars()).isEqualTo(parsedRule.getNumVars());
+		}
+	}
+}
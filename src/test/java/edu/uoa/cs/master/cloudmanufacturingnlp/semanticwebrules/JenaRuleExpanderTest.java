@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.InfModel;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.util.FileManager;
+import com.hp.hpl.jena.util.PrintUtil;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.InferenceMode;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleClause;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleDefinition;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleDisjunction;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleExpander;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleTerm;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * @author pingz
+ *
+ */
+public class JenaRuleExpanderTest {
+
+	private static final JenaRuleClause HEAD = statement("x", "manuservice:hasAccessTo", JenaRuleTerm.variable("y"));
+	private static final JenaRuleClause HAS_RESOURCE = statement("org", "manuservice:hasResource", JenaRuleTerm.variable("y"));
+	private static final JenaRuleClause OWNER = statement("org", "manuservice:name", JenaRuleTerm.literal("CompanyF"));
+	private static final JenaRuleClause PARTNER = statement("x", "rdf:type", JenaRuleTerm.name("manuservice:BusinessEntity"));
+	private static final JenaRuleClause HARD_RESOURCE = statement("y", "rdf:type", JenaRuleTerm.name("manuservice:HardResource"));
+	private static final JenaRuleClause SOFT_RESOURCE = statement("y", "rdf:type", JenaRuleTerm.name("manuservice:SoftResource"));
+	private static final JenaRuleClause HAS_ADDRESS = statement("x", "manuservice:hasAddress", JenaRuleTerm.variable("addr"));
+	private static final JenaRuleClause IN_NEW_ZEALAND = statement("addr", "manuservice:country", JenaRuleTerm.literal("New Zealand"));
+	private static final JenaRuleClause PRIVATE_LIMITED = statement("x", "manuservice:entityType",
+			JenaRuleTerm.literal("Private Limited Company"));
+
+	private static Model model;
+
+	@BeforeClass
+	public static void setup() {
+		PrintUtil.registerPrefix(Constants.Ontology.PREFIX, Constants.Ontology.NS_MC);
+		model = FileManager.get().loadModel(Constants.FilePath.LOCAL_BASE_JAVA + "cloudOntology.owl");
+	}
+
+	@Test
+	public void testTestsThePartnerNamesInASingleRule() {
+		final List<JenaRuleClause> names = Arrays.asList(partnerName("CompanyA"), partnerName("CompanyB"), partnerName("CompanyC"),
+				partnerName("CompanyB"));
+
+		final List<List<JenaRuleClause>> bodies = JenaRuleExpander.expand(HEAD, Arrays.asList(HAS_RESOURCE, OWNER, PARTNER),
+				Collections.singletonList(JenaRuleDisjunction.of(names)));
+
+		assertThat(bodies).hasSize(1);
+		assertThat(bodies.get(0).toString()).isEqualTo("[(?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyF'), "
+				+ "(?x rdf:type manuservice:BusinessEntity), (?x manuservice:name ?name), "
+				+ "oneOf(?name, 'CompanyA', 'CompanyB', 'CompanyC')]");
+
+		// the same statements as a rule per partner
+		final String[] ruleWithMembership = new JenaRuleDefinition(HEAD, Arrays.asList(HAS_RESOURCE, OWNER, PARTNER),
+				Collections.singletonList(JenaRuleDisjunction.of(names))).toStrings();
+		final List<String> rulePerPartner = new ArrayList<>();
+		for (final JenaRuleClause name : names) {
+			rulePerPartner.addAll(Arrays.asList(new JenaRuleDefinition(HEAD, Arrays.asList(HAS_RESOURCE, OWNER, PARTNER, name), Collections
+					.<JenaRuleDisjunction> emptyList()).toStrings()));
+		}
+
+		final Set<Triple> expectedTriples = deriveAccess(rulePerPartner.toArray(new String[rulePerPartner.size()]));
+		assertThat(expectedTriples).isNotEmpty();
+		assertThat(deriveAccess(ruleWithMembership)).isEqualTo(expectedTriples);
+	}
+
+	@Test
+	public void testFactorsAndDropsRedundantAlternatives() {
+		final JenaRuleDisjunction location = new JenaRuleDisjunction(Arrays.asList(
+				Arrays.asList(HAS_ADDRESS, IN_NEW_ZEALAND, PRIVATE_LIMITED), Arrays.asList(HAS_ADDRESS, PRIVATE_LIMITED, IN_NEW_ZEALAND),
+				Arrays.asList(HAS_ADDRESS, IN_NEW_ZEALAND)));
+		// holds anyway, since the partner is a business entity
+		final JenaRuleDisjunction partner = new JenaRuleDisjunction(Arrays.asList(Arrays.asList(PARTNER), Arrays.asList(PRIVATE_LIMITED)));
+
+		final List<List<JenaRuleClause>> bodies = JenaRuleExpander.expand(HEAD, Arrays.asList(HAS_RESOURCE, OWNER, PARTNER, OWNER),
+				Arrays.asList(location, partner));
+
+		final List<List<JenaRuleClause>> expectedBodies = new ArrayList<>();
+		expectedBodies.add(Arrays.asList(HAS_RESOURCE, OWNER, PARTNER, HAS_ADDRESS, IN_NEW_ZEALAND));
+		assertThat(bodies).isEqualTo(expectedBodies);
+	}
+
+	@Test
+	public void testMultipliesOutTheOtherDisjunctions() {
+		final JenaRuleDisjunction resource = JenaRuleDisjunction.of(Arrays.asList(HARD_RESOURCE, SOFT_RESOURCE));
+		final JenaRuleDisjunction partner = new JenaRuleDisjunction(Arrays.asList(Arrays.asList(HAS_ADDRESS, IN_NEW_ZEALAND),
+				Arrays.asList(PRIVATE_LIMITED)));
+
+		final List<List<JenaRuleClause>> bodies = JenaRuleExpander.expand(HEAD, Arrays.asList(HAS_RESOURCE, OWNER, PARTNER),
+				Arrays.asList(resource, partner, partner));
+
+		// the resource types become a membership test, the duplicate partner disjunction is dropped
+		assertThat(bodies).hasSize(2);
+		assertThat(bodies.get(0).toString()).isEqualTo("[(?org manuservice:hasResource ?y), (?org manuservice:name 'CompanyF'), "
+				+ "(?x rdf:type manuservice:BusinessEntity), (?y rdf:type ?type), "
+				+ "oneOf(?type, manuservice:HardResource, manuservice:SoftResource), (?x manuservice:hasAddress ?addr), "
+				+ "(?addr manuservice:country 'New Zealand')]");
+		assertThat(bodies.get(1).toString()).endsWith("oneOf(?type, manuservice:HardResource, manuservice:SoftResource), "
+				+ "(?x manuservice:entityType 'Private Limited Company')]");
+	}
+
+	@Test
+	public void testNamesTheMembershipVariableApart() {
+		final List<List<JenaRuleClause>> bodies = JenaRuleExpander.expand(HEAD,
+				Arrays.asList(HAS_RESOURCE, statement("org", "manuservice:name", JenaRuleTerm.variable("name"))),
+				Collections.singletonList(JenaRuleDisjunction.of(Arrays.asList(partnerName("CompanyA"), partnerName("CompanyB")))));
+
+		assertThat(bodies.get(0).toString()).endsWith("(?x manuservice:name ?name2), oneOf(?name2, 'CompanyA', 'CompanyB')]");
+	}
+
+	private static JenaRuleClause partnerName(final String name) {
+		return statement("x", "manuservice:name", JenaRuleTerm.literal(name));
+	}
+
+	private static JenaRuleClause statement(final String subject, final String predicate, final JenaRuleTerm object) {
+		return JenaRuleClause.statement(JenaRuleTerm.variable(subject), JenaRuleTerm.name(predicate), object);
+	}
+
+	private static Set<Triple> deriveAccess(final String[] rules) {
+		final Set<Triple> triples = new HashSet<>();
+		final InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRules(rules, InferenceMode.FAST, model);
+		for (final StmtIterator it = JenaInfModelManager.getInstance().listStatements(infModel, "", Constants.Ontology.NS_MC + "hasAccessTo",
+				""); it.hasNext();) {
+			triples.add(it.nextStatement().asTriple());
+		}
+		return triples;
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyGraph;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.PcfgDependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRulesProcessor;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Parse the natural language rules of {@link TestCases} and of the {@link TestingRulesGenerator} grammar with the PCFG backend, with
+ * and without POS tagging them first, and report the parsing latency by sentence length and the rules for which the Jena rules
+ * differ.
+ *
+ * @author pingz
+ *
+ */
+public class PreTaggingBenchmark {
+
+	private static final int BUCKET_TOKENS = 5;
+	private static final int WARM_UP_SENTENCES = 20;
+
+	public static void main(final String[] args) {
+		Constants.LOCAL_BASE = Constants.FilePath.LOCAL_BASE_JAVA;
+
+		final List<String> naturalLanguageRules = new ArrayList<>();
+		for (final Map<String, Map<String, Integer>> testCase : TestCases.cases) {
+			naturalLanguageRules.addAll(testCase.keySet());
+		}
+		naturalLanguageRules.addAll(TestingRulesGenerator.generateRules(new Random(1)));
+
+		final OntologySnapshot ontologySnapshot = OntologySnapshot.getInstance();
+		final PcfgDependencyParserBackend plain = new PcfgDependencyParserBackend(false);
+		final PcfgDependencyParserBackend preTagged = new PcfgDependencyParserBackend(true);
+
+		for (int i = 0; i < WARM_UP_SENTENCES; i++) {
+			plain.parseNaturalLanguage(preprocess(naturalLanguageRules.get(i)));
+			preTagged.parseNaturalLanguage(preprocess(naturalLanguageRules.get(i)));
+		}
+
+		// total nanoseconds and sentences by the number of tokens, rounded down to the bucket
+		final Map<Integer, long[]> latencies = new TreeMap<>();
+		int equivalent = 0;
+		for (final String naturalLanguageRule : naturalLanguageRules) {
+			final String sentence = preprocess(naturalLanguageRule);
+
+			long start = System.nanoTime();
+			final DependencyGraph plainGraph = plain.parseNaturalLanguage(sentence);
+			final long plainNanos = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			final DependencyGraph preTaggedGraph = preTagged.parseNaturalLanguage(sentence);
+			final long preTaggedNanos = System.nanoTime() - start;
+
+			final int bucket = plainGraph.size() / BUCKET_TOKENS * BUCKET_TOKENS;
+			long[] latency = latencies.get(bucket);
+			if (latency == null) {
+				latency = new long[3];
+				latencies.put(bucket, latency);
+			}
+			latency[0] += plainNanos;
+			latency[1] += preTaggedNanos;
+			latency[2]++;
+
+			final String plainRules = assemble(plainGraph, ontologySnapshot);
+			final String preTaggedRules = assemble(preTaggedGraph, ontologySnapshot);
+			if (plainRules.equals(preTaggedRules)) {
+				equivalent++;
+			} else {
+				System.out.println("differs: " + naturalLanguageRule);
+				System.out.println("  plain:      " + plainRules);
+				System.out.println("  pre-tagged: " + preTaggedRules);
+			}
+		}
+
+		System.out.println("tokens\tsentences\tplain ms\tpre-tagged ms\tspeed-up");
+		for (final Map.Entry<Integer, long[]> entry : latencies.entrySet()) {
+			final long[] latency = entry.getValue();
+			System.out.println(String.format("%d-%d\t%d\t%.1f\t%.1f\t%.2fx", entry.getKey(), entry.getKey() + BUCKET_TOKENS - 1,
+					latency[2], latency[0] / 1e6 / latency[2], latency[1] / 1e6 / latency[2], (double) latency[0] / latency[1]));
+		}
+		System.out.println("equivalent rules: " + equivalent + "/" + naturalLanguageRules.size());
+	}
+
+	/**
+	 * The same as the rule service does, i.e. "The" at the beginning and "." at the end.
+	 */
+	private static String preprocess(final String naturalLanguageRule) {
+		return (naturalLanguageRule.toLowerCase().startsWith("the") ? "" : "The ") + naturalLanguageRule
+				+ (naturalLanguageRule.endsWith(".") ? "" : ".");
+	}
+
+	private static String assemble(final DependencyGraph graph, final OntologySnapshot ontologySnapshot) {
+		try {
+			return Arrays.toString(new JenaRulesProcessor(graph, ontologySnapshot).assembleRule());
+		} catch (final RuntimeException e) {
+			return e.getMessage();
+		}
+	}
+}
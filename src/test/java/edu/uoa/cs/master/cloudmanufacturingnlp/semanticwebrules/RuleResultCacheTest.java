@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.dictionary.DictionaryService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.RuleResultCache;
+
+/**
+ * @author pingz
+ *
+ */
+public class RuleResultCacheTest {
+
+	@Test
+	public void testCanonicalizesTrivialVariations() {
+		final String canonicalRule = "CompanyF shares resources with NZ-based companies";
+
+		assertThat(RuleResultCache.canonicalize("CompanyF shares resources with NZ-based companies")).isEqualTo(canonicalRule);
+		assertThat(RuleResultCache.canonicalize("The CompanyF shares resources with NZ-based companies.")).isEqualTo(canonicalRule);
+		assertThat(RuleResultCache.canonicalize(" \"The CompanyF  shares resources with NZ-based companies.\" ")).isEqualTo(canonicalRule);
+	}
+
+	@Test
+	public void testKeepsSignificantDifferences() {
+		assertThat(RuleResultCache.canonicalize("CompanyF shares resources with NZ-based companies;")).isNotEqualTo(
+				RuleResultCache.canonicalize("CompanyF shares resources with NZ-based companies"));
+		assertThat(RuleResultCache.canonicalize("Theme shares resources")).isEqualTo("Theme shares resources");
+		assertThat(RuleResultCache.canonicalize("The theme shares resources")).isEqualTo("The theme shares resources");
+	}
+
+	@Test
+	public void testKeepsCase() {
+		// the names are copied into the generated rules as they are written, e.g. (?org manuservice:name 'companyA')
+		assertThat(RuleResultCache.canonicalize("The companyA shares resources with companies")).isNotEqualTo(
+				RuleResultCache.canonicalize("The CompanyA shares resources with companies"));
+		assertThat(RuleResultCache.canonicalize("the CompanyA shares resources with companies")).isEqualTo(
+				"the CompanyA shares resources with companies");
+	}
+
+	@Test
+	public void testEmptiesOnDictionaryChange() {
+		final RuleResultCache cache = RuleResultCache.getInstance();
+		final OntologySnapshot snapshot = OntologySnapshot.getInstance();
+		final String[] rules = new String[] { "[r: (?x manuservice:hasAccessTo ?y) <- (?x manuservice:hasResource ?y)]" };
+
+		cache.put("CompanyF shares resources with companies", snapshot, "test", rules);
+		assertThat(cache.get("The CompanyF shares resources with companies.", snapshot, "test")).isEqualTo(rules);
+
+		DictionaryService.clearSynonymCaches();
+		assertThat(cache.get("CompanyF shares resources with companies", snapshot, "test")).isNull();
+	}
+}
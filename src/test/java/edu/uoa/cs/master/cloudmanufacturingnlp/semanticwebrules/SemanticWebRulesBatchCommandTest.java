@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRuleResult;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRulesBatchCommand;
+
+/**
+ * @author pingz
+ *
+ */
+public class SemanticWebRulesBatchCommandTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Stands in for the pipeline: a rule is converted to itself in upper case, and a rule starting with "bad" fails.
+	 */
+	private static class FakeBatchCommand extends SemanticWebRulesBatchCommand {
+		private final AtomicInteger remaining;
+
+		FakeBatchCommand(final File input, final File output, final int failAfter) {
+			super(input, output, 4, 3);
+			this.remaining = new AtomicInteger(failAfter);
+		}
+
+		@Override
+		protected SemanticWebRuleResult process(final String naturalLanguageRule) {
+			if (this.remaining.decrementAndGet() < 0) {
+				throw new IllegalStateException("interrupted");
+			}
+			if (naturalLanguageRule.startsWith("bad")) {
+				return SemanticWebRuleResult.failure(naturalLanguageRule, "Error: " + naturalLanguageRule);
+			}
+			return SemanticWebRuleResult.success(naturalLanguageRule, new String[] { naturalLanguageRule.toUpperCase() });
+		}
+	}
+
+	private File writeInput() throws IOException {
+		final List<String> lines = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			lines.add((i % 4 == 0) ? "bad rule " + i : "rule " + i);
+		}
+		lines.add(2, "");
+		lines.add(5, "// comment");
+
+		final File input = this.folder.newFile("rules.txt");
+		Files.write(input.toPath(), lines, StandardCharsets.UTF_8);
+		return input;
+	}
+
+	@Test
+	public void testOutputInInputOrder() throws IOException {
+		final File input = writeInput();
+		final File output = new File(this.folder.getRoot(), "jenarules.tsv");
+
+		final FakeBatchCommand command = new FakeBatchCommand(input, output, Integer.MAX_VALUE);
+		assertThat(command.run()).isEqualTo(10);
+		assertThat(command.getErrorCount()).isEqualTo(2);
+
+		final List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+		assertThat(lines).hasSize(10);
+		assertThat(lines.get(0)).isEqualTo("1\tOK\tRULE 1");
+		assertThat(lines.get(2)).isEqualTo("4\tOK\tRULE 3");
+		assertThat(lines.get(3)).isEqualTo("5\tERROR\tError: bad rule 4");
+		assertThat(lines.get(9)).isEqualTo("12\tOK\tRULE 10");
+		assertThat(new File(output.getPath() + ".checkpoint")).doesNotExist();
+	}
+
+	@Test
+	public void testResumeAfterInterruption() throws IOException {
+		final File input = writeInput();
+		final File expected = new File(this.folder.getRoot(), "expected.tsv");
+		new FakeBatchCommand(input, expected, Integer.MAX_VALUE).run();
+
+		final File output = new File(this.folder.getRoot(), "jenarules.tsv");
+		try {
+			new FakeBatchCommand(input, output, 5).run();
+			fail("the run should have been interrupted");
+		} catch (final IllegalStateException e) {
+			// expected
+		}
+		assertThat(new File(output.getPath() + ".checkpoint")).exists();
+
+		// a line written after the last checkpoint is dropped on resume
+		Files.write(output.toPath(), Arrays.asList("7\tOK\tpartial"), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		final FakeBatchCommand command = new FakeBatchCommand(input, output, Integer.MAX_VALUE);
+		assertThat(command.run()).isLessThan(10);
+		assertThat(Files.readAllLines(output.toPath(), StandardCharsets.UTF_8))
+				.isEqualTo(Files.readAllLines(expected.toPath(), StandardCharsets.UTF_8));
+		assertThat(new File(output.getPath() + ".checkpoint")).doesNotExist();
+	}
+}
@@ -82,6 +82,10 @@ public abstract class SemanticWebRulesTest {
 		PrintUtil.registerPrefix("manuservice", Constants.Ontology.NS_MC);
 		final InfModel infModel = JenaInfModelManager.getInstance().createInfModelByRules(semanticRules);
 
+		testRules(semanticRules, expectedValue, infModel);
+	}
+
+	protected void testRules(final String[] semanticRules, final Map<String, Integer> expectedValue, final InfModel infModel) {
 		testRules(expectedValue, infModel);
 	}
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.DependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.PcfgDependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.StanfordDependencies;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.nlp.TemplateDependencyParserBackend;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.OntologySnapshot;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.SemanticWebRulesService;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Run the natural language rules of {@link TestCases}, of the {@link TestingRulesGenerator} grammar, and their variants the templates
+ * accept, e.g. "lower than" or no "(out of 10.0)", through the PCFG parser, with and without the template fast path: every rule the
+ * templates match must generate the same Jena rules, and neither path may fail on it. The rules the templates leave to the parser
+ * are parsed the same way on both paths.
+ *
+ * It parses some 1100 rules twice, so it runs with -P corpus only, and it needs the WordNet dictionary, e.g.
+ * -Dcloudmanufacturingnlp.wordnet.dictionaryPath=$HOME/WordNet-3.0/dict.
+ *
+ * @author pingz
+ *
+ */
+public class TemplateFastPathTest {
+
+	private static final String NO_RULES = "<no rules>";
+
+	@Before
+	public void setup() {
+		Constants.LOCAL_BASE = Constants.FilePath.LOCAL_BASE_JAVA;
+	}
+
+	@Test
+	public void testGeneratesSameRulesAsParser() {
+		final Set<String> naturalLanguageRules = new LinkedHashSet<>();
+		for (final Map<String, Map<String, Integer>> testCase : TestCases.cases) {
+			naturalLanguageRules.addAll(testCase.keySet());
+		}
+		final List<String> generatedRules = TestingRulesGenerator.generateRules(new Random(1));
+		naturalLanguageRules.addAll(generatedRules);
+		naturalLanguageRules.addAll(generateVariants(generatedRules));
+
+		final OntologySnapshot ontologySnapshot = OntologySnapshot.getInstance();
+		final DependencyParserBackend pcfg = StanfordDependencies.createBackend(PcfgDependencyParserBackend.NAME);
+		final TemplateDependencyParserBackend template = new TemplateDependencyParserBackend(pcfg);
+
+		final List<String> differentRules = new ArrayList<>();
+		final List<String> failedRules = new ArrayList<>();
+		int matched = 0;
+		for (final String naturalLanguageRule : naturalLanguageRules) {
+			if (template.match(SemanticWebRulesService.preprocessRule(naturalLanguageRule)) == null) {
+				// left to the parser on both paths
+				continue;
+			}
+			matched++;
+
+			final String pcfgRules = process(pcfg, ontologySnapshot, naturalLanguageRule, failedRules);
+			final String templateRules = process(template, ontologySnapshot, naturalLanguageRule, failedRules);
+			if (!pcfgRules.equals(templateRules)) {
+				differentRules.add(naturalLanguageRule + "\n  pcfg:     " + pcfgRules + "\n  template: " + templateRules);
+			}
+		}
+
+		System.out.println("template fast path: " + template + ", matched " + matched + " out of " + naturalLanguageRules.size());
+		assertThat(failedRules).isEmpty();
+		assertThat(differentRules).isEmpty();
+		assertThat(matched).isGreaterThan(naturalLanguageRules.size() * 9 / 10);
+	}
+
+	/**
+	 * @param rules
+	 * @return the rules with a lower case "the", with no scale of the credit rating, or with another comparative
+	 */
+	private static List<String> generateVariants(final List<String> rules) {
+		final List<String> variants = new ArrayList<>();
+		for (final String rule : rules) {
+			variants.add("the " + rule);
+			if (rule.contains("higher than")) {
+				variants.add(rule.replace(" (out of 10.0)", ""));
+				variants.add(rule.replace("higher than", "lower than"));
+			}
+			if (rule.contains("more than")) {
+				variants.add(rule.replace("more than", "less than"));
+				variants.add(rule.replace("more than", "fewer than"));
+			}
+			if (rule.contains("NZ-based company ")) {
+				variants.add(rule.replace("NZ-based company ", "NZ-based companies "));
+			}
+		}
+		return variants;
+	}
+
+	private static String process(final DependencyParserBackend backend, final OntologySnapshot ontologySnapshot,
+			final String naturalLanguageRule, final List<String> failedRules) {
+		try {
+			final String[] jenaRules = new SemanticWebRulesService(ontologySnapshot, backend).process(naturalLanguageRule);
+			if (jenaRules == null) {
+				failedRules.add(naturalLanguageRule + "\n  " + backend.getName() + ": " + NO_RULES);
+				return NO_RULES;
+			}
+			return Arrays.toString(jenaRules);
+		} catch (final RuntimeException e) {
+			failedRules.add(naturalLanguageRule + "\n  " + backend.getName() + ": " + e);
+			return String.valueOf(e.getMessage());
+		}
+	}
+}
@@ -101,9 +101,16 @@ public class TestingRulesGenerator {
 		return rules;
 	}
 
-	private static List<String> replaceVariables(final List<String> rules) {
+	/**
+	 * @param random
+	 * @return every rule of the grammar, with its variables replaced
+	 */
+	public static List<String> generateRules(final Random random) {
+		return replaceVariables(assembleRules(), random);
+	}
+
+	private static List<String> replaceVariables(final List<String> rules, final Random random) {
 		final List<String> finalRules = new ArrayList<>();
-		final Random random = new Random();
 
 		for (final String rule : rules) {
 			final int randomValue = random.nextInt(4) + 5;
@@ -114,7 +121,7 @@ public class TestingRulesGenerator {
 				final int length = "Company".length();
 				final String company = rule.substring(length, length + 1);
 
-				final String companies = buildCompanies(company);
+				final String companies = buildCompanies(company, random);
 				finalRule = rule.replace(PARAM_COMPANY, companies);
 			}
 			// replace $OPERATION_YEARS
@@ -138,8 +145,7 @@ public class TestingRulesGenerator {
 		return finalRules;
 	}
 
-	private static String buildCompanies(final String owner) {
-		final Random random = new Random();
+	private static String buildCompanies(final String owner, final Random random) {
 		String companies = "";
 
 		// 1) i.e., A and B; 2) i.e., A, B, and E;
@@ -175,8 +181,7 @@ public class TestingRulesGenerator {
 	public static void main(final String[] args) {
 		final Random random = new Random();
 
-		final List<String> rules = assembleRules();
-		final List<String> finalRules = replaceVariables(rules);
+		final List<String> finalRules = generateRules(random);
 
 		final List<String> selectedRules = new ArrayList<>();
 		final List<Integer> selectedList = new ArrayList<>();
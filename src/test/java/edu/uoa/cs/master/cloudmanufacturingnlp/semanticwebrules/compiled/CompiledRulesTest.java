@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules.compiled;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.InfModel;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.JenaInfModelManager;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.ontology.TripleIndex;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.CompiledRule;
+import edu.uoa.cs.master.cloudmanufacturingnlp.business.semanticwebrules.jena.JenaRuleCompiler;
+import edu.uoa.cs.master.cloudmanufacturingnlp.semanticwebrules.SemanticWebRulesTest;
+import edu.uoa.cs.master.cloudmanufacturingnlp.util.Constants;
+
+/**
+ * Differential test: each generated rule which compiles must derive the same statements as the Jena reasoner.
+ *
+ * @author pingz
+ *
+ */
+public class CompiledRulesTest extends SemanticWebRulesTest {
+
+	private final List<String> mismatchedRules = new ArrayList<>();
+	private TripleIndex index;
+	private int compiledCount;
+	private int ruleCount;
+
+	@Override
+	protected void testRules(final String[] semanticRules, final Map<String, Integer> expectedValue, final InfModel infModel) {
+		if (this.index == null) {
+			this.index = new TripleIndex(JenaInfModelManager.getInstance().copyBaseModel());
+		}
+
+		for (final String rule : semanticRules) {
+			this.ruleCount++;
+			final CompiledRule compiledRule = JenaRuleCompiler.compile(rule);
+			if (compiledRule == null) {
+				continue;
+			}
+			this.compiledCount++;
+
+			final Set<Triple> expectedTriples = new HashSet<>();
+			final InfModel ruleInfModel = JenaInfModelManager.getInstance().createInfModelByRules(new String[] { rule });
+			for (final StmtIterator it = JenaInfModelManager.getInstance().listStatements(ruleInfModel, "",
+					Constants.Ontology.NS_MC + "hasAccessTo", ""); it.hasNext();) {
+				expectedTriples.add(it.nextStatement().asTriple());
+			}
+
+			if (!compiledRule.derive(this.index).equals(expectedTriples)) {
+				this.mismatchedRules.add(rule);
+			}
+		}
+	}
+
+	@Override
+	protected void testRules(final Map<String, Integer> expectedValue, final InfModel infModel) {
+	}
+
+	@After
+	public void verifyCompiledRules() {
+		System.out.println(this.compiledCount + " out of " + this.ruleCount + " rules compiled");
+		assertThat(this.mismatchedRules).isEmpty();
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * @author pingz
+ *
+ */
+public class BoundedCacheTest {
+
+	@Test
+	public void testHitsAndMisses() {
+		final BoundedCache<String, Boolean> cache = new BoundedCache<>(10);
+
+		assertThat(cache.get("share\thasaccessto")).isNull();
+		cache.put("share\thasaccessto", Boolean.TRUE);
+		assertThat(cache.get("share\thasaccessto")).isTrue();
+
+		assertThat(cache.getHitCount()).isEqualTo(1);
+		assertThat(cache.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() {
+		final BoundedCache<String, String> cache = new BoundedCache<>(2);
+
+		cache.put("companyA", "A");
+		cache.put("companyB", "B");
+		cache.get("companyA");
+		cache.put("companyC", "C");
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get("companyA")).isEqualTo("A");
+		assertThat(cache.get("companyB")).isNull();
+		assertThat(cache.get("companyC")).isEqualTo("C");
+	}
+
+	@Test
+	public void testExpiresAfterTimeToLive() throws InterruptedException {
+		final BoundedCache<String, String> cache = new BoundedCache<>(10, 20);
+
+		cache.put("companyA", "A");
+		assertThat(cache.get("companyA")).isEqualTo("A");
+
+		Thread.sleep(40);
+		assertThat(cache.get("companyA")).isNull();
+		assertThat(cache.size()).isEqualTo(0);
+		assertThat(cache.getExpiredCount()).isEqualTo(1);
+	}
+}
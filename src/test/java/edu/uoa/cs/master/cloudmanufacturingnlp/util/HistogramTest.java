@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015 The University of Auckland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Ping Zhao (pzha291@aucklanduni.ac.nz)
+ * Created: 2015-06-10
+ * Last Updated: --
+ */
+package edu.uoa.cs.master.cloudmanufacturingnlp.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * @author pingz
+ *
+ */
+public class HistogramTest {
+
+	@Test
+	public void testQuantiles() {
+		final Histogram histogram = new Histogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+
+		assertThat(histogram.getQuantiles(0.5, 0.95, 0.99)).containsExactly(50, 95, 99);
+		assertThat(histogram.getCount()).isEqualTo(100);
+		assertThat(histogram.getSum()).isEqualTo(5050);
+	}
+
+	@Test
+	public void testQuantilesOverMostRecentSamples() {
+		final Histogram histogram = new Histogram(10);
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+
+		assertThat(histogram.getQuantiles(0.5)).containsExactly(95);
+		assertThat(histogram.getCount()).isEqualTo(100);
+	}
+
+	@Test
+	public void testEmpty() {
+		assertThat(new Histogram().getQuantiles(0.5, 0.99)).containsExactly(0, 0);
+	}
+
+	@Test
+	public void testConcurrentRecording() throws InterruptedException {
+		final Histogram histogram = new Histogram(100);
+		final Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 1; j <= 10000; j++) {
+						histogram.record(j % 10);
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(histogram.getCount()).isEqualTo(40000);
+		assertThat(histogram.getSum()).isEqualTo(4 * 45000);
+		assertThat(histogram.getQuantiles(1.0)[0]).isEqualTo(9);
+	}
+}